@@ -25,6 +25,9 @@
 
 package java.io;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
@@ -89,16 +92,18 @@ public class ObjectStreamClass implements Serializable {
 
     private static class Caches {
         /** cache mapping local classes -> descriptors */
-        static final ConcurrentMap<WeakClassKey,Reference<?>> localDescs =
-            new ConcurrentHashMap<>();
+        static final ClassCache<ObjectStreamClass> localDescs =
+            new ClassCache<>() {
+                @Override
+                protected ObjectStreamClass computeValue(Class<?> type) {
+                    return new ObjectStreamClass(type);
+                }
+            };
 
         /** cache mapping field group/local desc pairs -> field reflectors */
         static final ConcurrentMap<FieldReflectorKey,Reference<?>> reflectors =
             new ConcurrentHashMap<>();
 
-        /** queue for WeakReferences to local classes */
-        private static final ReferenceQueue<Class<?>> localDescsQueue =
-            new ReferenceQueue<>();
         /** queue for WeakReferences to field reflectors keys */
         private static final ReferenceQueue<Class<?>> reflectorsQueue =
             new ReferenceQueue<>();
@@ -171,6 +176,11 @@ public class ObjectStreamClass implements Serializable {
     private int numObjFields;
     /** reflector for setting/getting serializable field values */
     private FieldReflector fieldRefl;
+    /**
+     * reflector last matched against stream fields by a class descriptor
+     * bound to this local descriptor
+     */
+    private volatile MatchedReflector matchedRefl;
     /** data layout of serialized objects described by this class desc */
     private volatile ClassDataSlot[] dataLayout;
 
@@ -325,70 +335,44 @@ public class ObjectStreamClass implements Serializable {
         if (!(all || Serializable.class.isAssignableFrom(cl))) {
             return null;
         }
-        processQueue(Caches.localDescsQueue, Caches.localDescs);
-        WeakClassKey key = new WeakClassKey(cl, Caches.localDescsQueue);
-        Reference<?> ref = Caches.localDescs.get(key);
-        Object entry = null;
-        if (ref != null) {
-            entry = ref.get();
-        }
-        EntryFuture future = null;
-        if (entry == null) {
-            EntryFuture newEntry = new EntryFuture();
-            Reference<?> newRef = new SoftReference<>(newEntry);
-            do {
-                if (ref != null) {
-                    Caches.localDescs.remove(key, ref);
-                }
-                ref = Caches.localDescs.putIfAbsent(key, newRef);
-                if (ref != null) {
-                    entry = ref.get();
+        return Caches.localDescs.get(cl);
+    }
+
+    /**
+     * Cache of values computed from classes.  It is backed by a ClassValue,
+     * so a lookup neither allocates a key nor polls a reference queue, and an
+     * entry goes away together with its class.  Values are held by soft
+     * references and recomputed if cleared.  Nested lookups of a class whose
+     * value is being computed by the same thread (see 4803747) compute the
+     * value again instead of waiting for it; ClassValue keeps the first
+     * value installed.
+     */
+    private abstract static class ClassCache<T> {
+
+        private final ClassValue<SoftReference<T>> map =
+            new ClassValue<>() {
+                @Override
+                protected SoftReference<T> computeValue(Class<?> type) {
+                    return new SoftReference<>(
+                        ClassCache.this.computeValue(type));
                 }
-            } while (ref != null && entry == null);
-            if (entry == null) {
-                future = newEntry;
-            }
-        }
+            };
 
-        if (entry instanceof ObjectStreamClass) {  // check common case first
-            return (ObjectStreamClass) entry;
-        }
-        if (entry instanceof EntryFuture) {
-            future = (EntryFuture) entry;
-            if (future.getOwner() == Thread.currentThread()) {
-                /*
-                 * Handle nested call situation described by 4803747: waiting
-                 * for future value to be set by a lookup() call further up the
-                 * stack will result in deadlock, so calculate and set the
-                 * future value here instead.
-                 */
-                entry = null;
-            } else {
-                entry = future.get();
-            }
-        }
-        if (entry == null) {
-            try {
-                entry = new ObjectStreamClass(cl);
-            } catch (Throwable th) {
-                entry = th;
-            }
-            if (future.set(entry)) {
-                Caches.localDescs.put(key, new SoftReference<>(entry));
-            } else {
-                // nested lookup call already set future
-                entry = future.get();
-            }
-        }
+        /**
+         * Computes the value cached for the given class.
+         */
+        protected abstract T computeValue(Class<?> type);
 
-        if (entry instanceof ObjectStreamClass) {
-            return (ObjectStreamClass) entry;
-        } else if (entry instanceof RuntimeException) {
-            throw (RuntimeException) entry;
-        } else if (entry instanceof Error) {
-            throw (Error) entry;
-        } else {
-            throw new InternalError("unexpected entry: " + entry);
+        /**
+         * Returns the value cached for the given class, computing it first
+         * if necessary.
+         */
+        T get(Class<?> cl) {
+            T value;
+            while ((value = map.get(cl).get()) == null) {
+                map.remove(cl);
+            }
+            return value;
         }
     }
 
@@ -669,7 +653,9 @@ public class ObjectStreamClass implements Serializable {
             cons = localDesc.cons;
         }
 
-        fieldRefl = getReflector(fields, localDesc);
+        fieldRefl = (localDesc != null) ?
+            localDesc.getMatchedReflector(fields) :
+            getReflector(fields, null);
         // reassign to matched fields so as to reflect local unshared settings
         fields = fieldRefl.getFields();
         initialized = true;
@@ -1852,13 +1838,33 @@ public class ObjectStreamClass implements Serializable {
 
     /**
      * Class for setting and retrieving serializable field values in batch.
+     * Once a reflector has been used {@code INFLATION_THRESHOLD} times, the
+     * primitive field copies and the object field reads are done by method
+     * handles composed for its fields, see {@link Accessors}, instead of by
+     * loops over the field keys.
      */
-    // REMIND: dynamically generate these?
     private static class FieldReflector {
 
         /** handle for performing unsafe operations */
         private static final Unsafe unsafe = Unsafe.getUnsafe();
 
+        /**
+         * number of batch operations after which the accessors are
+         * composed, so that the classes serialized only a few times do
+         * not pay for it (as with the inflation of reflective accessors)
+         */
+        private static final int INFLATION_THRESHOLD = 15;
+        /**
+         * largest number of fields for which accessors are composed; each
+         * field adds a level of method handle nesting
+         */
+        private static final int MAX_ACCESSOR_FIELDS = 64;
+
+        /** batch operations performed before the accessors were composed */
+        private int uses;           // racy: at worst they are composed twice
+        /** composed accessors, null until inflated */
+        private volatile Accessors accessors;
+
         /** fields to operate on */
         private final ObjectStreamField[] fields;
         /** number of primitive fields */
@@ -1909,6 +1915,21 @@ public class ObjectStreamClass implements Serializable {
 
             types = typeList.toArray(new Class<?>[typeList.size()]);
             numPrimFields = nfields - types.length;
+            if (nfields > MAX_ACCESSOR_FIELDS) {
+                uses = Integer.MIN_VALUE;   // never inflate
+            }
+        }
+
+        /**
+         * Returns the composed accessors, composing them if this reflector
+         * has been used often enough, or null.
+         */
+        private Accessors accessors() {
+            Accessors acc = accessors;
+            if (acc == null && ++uses > INFLATION_THRESHOLD) {
+                acc = accessors = new Accessors(this);
+            }
+            return acc;
         }
 
         /**
@@ -1934,6 +1955,11 @@ public class ObjectStreamClass implements Serializable {
              * descriptor this FieldReflector was obtained from, no field keys
              * in array should be equal to Unsafe.INVALID_FIELD_OFFSET.
              */
+            Accessors acc = accessors();
+            if (acc != null) {
+                acc.getPrimFieldValues(obj, buf);
+                return;
+            }
             for (int i = 0; i < numPrimFields; i++) {
                 long key = readKeys[i];
                 int off = offsets[i];
@@ -1985,6 +2011,11 @@ public class ObjectStreamClass implements Serializable {
             if (obj == null) {
                 throw new NullPointerException();
             }
+            Accessors acc = accessors();
+            if (acc != null) {
+                acc.setPrimFieldValues(obj, buf);
+                return;
+            }
             for (int i = 0; i < numPrimFields; i++) {
                 long key = writeKeys[i];
                 if (key == Unsafe.INVALID_FIELD_OFFSET) {
@@ -2043,6 +2074,11 @@ public class ObjectStreamClass implements Serializable {
              * descriptor this FieldReflector was obtained from, no field keys
              * in array should be equal to Unsafe.INVALID_FIELD_OFFSET.
              */
+            Accessors acc = accessors();
+            if (acc != null) {
+                acc.getObjFieldValues(obj, vals);
+                return;
+            }
             for (int i = numPrimFields; i < fields.length; i++) {
                 switch (typeCodes[i]) {
                     case 'L':
@@ -2112,6 +2148,193 @@ public class ObjectStreamClass implements Serializable {
         }
     }
 
+    /**
+     * Method handles, composed for the fields of a {@code FieldReflector},
+     * which copy all its primitive fields to or from a byte array, and read
+     * all its object fields into an array, in a single invocation.  The
+     * offsets and the type of each field are bound into the handles, so the
+     * per-field loads of keys and offsets and the switch on the type code
+     * go away.
+     * <p>
+     * The field accessors are the {@code Unsafe} methods used by the
+     * reflector loops, bound to the field offsets, rather than
+     * {@code Lookup} getters and setters: serializable fields are commonly
+     * private, final, or declared in packages that are not open to this
+     * module, none of which stops serialization.
+     */
+    private static final class Accessors {
+
+        private static final MethodType PRIM_TYPE =
+            MethodType.methodType(void.class, Object.class, byte[].class);
+        private static final MethodType OBJ_TYPE =
+            MethodType.methodType(void.class, Object.class, Object[].class);
+
+        /** (Object obj, byte[] buf)void, see getPrimFieldValues */
+        private final MethodHandle primGetter;
+        /** (Object obj, byte[] buf)void, see setPrimFieldValues */
+        private final MethodHandle primSetter;
+        /** (Object obj, Object[] vals)void, see getObjFieldValues */
+        private final MethodHandle objGetter;
+
+        Accessors(FieldReflector refl) {
+            MethodHandle getPrims = MethodHandles.empty(PRIM_TYPE);
+            MethodHandle setPrims = MethodHandles.empty(PRIM_TYPE);
+            MethodHandle getObjs = MethodHandles.empty(OBJ_TYPE);
+            try {
+                // folded from the last field, so they run in field order
+                for (int i = refl.fields.length - 1; i >= 0; i--) {
+                    char tc = refl.typeCodes[i];
+                    int off = refl.offsets[i];
+                    if (i >= refl.numPrimFields) {
+                        getObjs = MethodHandles.foldArguments(getObjs,
+                            objGetter(refl.readKeys[i], off));
+                        continue;
+                    }
+                    getPrims = MethodHandles.foldArguments(getPrims,
+                        primGetter(tc, refl.readKeys[i], off));
+                    long key = refl.writeKeys[i];
+                    if (key != Unsafe.INVALID_FIELD_OFFSET) {
+                        setPrims = MethodHandles.foldArguments(setPrims,
+                            primSetter(tc, key, off));
+                    }
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new InternalError(e);
+            }
+            this.primGetter = getPrims;
+            this.primSetter = setPrims;
+            this.objGetter = getObjs;
+        }
+
+        void getPrimFieldValues(Object obj, byte[] buf) {
+            try {
+                primGetter.invokeExact(obj, buf);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new InternalError(t);
+            }
+        }
+
+        void setPrimFieldValues(Object obj, byte[] buf) {
+            try {
+                primSetter.invokeExact(obj, buf);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new InternalError(t);
+            }
+        }
+
+        void getObjFieldValues(Object obj, Object[] vals) {
+            try {
+                objGetter.invokeExact(obj, vals);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new InternalError(t);
+            }
+        }
+
+        /**
+         * Returns (Object obj, byte[] buf)void storing the field at the
+         * given key of obj into buf at the given offset.
+         */
+        private static MethodHandle primGetter(char tc, long key, int off)
+            throws ReflectiveOperationException
+        {
+            Class<?> type = primitiveType(tc);
+            MethodHandle get = unsafeAccessor("get", type,
+                MethodType.methodType(type, Object.class, long.class));
+            get = MethodHandles.insertArguments(get, 1, key);
+            MethodHandle put = (tc == 'B')
+                ? MethodHandles.arrayElementSetter(byte[].class)
+                : MethodHandles.lookup().findStatic(Bits.class,
+                    "put" + accessorSuffix(type),
+                    MethodType.methodType(void.class, byte[].class, int.class, type));
+            put = MethodHandles.insertArguments(put, 1, off);
+            // (byte[] buf, Object obj)void
+            MethodHandle mh = MethodHandles.filterArguments(put, 1, get);
+            return MethodHandles.permuteArguments(mh, PRIM_TYPE, 1, 0);
+        }
+
+        /**
+         * Returns (Object obj, byte[] buf)void setting the field at the
+         * given key of obj to the value in buf at the given offset.
+         */
+        private static MethodHandle primSetter(char tc, long key, int off)
+            throws ReflectiveOperationException
+        {
+            Class<?> type = primitiveType(tc);
+            MethodHandle get = (tc == 'B')
+                ? MethodHandles.arrayElementGetter(byte[].class)
+                : MethodHandles.lookup().findStatic(Bits.class,
+                    "get" + accessorSuffix(type),
+                    MethodType.methodType(type, byte[].class, int.class));
+            get = MethodHandles.insertArguments(get, 1, off);
+            MethodHandle put = unsafeAccessor("put", type,
+                MethodType.methodType(void.class, Object.class, long.class, type));
+            put = MethodHandles.insertArguments(put, 1, key);
+            return MethodHandles.filterArguments(put, 1, get);
+        }
+
+        /**
+         * Returns (Object obj, Object[] vals)void storing the field at the
+         * given key of obj into vals at the given index.
+         */
+        private static MethodHandle objGetter(long key, int index)
+            throws ReflectiveOperationException
+        {
+            MethodHandle get = unsafeAccessor("get", Object.class,
+                MethodType.methodType(Object.class, Object.class, long.class));
+            get = MethodHandles.insertArguments(get, 1, key);
+            MethodHandle set = MethodHandles.arrayElementSetter(Object[].class);
+            set = MethodHandles.insertArguments(set, 1, index);
+            // (Object[] vals, Object obj)void
+            MethodHandle mh = MethodHandles.filterArguments(set, 1, get);
+            return MethodHandles.permuteArguments(mh, OBJ_TYPE, 1, 0);
+        }
+
+        /**
+         * Returns the given Unsafe get or put method for the given type,
+         * bound to the Unsafe instance.
+         */
+        private static MethodHandle unsafeAccessor(String op, Class<?> type,
+                                                   MethodType mt)
+            throws ReflectiveOperationException
+        {
+            return MethodHandles.lookup()
+                .findVirtual(Unsafe.class, op + accessorSuffix(type), mt)
+                .bindTo(FieldReflector.unsafe);
+        }
+
+        /**
+         * Returns the suffix of the accessor methods for the given type,
+         * e.g. "Int" for int.
+         */
+        private static String accessorSuffix(Class<?> type) {
+            String name = (type == Object.class) ? "Object" : type.getName();
+            return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        }
+
+        /**
+         * Returns the primitive type of the given type code.
+         */
+        private static Class<?> primitiveType(char tc) {
+            switch (tc) {
+                case 'Z': return boolean.class;
+                case 'B': return byte.class;
+                case 'C': return char.class;
+                case 'S': return short.class;
+                case 'I': return int.class;
+                case 'F': return float.class;
+                case 'J': return long.class;
+                case 'D': return double.class;
+                default: throw new InternalError();
+            }
+        }
+    }
+
     /**
      * Matches given set of serializable fields with serializable fields
      * described by the given local class descriptor, and returns a
@@ -2181,6 +2404,59 @@ public class ObjectStreamClass implements Serializable {
         }
     }
 
+    /**
+     * Returns a reflector for the given stream fields matched against this
+     * local class descriptor.  The reflector last returned is remembered, so
+     * that the descriptors read for the same class version, typically one
+     * per stream, do not build a cache key from all field names and
+     * signatures again.
+     */
+    private FieldReflector getMatchedReflector(ObjectStreamField[] fields)
+        throws InvalidClassException
+    {
+        MatchedReflector last = matchedRefl;
+        if (last != null && last.matches(fields)) {
+            return last.reflector;
+        }
+        FieldReflector refl = getReflector(fields, this);
+        matchedRefl = new MatchedReflector(fields, refl);
+        return refl;
+    }
+
+    /**
+     * A field reflector and the stream fields it was matched against.
+     */
+    private static class MatchedReflector {
+
+        private final ObjectStreamField[] fields;
+        final FieldReflector reflector;
+
+        MatchedReflector(ObjectStreamField[] fields, FieldReflector reflector) {
+            this.fields = fields;
+            this.reflector = reflector;
+        }
+
+        /**
+         * Returns true if the given fields have the same names and
+         * signatures, in the same order, as the fields matched by the
+         * reflector; this is the equivalence used by FieldReflectorKey.
+         */
+        boolean matches(ObjectStreamField[] other) {
+            if (other.length != fields.length) {
+                return false;
+            }
+            for (int i = 0; i < fields.length; i++) {
+                ObjectStreamField f = fields[i], o = other[i];
+                if (!f.getName().equals(o.getName()) ||
+                    !f.getSignature().equals(o.getSignature()))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     /**
      * FieldReflector cache lookup key.  Keys are considered equal if they
      * refer to the same class and equivalent field formats.
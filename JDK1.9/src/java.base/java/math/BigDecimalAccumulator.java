@@ -0,0 +1,548 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.math;
+
+import static java.math.BigDecimal.INFLATED;
+import static java.math.BigDecimal.LONG_TEN_POWERS_TABLE;
+import java.util.Arrays;
+import java.util.stream.Collector;
+
+/**
+ * A mutable, arbitrary-precision signed decimal number, used to
+ * accumulate sums and products of {@link BigDecimal} values without
+ * creating a new {@code BigDecimal} for every intermediate result.
+ *
+ * <p>Like a {@code BigDecimal}, an accumulator has an unscaled value and a
+ * scale, and its value is {@code (unscaledValue &times; 10<sup>-scale</sup>)}.
+ * The arithmetic methods follow the rules of the corresponding
+ * {@code BigDecimal} methods, including for the scale of the result, so
+ * that {@link #toBigDecimal} returns a {@code BigDecimal} equal, in both
+ * value and scale, to the one computed by the same sequence of
+ * {@code BigDecimal} operations.  In particular, {@link #add(BigDecimal)
+ * add} leaves the accumulator with the larger of its scale and the scale
+ * of the augend, and {@link #multiply multiply} adds the scales.
+ *
+ * <p>While the unscaled value fits in a {@code long}, the arithmetic
+ * methods only update a {@code long} field.  The part of the value that
+ * does not fit is kept in a magnitude that is updated in place and only
+ * grows when needed, so that accumulating a large number of values
+ * allocates nothing beyond that storage.
+ *
+ * <p>Accumulators are not safe for use by multiple threads.  A
+ * {@link BigDecimalAdder} may be used to sum values from several threads
+ * concurrently.
+ *
+ * <p>Unless otherwise noted, passing a {@code null} argument to a method
+ * in this class will cause a {@link NullPointerException} to be thrown.
+ *
+ * @see     BigDecimal
+ * @see     BigDecimalAdder
+ * @since 10
+ */
+public final class BigDecimalAccumulator {
+    /**
+     * The part of the unscaled value that fits in a long.  The unscaled
+     * value is the sum of this and {@code inflated}.
+     */
+    private long compact;
+
+    /**
+     * The part of the unscaled value that did not fit in {@code compact},
+     * or null if there never was any.  Its sign is 1 when it is zero.
+     */
+    private SignedMutableBigInteger inflated;
+
+    /**
+     * The scale of this accumulator.
+     */
+    private int scale;
+
+    /**
+     * Scratch numbers for scaled operands and products, created on first
+     * use.
+     */
+    private MutableBigInteger operand;
+    private MutableBigInteger product;
+
+    /**
+     * Constructs an accumulator whose value is zero with a scale of zero.
+     */
+    public BigDecimalAccumulator() {
+    }
+
+    /**
+     * Constructs an accumulator with the value and scale of the specified
+     * {@code BigDecimal}.
+     *
+     * @param val initial value of the accumulator.
+     */
+    public BigDecimalAccumulator(BigDecimal val) {
+        set(val);
+    }
+
+    /**
+     * Sets the value and scale of this accumulator to those of the
+     * specified {@code BigDecimal}.
+     *
+     * @param  val new value of this accumulator.
+     * @return this accumulator.
+     */
+    public BigDecimalAccumulator set(BigDecimal val) {
+        long xs = val.intCompact;
+        clearInflated();
+        scale = val.scale();
+        if (xs != INFLATED) {
+            compact = xs;
+        } else {
+            compact = 0;
+            BigInteger intVal = val.intVal;
+            MutableBigInteger mag = operand();
+            mag.copyValue(intVal.mag);
+            addMagnitude(mag, intVal.signum);
+        }
+        return this;
+    }
+
+    /**
+     * Sets this accumulator to zero with a scale of zero.
+     */
+    public void reset() {
+        clearInflated();
+        compact = 0;
+        scale = 0;
+    }
+
+    /**
+     * Adds the specified {@code BigDecimal} to this accumulator.  The
+     * scale of this accumulator becomes {@code max(this.scale(),
+     * augend.scale())}.
+     *
+     * @param  augend value to be added to this accumulator.
+     * @return this accumulator.
+     * @see    BigDecimal#add(BigDecimal)
+     */
+    public BigDecimalAccumulator add(BigDecimal augend) {
+        long xs = augend.intCompact;
+        if (xs != INFLATED) {
+            return add(xs, augend.scale());
+        }
+        int s = augend.scale();
+        if (s > scale) {
+            raiseScale(s);
+        }
+        BigInteger intVal = augend.intVal;
+        MutableBigInteger mag = operand();
+        mag.copyValue(intVal.mag);
+        if (s < scale) {
+            multiplyPowerTen(mag, scaleDifference(scale, s));
+        }
+        addMagnitude(mag, intVal.signum);
+        return this;
+    }
+
+    /**
+     * Adds {@code (unscaledVal &times; 10<sup>-scale</sup>)} to this
+     * accumulator.  This is equivalent to
+     * {@code add(BigDecimal.valueOf(unscaledVal, scale))}, but does not
+     * create a {@code BigDecimal}.
+     *
+     * @param  unscaledVal unscaled value of the number to be added.
+     * @param  scale scale of the number to be added.
+     * @return this accumulator.
+     */
+    public BigDecimalAccumulator add(long unscaledVal, int scale) {
+        if (scale > this.scale) {
+            raiseScale(scale);
+        } else if (scale < this.scale && unscaledVal != 0) {
+            int n = scaleDifference(this.scale, scale);
+            long v = (unscaledVal == Long.MIN_VALUE) ? INFLATED
+                                                     : BigDecimal.longMultiplyPowerTen(unscaledVal, n);
+            if (v == INFLATED) {
+                MutableBigInteger mag = operand();
+                setMagnitude(mag, unscaledVal);
+                multiplyPowerTen(mag, n);
+                addMagnitude(mag, unscaledVal < 0 ? -1 : 1);
+                return this;
+            }
+            unscaledVal = v;
+        }
+        long sum = compact + unscaledVal;
+        if (((sum ^ compact) & (sum ^ unscaledVal)) < 0) {
+            // The sum overflows; move the old value out of the way.
+            spill();
+            compact = unscaledVal;
+        } else {
+            compact = sum;
+        }
+        return this;
+    }
+
+    /**
+     * Adds the value of the specified accumulator to this accumulator.
+     * The scale of this accumulator becomes {@code max(this.scale(),
+     * augend.scale())}.  The specified accumulator is not changed, unless
+     * it is this accumulator.
+     *
+     * @param  augend accumulator whose value is to be added.
+     * @return this accumulator.
+     */
+    public BigDecimalAccumulator add(BigDecimalAccumulator augend) {
+        if (augend == this) {
+            return add(toBigDecimal());
+        }
+        add(augend.compact, augend.scale);
+        SignedMutableBigInteger v = augend.inflated;
+        if (v != null && v.intLen != 0) {
+            MutableBigInteger mag = operand();
+            mag.copyValue(v);
+            if (augend.scale < scale) {
+                multiplyPowerTen(mag, scaleDifference(scale, augend.scale));
+            }
+            addMagnitude(mag, v.sign);
+        }
+        return this;
+    }
+
+    /**
+     * Multiplies this accumulator by the specified {@code BigDecimal}.  The
+     * scale of this accumulator becomes {@code (this.scale() +
+     * multiplicand.scale())}.
+     *
+     * @param  multiplicand value by which this accumulator is multiplied.
+     * @return this accumulator.
+     * @throws ArithmeticException if the new scale is outside the range of
+     *         an {@code int} and the value is not zero.
+     * @see    BigDecimal#multiply(BigDecimal)
+     */
+    public BigDecimalAccumulator multiply(BigDecimal multiplicand) {
+        int newScale = checkScale((long)scale + multiplicand.scale());
+        long y = multiplicand.intCompact;
+        SignedMutableBigInteger v = inflated;
+        if ((v == null || v.intLen == 0) && y != INFLATED) {
+            long lo = compact * y;
+            long hi = Math.multiplyHigh(compact, y);
+            if (hi == (lo >> 63)) {
+                compact = lo;
+                scale = newScale;
+                return this;
+            }
+        }
+
+        spill();
+        v = inflated;
+        scale = newScale;
+        if (v == null || v.intLen == 0 || multiplicand.signum() == 0) {
+            clearInflated();
+            return this;
+        }
+        MutableBigInteger mag = operand();
+        int ysign;
+        if (y != INFLATED) {
+            setMagnitude(mag, y);
+            ysign = (y < 0) ? -1 : 1;
+        } else {
+            mag.copyValue(multiplicand.intVal.mag);
+            ysign = multiplicand.intVal.signum;
+        }
+        MutableBigInteger z = product();
+        v.multiply(mag, z);
+        swapValues(v, z);
+        v.sign *= ysign;
+        return this;
+    }
+
+    /**
+     * Sets the scale of this accumulator, rounding the value if the scale
+     * is reduced.
+     *
+     * @param  newScale new scale of this accumulator.
+     * @param  roundingMode the rounding mode to apply.
+     * @return this accumulator.
+     * @throws ArithmeticException if {@code roundingMode==UNNECESSARY}
+     *         and the specified scaling operation would require
+     *         rounding.
+     * @see    BigDecimal#setScale(int, RoundingMode)
+     */
+    public BigDecimalAccumulator setScale(int newScale, RoundingMode roundingMode) {
+        int mode = roundingMode.oldMode;
+        if (newScale >= scale) {
+            raiseScale(newScale);
+            return this;
+        }
+        long raise = (long)scale - newScale;
+        if ((inflated == null || inflated.intLen == 0) && compact != Long.MIN_VALUE
+            && raise < LONG_TEN_POWERS_TABLE.length) {
+            compact = BigDecimal.divideAndRound(compact, LONG_TEN_POWERS_TABLE[(int)raise], mode);
+            scale = newScale;
+            return this;
+        }
+        return set(toBigDecimal().setScale(newScale, roundingMode));
+    }
+
+    /**
+     * Returns the scale of this accumulator.
+     *
+     * @return the scale of this accumulator.
+     */
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * Returns the signum function of this accumulator.
+     *
+     * @return -1, 0, or 1 as the value of this accumulator is negative,
+     *         zero, or positive.
+     */
+    public int signum() {
+        SignedMutableBigInteger v = inflated;
+        if (v == null || v.intLen == 0) {
+            return Long.signum(compact);
+        }
+        spill();
+        return (v.intLen == 0) ? 0 : v.sign;
+    }
+
+    /**
+     * Returns a {@code BigDecimal} with the value and scale of this
+     * accumulator.
+     *
+     * @return the value of this accumulator as a {@code BigDecimal}.
+     */
+    public BigDecimal toBigDecimal() {
+        SignedMutableBigInteger v = inflated;
+        if (v == null || v.intLen == 0) {
+            return BigDecimal.valueOf(compact, scale);
+        }
+        spill();
+        if (v.intLen == 0) {
+            return BigDecimal.zeroValueOf(scale);
+        }
+        v.normalize();
+        long xs = v.toCompactValue(v.sign);
+        if (xs != INFLATED) {
+            return BigDecimal.valueOf(xs, scale);
+        }
+        // The magnitude array is reused by later operations, so the
+        // BigInteger needs a copy of it.
+        int[] mag = Arrays.copyOfRange(v.value, v.offset, v.offset + v.intLen);
+        return new BigDecimal(new BigInteger(mag, v.sign), INFLATED, scale, 0);
+    }
+
+    /**
+     * Returns the string representation of the value of this accumulator,
+     * as returned by {@link BigDecimal#toString()}.
+     *
+     * @return string representation of this accumulator.
+     */
+    @Override
+    public String toString() {
+        return toBigDecimal().toString();
+    }
+
+    /**
+     * Returns a {@code Collector} that produces the sum of the input
+     * {@code BigDecimal}s, accumulating them in
+     * {@code BigDecimalAccumulator}s.  If no elements are present, the
+     * result is {@link BigDecimal#ZERO}.  The result is equal, in both
+     * value and scale, to {@code reduce(BigDecimal.ZERO, BigDecimal::add)}.
+     *
+     * @return a {@code Collector} that produces the sum of the input
+     *         elements.
+     */
+    public static Collector<BigDecimal, ?, BigDecimal> summing() {
+        return Collector.of(BigDecimalAccumulator::new,
+                            BigDecimalAccumulator::add,
+                            BigDecimalAccumulator::add,
+                            BigDecimalAccumulator::toBigDecimal);
+    }
+
+    // Internals
+
+    /**
+     * Increases the scale of this accumulator to {@code newScale}, which
+     * must not be less than the current scale, without changing its value.
+     */
+    private void raiseScale(int newScale) {
+        if (newScale == scale) {
+            return;
+        }
+        SignedMutableBigInteger v = inflated;
+        boolean inflatedZero = (v == null || v.intLen == 0);
+        if (compact == 0 && inflatedZero) {
+            scale = newScale;
+            return;
+        }
+        int n = scaleDifference(newScale, scale);
+        if (compact != 0) {
+            long xs = (compact == Long.MIN_VALUE) ? INFLATED
+                                                  : BigDecimal.longMultiplyPowerTen(compact, n);
+            if (xs != INFLATED) {
+                compact = xs;
+            } else {
+                spill();
+                inflatedZero = false;
+            }
+        }
+        if (!inflatedZero) {
+            multiplyPowerTen(inflated, n);
+        }
+        scale = newScale;
+    }
+
+    /**
+     * Moves the compact part of the unscaled value into the inflated part.
+     */
+    private void spill() {
+        long xs = compact;
+        if (xs != 0) {
+            MutableBigInteger mag = operand();
+            setMagnitude(mag, xs);
+            addMagnitude(mag, xs < 0 ? -1 : 1);
+            compact = 0;
+        }
+    }
+
+    /**
+     * Adds the magnitude {@code mag} with the specified sign to the
+     * inflated part of the unscaled value.
+     */
+    private void addMagnitude(MutableBigInteger mag, int sign) {
+        SignedMutableBigInteger v = inflated;
+        if (v == null) {
+            inflated = v = new SignedMutableBigInteger();
+        }
+        if (sign > 0) {
+            v.signedAdd(mag);
+        } else {
+            v.signedSubtract(mag);
+        }
+        if (v.intLen == 0) {
+            v.sign = 1;
+        }
+    }
+
+    private void clearInflated() {
+        SignedMutableBigInteger v = inflated;
+        if (v != null) {
+            v.reset();
+            v.sign = 1;
+        }
+    }
+
+    /**
+     * Multiplies {@code m} by ten to the power {@code n} in place.
+     */
+    private void multiplyPowerTen(MutableBigInteger m, int n) {
+        MutableBigInteger z = product();
+        while (n > 0) {
+            // 10^9 is the largest power of ten that fits in an int.
+            int k = Math.min(n, 9);
+            m.mul((int)LONG_TEN_POWERS_TABLE[k], z);
+            swapValues(m, z);
+            n -= k;
+        }
+    }
+
+    private MutableBigInteger operand() {
+        MutableBigInteger m = operand;
+        if (m == null) {
+            operand = m = new MutableBigInteger();
+        }
+        return m;
+    }
+
+    private MutableBigInteger product() {
+        MutableBigInteger m = product;
+        if (m == null) {
+            product = m = new MutableBigInteger();
+        }
+        return m;
+    }
+
+    /**
+     * Sets {@code m} to the magnitude of {@code val}.
+     */
+    private static void setMagnitude(MutableBigInteger m, long val) {
+        // The magnitude of Long.MIN_VALUE is its unsigned value.
+        long mag = (val < 0) ? -val : val;
+        int hi = (int)(mag >>> 32);
+        if (m.value.length < 2) {
+            m.value = new int[2];
+        }
+        m.offset = 0;
+        if (hi != 0) {
+            m.value[0] = hi;
+            m.value[1] = (int)mag;
+            m.intLen = 2;
+        } else {
+            m.value[0] = (int)mag;
+            m.intLen = (mag == 0) ? 0 : 1;
+        }
+    }
+
+    /**
+     * Exchanges the magnitudes of {@code a} and {@code b}, including their
+     * storage.
+     */
+    private static void swapValues(MutableBigInteger a, MutableBigInteger b) {
+        int[] value = a.value;
+        int intLen = a.intLen;
+        int offset = a.offset;
+        a.value = b.value;
+        a.intLen = b.intLen;
+        a.offset = b.offset;
+        b.value = value;
+        b.intLen = intLen;
+        b.offset = offset;
+    }
+
+    /**
+     * Returns {@code larger - smaller}, which must be positive, as an int.
+     */
+    private static int scaleDifference(int larger, int smaller) {
+        long n = (long)larger - smaller;
+        if (n > Integer.MAX_VALUE) {
+            throw new ArithmeticException("Overflow");
+        }
+        return (int)n;
+    }
+
+    /**
+     * Returns {@code val} as an int, saturating it if this accumulator is
+     * zero and throwing if it is not.
+     */
+    private int checkScale(long val) {
+        int asInt = (int)val;
+        if (asInt != val) {
+            asInt = val > Integer.MAX_VALUE ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+            if (signum() != 0) {
+                throw new ArithmeticException(asInt > 0 ? "Underflow" : "Overflow");
+            }
+        }
+        return asInt;
+    }
+}
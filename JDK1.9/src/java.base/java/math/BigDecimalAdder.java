@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.math;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One or more {@link BigDecimalAccumulator}s that together maintain an
+ * initially zero {@code BigDecimal} sum.  When updates (method
+ * {@link #add(BigDecimal) add}) are contended across threads, the set of
+ * accumulators may grow dynamically to reduce contention.  Method
+ * {@link #sum} returns the current total combined across the
+ * accumulators.
+ *
+ * <p>This class is usually preferable to a single accumulator guarded by a
+ * lock when multiple threads update a common sum that is read only
+ * occasionally, for example when aggregating amounts in parallel.  Under
+ * low update contention, the two have similar characteristics.  But under
+ * high contention, expected throughput of this class is significantly
+ * higher, at the expense of higher space consumption.
+ *
+ * <p>As with {@link BigDecimalAccumulator}, the scale of the sum is the
+ * largest scale of the values added, so {@link #sum} is equal, in both
+ * value and scale, to the sum of the same values computed with
+ * {@link BigDecimal#add(BigDecimal)}, regardless of the order in which
+ * the values were added.
+ *
+ * <p>Unless otherwise noted, passing a {@code null} argument to a method
+ * in this class will cause a {@link NullPointerException} to be thrown.
+ *
+ * @see     BigDecimalAccumulator
+ * @see     java.util.concurrent.atomic.LongAdder
+ * @since 10
+ */
+public final class BigDecimalAdder {
+
+    /** Number of CPUS, to place bound on table size */
+    private static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * An accumulator with the lock that guards it.  Padded to reduce
+     * cache contention between cells.
+     */
+    @SuppressWarnings("serial")
+    @jdk.internal.vm.annotation.Contended
+    private static final class Cell extends ReentrantLock {
+        final BigDecimalAccumulator acc = new BigDecimalAccumulator();
+    }
+
+    /**
+     * The cell used while there is no contention.
+     */
+    private final Cell base = new Cell();
+
+    /**
+     * Table of cells, created on the first contended update.  When
+     * non-null, its size is a power of two, at most the smallest power of
+     * two that is not less than NCPU, and every element is non-null.
+     */
+    private volatile Cell[] cells;
+
+    /**
+     * Creates a new adder with initial sum of zero.
+     */
+    public BigDecimalAdder() {
+    }
+
+    /**
+     * Adds the given value.
+     *
+     * @param x the value to add
+     */
+    public void add(BigDecimal x) {
+        Cell c = lock();
+        try {
+            c.acc.add(x);
+        } finally {
+            c.unlock();
+        }
+    }
+
+    /**
+     * Adds {@code (unscaledVal &times; 10<sup>-scale</sup>)}.  This is
+     * equivalent to {@code add(BigDecimal.valueOf(unscaledVal, scale))},
+     * but does not create a {@code BigDecimal}.
+     *
+     * @param unscaledVal unscaled value of the number to add
+     * @param scale scale of the number to add
+     */
+    public void add(long unscaledVal, int scale) {
+        Cell c = lock();
+        try {
+            c.acc.add(unscaledVal, scale);
+        } finally {
+            c.unlock();
+        }
+    }
+
+    /**
+     * Returns the current sum.  The returned value is <em>NOT</em> an
+     * atomic snapshot; invocation in the absence of concurrent updates
+     * returns an accurate result, but concurrent updates that occur while
+     * the sum is being calculated might not be incorporated.
+     *
+     * @return the sum
+     */
+    public BigDecimal sum() {
+        return collect(false);
+    }
+
+    /**
+     * Resets variables maintaining the sum to zero.  This method may be a
+     * useful alternative to creating a new adder, but is only effective if
+     * there are no concurrent updates.  Because this method is
+     * intrinsically racy, it should only be used when it is known that no
+     * threads are concurrently updating.
+     */
+    public void reset() {
+        collect(true);
+    }
+
+    /**
+     * Equivalent in effect to {@link #sum} followed by {@link #reset}.
+     * This method may apply for example during quiescent points between
+     * multithreaded computations.  If there are updates concurrent with
+     * this method, the returned value is <em>not</em> guaranteed to be the
+     * final value occurring before the reset.
+     *
+     * @return the sum
+     */
+    public BigDecimal sumThenReset() {
+        return collect(true);
+    }
+
+    /**
+     * Returns the String representation of the {@link #sum}.
+     * @return the String representation of the {@link #sum}
+     */
+    @Override
+    public String toString() {
+        return sum().toString();
+    }
+
+    /**
+     * Returns the sum of the cells, resetting each of them after it has
+     * been added if {@code reset} is true.
+     */
+    private BigDecimal collect(boolean reset) {
+        BigDecimalAccumulator total = new BigDecimalAccumulator();
+        collect(base, total, reset);
+        Cell[] cs = cells;
+        if (cs != null) {
+            for (Cell c : cs) {
+                collect(c, total, reset);
+            }
+        }
+        return total.toBigDecimal();
+    }
+
+    private static void collect(Cell c, BigDecimalAccumulator total, boolean reset) {
+        c.lock();
+        try {
+            total.add(c.acc);
+            if (reset) {
+                c.acc.reset();
+            }
+        } finally {
+            c.unlock();
+        }
+    }
+
+    /**
+     * Locks and returns the cell to be updated by the current thread.
+     * While there is no contention this is the base cell.  Otherwise,
+     * as in {@code Striped64}, each thread starts with the cell its probe
+     * selects, and whenever that cell is held by another thread it
+     * advances its probe, so that it keeps using the new cell afterwards,
+     * and grows the table if it is smaller than the number of CPUs.  Once
+     * the table is full, a thread that has failed to lock as many cells
+     * as there are in the table waits for the last one it tried.
+     */
+    private Cell lock() {
+        Cell[] cs = cells;
+        if (cs == null) {
+            if (base.tryLock()) {
+                return base;
+            }
+            cs = grow(null);
+        }
+        int h = getProbe();
+        if (h == 0) {
+            ThreadLocalRandom.current(); // force initialization
+            h = getProbe();
+        }
+        for (int failed = 0; ; ) {
+            Cell c = cs[h & (cs.length - 1)];
+            if (c.tryLock()) {
+                return c;
+            }
+            h = advanceProbe(h);
+            if (cs.length < NCPU) {
+                cs = grow(cs);
+            } else if (++failed >= cs.length) {
+                c.lock();
+                return c;
+            }
+        }
+    }
+
+    /**
+     * Replaces the table of cells, if it is still {@code cs}, with one
+     * twice as large, and returns the current table.
+     */
+    private synchronized Cell[] grow(Cell[] cs) {
+        Cell[] current = cells;
+        if (current != cs) {
+            return current;
+        }
+        int n = (cs == null) ? 2 : cs.length << 1;
+        Cell[] rs = new Cell[n];
+        int i = 0;
+        if (cs != null) {
+            for (; i < cs.length; i++) {
+                rs[i] = cs[i];
+            }
+        }
+        for (; i < n; i++) {
+            rs[i] = new Cell();
+        }
+        cells = rs;
+        return rs;
+    }
+
+    /**
+     * Returns the probe value of the current thread, shared with
+     * {@code ThreadLocalRandom} and {@code Striped64}.
+     */
+    private static int getProbe() {
+        return (int) THREAD_PROBE.get(Thread.currentThread());
+    }
+
+    /**
+     * Pseudo-randomly advances and records the given probe value for
+     * the current thread.
+     */
+    private static int advanceProbe(int probe) {
+        probe ^= probe << 13;   // xorshift
+        probe ^= probe >>> 17;
+        probe ^= probe << 5;
+        THREAD_PROBE.set(Thread.currentThread(), probe);
+        return probe;
+    }
+
+    // VarHandle mechanics
+    private static final VarHandle THREAD_PROBE;
+    static {
+        try {
+            MethodHandles.Lookup l = java.security.AccessController.doPrivileged(
+                    new java.security.PrivilegedAction<>() {
+                        public MethodHandles.Lookup run() {
+                            try {
+                                return MethodHandles.privateLookupIn(Thread.class, MethodHandles.lookup());
+                            } catch (ReflectiveOperationException e) {
+                                throw new Error(e);
+                            }
+                        }});
+            THREAD_PROBE = l.findVarHandle(Thread.class,
+                    "threadLocalRandomProbe", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new Error(e);
+        }
+    }
+}
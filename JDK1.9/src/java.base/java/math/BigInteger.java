@@ -36,6 +36,8 @@ import java.io.ObjectStreamField;
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.ThreadLocalRandom;
 
 import jdk.internal.math.DoubleConsts;
@@ -232,6 +234,35 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      */
     private static final int TOOM_COOK_SQUARE_THRESHOLD = 216;
 
+    /**
+     * The threshold value for using number-theoretic transform (NTT)
+     * multiplication.  If the number of ints in both mag arrays are
+     * greater than this number, and their sum is not greater than
+     * {@link #NTT_MAX_LENGTH}, then NTT multiplication will be used.  Since
+     * {@code pow}, Burnikel-Ziegler division and the Schoenhage base
+     * conversion in {@code toString} are built on multiplication and
+     * squaring, they use it too.  This value is found experimentally to
+     * work well.
+     */
+    private static final int NTT_THRESHOLD = 16000;
+
+    /**
+     * The threshold value for using NTT squaring.  If the number of ints in
+     * the number are larger than this value, NTT squaring will be used.
+     * This value is found experimentally to work well.
+     */
+    private static final int NTT_SQUARE_THRESHOLD = 14000;
+
+    /**
+     * The largest combined length, in ints, of two numbers that can be
+     * multiplied by a single NTT.  Larger products are first split by
+     * Toom-Cook multiplication, whose smaller products then use the NTT.
+     * The limit is set by the largest transform supported by both of the
+     * {@link #NTT_PRIMES}, and keeps every coefficient of the product below
+     * the product of the primes.
+     */
+    private static final int NTT_MAX_LENGTH = 1 << 23;
+
     /**
      * The threshold value for using Burnikel-Ziegler division.  If the number
      * of ints in the divisor are larger than this value, Burnikel-Ziegler
@@ -1556,13 +1587,45 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      * @return {@code this * val}
      */
     public BigInteger multiply(BigInteger val) {
+        return multiply(val, 0);
+    }
+
+    /**
+     * Returns a BigInteger whose value is {@code (this * val)}.  When both
+     * numbers are large, the multiplication is split into independent
+     * smaller multiplications that are run in parallel in the
+     * {@linkplain ForkJoinPool#commonPool() common pool}.  The result is
+     * the same as that of {@link #multiply(BigInteger) multiply}; only the
+     * number of threads used to compute it differs.
+     *
+     * @implNote This implementation parallelizes the 3-way Toom-Cook and
+     * number-theoretic transform multiplications, so numbers too small to
+     * use either of them are multiplied in the calling thread.  The
+     * recursion forks subtasks only up to a depth that gives work to every
+     * thread of the common pool.
+     *
+     * @param  val value to be multiplied by this BigInteger.
+     * @return {@code this * val}
+     * @see #multiply(BigInteger)
+     * @since 10
+     */
+    public BigInteger parallelMultiply(BigInteger val) {
+        return multiply(val, parallelForkDepth());
+    }
+
+    /**
+     * Returns a BigInteger whose value is {@code (this * val)}.  If
+     * {@code forkDepth} is positive, up to that many further levels of the
+     * recursion may run their multiplications in parallel.
+     */
+    private BigInteger multiply(BigInteger val, int forkDepth) {
         if (val.signum == 0 || signum == 0)
             return ZERO;
 
         int xlen = mag.length;
 
         if (val == this && xlen > MULTIPLY_SQUARE_THRESHOLD) {
-            return square();
+            return square(forkDepth);
         }
 
         int ylen = val.mag.length;
@@ -1582,12 +1645,35 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         } else {
             if ((xlen < TOOM_COOK_THRESHOLD) && (ylen < TOOM_COOK_THRESHOLD)) {
                 return multiplyKaratsuba(this, val);
+            } else if ((xlen < NTT_THRESHOLD) || (ylen < NTT_THRESHOLD)
+                       || (xlen + ylen > NTT_MAX_LENGTH)) {
+                return multiplyToomCook3(this, val, forkDepth);
             } else {
-                return multiplyToomCook3(this, val);
+                return multiplyNTT(this, val, forkDepth);
             }
         }
     }
 
+    /**
+     * Returns the number of levels of the multiplication recursion that
+     * {@link #parallelMultiply} lets fork subtasks.  Each level of 3-way
+     * Toom-Cook multiplication forks four subtasks besides the one it
+     * computes itself, so this is the smallest depth that yields at least
+     * as many tasks as there are threads in the common pool, plus one level
+     * to even out the load.
+     */
+    private static int parallelForkDepth() {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        if (parallelism <= 1) {
+            return 0;
+        }
+        int depth = 1;
+        for (int tasks = 5; tasks < parallelism; tasks *= 5) {
+            depth++;
+        }
+        return depth + 1;
+    }
+
     private static BigInteger multiplyByInt(int[] x, int y, int sign) {
         if (Integer.bitCount(y) == 1) {
             return new BigInteger(shiftLeft(x,Integer.numberOfTrailingZeros(y)), sign);
@@ -1778,7 +1864,8 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      * LNCS #4547. Springer, Madrid, Spain, June 21-22, 2007.
      *
      */
-    private static BigInteger multiplyToomCook3(BigInteger a, BigInteger b) {
+    private static BigInteger multiplyToomCook3(BigInteger a, BigInteger b,
+                                                int forkDepth) {
         int alen = a.mag.length;
         int blen = b.mag.length;
 
@@ -1802,16 +1889,41 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
 
         BigInteger v0, v1, v2, vm1, vinf, t1, t2, tm1, da1, db1;
 
-        v0 = a0.multiply(b0);
-        da1 = a2.add(a0);
-        db1 = b2.add(b0);
-        vm1 = da1.subtract(a1).multiply(db1.subtract(b1));
-        da1 = da1.add(a1);
-        db1 = db1.add(b1);
-        v1 = da1.multiply(db1);
-        v2 = da1.add(a2).shiftLeft(1).subtract(a0).multiply(
-             db1.add(b2).shiftLeft(1).subtract(b0));
-        vinf = a2.multiply(b2);
+        if (forkDepth > 0) {
+            // Evaluate all of the operands first, then run four of the five
+            // multiplications as subtasks while computing the last one.
+            da1 = a2.add(a0);
+            db1 = b2.add(b0);
+            RecursiveMultiply tm1Task = new RecursiveMultiply(da1.subtract(a1),
+                                                              db1.subtract(b1), forkDepth - 1);
+            da1 = da1.add(a1);
+            db1 = db1.add(b1);
+            RecursiveMultiply t0Task = new RecursiveMultiply(a0, b0, forkDepth - 1);
+            RecursiveMultiply t1Task = new RecursiveMultiply(da1, db1, forkDepth - 1);
+            RecursiveMultiply t2Task = new RecursiveMultiply(da1.add(a2).shiftLeft(1).subtract(a0),
+                                                             db1.add(b2).shiftLeft(1).subtract(b0),
+                                                             forkDepth - 1);
+            t0Task.fork();
+            tm1Task.fork();
+            t1Task.fork();
+            t2Task.fork();
+            vinf = a2.multiply(b2, forkDepth - 1);
+            v2 = t2Task.join();
+            v1 = t1Task.join();
+            vm1 = tm1Task.join();
+            v0 = t0Task.join();
+        } else {
+            v0 = a0.multiply(b0);
+            da1 = a2.add(a0);
+            db1 = b2.add(b0);
+            vm1 = da1.subtract(a1).multiply(db1.subtract(b1));
+            da1 = da1.add(a1);
+            db1 = db1.add(b1);
+            v1 = da1.multiply(db1);
+            v2 = da1.add(a2).shiftLeft(1).subtract(a0).multiply(
+                 db1.add(b2).shiftLeft(1).subtract(b0));
+            vinf = a2.multiply(b2);
+        }
 
         // The algorithm requires two divisions by 2 and one by 3.
         // All divisions are known to be exact, that is, they do not produce
@@ -1969,6 +2081,330 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         return new BigInteger(trustedStripLeadingZeroInts(upperInts), 1);
     }
 
+    // Number-theoretic transform multiplication
+
+    /**
+     * The primes used by NTT multiplication.  Each has the form
+     * {@code c*2^k+1} with {@code k >= 24}, so that each has roots of unity
+     * of every power-of-two order up to {@code 2^24}, and each is less than
+     * {@code 2^30}, so that a product of two residues fits in a long.  The
+     * first is the smaller one, and their product exceeds {@code 2^58}.
+     */
+    private static final int[] NTT_PRIMES = {469762049, 754974721};
+
+    /**
+     * Primitive roots modulo the corresponding {@link #NTT_PRIMES}.
+     */
+    private static final int[] NTT_GENERATORS = {3, 11};
+
+    /**
+     * Multiplies two BigIntegers using a number-theoretic transform.  The
+     * magnitudes are split into 16-bit digits, which are the coefficients
+     * of two polynomials, and their product is computed as a cyclic
+     * convolution with fast Fourier transforms over the integers modulo
+     * each of two primes.  Every coefficient of the product is a sum of at
+     * most {@code 2^23} products of two digits, so it is less than
+     * {@code 2^55}, and it is recovered exactly from its two residues by the
+     * Chinese remainder theorem.  The carries are then propagated to obtain
+     * the magnitude of the result.  The complexity is
+     * O(n log(n)), which beats 3-way Toom-Cook for very large numbers
+     * despite the larger constant factor.  The length of the transform
+     * limits the combined length of the numbers to {@link #NTT_MAX_LENGTH}
+     * ints.  If {@code a == b}, only one forward transform is done per
+     * prime.  If {@code forkDepth} is positive, the convolutions modulo the
+     * two primes are computed in parallel.
+     *
+     * See:  https://en.wikipedia.org/wiki/Discrete_Fourier_transform_(general)#Number-theoretic_transform
+     */
+    private static BigInteger multiplyNTT(BigInteger a, BigInteger b, int forkDepth) {
+        int[] x = a.mag;
+        int[] y = (a == b) ? x : b.mag;
+        int rlen = x.length + y.length;
+
+        // The product has 2*rlen - 1 digits, and the transform length is
+        // the smallest power of two that holds them.
+        int n = 1 << (32 - Integer.numberOfLeadingZeros(2*rlen - 2));
+
+        int[] r0, r1;
+        if (forkDepth > 0) {
+            RecursiveConvolution task = new RecursiveConvolution(x, y, n, 1);
+            task.fork();
+            r0 = convolveNTT(x, y, n, 0);
+            r1 = task.join();
+        } else {
+            r0 = convolveNTT(x, y, n, 0);
+            r1 = convolveNTT(x, y, n, 1);
+        }
+
+        // Combine the residues of each coefficient with Garner's algorithm.
+        // The residue modulo the smaller prime is already reduced modulo the
+        // larger one, and a Montgomery product with the inverse of the
+        // smaller prime in Montgomery form avoids a division.
+        int p0 = NTT_PRIMES[0];
+        int p1 = NTT_PRIMES[1];
+        int p1Inv = montgomeryInverseNTT(p1);
+        int p0InvMont = (int)(modPowNTT(p0, p1 - 2, p1) * ((1L << 32) % p1) % p1);
+        int[] result = new int[rlen];
+        long carry = 0;
+        for (int i = 0, digits = 2*rlen; i < digits; i++) {
+            if (i < n) {
+                int c0 = r0[i];
+                int d = r1[i] - c0;
+                int k = montgomeryMultiplyNTT((d < 0) ? d + p1 : d, p0InvMont, p1, p1Inv);
+                carry += c0 + (long)p0 * k;
+            }
+            result[rlen - 1 - (i >> 1)] |= ((int)carry & 0xffff) << ((i & 1) << 4);
+            carry >>>= 16;
+        }
+
+        result = trustedStripLeadingZeroInts(result);
+        return new BigInteger(result, a.signum == b.signum ? 1 : -1);
+    }
+
+    /**
+     * Returns the cyclic convolution of length {@code n} of the 16-bit
+     * digits of the magnitudes {@code x} and {@code y}, modulo the prime
+     * {@code NTT_PRIMES[index]}.
+     *
+     * The forward transform uses decimation in frequency, which leaves its
+     * output in bit-reversed order, and the inverse transform uses
+     * decimation in time, which expects its input in that order, so no
+     * reordering is needed.  Multiplications modulo the prime use
+     * Montgomery reduction; the twiddle factors are kept in Montgomery form,
+     * so multiplying a digit by one of them gives a result in the ordinary
+     * form.
+     */
+    private static int[] convolveNTT(int[] x, int[] y, int n, int index) {
+        int p = NTT_PRIMES[index];
+        int pInv = montgomeryInverseNTT(p);
+        long r = (1L << 32) % p;            // R mod p
+        long r2 = r * r % p;                // R^2 mod p
+
+        long w = modPowNTT(NTT_GENERATORS[index], (p - 1) / n, p);
+        int[] roots = new int[n];
+        rootsNTT(roots, (int)(w * r % p), (int)r, p, pInv);
+
+        int[] u = digitsNTT(x, n);
+        forwardNTT(u, 0, n, roots, p, pInv);
+        int[] v = u;
+        if (y != x) {
+            v = digitsNTT(y, n);
+            forwardNTT(v, 0, n, roots, p, pInv);
+        }
+
+        // Each Montgomery product divides by R, so multiplying u*v by
+        // R^2/n with a second one leaves u*v/n, which already includes the
+        // 1/n factor of the inverse transform.
+        int scale = (int)(modPowNTT(n, p - 2, p) * r2 % p);
+        for (int i = 0; i < n; i++) {
+            u[i] = montgomeryMultiplyNTT(montgomeryMultiplyNTT(u[i], v[i], p, pInv),
+                                         scale, p, pInv);
+        }
+
+        long wInv = modPowNTT(w, p - 2, p);
+        rootsNTT(roots, (int)(wInv * r % p), (int)r, p, pInv);
+        inverseNTT(u, 0, n, roots, p, pInv);
+        return u;
+    }
+
+    /**
+     * Returns the 16-bit digits of the magnitude {@code mag}, least
+     * significant first, padded with zeros to length {@code n}.
+     */
+    private static int[] digitsNTT(int[] mag, int n) {
+        int[] digits = new int[n];
+        for (int i = 0, len = mag.length; i < len; i++) {
+            int word = mag[len - 1 - i];
+            digits[2*i] = word & 0xffff;
+            digits[2*i + 1] = word >>> 16;
+        }
+        return digits;
+    }
+
+    /**
+     * Fills {@code roots} with the twiddle factors for a transform of
+     * length {@code roots.length}, given a root of unity {@code w} of that
+     * order.  {@code roots[len + k]} is {@code w^(k*n/(2*len))}, that is
+     * the {@code k}th power of the root of order {@code 2*len}, for the
+     * butterflies of half-length {@code len}.  {@code w} and {@code one}
+     * and the values stored are in Montgomery form.
+     */
+    private static void rootsNTT(int[] roots, int w, int one, int p, int pInv) {
+        int half = roots.length >> 1;
+        int root = one;
+        for (int k = 0; k < half; k++) {
+            roots[half + k] = root;
+            root = montgomeryMultiplyNTT(root, w, p, pInv);
+        }
+        for (int len = half >> 1; len > 0; len >>= 1) {
+            for (int k = 0; k < len; k++) {
+                roots[len + k] = roots[2*len + 2*k];
+            }
+        }
+    }
+
+    /**
+     * The length, in ints, of the blocks that NTT butterflies are applied
+     * to level by level.  Larger transforms apply their upper levels one
+     * at a time and then recurse into the two halves, so that the lower
+     * levels run on blocks that stay in the cache.
+     */
+    private static final int NTT_BLOCK_LENGTH = 4096;
+
+    /**
+     * Transforms {@code a[off:off+n]} in place with Gentleman-Sande
+     * butterflies.  The result is in bit-reversed order.
+     */
+    private static void forwardNTT(int[] a, int off, int n, int[] roots, int p, int pInv) {
+        int len = n >> 1;
+        if (n > NTT_BLOCK_LENGTH) {
+            butterfliesNTT(a, off, len, roots, p, pInv);
+            forwardNTT(a, off, len, roots, p, pInv);
+            forwardNTT(a, off + len, len, roots, p, pInv);
+            return;
+        }
+        for (; len > 0; len >>= 1) {
+            for (int j = off; j < off + n; j += 2*len) {
+                butterfliesNTT(a, j, len, roots, p, pInv);
+            }
+        }
+    }
+
+    /**
+     * Applies the Gentleman-Sande butterflies of half-length {@code len} to
+     * {@code a[j:j+2*len]}.
+     */
+    private static void butterfliesNTT(int[] a, int j, int len, int[] roots, int p, int pInv) {
+        for (int k = 0; k < len; k++) {
+            int u = a[j + k];
+            int v = a[j + k + len];
+            int s = u + v;
+            a[j + k] = (s >= p) ? s - p : s;
+            a[j + k + len] = montgomeryMultiplyNTT(u - v + p, roots[len + k], p, pInv);
+        }
+    }
+
+    /**
+     * Transforms {@code a[off:off+n]}, which is in bit-reversed order, in
+     * place with Cooley-Tukey butterflies.  The result is in natural order.
+     */
+    private static void inverseNTT(int[] a, int off, int n, int[] roots, int p, int pInv) {
+        int half = n >> 1;
+        if (n > NTT_BLOCK_LENGTH) {
+            inverseNTT(a, off, half, roots, p, pInv);
+            inverseNTT(a, off + half, half, roots, p, pInv);
+            inverseButterfliesNTT(a, off, half, roots, p, pInv);
+            return;
+        }
+        for (int len = 1; len <= half; len <<= 1) {
+            for (int j = off; j < off + n; j += 2*len) {
+                inverseButterfliesNTT(a, j, len, roots, p, pInv);
+            }
+        }
+    }
+
+    /**
+     * Applies the Cooley-Tukey butterflies of half-length {@code len} to
+     * {@code a[j:j+2*len]}.
+     */
+    private static void inverseButterfliesNTT(int[] a, int j, int len, int[] roots, int p, int pInv) {
+        for (int k = 0; k < len; k++) {
+            int u = a[j + k];
+            int v = montgomeryMultiplyNTT(a[j + k + len], roots[len + k], p, pInv);
+            int s = u + v;
+            int d = u - v;
+            a[j + k] = (s >= p) ? s - p : s;
+            a[j + k + len] = (d < 0) ? d + p : d;
+        }
+    }
+
+    /**
+     * Returns {@code a*b*2^-32 mod p} for a prime {@code p < 2^30}, given
+     * {@code a, b < 2*p} and {@code pInv == -p^-1 mod 2^32}.  The result
+     * is less than {@code p}.
+     */
+    private static int montgomeryMultiplyNTT(int a, int b, int p, int pInv) {
+        long t = (long)a * b;
+        int m = (int)t * pInv;
+        int u = (int)((t + (m & LONG_MASK) * p) >>> 32);
+        return (u >= p) ? u - p : u;
+    }
+
+    /**
+     * Returns {@code -p^-1 mod 2^32} for an odd {@code p}.
+     */
+    private static int montgomeryInverseNTT(int p) {
+        // Each Newton iteration doubles the number of correct low bits,
+        // starting with 3 bits from inv = p.
+        int inv = p;
+        for (int i = 0; i < 4; i++) {
+            inv *= 2 - p * inv;
+        }
+        return -inv;
+    }
+
+    /**
+     * Returns {@code base^exp mod m} for {@code m < 2^31}.
+     */
+    private static long modPowNTT(long base, long exp, long m) {
+        long result = 1;
+        base %= m;
+        while (exp > 0) {
+            if ((exp & 1) != 0) {
+                result = result * base % m;
+            }
+            base = base * base % m;
+            exp >>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * A multiplication forked into the common pool by a parallel Toom-Cook
+     * multiplication or squaring.
+     */
+    @SuppressWarnings("serial")
+    private static final class RecursiveMultiply extends RecursiveTask<BigInteger> {
+        private final BigInteger a;
+        private final BigInteger b;
+        private final int forkDepth;
+
+        RecursiveMultiply(BigInteger a, BigInteger b, int forkDepth) {
+            this.a = a;
+            this.b = b;
+            this.forkDepth = forkDepth;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            return a.multiply(b, forkDepth);
+        }
+    }
+
+    /**
+     * A convolution modulo one of the {@link #NTT_PRIMES} forked into the
+     * common pool by a parallel NTT multiplication.
+     */
+    @SuppressWarnings("serial")
+    private static final class RecursiveConvolution extends RecursiveTask<int[]> {
+        private final int[] x;
+        private final int[] y;
+        private final int n;
+        private final int index;
+
+        RecursiveConvolution(int[] x, int[] y, int n, int index) {
+            this.x = x;
+            this.y = y;
+            this.n = n;
+            this.index = index;
+        }
+
+        @Override
+        protected int[] compute() {
+            return convolveNTT(x, y, n, index);
+        }
+    }
+
     // Squaring
 
     /**
@@ -1977,6 +2413,17 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      * @return {@code this<sup>2</sup>}
      */
     private BigInteger square() {
+        return square(0);
+    }
+
+    /**
+     * Returns a BigInteger whose value is {@code (this<sup>2</sup>)}.  If
+     * {@code forkDepth} is positive, up to that many further levels of the
+     * recursion may run their squarings in parallel.
+     *
+     * @return {@code this<sup>2</sup>}
+     */
+    private BigInteger square(int forkDepth) {
         if (signum == 0) {
             return ZERO;
         }
@@ -1988,8 +2435,10 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         } else {
             if (len < TOOM_COOK_SQUARE_THRESHOLD) {
                 return squareKaratsuba();
+            } else if ((len < NTT_SQUARE_THRESHOLD) || (2*len > NTT_MAX_LENGTH)) {
+                return squareToomCook3(forkDepth);
             } else {
-                return squareToomCook3();
+                return multiplyNTT(this, this, forkDepth);
             }
         }
     }
@@ -2123,7 +2572,7 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
      * that has better asymptotic performance than the algorithm used in
      * squareToLen or squareKaratsuba.
      */
-    private BigInteger squareToomCook3() {
+    private BigInteger squareToomCook3(int forkDepth) {
         int len = mag.length;
 
         // k is the size (in ints) of the lower-order slices.
@@ -2140,13 +2589,33 @@ public class BigInteger extends Number implements Comparable<BigInteger> {
         a0 = getToomSlice(k, r, 2, len);
         BigInteger v0, v1, v2, vm1, vinf, t1, t2, tm1, da1;
 
-        v0 = a0.square();
-        da1 = a2.add(a0);
-        vm1 = da1.subtract(a1).square();
-        da1 = da1.add(a1);
-        v1 = da1.square();
-        vinf = a2.square();
-        v2 = da1.add(a2).shiftLeft(1).subtract(a0).square();
+        if (forkDepth > 0) {
+            da1 = a2.add(a0);
+            BigInteger dam1 = da1.subtract(a1);
+            da1 = da1.add(a1);
+            BigInteger da2 = da1.add(a2).shiftLeft(1).subtract(a0);
+            RecursiveMultiply t0Task = new RecursiveMultiply(a0, a0, forkDepth - 1);
+            RecursiveMultiply tm1Task = new RecursiveMultiply(dam1, dam1, forkDepth - 1);
+            RecursiveMultiply t1Task = new RecursiveMultiply(da1, da1, forkDepth - 1);
+            RecursiveMultiply t2Task = new RecursiveMultiply(da2, da2, forkDepth - 1);
+            t0Task.fork();
+            tm1Task.fork();
+            t1Task.fork();
+            t2Task.fork();
+            vinf = a2.square(forkDepth - 1);
+            v2 = t2Task.join();
+            v1 = t1Task.join();
+            vm1 = tm1Task.join();
+            v0 = t0Task.join();
+        } else {
+            v0 = a0.square();
+            da1 = a2.add(a0);
+            vm1 = da1.subtract(a1).square();
+            da1 = da1.add(a1);
+            v1 = da1.square();
+            vinf = a2.square();
+            v2 = da1.add(a2).shiftLeft(1).subtract(a0).square();
+        }
 
         // The algorithm requires two divisions by 2 and one by 3.
         // All divisions are known to be exact, that is, they do not produce
@@ -394,8 +394,7 @@ public final class LocalDateTime
         Objects.requireNonNull(instant, "instant");
         Objects.requireNonNull(zone, "zone");
         ZoneRules rules = zone.getRules();
-        ZoneOffset offset = rules.getOffset(instant);
-        return ofEpochSecond(instant.getEpochSecond(), instant.getNano(), offset);
+        return rules.getLocalDateTime(instant.getEpochSecond(), instant.getNano());
     }
 
     /**
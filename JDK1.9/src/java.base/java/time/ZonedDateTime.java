@@ -409,6 +409,30 @@ public final class ZonedDateTime
         return create(instant.getEpochSecond(), instant.getNano(), zone);
     }
 
+    /**
+     * Obtains an instance of {@code ZonedDateTime} using seconds from the
+     * epoch of 1970-01-01T00:00:00Z.
+     * <p>
+     * This is equivalent to {@link #ofInstant(Instant, ZoneId)}, without
+     * requiring an {@code Instant}.
+     * The zone rules remember the recently used periods of constant offset
+     * and the most recently used local date, thus converting a sequence of
+     * nearby instants, such as the timestamps of a log, is mostly simple
+     * arithmetic.
+     *
+     * @param epochSecond  the number of seconds from the epoch of 1970-01-01T00:00:00Z
+     * @param nanoOfSecond  the nanosecond within the second, from 0 to 999,999,999
+     * @param zone  the time-zone, not null
+     * @return the zoned date-time, not null
+     * @throws DateTimeException if the result exceeds the supported range,
+     *  or if the nano-of-second is invalid
+     * @since 10
+     */
+    public static ZonedDateTime ofEpochSecond(long epochSecond, int nanoOfSecond, ZoneId zone) {
+        Objects.requireNonNull(zone, "zone");
+        return create(epochSecond, nanoOfSecond, zone);
+    }
+
     /**
      * Obtains an instance of {@code ZonedDateTime} from the instant formed by combining
      * the local date-time and offset.
@@ -451,9 +475,8 @@ public final class ZonedDateTime
      */
     private static ZonedDateTime create(long epochSecond, int nanoOfSecond, ZoneId zone) {
         ZoneRules rules = zone.getRules();
-        Instant instant = Instant.ofEpochSecond(epochSecond, nanoOfSecond);  // TODO: rules should be queryable by epochSeconds
-        ZoneOffset offset = rules.getOffset(instant);
-        LocalDateTime ldt = LocalDateTime.ofEpochSecond(epochSecond, nanoOfSecond, offset);
+        ZoneOffset offset = rules.getOffset(epochSecond);
+        LocalDateTime ldt = rules.getLocalDateTime(epochSecond, nanoOfSecond);
         return new ZonedDateTime(ldt, offset, zone);
     }
 
@@ -83,6 +83,7 @@ import java.time.ZoneOffset;
 import java.time.chrono.ChronoLocalDateTime;
 import java.time.chrono.Chronology;
 import java.time.chrono.IsoChronology;
+import java.time.format.DateTimeFormatterBuilder.CompiledPrinterParser;
 import java.time.format.DateTimeFormatterBuilder.CompositePrinterParser;
 import java.time.temporal.ChronoField;
 import java.time.temporal.IsoFields;
@@ -533,6 +534,10 @@ public final class DateTimeFormatter {
      * The zone to use for formatting, null for no override.
      */
     private final ZoneId zone;
+    /**
+     * The compiled printer and parser, null if not compiled.
+     */
+    private final CompiledPrinterParser compiled;
 
     //-----------------------------------------------------------------------
     /**
@@ -1411,6 +1416,25 @@ public final class DateTimeFormatter {
             Locale locale, DecimalStyle decimalStyle,
             ResolverStyle resolverStyle, Set<TemporalField> resolverFields,
             Chronology chrono, ZoneId zone) {
+        this(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param printerParser  the printer/parser to use, not null
+     * @param locale  the locale to use, not null
+     * @param decimalStyle  the DecimalStyle to use, not null
+     * @param resolverStyle  the resolver style to use, not null
+     * @param resolverFields  the fields to use during resolving, null for all fields
+     * @param chrono  the chronology to use, null for no override
+     * @param zone  the zone to use, null for no override
+     * @param compiled  the compiled printer/parser, null if not compiled
+     */
+    private DateTimeFormatter(CompositePrinterParser printerParser,
+            Locale locale, DecimalStyle decimalStyle,
+            ResolverStyle resolverStyle, Set<TemporalField> resolverFields,
+            Chronology chrono, ZoneId zone, CompiledPrinterParser compiled) {
         this.printerParser = Objects.requireNonNull(printerParser, "printerParser");
         this.resolverFields = resolverFields;
         this.locale = Objects.requireNonNull(locale, "locale");
@@ -1418,6 +1442,7 @@ public final class DateTimeFormatter {
         this.resolverStyle = Objects.requireNonNull(resolverStyle, "resolverStyle");
         this.chrono = chrono;
         this.zone = zone;
+        this.compiled = compiled;
     }
 
     //-----------------------------------------------------------------------
@@ -1448,7 +1473,7 @@ public final class DateTimeFormatter {
         if (this.locale.equals(locale)) {
             return this;
         }
-        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone);
+        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone, compiled);
     }
 
     //-----------------------------------------------------------------------
@@ -1473,7 +1498,7 @@ public final class DateTimeFormatter {
         if (this.decimalStyle.equals(decimalStyle)) {
             return this;
         }
-        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone);
+        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone, compiled);
     }
 
     //-----------------------------------------------------------------------
@@ -1527,7 +1552,7 @@ public final class DateTimeFormatter {
         if (Objects.equals(this.chrono, chrono)) {
             return this;
         }
-        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone);
+        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone, compiled);
     }
 
     //-----------------------------------------------------------------------
@@ -1584,7 +1609,7 @@ public final class DateTimeFormatter {
         if (Objects.equals(this.zone, zone)) {
             return this;
         }
-        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone);
+        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone, compiled);
     }
 
     //-----------------------------------------------------------------------
@@ -1626,7 +1651,7 @@ public final class DateTimeFormatter {
         if (Objects.equals(this.resolverStyle, resolverStyle)) {
             return this;
         }
-        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone);
+        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone, compiled);
     }
 
     //-----------------------------------------------------------------------
@@ -1692,7 +1717,7 @@ public final class DateTimeFormatter {
         if (Objects.equals(this.resolverFields, fields)) {
             return this;
         }
-        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, fields, chrono, zone);
+        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, fields, chrono, zone, compiled);
     }
 
     /**
@@ -1741,7 +1766,46 @@ public final class DateTimeFormatter {
         if (resolverFields != null) {
             resolverFields = Collections.unmodifiableSet(new HashSet<>(resolverFields));
         }
-        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone);
+        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone, compiled);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Returns a copy of this formatter which formats and parses using a
+     * precompiled form of its printer-parsers.
+     * <p>
+     * The compiled form is a flat list of steps built once by this method.
+     * Formatting a {@link java.time.LocalDate LocalDate}, {@link java.time.LocalTime LocalTime},
+     * {@link java.time.LocalDateTime LocalDateTime}, {@link java.time.OffsetDateTime OffsetDateTime},
+     * {@link java.time.ZonedDateTime ZonedDateTime} or {@link java.time.Instant Instant}
+     * reads the fields of the object directly, and parsing a whole text, with
+     * any of the {@code parse} methods that do not take a {@code ParsePosition},
+     * collects the fields directly, without the contexts used by the printer-parsers.
+     * The results, including any exception, are the same as those of this formatter.
+     * <p>
+     * Only formatters made of literals, numeric ISO date and time fields,
+     * fractions of second, offset IDs, instants, parse defaults and parse
+     * settings can be compiled. This includes most of the ISO formatters and
+     * patterns such as {@code uuuu-MM-dd'T'HH:mm:ss.SSSXXX}. The compiled form
+     * is only used when the decimal style is {@link DecimalStyle#STANDARD}
+     * and the chronology, if any, is ISO. Any other formatting or parsing
+     * is performed as if this method had not been called. If this formatter
+     * cannot be compiled, it is returned unchanged.
+     * <p>
+     * This instance is immutable and unaffected by this method call.
+     *
+     * @return a formatter based on this formatter using a compiled form, not null
+     * @since 10
+     */
+    public DateTimeFormatter compiled() {
+        if (compiled != null) {
+            return this;
+        }
+        CompiledPrinterParser cpp = CompiledPrinterParser.compile(printerParser);
+        if (cpp == null) {
+            return this;
+        }
+        return new DateTimeFormatter(printerParser, locale, decimalStyle, resolverStyle, resolverFields, chrono, zone, cpp);
     }
 
     //-----------------------------------------------------------------------
@@ -1780,13 +1844,12 @@ public final class DateTimeFormatter {
         Objects.requireNonNull(temporal, "temporal");
         Objects.requireNonNull(appendable, "appendable");
         try {
-            DateTimePrintContext context = new DateTimePrintContext(temporal, this);
             if (appendable instanceof StringBuilder) {
-                printerParser.format(context, (StringBuilder) appendable);
+                format0(temporal, (StringBuilder) appendable);
             } else {
                 // buffer output to avoid writing to appendable in case of error
                 StringBuilder buf = new StringBuilder(32);
-                printerParser.format(context, buf);
+                format0(temporal, buf);
                 appendable.append(buf);
             }
         } catch (IOException ex) {
@@ -1794,6 +1857,13 @@ public final class DateTimeFormatter {
         }
     }
 
+    private void format0(TemporalAccessor temporal, StringBuilder buf) {
+        if (compiled == null || compiled.format(temporal, this, buf) == false) {
+            DateTimePrintContext context = new DateTimePrintContext(temporal, this);
+            printerParser.format(context, buf);
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Fully parses the text producing a temporal object.
@@ -1974,6 +2044,12 @@ public final class DateTimeFormatter {
      * @throws IndexOutOfBoundsException if the position is invalid
      */
     private TemporalAccessor parseResolved0(final CharSequence text, final ParsePosition position) {
+        if (compiled != null && position == null) {
+            Parsed parsed = compiled.parse(text, this);
+            if (parsed != null) {
+                return parsed.resolve(resolverStyle, resolverFields);
+            }
+        }
         ParsePosition pos = (position != null ? position : new ParsePosition(0));
         DateTimeParseContext context = parseUnresolved0(text, pos);
         if (context == null || pos.getErrorIndex() >= 0 || (position == null && pos.getIndex() < text.length())) {
@@ -82,8 +82,10 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.time.chrono.ChronoLocalDate;
 import java.time.chrono.ChronoLocalDateTime;
 import java.time.chrono.Chronology;
@@ -3386,8 +3388,19 @@ public final class DateTimeFormatterBuilder {
             if (inSecs == null) {
                 return false;
             }
-            long inSec = inSecs;
             int inNano = NANO_OF_SECOND.checkValidIntValue(inNanos != null ? inNanos : 0);
+            formatInstant(inSecs, inNano, buf);
+            return true;
+        }
+
+        /**
+         * Prints the instant to the buffer.
+         *
+         * @param inSec  the seconds from the epoch of 1970-01-01T00:00:00Z
+         * @param inNano  the nano-of-second, validated
+         * @param buf  the buffer to append to, not null
+         */
+        void formatInstant(long inSec, int inNano, StringBuilder buf) {
             // format mostly using LocalDateTime.toString
             if (inSec >= -SECONDS_0000_TO_1970) {
                 // current era
@@ -3423,6 +3436,16 @@ public final class DateTimeFormatterBuilder {
                     }
                 }
             }
+            formatFraction(inNano, buf);
+        }
+
+        /**
+         * Prints the fraction of the instant, as configured, and the trailing 'Z'.
+         *
+         * @param inNano  the nano-of-second, validated
+         * @param buf  the buffer to append to, not null
+         */
+        void formatFraction(int inNano, StringBuilder buf) {
             // add fraction
             if ((fractionalDigits < 0 && inNano > 0) || fractionalDigits > 0) {
                 buf.append('.');
@@ -3437,22 +3460,12 @@ public final class DateTimeFormatterBuilder {
                 }
             }
             buf.append('Z');
-            return true;
         }
 
         @Override
         public int parse(DateTimeParseContext context, CharSequence text, int position) {
             // new context to avoid overwriting fields like year/month/day
-            int minDigits = (fractionalDigits < 0 ? 0 : fractionalDigits);
-            int maxDigits = (fractionalDigits < 0 ? 9 : fractionalDigits);
-            CompositePrinterParser parser = new DateTimeFormatterBuilder()
-                    .append(DateTimeFormatter.ISO_LOCAL_DATE).appendLiteral('T')
-                    .appendValue(HOUR_OF_DAY, 2).appendLiteral(':')
-                    .appendValue(MINUTE_OF_HOUR, 2).appendLiteral(':')
-                    .appendValue(SECOND_OF_MINUTE, 2)
-                    .appendFraction(NANO_OF_SECOND, minDigits, maxDigits, true)
-                    .appendLiteral('Z')
-                    .toFormatter().toPrinterParser(false);
+            CompositePrinterParser parser = parser();
             DateTimeParseContext newContext = context.copy();
             int pos = parser.parse(newContext, text, position);
             if (pos < 0) {
@@ -3491,6 +3504,24 @@ public final class DateTimeFormatterBuilder {
             return context.setParsedField(NANO_OF_SECOND, nano, position, successPos);
         }
 
+        /**
+         * Returns the parser of the local date-time of the instant.
+         *
+         * @return the parser, not null
+         */
+        CompositePrinterParser parser() {
+            int minDigits = (fractionalDigits < 0 ? 0 : fractionalDigits);
+            int maxDigits = (fractionalDigits < 0 ? 9 : fractionalDigits);
+            return new DateTimeFormatterBuilder()
+                    .append(DateTimeFormatter.ISO_LOCAL_DATE).appendLiteral('T')
+                    .appendValue(HOUR_OF_DAY, 2).appendLiteral(':')
+                    .appendValue(MINUTE_OF_HOUR, 2).appendLiteral(':')
+                    .appendValue(SECOND_OF_MINUTE, 2)
+                    .appendFraction(NANO_OF_SECOND, minDigits, maxDigits, true)
+                    .appendLiteral('Z')
+                    .toFormatter().toPrinterParser(false);
+        }
+
         @Override
         public String toString() {
             return "Instant()";
@@ -3550,7 +3581,17 @@ public final class DateTimeFormatterBuilder {
             if (offsetSecs == null) {
                 return false;
             }
-            int totalSecs = Math.toIntExact(offsetSecs);
+            formatOffset(Math.toIntExact(offsetSecs), buf);
+            return true;
+        }
+
+        /**
+         * Prints the offset, in seconds, to the buffer.
+         *
+         * @param totalSecs  the offset in seconds
+         * @param buf  the buffer to append to, not null
+         */
+        void formatOffset(int totalSecs, StringBuilder buf) {
             if (totalSecs == 0) {
                 buf.append(noOffsetText);
             } else {
@@ -3578,7 +3619,6 @@ public final class DateTimeFormatterBuilder {
                     buf.append(noOffsetText);
                 }
             }
-            return true;
         }
 
         private void formatZeroPad(boolean colon, int value, StringBuilder buf) {
@@ -3609,83 +3649,7 @@ public final class DateTimeFormatterBuilder {
             if (sign == '+' || sign == '-') {
                 // starts
                 int negative = (sign == '-' ? -1 : 1);
-                boolean isColon = isColon();
-                boolean paddedHour = isPaddedHour();
-                int[] array = new int[4];
-                array[0] = position + 1;
-                int parseType = type;
-                // select parse type when lenient
-                if (!context.isStrict()) {
-                    if (paddedHour) {
-                        if (isColon || (parseType == 0 && length > position + 3 && text.charAt(position + 3) == ':')) {
-                            isColon = true; // needed in cases like ("+HH", "+01:01")
-                            parseType = 10;
-                        } else {
-                            parseType = 9;
-                        }
-                    } else {
-                        if (isColon || (parseType == 11 && length > position + 3 && (text.charAt(position + 2) == ':' || text.charAt(position + 3) == ':'))) {
-                            isColon = true;
-                            parseType = 21;  // needed in cases like ("+H", "+1:01")
-                        } else {
-                            parseType = 20;
-                        }
-                    }
-                }
-                // parse according to the selected pattern
-                switch (parseType) {
-                    case 0: // +HH
-                    case 11: // +H
-                        parseHour(text, paddedHour, array);
-                        break;
-                    case 1: // +HHmm
-                    case 2: // +HH:mm
-                    case 13: // +H:mm
-                        parseHour(text, paddedHour, array);
-                        parseMinute(text, isColon, false, array);
-                        break;
-                    case 3: // +HHMM
-                    case 4: // +HH:MM
-                    case 15: // +H:MM
-                        parseHour(text, paddedHour, array);
-                        parseMinute(text, isColon, true, array);
-                        break;
-                    case 5: // +HHMMss
-                    case 6: // +HH:MM:ss
-                    case 17: // +H:MM:ss
-                        parseHour(text, paddedHour, array);
-                        parseMinute(text, isColon, true, array);
-                        parseSecond(text, isColon, false, array);
-                        break;
-                    case 7: // +HHMMSS
-                    case 8: // +HH:MM:SS
-                    case 19: // +H:MM:SS
-                        parseHour(text, paddedHour, array);
-                        parseMinute(text, isColon, true, array);
-                        parseSecond(text, isColon, true, array);
-                        break;
-                    case 9: // +HHmmss
-                    case 10: // +HH:mm:ss
-                    case 21: // +H:mm:ss
-                        parseHour(text, paddedHour, array);
-                        parseOptionalMinuteSecond(text, isColon, array);
-                        break;
-                    case 12: // +Hmm
-                        parseVariableWidthDigits(text, 1, 4, array);
-                        break;
-                    case 14: // +HMM
-                        parseVariableWidthDigits(text, 3, 4, array);
-                        break;
-                    case 16: // +HMMss
-                        parseVariableWidthDigits(text, 3, 6, array);
-                        break;
-                    case 18: // +HMMSS
-                        parseVariableWidthDigits(text, 5, 6, array);
-                        break;
-                    case 20: // +Hmmss
-                        parseVariableWidthDigits(text, 1, 6, array);
-                        break;
-                }
+                int[] array = parseSigned(text, position, context.isStrict());
                 if (array[0] > 0) {
                     if (array[1] > 23 || array[2] > 59 || array[3] > 59) {
                         throw new DateTimeException("Value out of range: Hour[0-23], Minute[0-59], Second[0-59]");
@@ -3701,6 +3665,97 @@ public final class DateTimeFormatterBuilder {
             return ~position;
         }
 
+        /**
+         * Parses the hours, minutes and seconds of an offset following the sign.
+         *
+         * @param text  the text to parse, not null
+         * @param position  the position of the sign
+         * @param strict  whether parsing is strict
+         * @return the position after the offset, or its complement on error,
+         *  followed by the hours, minutes and seconds, not null
+         */
+        int[] parseSigned(CharSequence text, int position, boolean strict) {
+            int length = text.length();
+            boolean isColon = isColon();
+            boolean paddedHour = isPaddedHour();
+            int[] array = new int[4];
+            array[0] = position + 1;
+            int parseType = type;
+            // select parse type when lenient
+            if (!strict) {
+                if (paddedHour) {
+                    if (isColon || (parseType == 0 && length > position + 3 && text.charAt(position + 3) == ':')) {
+                        isColon = true; // needed in cases like ("+HH", "+01:01")
+                        parseType = 10;
+                    } else {
+                        parseType = 9;
+                    }
+                } else {
+                    if (isColon || (parseType == 11 && length > position + 3 && (text.charAt(position + 2) == ':' || text.charAt(position + 3) == ':'))) {
+                        isColon = true;
+                        parseType = 21;  // needed in cases like ("+H", "+1:01")
+                    } else {
+                        parseType = 20;
+                    }
+                }
+            }
+            // parse according to the selected pattern
+            switch (parseType) {
+                case 0: // +HH
+                case 11: // +H
+                    parseHour(text, paddedHour, array);
+                    break;
+                case 1: // +HHmm
+                case 2: // +HH:mm
+                case 13: // +H:mm
+                    parseHour(text, paddedHour, array);
+                    parseMinute(text, isColon, false, array);
+                    break;
+                case 3: // +HHMM
+                case 4: // +HH:MM
+                case 15: // +H:MM
+                    parseHour(text, paddedHour, array);
+                    parseMinute(text, isColon, true, array);
+                    break;
+                case 5: // +HHMMss
+                case 6: // +HH:MM:ss
+                case 17: // +H:MM:ss
+                    parseHour(text, paddedHour, array);
+                    parseMinute(text, isColon, true, array);
+                    parseSecond(text, isColon, false, array);
+                    break;
+                case 7: // +HHMMSS
+                case 8: // +HH:MM:SS
+                case 19: // +H:MM:SS
+                    parseHour(text, paddedHour, array);
+                    parseMinute(text, isColon, true, array);
+                    parseSecond(text, isColon, true, array);
+                    break;
+                case 9: // +HHmmss
+                case 10: // +HH:mm:ss
+                case 21: // +H:mm:ss
+                    parseHour(text, paddedHour, array);
+                    parseOptionalMinuteSecond(text, isColon, array);
+                    break;
+                case 12: // +Hmm
+                    parseVariableWidthDigits(text, 1, 4, array);
+                    break;
+                case 14: // +HMM
+                    parseVariableWidthDigits(text, 3, 4, array);
+                    break;
+                case 16: // +HMMss
+                    parseVariableWidthDigits(text, 3, 6, array);
+                    break;
+                case 18: // +HMMSS
+                    parseVariableWidthDigits(text, 5, 6, array);
+                    break;
+                case 20: // +Hmmss
+                    parseVariableWidthDigits(text, 1, 6, array);
+                    break;
+            }
+            return array;
+        }
+
         private void parseHour(CharSequence parseText, boolean paddedHour, int[] array) {
             if (paddedHour) {
                 // parse two digits
@@ -4924,6 +4979,840 @@ public final class DateTimeFormatterBuilder {
         }
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * A printer-parser chain compiled into a flat list of steps.
+     * <p>
+     * The steps format the common ISO date-time types by reading their fields
+     * directly, and parse into an array of values instead of a parse context.
+     * Each step behaves as the printer-parser it was compiled from, and anything
+     * beyond the common case, such as a value which is too wide or an error
+     * which needs to be reported, makes the format or parse give up so that
+     * the caller can use the printer-parser chain instead.
+     */
+    static final class CompiledPrinterParser {
+        /**
+         * The fields which can be formatted and parsed, indexed by field number.
+         */
+        private static final TemporalField[] FIELDS = new TemporalField[] {
+            YEAR,
+            ChronoField.YEAR_OF_ERA,
+            MONTH_OF_YEAR,
+            DAY_OF_MONTH,
+            HOUR_OF_DAY,
+            MINUTE_OF_HOUR,
+            SECOND_OF_MINUTE,
+            NANO_OF_SECOND,
+            OFFSET_SECONDS,
+            INSTANT_SECONDS,
+        };
+        private static final int F_YEAR = 0;
+        private static final int F_YEAR_OF_ERA = 1;
+        private static final int F_MONTH = 2;
+        private static final int F_DAY = 3;
+        private static final int F_HOUR = 4;
+        private static final int F_MINUTE = 5;
+        private static final int F_SECOND = 6;
+        private static final int F_NANO = 7;
+        private static final int F_OFFSET = 8;
+        private static final int F_INSTANT = 9;
+
+        // the masks of the fields available from a temporal
+        private static final int DATE_FIELDS = 0x0f;
+        private static final int TIME_FIELDS = 0xf0;
+
+        // the kinds of step
+        private static final int COMPOSITE = 0;
+        private static final int CHAR = 1;
+        private static final int STRING = 2;
+        private static final int NUMBER = 3;
+        private static final int FRACTION = 4;
+        private static final int OFFSET = 5;
+        private static final int INSTANT = 6;
+        private static final int SETTINGS = 7;
+        private static final int DEFAULT = 8;
+
+        // the results of formatting a range of steps
+        private static final int DONE = 0;
+        private static final int SKIPPED = 1;
+        /**
+         * The result of a format or parse step which cannot be performed here,
+         * distinct from the complement of any parse position.
+         */
+        private static final int GIVE_UP = Integer.MIN_VALUE;
+
+        /**
+         * The seconds from 1970-01-01T00:00:00Z to 10000-01-01T00:00:00Z.
+         */
+        private static final long SECONDS_1970_TO_10000 =
+                InstantPrinterParser.SECONDS_PER_10000_YEARS - InstantPrinterParser.SECONDS_0000_TO_1970;
+
+        /**
+         * A step, holding the settings of the printer-parser it was compiled from.
+         */
+        private static final class Step {
+            final int kind;
+            int field = -1;             // the field number, -1 if none
+            int end;                    // the index after the last step of a composite
+            boolean optional;           // whether a composite is optional
+            boolean decimalPoint;       // whether a fraction has a decimal point
+            char literal;
+            String text;                // a string literal
+            int minWidth;
+            int maxWidth;
+            int subsequentWidth;
+            SignStyle signStyle;
+            long value;                 // a default value, or the settings ordinal
+            DateTimePrinterParser printerParser;  // an offset or instant printer-parser
+            CompiledPrinterParser instantParser;  // the parser of an instant, null if none
+
+            Step(int kind) {
+                this.kind = kind;
+            }
+        }
+
+        /**
+         * The parse state, in place of a parse context.
+         */
+        private static final class ParseState {
+            final long[] values = new long[FIELDS.length];
+            int parsed;                 // the mask of the parsed fields
+            boolean leapSecond;
+            boolean caseSensitive = true;
+            boolean strict = true;
+
+            /**
+             * Creates a copy of this state, as {@link DateTimeParseContext#copy}.
+             * This retains the case sensitive and strict flags, but none of the
+             * parsed fields.
+             */
+            ParseState copy() {
+                ParseState copy = new ParseState();
+                copy.caseSensitive = caseSensitive;
+                copy.strict = strict;
+                return copy;
+            }
+
+            /**
+             * Stores a value, as {@link DateTimeParseContext#setParsedField}.
+             * The value is not stored if it conflicts with the previous one.
+             */
+            int set(int field, long value, int errorPos, int successPos) {
+                int bit = 1 << field;
+                if ((parsed & bit) != 0) {
+                    return (values[field] != value ? ~errorPos : successPos);
+                }
+                values[field] = value;
+                parsed |= bit;
+                return successPos;
+            }
+        }
+
+        private final Step[] steps;
+
+        private CompiledPrinterParser(Step[] steps) {
+            this.steps = steps;
+        }
+
+        /**
+         * Compiles the printer-parser chain.
+         *
+         * @param printerParser  the printer-parser to compile, not null
+         * @return the compiled printer-parser, null if the chain has a
+         *  printer-parser which cannot be compiled
+         */
+        static CompiledPrinterParser compile(CompositePrinterParser printerParser) {
+            List<Step> steps = new ArrayList<>();
+            if (add(printerParser, steps) == false) {
+                return null;
+            }
+            return new CompiledPrinterParser(steps.toArray(new Step[steps.size()]));
+        }
+
+        private static boolean add(DateTimePrinterParser pp, List<Step> steps) {
+            Step step;
+            if (pp instanceof CompositePrinterParser) {
+                CompositePrinterParser cpp = (CompositePrinterParser) pp;
+                step = new Step(COMPOSITE);
+                step.optional = cpp.optional;
+                steps.add(step);
+                for (DateTimePrinterParser child : cpp.printerParsers) {
+                    if (add(child, steps) == false) {
+                        return false;
+                    }
+                }
+                step.end = steps.size();
+                return true;
+            } else if (pp instanceof CharLiteralPrinterParser) {
+                step = new Step(CHAR);
+                step.literal = ((CharLiteralPrinterParser) pp).literal;
+            } else if (pp instanceof StringLiteralPrinterParser) {
+                step = new Step(STRING);
+                step.text = ((StringLiteralPrinterParser) pp).literal;
+            } else if (pp.getClass() == NumberPrinterParser.class) {
+                NumberPrinterParser npp = (NumberPrinterParser) pp;
+                step = new Step(NUMBER);
+                step.field = indexOf(npp.field);
+                // the printer-parser fails to index the exceed points beyond 10
+                if (step.field < 0 || step.field > F_NANO ||
+                        (npp.signStyle == SignStyle.EXCEEDS_PAD && npp.minWidth > 10)) {
+                    return false;
+                }
+                step.minWidth = npp.minWidth;
+                step.maxWidth = npp.maxWidth;
+                step.subsequentWidth = npp.subsequentWidth;
+                step.signStyle = npp.signStyle;
+            } else if (pp instanceof FractionPrinterParser) {
+                FractionPrinterParser fpp = (FractionPrinterParser) pp;
+                if (fpp.field != NANO_OF_SECOND) {
+                    return false;
+                }
+                step = new Step(FRACTION);
+                step.field = F_NANO;
+                step.minWidth = fpp.minWidth;
+                step.maxWidth = fpp.maxWidth;
+                step.decimalPoint = fpp.decimalPoint;
+            } else if (pp instanceof OffsetIdPrinterParser) {
+                step = new Step(OFFSET);
+                step.field = F_OFFSET;
+                step.text = ((OffsetIdPrinterParser) pp).noOffsetText;
+                step.printerParser = pp;
+            } else if (pp instanceof InstantPrinterParser) {
+                InstantPrinterParser ipp = (InstantPrinterParser) pp;
+                step = new Step(INSTANT);
+                step.field = F_INSTANT;
+                step.printerParser = pp;
+                // no parser can be built without fractional digits, the printer-parser reports it
+                if (ipp.fractionalDigits != 0) {
+                    step.instantParser = compile(ipp.parser());
+                }
+            } else if (pp instanceof SettingsParser) {
+                step = new Step(SETTINGS);
+                step.value = ((SettingsParser) pp).ordinal();
+            } else if (pp.getClass() == DefaultValueParser.class) {
+                DefaultValueParser dpp = (DefaultValueParser) pp;
+                step = new Step(DEFAULT);
+                step.field = indexOf(dpp.field);
+                if (step.field < 0) {
+                    return false;
+                }
+                step.value = dpp.value;
+            } else {
+                return false;
+            }
+            steps.add(step);
+            return true;
+        }
+
+        private static int indexOf(TemporalField field) {
+            for (int i = 0; i < FIELDS.length; i++) {
+                if (FIELDS[i] == field) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Checks whether the formatter settings allow the compiled steps to be used.
+         */
+        private static boolean isCompatible(DateTimeFormatter formatter) {
+            Chronology chrono = formatter.getChronology();
+            return (chrono == null || chrono == IsoChronology.INSTANCE) &&
+                    formatter.getDecimalStyle().equals(DecimalStyle.STANDARD);
+        }
+
+        //-----------------------------------------------------------------------
+        /**
+         * Formats the temporal, if it is one of the common ISO types.
+         *
+         * @param temporal  the temporal to format, not null
+         * @param formatter  the formatter, not null
+         * @param buf  the buffer to append to, not null
+         * @return true if formatted, false if the buffer is unchanged and the
+         *  printer-parser chain must be used
+         */
+        boolean format(TemporalAccessor temporal, DateTimeFormatter formatter, StringBuilder buf) {
+            if (isCompatible(formatter) == false) {
+                return false;
+            }
+            // the same adjustments as DateTimePrintContext for an ISO chronology
+            ZoneId zone = formatter.getZone();
+            LocalDate date = null;
+            LocalTime time = null;
+            ZoneOffset offset = null;
+            Instant instant = null;
+            if (temporal instanceof LocalDateTime) {
+                LocalDateTime ldt = (LocalDateTime) temporal;
+                date = ldt.toLocalDate();
+                time = ldt.toLocalTime();
+            } else if (temporal instanceof LocalDate) {
+                date = (LocalDate) temporal;
+            } else if (temporal instanceof LocalTime) {
+                time = (LocalTime) temporal;
+            } else if (temporal instanceof OffsetDateTime) {
+                OffsetDateTime odt = (OffsetDateTime) temporal;
+                if (zone != null) {
+                    instant = odt.toInstant();
+                } else {
+                    date = odt.toLocalDate();
+                    time = odt.toLocalTime();
+                    offset = odt.getOffset();
+                }
+            } else if (temporal instanceof ZonedDateTime) {
+                ZonedDateTime zdt = (ZonedDateTime) temporal;
+                if (zone != null && zone.equals(zdt.getZone()) == false) {
+                    instant = zdt.toInstant();
+                } else {
+                    date = zdt.toLocalDate();
+                    time = zdt.toLocalTime();
+                    offset = zdt.getOffset();
+                }
+            } else if (temporal instanceof Instant) {
+                instant = (Instant) temporal;
+            } else {
+                return false;
+            }
+            if (instant != null && zone != null) {
+                offset = zone.getRules().getOffset(instant);
+                LocalDateTime ldt = LocalDateTime.ofEpochSecond(instant.getEpochSecond(), instant.getNano(), offset);
+                date = ldt.toLocalDate();
+                time = ldt.toLocalTime();
+            }
+
+            long[] values = new long[FIELDS.length];
+            int available = 0;
+            if (date != null) {
+                int year = date.getYear();
+                values[F_YEAR] = year;
+                values[F_YEAR_OF_ERA] = (year >= 1 ? year : 1 - year);
+                values[F_MONTH] = date.getMonthValue();
+                values[F_DAY] = date.getDayOfMonth();
+                available |= DATE_FIELDS;
+            }
+            if (time != null) {
+                values[F_HOUR] = time.getHour();
+                values[F_MINUTE] = time.getMinute();
+                values[F_SECOND] = time.getSecond();
+                values[F_NANO] = time.getNano();
+                available |= TIME_FIELDS;
+            }
+            if (offset != null) {
+                values[F_OFFSET] = offset.getTotalSeconds();
+                values[F_INSTANT] = date.toEpochDay() * 86400 + time.toSecondOfDay() - offset.getTotalSeconds();
+                available |= (1 << F_OFFSET) | (1 << F_INSTANT);
+            } else if (instant != null) {
+                values[F_INSTANT] = instant.getEpochSecond();
+                values[F_NANO] = instant.getNano();
+                available |= (1 << F_INSTANT) | (1 << F_NANO);
+            }
+
+            int length = buf.length();
+            if (format(0, steps.length, values, available, 0, buf) == GIVE_UP) {
+                buf.setLength(length);
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Formats a range of steps, as {@link CompositePrinterParser#format}.
+         *
+         * @return DONE, SKIPPED if a field is not available within an optional
+         *  section, or GIVE_UP
+         */
+        private int format(int from, int to, long[] values, int available, int optional, StringBuilder buf) {
+            int i = from;
+            while (i < to) {
+                Step step = steps[i];
+                if (step.kind == COMPOSITE) {
+                    int length = buf.length();
+                    int result = format(i + 1, step.end, values, available,
+                            (step.optional ? optional + 1 : optional), buf);
+                    if (result == GIVE_UP) {
+                        return GIVE_UP;
+                    }
+                    if (result == SKIPPED) {
+                        buf.setLength(length);
+                    }
+                    i = step.end;
+                    continue;
+                }
+                if (step.field >= 0 && step.kind != DEFAULT && (available & (1 << step.field)) == 0) {
+                    // as DateTimePrintContext.getValue, which throws unless optional
+                    return (optional > 0 ? SKIPPED : GIVE_UP);
+                }
+                switch (step.kind) {
+                    case CHAR:
+                        buf.append(step.literal);
+                        break;
+                    case STRING:
+                        buf.append(step.text);
+                        break;
+                    case NUMBER:
+                        if (formatNumber(step, values[step.field], buf) == false) {
+                            return GIVE_UP;
+                        }
+                        break;
+                    case FRACTION:
+                        formatFraction(step, (int) values[F_NANO], buf);
+                        break;
+                    case OFFSET:
+                        ((OffsetIdPrinterParser) step.printerParser).formatOffset((int) values[F_OFFSET], buf);
+                        break;
+                    case INSTANT:
+                        formatInstant(step, values[F_INSTANT], (int) values[F_NANO], buf);
+                        break;
+                }
+                i++;
+            }
+            return DONE;
+        }
+
+        /**
+         * Formats a value as {@link NumberPrinterParser#format}, with standard symbols.
+         *
+         * @return false if the value cannot be printed
+         */
+        private static boolean formatNumber(Step step, long value, StringBuilder buf) {
+            long abs = Math.abs(value);
+            int width = 1;
+            for (long limit = 10; width < 18 && abs >= limit; limit *= 10) {
+                width++;
+            }
+            if (width > step.maxWidth) {
+                return false;
+            }
+            if (value >= 0) {
+                if (step.signStyle == SignStyle.ALWAYS || (step.signStyle == SignStyle.EXCEEDS_PAD &&
+                        value >= NumberPrinterParser.EXCEED_POINTS[step.minWidth])) {
+                    buf.append('+');
+                }
+            } else {
+                if (step.signStyle == SignStyle.NOT_NEGATIVE) {
+                    return false;
+                }
+                if (step.signStyle != SignStyle.NEVER) {
+                    buf.append('-');
+                }
+            }
+            for (int i = width; i < step.minWidth; i++) {
+                buf.append('0');
+            }
+            buf.append(abs);
+            return true;
+        }
+
+        /**
+         * Formats the nano-of-second as {@link FractionPrinterParser#format},
+         * with standard symbols.
+         */
+        private static void formatFraction(Step step, int nano, StringBuilder buf) {
+            if (nano == 0) {
+                if (step.minWidth > 0) {
+                    if (step.decimalPoint) {
+                        buf.append('.');
+                    }
+                    for (int i = 0; i < step.minWidth; i++) {
+                        buf.append('0');
+                    }
+                }
+                return;
+            }
+            int scale = 9;
+            for (int n = nano; n % 10 == 0; n /= 10) {
+                scale--;
+            }
+            int outputScale = Math.min(Math.max(scale, step.minWidth), step.maxWidth);
+            if (step.decimalPoint) {
+                buf.append('.');
+            }
+            for (int i = 0, div = 100_000_000; i < outputScale; i++, div /= 10) {
+                buf.append((char) ('0' + (nano / div) % 10));
+            }
+        }
+
+        /**
+         * Formats an instant as {@link InstantPrinterParser#format}, writing
+         * the digits directly for the years 0000 to 9999.
+         */
+        private static void formatInstant(Step step, long inSec, int inNano, StringBuilder buf) {
+            InstantPrinterParser ipp = (InstantPrinterParser) step.printerParser;
+            if (inSec < -InstantPrinterParser.SECONDS_0000_TO_1970 || inSec >= SECONDS_1970_TO_10000) {
+                ipp.formatInstant(inSec, inNano, buf);
+                return;
+            }
+            LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(inSec, 86400));
+            int secsOfDay = Math.floorMod(inSec, 86400);
+            appendPadded(buf, date.getYear(), 4);
+            buf.append('-');
+            appendPadded(buf, date.getMonthValue(), 2);
+            buf.append('-');
+            appendPadded(buf, date.getDayOfMonth(), 2);
+            buf.append('T');
+            appendPadded(buf, secsOfDay / 3600, 2);
+            buf.append(':');
+            appendPadded(buf, (secsOfDay / 60) % 60, 2);
+            buf.append(':');
+            appendPadded(buf, secsOfDay % 60, 2);
+            ipp.formatFraction(inNano, buf);
+        }
+
+        private static void appendPadded(StringBuilder buf, int value, int width) {
+            for (int limit = 10; width > 1; width--, limit *= 10) {
+                if (value < limit) {
+                    buf.append('0');
+                }
+            }
+            buf.append(value);
+        }
+
+        //-----------------------------------------------------------------------
+        /**
+         * Parses the whole text.
+         *
+         * @param text  the text to parse, not null
+         * @param formatter  the formatter, not null
+         * @return the unresolved result of the parse, null if the text cannot be
+         *  parsed and the printer-parser chain must be used to report the error
+         */
+        Parsed parse(CharSequence text, DateTimeFormatter formatter) {
+            if (isCompatible(formatter) == false) {
+                return null;
+            }
+            ParseState state = new ParseState();
+            if (parse(0, steps.length, text, 0, state) != text.length()) {
+                return null;
+            }
+            Parsed parsed = new Parsed();
+            for (int i = 0; i < FIELDS.length; i++) {
+                if ((state.parsed & (1 << i)) != 0) {
+                    parsed.fieldValues.put(FIELDS[i], state.values[i]);
+                }
+            }
+            parsed.leapSecond = state.leapSecond;
+            // as DateTimeParseContext.toResolved, no chronology or zone is parsed
+            parsed.chrono = IsoChronology.INSTANCE;
+            parsed.zone = formatter.getZone();
+            return parsed;
+        }
+
+        /**
+         * Parses a range of steps, as {@link CompositePrinterParser#parse}.
+         *
+         * @return the new parse position, its complement on error, or GIVE_UP
+         */
+        private int parse(int from, int to, CharSequence text, int position, ParseState state) {
+            int i = from;
+            while (i < to) {
+                Step step = steps[i];
+                if (step.kind == COMPOSITE) {
+                    if (step.optional) {
+                        int parsed = state.parsed;
+                        boolean leapSecond = state.leapSecond;
+                        int pos = parse(i + 1, step.end, text, position, state);
+                        if (pos == GIVE_UP) {
+                            return GIVE_UP;
+                        }
+                        if (pos < 0) {
+                            // discard the values parsed in the optional section
+                            state.parsed = parsed;
+                            state.leapSecond = leapSecond;
+                        } else {
+                            position = pos;
+                        }
+                    } else {
+                        position = parse(i + 1, step.end, text, position, state);
+                    }
+                    i = step.end;
+                } else {
+                    position = parseStep(step, text, position, state);
+                    i++;
+                }
+                if (position < 0) {
+                    return position;
+                }
+            }
+            return position;
+        }
+
+        private int parseStep(Step step, CharSequence text, int position, ParseState state) {
+            int length = text.length();
+            switch (step.kind) {
+                case CHAR: {
+                    if (position == length) {
+                        return ~position;
+                    }
+                    char ch = text.charAt(position);
+                    if (ch != step.literal && (state.caseSensitive ||
+                            DateTimeParseContext.charEqualsIgnoreCase(ch, step.literal) == false)) {
+                        return ~position;
+                    }
+                    return position + 1;
+                }
+                case STRING: {
+                    String literal = step.text;
+                    if (subSequenceEquals(text, position, literal, state.caseSensitive) == false) {
+                        return ~position;
+                    }
+                    return position + literal.length();
+                }
+                case NUMBER:
+                    return parseNumber(step, text, position, state);
+                case FRACTION:
+                    return parseFraction(step, text, position, state);
+                case OFFSET:
+                    return parseOffset(step, text, position, state);
+                case INSTANT:
+                    return parseInstant(step, text, position, state);
+                case SETTINGS:
+                    // as SettingsParser.parse
+                    switch ((int) step.value) {
+                        case 0: state.caseSensitive = true; break;
+                        case 1: state.caseSensitive = false; break;
+                        case 2: state.strict = true; break;
+                        case 3: state.strict = false; break;
+                    }
+                    return position;
+                case DEFAULT:
+                    if ((state.parsed & (1 << step.field)) == 0) {
+                        state.set(step.field, step.value, position, position);
+                    }
+                    return position;
+            }
+            return GIVE_UP;
+        }
+
+        private static boolean subSequenceEquals(CharSequence text, int position, String literal,
+                                                 boolean caseSensitive) {
+            int length = literal.length();
+            if (position + length > text.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                char ch1 = text.charAt(position + i);
+                char ch2 = literal.charAt(i);
+                if (ch1 != ch2 && (caseSensitive || DateTimeParseContext.charEqualsIgnoreCase(ch1, ch2) == false)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Parses a value as {@link NumberPrinterParser#parse}, with standard symbols.
+         */
+        private static int parseNumber(Step step, CharSequence text, int position, ParseState state) {
+            int length = text.length();
+            if (position == length) {
+                return ~position;
+            }
+            SignStyle signStyle = step.signStyle;
+            int minWidth = step.minWidth;
+            int maxWidth = step.maxWidth;
+            int subsequentWidth = step.subsequentWidth;
+            boolean strict = state.strict;
+            boolean fixedWidth = subsequentWidth == -1 ||
+                    (subsequentWidth > 0 && minWidth == maxWidth && signStyle == SignStyle.NOT_NEGATIVE);
+            char sign = text.charAt(position);
+            boolean negative = false;
+            boolean positive = false;
+            if (sign == '+') {
+                if (signStyle.parse(true, strict, minWidth == maxWidth) == false) {
+                    return ~position;
+                }
+                positive = true;
+                position++;
+            } else if (sign == '-') {
+                if (signStyle.parse(false, strict, minWidth == maxWidth) == false) {
+                    return ~position;
+                }
+                negative = true;
+                position++;
+            } else {
+                if (signStyle == SignStyle.ALWAYS && strict) {
+                    return ~position;
+                }
+            }
+            int effMinWidth = (strict || fixedWidth ? minWidth : 1);
+            int minEndPos = position + effMinWidth;
+            if (minEndPos > length) {
+                return ~position;
+            }
+            int effMaxWidth = (strict || fixedWidth ? maxWidth : 9) + Math.max(subsequentWidth, 0);
+            long total = 0;
+            int pos = position;
+            for (int pass = 0; pass < 2; pass++) {
+                int maxEndPos = Math.min(pos + effMaxWidth, length);
+                while (pos < maxEndPos) {
+                    int digit = text.charAt(pos++) - '0';
+                    if (digit < 0 || digit > 9) {
+                        pos--;
+                        if (pos < minEndPos) {
+                            return ~position;  // need at least min width digits
+                        }
+                        break;
+                    }
+                    if ((pos - position) > 18) {
+                        return GIVE_UP;  // needs BigInteger
+                    }
+                    total = total * 10 + digit;
+                }
+                if (subsequentWidth > 0 && pass == 0) {
+                    // re-parse now we know the correct width
+                    int parseLen = pos - position;
+                    effMaxWidth = Math.max(effMinWidth, parseLen - subsequentWidth);
+                    pos = position;
+                    total = 0;
+                } else {
+                    break;
+                }
+            }
+            if (negative) {
+                if (total == 0 && strict) {
+                    return ~(position - 1);  // minus zero not allowed
+                }
+                total = -total;
+            } else if (signStyle == SignStyle.EXCEEDS_PAD && strict) {
+                int parseLen = pos - position;
+                if (positive) {
+                    if (parseLen <= minWidth) {
+                        return ~(position - 1);  // '+' only parsed if minWidth exceeded
+                    }
+                } else {
+                    if (parseLen > minWidth) {
+                        return ~position;  // '+' must be parsed if minWidth exceeded
+                    }
+                }
+            }
+            return state.set(step.field, total, position, pos);
+        }
+
+        /**
+         * Parses the nano-of-second as {@link FractionPrinterParser#parse},
+         * with standard symbols.
+         */
+        private static int parseFraction(Step step, CharSequence text, int position, ParseState state) {
+            int effectiveMin = (state.strict ? step.minWidth : 0);
+            int effectiveMax = (state.strict ? step.maxWidth : 9);
+            int length = text.length();
+            if (position == length) {
+                // valid if whole field is optional, invalid if minimum width
+                return (effectiveMin > 0 ? ~position : position);
+            }
+            if (step.decimalPoint) {
+                if (text.charAt(position) != '.') {
+                    // valid if whole field is optional, invalid if minimum width
+                    return (effectiveMin > 0 ? ~position : position);
+                }
+                position++;
+            }
+            int minEndPos = position + effectiveMin;
+            if (minEndPos > length) {
+                return ~position;  // need at least min width digits
+            }
+            int maxEndPos = Math.min(position + effectiveMax, length);
+            int total = 0;
+            int pos = position;
+            while (pos < maxEndPos) {
+                int digit = text.charAt(pos++) - '0';
+                if (digit < 0 || digit > 9) {
+                    if (pos < minEndPos) {
+                        return ~position;  // need at least min width digits
+                    }
+                    pos--;
+                    break;
+                }
+                total = total * 10 + digit;
+            }
+            for (int i = pos - position; i < 9; i++) {
+                total *= 10;
+            }
+            return state.set(F_NANO, total, position, pos);
+        }
+
+        /**
+         * Parses an offset as {@link OffsetIdPrinterParser#parse}.
+         */
+        private static int parseOffset(Step step, CharSequence text, int position, ParseState state) {
+            int length = text.length();
+            String noOffsetText = step.text;
+            int noOffsetLen = noOffsetText.length();
+            if (noOffsetLen == 0) {
+                if (position == length) {
+                    return state.set(F_OFFSET, 0, position, position);
+                }
+            } else {
+                if (position == length) {
+                    return ~position;
+                }
+                if (subSequenceEquals(text, position, noOffsetText, state.caseSensitive)) {
+                    return state.set(F_OFFSET, 0, position, position + noOffsetLen);
+                }
+            }
+            char sign = text.charAt(position);
+            if (sign == '+' || sign == '-') {
+                int negative = (sign == '-' ? -1 : 1);
+                int[] array = ((OffsetIdPrinterParser) step.printerParser).parseSigned(text, position, state.strict);
+                if (array[0] > 0) {
+                    if (array[1] > 23 || array[2] > 59 || array[3] > 59) {
+                        return GIVE_UP;  // reported by the printer-parser
+                    }
+                    long offsetSecs = negative * (array[1] * 3600L + array[2] * 60L + array[3]);
+                    return state.set(F_OFFSET, offsetSecs, position, array[0]);
+                }
+            }
+            if (noOffsetLen == 0) {
+                return state.set(F_OFFSET, 0, position, position);
+            }
+            return ~position;
+        }
+
+        /**
+         * Parses an instant as {@link InstantPrinterParser#parse}.
+         */
+        private static int parseInstant(Step step, CharSequence text, int position, ParseState state) {
+            CompiledPrinterParser parser = step.instantParser;
+            if (parser == null) {
+                return GIVE_UP;
+            }
+            // new state to avoid overwriting fields like year/month/day
+            ParseState copy = state.copy();
+            int pos = parser.parse(0, parser.steps.length, text, position, copy);
+            if (pos < 0) {
+                return pos;
+            }
+            long[] values = copy.values;
+            long yearParsed = values[F_YEAR];
+            int month = (int) values[F_MONTH];
+            int day = (int) values[F_DAY];
+            int hour = (int) values[F_HOUR];
+            int min = (int) values[F_MINUTE];
+            int sec = ((copy.parsed & (1 << F_SECOND)) != 0 ? (int) values[F_SECOND] : 0);
+            int nano = ((copy.parsed & (1 << F_NANO)) != 0 ? (int) values[F_NANO] : 0);
+            int days = 0;
+            if (hour == 24 && min == 0 && sec == 0 && nano == 0) {
+                hour = 0;
+                days = 1;
+            } else if (hour == 23 && min == 59 && sec == 60) {
+                state.leapSecond = true;
+                sec = 59;
+            }
+            int year = (int) yearParsed % 10_000;
+            long instantSecs;
+            try {
+                LocalDateTime ldt = LocalDateTime.of(year, month, day, hour, min, sec, 0).plusDays(days);
+                instantSecs = ldt.toEpochSecond(ZoneOffset.UTC);
+                instantSecs += Math.multiplyExact(yearParsed / 10_000L,
+                        InstantPrinterParser.SECONDS_PER_10000_YEARS);
+            } catch (RuntimeException ex) {
+                return ~position;
+            }
+            int successPos = state.set(F_INSTANT, instantSecs, position, pos);
+            return state.set(F_NANO, nano, position, successPos);
+        }
+    }
+
     //-------------------------------------------------------------------------
     /**
      * Length comparator.
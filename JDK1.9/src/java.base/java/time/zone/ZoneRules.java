@@ -71,6 +71,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.Year;
@@ -82,6 +83,8 @@ import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import static java.time.temporal.ChronoField.NANO_OF_SECOND;
+
 /**
  * The rules defining how the zone offset varies for a single time-zone.
  * <p>
@@ -149,6 +152,19 @@ public final class ZoneRules implements Serializable {
      */
     private final transient ConcurrentMap<Integer, ZoneOffsetTransition[]> lastRulesCache =
                 new ConcurrentHashMap<Integer, ZoneOffsetTransition[]>();
+    /**
+     * The number of cached offset windows, a power of two.
+     */
+    private static final int WINDOW_CACHE_SIZE = 4;
+    /**
+     * The recently used offset windows, indexed by the epoch second
+     * divided by 2^24, about 194 days.
+     */
+    private final transient OffsetWindow[] windowCache = new OffsetWindow[WINDOW_CACHE_SIZE];
+    /**
+     * The recently used local day.
+     */
+    private transient volatile LocalDay dayCache;
     /**
      * The zero-length long array.
      */
@@ -479,20 +495,108 @@ public final class ZoneRules implements Serializable {
         if (savingsInstantTransitions.length == 0) {
             return standardOffsets[0];
         }
-        long epochSec = instant.getEpochSecond();
+        return findWindow(instant.getEpochSecond()).offset;
+    }
+
+    /**
+     * Gets the offset applicable at the specified epoch-second in these rules.
+     * <p>
+     * This is equivalent to {@link #getOffset(Instant)}, without requiring an
+     * {@code Instant}.
+     *
+     * @param epochSecond  the number of seconds from the epoch of 1970-01-01T00:00:00Z
+     * @return the offset, not null
+     * @throws java.time.DateTimeException if the rules have to find the year of
+     *  the epoch-second and it exceeds the supported date range
+     * @since 10
+     */
+    public ZoneOffset getOffset(long epochSecond) {
+        if (savingsInstantTransitions.length == 0) {
+            return standardOffsets[0];
+        }
+        return findWindow(epochSecond).offset;
+    }
+
+    /**
+     * Gets the local date-time at the specified epoch-second in these rules.
+     * <p>
+     * This is equivalent to
+     * {@code LocalDateTime.ofEpochSecond(epochSecond, nanoOfSecond, getOffset(epochSecond))}.
+     * The rules remember the period of the most recently converted local day,
+     * so that converting a sequence of nearby instants, such as the timestamps
+     * of a log, mostly only computes the time of day.
+     *
+     * @param epochSecond  the number of seconds from the epoch of 1970-01-01T00:00:00Z
+     * @param nanoOfSecond  the nanosecond within the second, from 0 to 999,999,999
+     * @return the local date-time, not null
+     * @throws java.time.DateTimeException if the result exceeds the supported range,
+     *  or if the nano-of-second is invalid
+     * @since 10
+     */
+    public LocalDateTime getLocalDateTime(long epochSecond, int nanoOfSecond) {
+        NANO_OF_SECOND.checkValidValue(nanoOfSecond);
+        LocalDay day = dayCache;
+        if (day == null || epochSecond < day.start || epochSecond >= day.end) {
+            OffsetWindow window = findWindow(epochSecond);
+            int offsetSecs = window.offset.getTotalSeconds();
+            long localEpochDay = Math.floorDiv(epochSecond + offsetSecs, 86400);  // overflow caught later
+            LocalDate date = LocalDate.ofEpochDay(localEpochDay);
+            long midnight = localEpochDay * 86400 - offsetSecs;
+            day = new LocalDay(Math.max(midnight, window.start), Math.min(midnight + 86400, window.end),
+                    midnight, date);
+            dayCache = day;
+        }
+        long secsOfDay = epochSecond - day.midnight;
+        return LocalDateTime.of(day.date, LocalTime.ofNanoOfDay(secsOfDay * 1000_000_000L + nanoOfSecond));
+    }
+
+    /**
+     * Finds the window of constant offset containing the epoch-second,
+     * using the cache of recent windows.
+     *
+     * @param epochSec  the epoch-second
+     * @return the window, not null
+     */
+    private OffsetWindow findWindow(long epochSec) {
+        int slot = (int) (epochSec >> 24) & (WINDOW_CACHE_SIZE - 1);
+        OffsetWindow window = windowCache[slot];
+        if (window == null || epochSec < window.start || epochSec >= window.end) {
+            window = createWindow(epochSec);
+            windowCache[slot] = window;
+        }
+        return window;
+    }
+
+    /**
+     * Creates the window of constant offset containing the epoch-second.
+     * <p>
+     * The window only includes instants for which the offset is found in the
+     * same way, so that it never depends on the consistency of the rules.
+     *
+     * @param epochSec  the epoch-second
+     * @return the window, not null
+     */
+    private OffsetWindow createWindow(long epochSec) {
+        if (savingsInstantTransitions.length == 0) {
+            return new OffsetWindow(Long.MIN_VALUE, Long.MAX_VALUE, standardOffsets[0]);
+        }
+        long lastHistoric = savingsInstantTransitions[savingsInstantTransitions.length - 1];
         // check if using last rules
-        if (lastRules.length > 0 &&
-                epochSec > savingsInstantTransitions[savingsInstantTransitions.length - 1]) {
-            int year = findYear(epochSec, wallOffsets[wallOffsets.length - 1]);
+        if (lastRules.length > 0 && epochSec > lastHistoric) {
+            // the instants in the same year as found by findYear
+            ZoneOffset lastHistoricOffset = wallOffsets[wallOffsets.length - 1];
+            int year = findYear(epochSec, lastHistoricOffset);
+            long start = Math.max(lastHistoric + 1, findYearStart(year, lastHistoricOffset));
+            long end = (year < Year.MAX_VALUE ? findYearStart(year + 1, lastHistoricOffset) : Long.MAX_VALUE);
             ZoneOffsetTransition[] transArray = findTransitionArray(year);
-            ZoneOffsetTransition trans = null;
-            for (int i = 0; i < transArray.length; i++) {
-                trans = transArray[i];
-                if (epochSec < trans.toEpochSecond()) {
-                    return trans.getOffsetBefore();
+            for (ZoneOffsetTransition trans : transArray) {
+                long transEpochSec = trans.toEpochSecond();
+                if (epochSec < transEpochSec) {
+                    return new OffsetWindow(start, Math.min(end, transEpochSec), trans.getOffsetBefore());
                 }
+                start = Math.max(start, transEpochSec);
             }
-            return trans.getOffsetAfter();
+            return new OffsetWindow(start, end, transArray[transArray.length - 1].getOffsetAfter());
         }
 
         // using historic rules
@@ -501,7 +605,14 @@ public final class ZoneRules implements Serializable {
             // switch negative insert position to start of matched range
             index = -index - 2;
         }
-        return wallOffsets[index + 1];
+        long start = (index >= 0 ? savingsInstantTransitions[index] : Long.MIN_VALUE);
+        long end;
+        if (index + 1 < savingsInstantTransitions.length) {
+            end = savingsInstantTransitions[index + 1];
+        } else {
+            end = (lastRules.length > 0 ? lastHistoric + 1 : Long.MAX_VALUE);
+        }
+        return new OffsetWindow(start, end, wallOffsets[index + 1]);
     }
 
     /**
@@ -927,6 +1038,10 @@ public final class ZoneRules implements Serializable {
         return LocalDate.ofEpochDay(localEpochDay).getYear();
     }
 
+    private long findYearStart(int year, ZoneOffset offset) {
+        return LocalDate.of(year, 1, 1).toEpochDay() * 86400 - offset.getTotalSeconds();
+    }
+
     /**
      * Gets the complete list of fully defined transitions.
      * <p>
@@ -1024,4 +1139,39 @@ public final class ZoneRules implements Serializable {
         return "ZoneRules[currentStandardOffset=" + standardOffsets[standardOffsets.length - 1] + "]";
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * A period of epoch-seconds, from start inclusive to end exclusive,
+     * during which the offset does not change.
+     */
+    private static final class OffsetWindow {
+        final long start;
+        final long end;
+        final ZoneOffset offset;
+
+        OffsetWindow(long start, long end, ZoneOffset offset) {
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * A period of epoch-seconds, from start inclusive to end exclusive,
+     * during which both the offset and the local date do not change.
+     */
+    private static final class LocalDay {
+        final long start;
+        final long end;
+        final long midnight;  // the epoch-second of the start of the local date
+        final LocalDate date;
+
+        LocalDay(long start, long end, long midnight, LocalDate date) {
+            this.start = start;
+            this.end = end;
+            this.midnight = midnight;
+            this.date = date;
+        }
+    }
+
 }
@@ -0,0 +1,626 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A set of {@code int} values, implemented with open addressing.  Unlike a
+ * {@code HashSet<Integer>}, this class stores its elements unboxed in a
+ * single {@code int[]} table, so an element costs between 5 and 11 bytes of
+ * heap instead of an {@code Integer} and a {@code HashMap.Node}.
+ *
+ * <p>Elements are placed by a scrambled hash of their value and collisions
+ * are resolved by linear probing.  The table is doubled when it becomes
+ * three quarters full.  Removal moves the following elements of the probe
+ * sequence back, so the table never accumulates deleted markers.  The value
+ * {@code 0} is kept outside of the table, where it marks free slots.
+ *
+ * <p>This class offers constant-time performance for {@code add},
+ * {@code remove} and {@code contains}, assuming the hash function disperses
+ * the elements properly.  Iteration order is unspecified and may change
+ * when the set is resized.
+ *
+ * <p>The iterators and spliterators returned by this class are
+ * <em>fail-fast</em>, in the same sense as those of {@link HashSet}.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a set concurrently, and at least one of the
+ * threads modifies the set, it must be synchronized externally.
+ *
+ * @see HashSet
+ * @see IntIntHashMap
+ * @since 10
+ */
+public class IntHashSet {
+
+    /**
+     * The default table length, a power of two.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The largest table length, a power of two.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The table of elements; a zero entry is a free slot.  The length is
+     * always a power of two.
+     */
+    private int[] table;
+
+    /**
+     * Whether the set contains the element zero, which is not stored in
+     * the table.
+     */
+    private boolean containsZero;
+
+    /**
+     * The number of elements in the set, including zero.
+     */
+    private int size;
+
+    /**
+     * The size at which the table is doubled.
+     */
+    private int threshold;
+
+    /**
+     * The number of times this set has been structurally modified.
+     */
+    private int modCount;
+
+    /**
+     * Constructs an empty set with a default initial capacity.
+     */
+    public IntHashSet() {
+        setTable(new int[DEFAULT_CAPACITY]);
+    }
+
+    /**
+     * Constructs an empty set that can hold the given number of elements
+     * without being resized.
+     *
+     * @param expectedSize the expected number of elements
+     * @throws IllegalArgumentException if {@code expectedSize} is negative
+     */
+    public IntHashSet(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Illegal expected size: " +
+                                               expectedSize);
+        setTable(new int[tableSizeFor(expectedSize)]);
+    }
+
+    /**
+     * Returns a scrambled hash of the given element.  The multiplication
+     * spreads consecutive values over the table, and the shift folds the
+     * well-mixed high bits into the low bits used as the table index.
+     */
+    static int hash(int key) {
+        int h = key * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the table length needed to hold the given number of elements
+     * below the load threshold.
+     */
+    static int tableSizeFor(int expectedSize) {
+        long n = (long) expectedSize + (expectedSize >>> 1) + 1;
+        if (n >= MAXIMUM_CAPACITY)
+            return MAXIMUM_CAPACITY;
+        return Math.max(DEFAULT_CAPACITY,
+                        Integer.highestOneBit((int) n - 1) << 1);
+    }
+
+    /**
+     * Returns the size at which a table of the given length is doubled.
+     */
+    static int thresholdFor(int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+
+    private void setTable(int[] tab) {
+        table = tab;
+        threshold = thresholdFor(tab.length);
+    }
+
+    /**
+     * Returns the number of elements in this set.
+     *
+     * @return the number of elements in this set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this set contains no elements.
+     *
+     * @return {@code true} if this set contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if this set contains the given element.
+     *
+     * @param value the element whose presence is to be tested
+     * @return {@code true} if this set contains the given element
+     */
+    public boolean contains(int value) {
+        if (value == 0)
+            return containsZero;
+        int[] tab = table;
+        int mask = tab.length - 1;
+        for (int i = hash(value) & mask, k; (k = tab[i]) != 0;
+             i = (i + 1) & mask) {
+            if (k == value)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds the given element to this set if it is not already present.
+     *
+     * @param value the element to be added
+     * @return {@code true} if this set did not already contain the element
+     * @throws IllegalStateException if the set is full
+     */
+    public boolean add(int value) {
+        if (value == 0) {
+            if (containsZero)
+                return false;
+            containsZero = true;
+        } else {
+            int[] tab = table;
+            int mask = tab.length - 1;
+            int i = hash(value) & mask;
+            for (int k; (k = tab[i]) != 0; i = (i + 1) & mask) {
+                if (k == value)
+                    return false;
+            }
+            if (size >= threshold) {
+                resize();
+                add(value);
+                return true;
+            }
+            tab[i] = value;
+        }
+        ++modCount;
+        ++size;
+        return true;
+    }
+
+    /**
+     * Doubles the table.
+     */
+    private void resize() {
+        int[] oldTab = table;
+        int oldCap = oldTab.length;
+        if (oldCap == MAXIMUM_CAPACITY)
+            throw new IllegalStateException("Set full");
+        int[] tab = new int[oldCap << 1];
+        int mask = tab.length - 1;
+        for (int k : oldTab) {
+            if (k != 0) {
+                int i = hash(k) & mask;
+                while (tab[i] != 0)
+                    i = (i + 1) & mask;
+                tab[i] = k;
+            }
+        }
+        setTable(tab);
+    }
+
+    /**
+     * Removes the given element from this set if it is present.
+     *
+     * @param value the element to be removed
+     * @return {@code true} if this set contained the element
+     */
+    public boolean remove(int value) {
+        if (value == 0) {
+            if (!containsZero)
+                return false;
+            containsZero = false;
+        } else {
+            int[] tab = table;
+            int mask = tab.length - 1;
+            int i = hash(value) & mask;
+            for (int k; (k = tab[i]) != value; i = (i + 1) & mask) {
+                if (k == 0)
+                    return false;
+            }
+            removeAt(tab, i);
+        }
+        ++modCount;
+        --size;
+        return true;
+    }
+
+    /**
+     * Frees slot i, moving back the elements of the probe sequence that
+     * follows it which would otherwise no longer be reachable.
+     */
+    private static void removeAt(int[] tab, int i) {
+        int mask = tab.length - 1;
+        for (int j = i;;) {
+            j = (j + 1) & mask;
+            int k = tab[j];
+            if (k == 0)
+                break;
+            // k may fill the gap if its home slot is not within (i, j]
+            if (((j - hash(k)) & mask) >= ((j - i) & mask)) {
+                tab[i] = k;
+                i = j;
+            }
+        }
+        tab[i] = 0;
+    }
+
+    /**
+     * Returns the index of a free slot, which always exists as the table
+     * is never full.  No probe sequence wraps around it, so a scan that
+     * starts after it sees every element moved back by {@link #removeAt}
+     * again, rather than a second time or not at all.
+     */
+    private static int freeSlot(int[] tab) {
+        int i = 0;
+        while (tab[i] != 0)
+            ++i;
+        return i;
+    }
+
+    /**
+     * Removes all of the elements of this set that satisfy the given
+     * predicate.
+     *
+     * @param filter a predicate which returns {@code true} for elements to
+     *        be removed
+     * @return {@code true} if any elements were removed
+     * @throws NullPointerException if the specified filter is null
+     */
+    public boolean removeIf(IntPredicate filter) {
+        Objects.requireNonNull(filter);
+        // the set stays consistent if the filter throws
+        boolean removed = false;
+        if (containsZero && filter.test(0)) {
+            containsZero = false;
+            ++modCount;
+            --size;
+            removed = true;
+        }
+        int[] tab = table;
+        int mask = tab.length - 1;
+        int start = freeSlot(tab);
+        for (int n = 1, i = (start + 1) & mask; n < tab.length; ) {
+            int k = tab[i];
+            if (k != 0 && filter.test(k)) {
+                removeAt(tab, i);       // look at slot i again
+                ++modCount;
+                --size;
+                removed = true;
+            } else {
+                i = (i + 1) & mask;
+                ++n;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all of the elements from this set.
+     */
+    public void clear() {
+        if (size > 0) {
+            modCount++;
+            size = 0;
+            containsZero = false;
+            Arrays.fill(table, 0);
+        }
+    }
+
+    /**
+     * Performs the given action for each element of this set.
+     *
+     * @param action the action to be performed for each element
+     * @throws NullPointerException if the specified action is null
+     * @throws ConcurrentModificationException if the set is modified by
+     *         the action
+     */
+    public void forEach(IntConsumer action) {
+        Objects.requireNonNull(action);
+        int mc = modCount;
+        if (containsZero)
+            action.accept(0);
+        for (int k : table) {
+            if (k != 0)
+                action.accept(k);
+        }
+        if (modCount != mc)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Returns an array containing all of the elements of this set.
+     *
+     * @return an array containing all of the elements of this set
+     */
+    public int[] toArray() {
+        int[] a = new int[size];
+        int n = containsZero ? 1 : 0;  // a[0] is already zero
+        for (int k : table) {
+            if (k != 0)
+                a[n++] = k;
+        }
+        return a;
+    }
+
+    /**
+     * Returns an iterator over the elements of this set.  The iterator
+     * supports {@code remove}.
+     *
+     * @return an iterator over the elements of this set
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new Itr();
+    }
+
+    /**
+     * Returns a {@link Spliterator.OfInt} over the elements of this set.
+     * The spliterator reports {@link Spliterator#DISTINCT} and
+     * {@link Spliterator#SIZED}, is <em>late-binding</em> and
+     * <em>fail-fast</em>.
+     *
+     * @return a {@code Spliterator.OfInt} over the elements of this set
+     */
+    public Spliterator.OfInt spliterator() {
+        return new IntHashSetSpliterator(this, 0, -1, 0, 0);
+    }
+
+    /**
+     * Returns a sequential {@code IntStream} with this set as its source.
+     *
+     * @return a sequential {@code IntStream} over the elements of this set
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    /**
+     * Compares the given object with this set for equality.  Returns
+     * {@code true} if the given object is also an {@code IntHashSet} and
+     * the two sets contain the same elements.
+     *
+     * @param o object to be compared for equality with this set
+     * @return {@code true} if the given object is equal to this set
+     */
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof IntHashSet))
+            return false;
+        IntHashSet s = (IntHashSet) o;
+        if (s.size != size || s.containsZero != containsZero)
+            return false;
+        for (int k : table) {
+            if (k != 0 && !s.contains(k))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this set, the sum of its elements.
+     * This is the hash code of a {@code Set<Integer>} with the same
+     * elements.
+     *
+     * @return the hash code value for this set
+     */
+    public int hashCode() {
+        int h = 0;
+        for (int k : table)
+            h += k;
+        return h;
+    }
+
+    /**
+     * Returns a string representation of this set, in the format used by
+     * {@link AbstractCollection#toString}.
+     *
+     * @return a string representation of this set
+     */
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "[", "]");
+        forEach(k -> sj.add(Integer.toString(k)));
+        return sj.toString();
+    }
+
+    /**
+     * Iterator starting after a free slot, so that removing the current
+     * element and looking at its slot again visits every element once.
+     */
+    private final class Itr implements PrimitiveIterator.OfInt {
+        final int[] tab = table;
+        final int mask = tab.length - 1;
+        int next;           // slot to look at next
+        int remaining;      // slots left to look at
+        int current = -1;   // slot of last returned element, -2 for zero
+        boolean zero = containsZero;
+        int expectedModCount = modCount;
+
+        Itr() {
+            next = (freeSlot(tab) + 1) & mask;
+            remaining = tab.length - 1;
+        }
+
+        public boolean hasNext() {
+            if (zero)
+                return true;
+            for (; remaining > 0; next = (next + 1) & mask, --remaining) {
+                if (tab[next] != 0)
+                    return true;
+            }
+            return false;
+        }
+
+        public int nextInt() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (!hasNext())
+                throw new NoSuchElementException();
+            if (zero) {
+                zero = false;
+                current = -2;
+                return 0;
+            }
+            current = next;
+            next = (next + 1) & mask;
+            --remaining;
+            return tab[current];
+        }
+
+        public void remove() {
+            if (current == -1)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (current == -2) {
+                containsZero = false;
+            } else {
+                removeAt(tab, current);
+                next = current;     // look at the slot again
+                ++remaining;
+            }
+            current = -1;
+            --size;
+            expectedModCount = ++modCount;
+        }
+    }
+
+    /**
+     * Spliterator over a range of table slots.  The top-level spliterator
+     * binds to the table at first use and reports the element zero before
+     * any slot of the table; a split passes zero on to the prefix.
+     */
+    static final class IntHashSetSpliterator implements Spliterator.OfInt {
+        private final IntHashSet set;
+        private int[] tab;          // bound at first use
+        private int index;          // current slot
+        private int fence;          // one past last slot, or -1 until bound
+        private int est;            // size estimate
+        private int expectedModCount;
+        private boolean zero;       // whether zero is still to be reported
+
+        IntHashSetSpliterator(IntHashSet set, int origin, int fence,
+                              int est, int expectedModCount) {
+            this.set = set;
+            this.index = origin;
+            this.fence = fence;
+            this.est = est;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() {
+            int hi;
+            if ((hi = fence) < 0) {
+                IntHashSet s = set;
+                tab = s.table;
+                est = s.size;
+                zero = s.containsZero;
+                expectedModCount = s.modCount;
+                hi = fence = tab.length;
+            }
+            return hi;
+        }
+
+        public IntHashSetSpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            if (lo >= mid)
+                return null;
+            IntHashSetSpliterator prefix =
+                new IntHashSetSpliterator(set, lo, index = mid, est >>>= 1,
+                                          expectedModCount);
+            prefix.tab = tab;
+            prefix.zero = zero;
+            zero = false;
+            return prefix;
+        }
+
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            if (zero) {
+                zero = false;
+                action.accept(0);
+            } else {
+                int[] a = tab;
+                while (index < hi && a[index] == 0)
+                    ++index;
+                if (index >= hi)
+                    return false;
+                action.accept(a[index++]);
+            }
+            if (set.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            return true;
+        }
+
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            int[] a = tab;
+            if (zero) {
+                zero = false;
+                action.accept(0);
+            }
+            for (int i = index; i < hi; i++) {
+                int k = a[i];
+                if (k != 0)
+                    action.accept(k);
+            }
+            index = hi;
+            if (set.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        public long estimateSize() {
+            getFence();
+            return est;
+        }
+
+        public int characteristics() {
+            return (fence < 0 || est == set.size ? Spliterator.SIZED : 0) |
+                Spliterator.DISTINCT;
+        }
+    }
+}
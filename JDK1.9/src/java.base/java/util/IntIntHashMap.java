@@ -0,0 +1,560 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util;
+
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntIntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static java.util.IntHashSet.MAXIMUM_CAPACITY;
+import static java.util.IntHashSet.hash;
+import static java.util.IntHashSet.tableSizeFor;
+import static java.util.IntHashSet.thresholdFor;
+
+/**
+ * A map from {@code int} keys to {@code int} values, implemented with open
+ * addressing.  Unlike a {@code HashMap<Integer,Integer>}, this class stores
+ * its mappings unboxed in two parallel {@code int[]} tables, so a mapping
+ * costs between 10 and 22 bytes of heap instead of two {@code Integer}s and
+ * a {@code HashMap.Node}.
+ *
+ * <p>The table is organized as described for {@link IntHashSet}: linear
+ * probing over a power-of-two table that is doubled when three quarters
+ * full, and removal without deleted markers.  The key {@code 0} is kept
+ * outside of the table.
+ *
+ * <p>An {@code IntIntHashMap} may be used as the result container of
+ * {@link IntStream#collect}, for example to count occurrences:
+ * <pre>{@code
+ *     IntIntHashMap counts = ints.collect(
+ *         IntIntHashMap::new,
+ *         (m, k) -> m.merge(k, 1, Integer::sum),
+ *         (m1, m2) -> m2.forEach((k, n) -> m1.merge(k, n, Integer::sum)));
+ * }</pre>
+ *
+ * <p>Iteration order is unspecified and may change when the map is
+ * resized.  The spliterators returned by {@link #keys} are
+ * <em>fail-fast</em>.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a map concurrently, and at least one of the
+ * threads modifies the map structurally, it must be synchronized
+ * externally.
+ *
+ * @see HashMap
+ * @see IntHashSet
+ * @since 10
+ */
+public class IntIntHashMap {
+
+    /**
+     * The table of keys; a zero entry is a free slot.  The length is
+     * always a power of two.
+     */
+    private int[] keys;
+
+    /**
+     * The table of values, parallel to the table of keys.
+     */
+    private int[] values;
+
+    /**
+     * Whether the map contains the key zero, which is not stored in the
+     * table.
+     */
+    private boolean containsZero;
+
+    /**
+     * The value of the key zero, if present.
+     */
+    private int zeroValue;
+
+    /**
+     * The number of mappings in the map, including the key zero.
+     */
+    private int size;
+
+    /**
+     * The size at which the table is doubled.
+     */
+    private int threshold;
+
+    /**
+     * The number of times this map has been structurally modified.
+     */
+    private int modCount;
+
+    /**
+     * Constructs an empty map with a default initial capacity.
+     */
+    public IntIntHashMap() {
+        this(0);
+    }
+
+    /**
+     * Constructs an empty map that can hold the given number of mappings
+     * without being resized.
+     *
+     * @param expectedSize the expected number of mappings
+     * @throws IllegalArgumentException if {@code expectedSize} is negative
+     */
+    public IntIntHashMap(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Illegal expected size: " +
+                                               expectedSize);
+        setTable(tableSizeFor(expectedSize));
+    }
+
+    private void setTable(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        threshold = thresholdFor(capacity);
+    }
+
+    /**
+     * Returns the slot of the given non-zero key, or -1 if absent.
+     */
+    private int indexOf(int key) {
+        int[] ks = keys;
+        int mask = ks.length - 1;
+        for (int i = hash(key) & mask, k; (k = ks[i]) != 0;
+             i = (i + 1) & mask) {
+            if (k == key)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot of the given non-zero key, inserting the key with
+     * the value zero if absent.
+     */
+    private int insert(int key) {
+        int[] ks = keys;
+        int mask = ks.length - 1;
+        int i = hash(key) & mask;
+        for (int k; (k = ks[i]) != 0; i = (i + 1) & mask) {
+            if (k == key)
+                return i;
+        }
+        if (size >= threshold) {
+            resize();
+            return insert(key);
+        }
+        ks[i] = key;
+        ++modCount;
+        ++size;
+        return i;
+    }
+
+    /**
+     * Doubles the table.
+     */
+    private void resize() {
+        int[] oldKeys = keys, oldValues = values;
+        int oldCap = oldKeys.length;
+        if (oldCap == MAXIMUM_CAPACITY)
+            throw new IllegalStateException("Map full");
+        setTable(oldCap << 1);
+        int[] ks = keys, vs = values;
+        int mask = ks.length - 1;
+        for (int j = 0; j < oldCap; j++) {
+            int k = oldKeys[j];
+            if (k != 0) {
+                int i = hash(k) & mask;
+                while (ks[i] != 0)
+                    i = (i + 1) & mask;
+                ks[i] = k;
+                vs[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if this map contains a mapping for the given
+     * key.
+     *
+     * @param key the key whose presence is to be tested
+     * @return {@code true} if this map contains a mapping for the key
+     */
+    public boolean containsKey(int key) {
+        return (key == 0) ? containsZero : indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns the value to which the given key is mapped, or
+     * {@code defaultValue} if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the default mapping of the key
+     * @return the value to which the key is mapped, or {@code defaultValue}
+     *         if this map contains no mapping for the key
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0)
+            return containsZero ? zeroValue : defaultValue;
+        int i = indexOf(key);
+        return (i >= 0) ? values[i] : defaultValue;
+    }
+
+    /**
+     * Associates the given value with the given key in this map, replacing
+     * the old value if the map already contained a mapping for the key.
+     *
+     * @param key key with which the value is to be associated
+     * @param value value to be associated with the key
+     * @throws IllegalStateException if the map is full
+     */
+    public void put(int key, int value) {
+        if (key == 0) {
+            if (!containsZero) {
+                containsZero = true;
+                ++modCount;
+                ++size;
+            }
+            zeroValue = value;
+        } else {
+            int i = insert(key);
+            values[i] = value;
+        }
+    }
+
+    /**
+     * Copies all of the mappings of the given map to this map, replacing
+     * the values of keys already present.
+     *
+     * @param m mappings to be stored in this map
+     * @throws NullPointerException if the specified map is null
+     * @throws IllegalStateException if the map is full
+     */
+    public void putAll(IntIntHashMap m) {
+        if (m.containsZero)
+            put(0, m.zeroValue);
+        int[] ks = m.keys, vs = m.values;
+        for (int i = 0; i < ks.length; i++) {
+            int k = ks[i];
+            if (k != 0) {
+                int j = insert(k);
+                values[j] = vs[i];
+            }
+        }
+    }
+
+    /**
+     * If the given key is not already present, associates it with the
+     * given value; otherwise replaces its value with the result of the
+     * given function applied to the old and the given value.  Unlike
+     * {@link Map#merge}, this method never removes a mapping.
+     *
+     * @param key key with which the resulting value is to be associated
+     * @param value the value to be merged with the existing value
+     * @param remappingFunction the function to recompute a value if present
+     * @return the new value associated with the key
+     * @throws NullPointerException if the remapping function is null
+     * @throws IllegalStateException if the map is full
+     */
+    public int merge(int key, int value, IntBinaryOperator remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        if (key == 0) {
+            if (containsZero) {
+                value = remappingFunction.applyAsInt(zeroValue, value);
+            } else {
+                containsZero = true;
+                ++modCount;
+                ++size;
+            }
+            return zeroValue = value;
+        }
+        int mc = modCount;
+        int i = insert(key);
+        if (modCount == mc)
+            value = remappingFunction.applyAsInt(values[i], value);
+        return values[i] = value;
+    }
+
+    /**
+     * Removes the mapping for the given key from this map if present.
+     *
+     * @param key key whose mapping is to be removed from the map
+     * @return {@code true} if this map contained a mapping for the key
+     */
+    public boolean remove(int key) {
+        if (key == 0) {
+            if (!containsZero)
+                return false;
+            containsZero = false;
+            zeroValue = 0;
+        } else {
+            int i = indexOf(key);
+            if (i < 0)
+                return false;
+            removeAt(i);
+        }
+        ++modCount;
+        --size;
+        return true;
+    }
+
+    /**
+     * Frees slot i, moving back the mappings of the probe sequence that
+     * follows it, as in {@link IntHashSet}.
+     */
+    private void removeAt(int i) {
+        int[] ks = keys, vs = values;
+        int mask = ks.length - 1;
+        for (int j = i;;) {
+            j = (j + 1) & mask;
+            int k = ks[j];
+            if (k == 0)
+                break;
+            if (((j - hash(k)) & mask) >= ((j - i) & mask)) {
+                ks[i] = k;
+                vs[i] = vs[j];
+                i = j;
+            }
+        }
+        ks[i] = 0;
+        vs[i] = 0;
+    }
+
+    /**
+     * Removes all of the mappings from this map.
+     */
+    public void clear() {
+        if (size > 0) {
+            modCount++;
+            size = 0;
+            containsZero = false;
+            zeroValue = 0;
+            Arrays.fill(keys, 0);
+            Arrays.fill(values, 0);
+        }
+    }
+
+    /**
+     * Performs the given action for each mapping of this map.
+     *
+     * @param action the action to be performed for each mapping, given the
+     *        key and the value
+     * @throws NullPointerException if the specified action is null
+     * @throws ConcurrentModificationException if the map is structurally
+     *         modified by the action
+     */
+    public void forEach(IntIntConsumer action) {
+        Objects.requireNonNull(action);
+        int mc = modCount;
+        if (containsZero)
+            action.accept(0, zeroValue);
+        int[] ks = keys, vs = values;
+        for (int i = 0; i < ks.length; i++) {
+            int k = ks[i];
+            if (k != 0)
+                action.accept(k, vs[i]);
+        }
+        if (modCount != mc)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Returns a sequential {@code IntStream} of the keys of this map.
+     *
+     * @return a sequential {@code IntStream} of the keys of this map
+     */
+    public IntStream keys() {
+        return StreamSupport.intStream(new KeySpliterator(this, 0, -1, 0, 0),
+                                       false);
+    }
+
+    /**
+     * Compares the given object with this map for equality.  Returns
+     * {@code true} if the given object is also an {@code IntIntHashMap} and
+     * the two maps contain the same mappings.
+     *
+     * @param o object to be compared for equality with this map
+     * @return {@code true} if the given object is equal to this map
+     */
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof IntIntHashMap))
+            return false;
+        IntIntHashMap m = (IntIntHashMap) o;
+        if (m.size != size || m.containsZero != containsZero ||
+            m.zeroValue != zeroValue)
+            return false;
+        int[] ks = keys, vs = values;
+        for (int i = 0; i < ks.length; i++) {
+            int k = ks[i];
+            if (k != 0) {
+                int j = m.indexOf(k);
+                if (j < 0 || m.values[j] != vs[i])
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this map.  This is the hash code of
+     * a {@code Map<Integer,Integer>} with the same mappings.
+     *
+     * @return the hash code value for this map
+     */
+    public int hashCode() {
+        int h = zeroValue;
+        int[] ks = keys, vs = values;
+        for (int i = 0; i < ks.length; i++)
+            h += ks[i] ^ vs[i];
+        return h;
+    }
+
+    /**
+     * Returns a string representation of this map, in the format used by
+     * {@link AbstractMap#toString}.
+     *
+     * @return a string representation of this map
+     */
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "{", "}");
+        forEach((k, v) -> sj.add(k + "=" + v));
+        return sj.toString();
+    }
+
+    /**
+     * Spliterator over the keys in a range of table slots, organized as
+     * the spliterator of {@link IntHashSet}.
+     */
+    static final class KeySpliterator implements Spliterator.OfInt {
+        private final IntIntHashMap map;
+        private int[] tab;          // bound at first use
+        private int index;          // current slot
+        private int fence;          // one past last slot, or -1 until bound
+        private int est;            // size estimate
+        private int expectedModCount;
+        private boolean zero;       // whether zero is still to be reported
+
+        KeySpliterator(IntIntHashMap map, int origin, int fence, int est,
+                       int expectedModCount) {
+            this.map = map;
+            this.index = origin;
+            this.fence = fence;
+            this.est = est;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() {
+            int hi;
+            if ((hi = fence) < 0) {
+                IntIntHashMap m = map;
+                tab = m.keys;
+                est = m.size;
+                zero = m.containsZero;
+                expectedModCount = m.modCount;
+                hi = fence = tab.length;
+            }
+            return hi;
+        }
+
+        public KeySpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            if (lo >= mid)
+                return null;
+            KeySpliterator prefix =
+                new KeySpliterator(map, lo, index = mid, est >>>= 1,
+                                   expectedModCount);
+            prefix.tab = tab;
+            prefix.zero = zero;
+            zero = false;
+            return prefix;
+        }
+
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            if (zero) {
+                zero = false;
+                action.accept(0);
+            } else {
+                int[] a = tab;
+                while (index < hi && a[index] == 0)
+                    ++index;
+                if (index >= hi)
+                    return false;
+                action.accept(a[index++]);
+            }
+            if (map.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            return true;
+        }
+
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            int[] a = tab;
+            if (zero) {
+                zero = false;
+                action.accept(0);
+            }
+            for (int i = index; i < hi; i++) {
+                int k = a[i];
+                if (k != 0)
+                    action.accept(k);
+            }
+            index = hi;
+            if (map.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        public long estimateSize() {
+            getFence();
+            return est;
+        }
+
+        public int characteristics() {
+            return (fence < 0 || est == map.size ? Spliterator.SIZED : 0) |
+                Spliterator.DISTINCT;
+        }
+    }
+}
@@ -0,0 +1,653 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util;
+
+import java.util.function.BiFunction;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongObjConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static java.util.IntHashSet.MAXIMUM_CAPACITY;
+import static java.util.IntHashSet.tableSizeFor;
+import static java.util.IntHashSet.thresholdFor;
+
+/**
+ * A map from {@code long} keys to object values, implemented with open
+ * addressing.  Unlike a {@code HashMap<Long,V>}, this class stores its keys
+ * unboxed in a {@code long[]} table parallel to the table of values, so the
+ * map itself costs between 12 and 28 bytes of heap per mapping instead of a
+ * {@code Long} and a {@code HashMap.Node}.  It is well suited to grouping by
+ * numeric keys, for example with {@link #computeIfAbsent}.
+ *
+ * <p>The table is organized as described for {@link IntHashSet}: linear
+ * probing over a power-of-two table that is doubled when three quarters
+ * full, and removal without deleted markers.  The key {@code 0} is kept
+ * outside of the table.  Null values are permitted.
+ *
+ * <p>Iteration order is unspecified and may change when the map is
+ * resized.  The spliterators returned by {@link #keys} are
+ * <em>fail-fast</em>.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a map concurrently, and at least one of the
+ * threads modifies the map structurally, it must be synchronized
+ * externally.
+ *
+ * @param <V> the type of mapped values
+ *
+ * @see HashMap
+ * @see IntIntHashMap
+ * @since 10
+ */
+public class LongObjectHashMap<V> {
+
+    /**
+     * The table of keys; a zero entry is a free slot.  The length is
+     * always a power of two.
+     */
+    private long[] keys;
+
+    /**
+     * The table of values, parallel to the table of keys.
+     */
+    private Object[] values;
+
+    /**
+     * Whether the map contains the key zero, which is not stored in the
+     * table.
+     */
+    private boolean containsZero;
+
+    /**
+     * The value of the key zero, if present.
+     */
+    private V zeroValue;
+
+    /**
+     * The number of mappings in the map, including the key zero.
+     */
+    private int size;
+
+    /**
+     * The size at which the table is doubled.
+     */
+    private int threshold;
+
+    /**
+     * The number of times this map has been structurally modified.
+     */
+    private int modCount;
+
+    /**
+     * Constructs an empty map with a default initial capacity.
+     */
+    public LongObjectHashMap() {
+        this(0);
+    }
+
+    /**
+     * Constructs an empty map that can hold the given number of mappings
+     * without being resized.
+     *
+     * @param expectedSize the expected number of mappings
+     * @throws IllegalArgumentException if {@code expectedSize} is negative
+     */
+    public LongObjectHashMap(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Illegal expected size: " +
+                                               expectedSize);
+        setTable(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Returns a scrambled hash of the given key, as for the elements of
+     * {@code IntHashSet}, folding the high half of the product into the low
+     * half.
+     */
+    static int hash(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void setTable(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        threshold = thresholdFor(capacity);
+    }
+
+    /**
+     * Returns the slot of the given non-zero key, or -1 if absent.
+     */
+    private int indexOf(long key) {
+        long[] ks = keys;
+        int mask = ks.length - 1;
+        long k;
+        for (int i = hash(key) & mask; (k = ks[i]) != 0L;
+             i = (i + 1) & mask) {
+            if (k == key)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot of the given non-zero key, inserting the key with
+     * a null value if absent.
+     */
+    private int insert(long key) {
+        long[] ks = keys;
+        int mask = ks.length - 1;
+        int i = hash(key) & mask;
+        for (long k; (k = ks[i]) != 0L; i = (i + 1) & mask) {
+            if (k == key)
+                return i;
+        }
+        if (size >= threshold) {
+            resize();
+            return insert(key);
+        }
+        ks[i] = key;
+        ++modCount;
+        ++size;
+        return i;
+    }
+
+    /**
+     * Doubles the table.
+     */
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        int oldCap = oldKeys.length;
+        if (oldCap == MAXIMUM_CAPACITY)
+            throw new IllegalStateException("Map full");
+        setTable(oldCap << 1);
+        long[] ks = keys;
+        Object[] vs = values;
+        int mask = ks.length - 1;
+        for (int j = 0; j < oldCap; j++) {
+            long k = oldKeys[j];
+            if (k != 0L) {
+                int i = hash(k) & mask;
+                while (ks[i] != 0L)
+                    i = (i + 1) & mask;
+                ks[i] = k;
+                vs[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if this map contains a mapping for the given
+     * key.
+     *
+     * @param key the key whose presence is to be tested
+     * @return {@code true} if this map contains a mapping for the key
+     */
+    public boolean containsKey(long key) {
+        return (key == 0L) ? containsZero : indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns the value to which the given key is mapped, or {@code null}
+     * if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value to which the key is mapped, or {@code null} if
+     *         this map contains no mapping for the key
+     */
+    public V get(long key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * Returns the value to which the given key is mapped, or
+     * {@code defaultValue} if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     * @param defaultValue the default mapping of the key
+     * @return the value to which the key is mapped, or {@code defaultValue}
+     *         if this map contains no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(long key, V defaultValue) {
+        if (key == 0L)
+            return containsZero ? zeroValue : defaultValue;
+        int i = indexOf(key);
+        return (i >= 0) ? (V) values[i] : defaultValue;
+    }
+
+    /**
+     * Associates the given value with the given key in this map, replacing
+     * the old value if the map already contained a mapping for the key.
+     *
+     * @param key key with which the value is to be associated
+     * @param value value to be associated with the key
+     * @return the previous value associated with the key, or {@code null}
+     *         if there was no mapping for the key
+     * @throws IllegalStateException if the map is full
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        V old;
+        if (key == 0L) {
+            if (!containsZero) {
+                containsZero = true;
+                ++modCount;
+                ++size;
+            }
+            old = zeroValue;
+            zeroValue = value;
+        } else {
+            int i = insert(key);
+            old = (V) values[i];
+            values[i] = value;
+        }
+        return old;
+    }
+
+    /**
+     * Copies all of the mappings of the given map to this map, replacing
+     * the values of keys already present.
+     *
+     * @param m mappings to be stored in this map
+     * @throws NullPointerException if the specified map is null
+     * @throws IllegalStateException if the map is full
+     */
+    public void putAll(LongObjectHashMap<? extends V> m) {
+        if (m.containsZero)
+            put(0L, m.zeroValue);
+        long[] ks = m.keys;
+        Object[] vs = m.values;
+        for (int i = 0; i < ks.length; i++) {
+            long k = ks[i];
+            if (k != 0L) {
+                int j = insert(k);
+                values[j] = vs[i];
+            }
+        }
+    }
+
+    /**
+     * If the given key is not already associated with a value (or is
+     * mapped to {@code null}), computes its value using the given mapping
+     * function and enters it into this map unless {@code null}.
+     *
+     * @param key key with which the value is to be associated
+     * @param mappingFunction the function to compute a value
+     * @return the current (existing or computed) value associated with the
+     *         key, or null if the computed value is null
+     * @throws NullPointerException if the mapping function is null
+     * @throws ConcurrentModificationException if the mapping function
+     *         structurally modified this map
+     * @throws IllegalStateException if the map is full
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key,
+                             LongFunction<? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        if (key == 0L) {
+            if (zeroValue == null) {
+                int mc = modCount;
+                V v = mappingFunction.apply(key);
+                if (modCount != mc)
+                    throw new ConcurrentModificationException();
+                if (v != null)
+                    put(key, v);
+                return v;
+            }
+            return zeroValue;
+        }
+        int i = indexOf(key);
+        V v;
+        if (i >= 0 && (v = (V) values[i]) != null)
+            return v;
+        int mc = modCount;
+        v = mappingFunction.apply(key);
+        if (modCount != mc)
+            throw new ConcurrentModificationException();
+        if (v != null) {
+            if (i < 0)
+                i = insert(key);
+            values[i] = v;
+        }
+        return v;
+    }
+
+    /**
+     * If the given key is not already associated with a value or is
+     * associated with null, associates it with the given non-null value.
+     * Otherwise, replaces the associated value with the results of the
+     * given remapping function, or removes if the result is {@code null}.
+     * This is equivalent to {@link Map#merge}.
+     *
+     * @param key key with which the resulting value is to be associated
+     * @param value the non-null value to be merged with the existing value
+     * @param remappingFunction the function to recompute a value if present
+     * @return the new value associated with the key, or null if no value
+     *         is associated with the key
+     * @throws NullPointerException if the value or the remapping function
+     *         is null
+     * @throws ConcurrentModificationException if the remapping function
+     *         structurally modified this map
+     * @throws IllegalStateException if the map is full
+     */
+    @SuppressWarnings("unchecked")
+    public V merge(long key, V value,
+                   BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        V old = get(key);
+        if (old != null) {
+            int mc = modCount;
+            value = remappingFunction.apply(old, value);
+            if (modCount != mc)
+                throw new ConcurrentModificationException();
+            if (value == null) {
+                remove(key);
+                return null;
+            }
+        }
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Removes the mapping for the given key from this map if present.
+     *
+     * @param key key whose mapping is to be removed from the map
+     * @return the previous value associated with the key, or {@code null}
+     *         if there was no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        V old;
+        if (key == 0L) {
+            if (!containsZero)
+                return null;
+            old = zeroValue;
+            containsZero = false;
+            zeroValue = null;
+        } else {
+            int i = indexOf(key);
+            if (i < 0)
+                return null;
+            old = (V) values[i];
+            removeAt(i);
+        }
+        ++modCount;
+        --size;
+        return old;
+    }
+
+    /**
+     * Frees slot i, moving back the mappings of the probe sequence that
+     * follows it, as in {@link IntHashSet}.
+     */
+    private void removeAt(int i) {
+        long[] ks = keys;
+        Object[] vs = values;
+        int mask = ks.length - 1;
+        for (int j = i;;) {
+            j = (j + 1) & mask;
+            long k = ks[j];
+            if (k == 0L)
+                break;
+            if (((j - hash(k)) & mask) >= ((j - i) & mask)) {
+                ks[i] = k;
+                vs[i] = vs[j];
+                i = j;
+            }
+        }
+        ks[i] = 0L;
+        vs[i] = null;
+    }
+
+    /**
+     * Removes all of the mappings from this map.
+     */
+    public void clear() {
+        if (size > 0) {
+            modCount++;
+            size = 0;
+            containsZero = false;
+            zeroValue = null;
+            Arrays.fill(keys, 0L);
+            Arrays.fill(values, null);
+        }
+    }
+
+    /**
+     * Performs the given action for each mapping of this map.
+     *
+     * @param action the action to be performed for each mapping, given the
+     *        key and the value
+     * @throws NullPointerException if the specified action is null
+     * @throws ConcurrentModificationException if the map is structurally
+     *         modified by the action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(LongObjConsumer<? super V> action) {
+        Objects.requireNonNull(action);
+        int mc = modCount;
+        if (containsZero)
+            action.accept(0L, zeroValue);
+        long[] ks = keys;
+        Object[] vs = values;
+        for (int i = 0; i < ks.length; i++) {
+            long k = ks[i];
+            if (k != 0L)
+                action.accept(k, (V) vs[i]);
+        }
+        if (modCount != mc)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Returns a sequential {@code LongStream} of the keys of this map.
+     *
+     * @return a sequential {@code LongStream} of the keys of this map
+     */
+    public LongStream keys() {
+        return StreamSupport.longStream(new KeySpliterator(this, 0, -1, 0, 0),
+                                        false);
+    }
+
+    /**
+     * Compares the given object with this map for equality.  Returns
+     * {@code true} if the given object is also a {@code LongObjectHashMap}
+     * and the two maps contain the same mappings.
+     *
+     * @param o object to be compared for equality with this map
+     * @return {@code true} if the given object is equal to this map
+     */
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof LongObjectHashMap))
+            return false;
+        LongObjectHashMap<?> m = (LongObjectHashMap<?>) o;
+        if (m.size != size || m.containsZero != containsZero ||
+            !Objects.equals(m.zeroValue, zeroValue))
+            return false;
+        long[] ks = keys;
+        Object[] vs = values;
+        for (int i = 0; i < ks.length; i++) {
+            long k = ks[i];
+            if (k != 0L) {
+                int j = m.indexOf(k);
+                if (j < 0 || !Objects.equals(m.values[j], vs[i]))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this map.  This is the hash code of
+     * a {@code Map<Long,V>} with the same mappings.
+     *
+     * @return the hash code value for this map
+     */
+    public int hashCode() {
+        int h = Objects.hashCode(zeroValue);
+        long[] ks = keys;
+        Object[] vs = values;
+        for (int i = 0; i < ks.length; i++) {
+            long k = ks[i];
+            if (k != 0L)
+                h += Long.hashCode(k) ^ Objects.hashCode(vs[i]);
+        }
+        return h;
+    }
+
+    /**
+     * Returns a string representation of this map, in the format used by
+     * {@link AbstractMap#toString}.
+     *
+     * @return a string representation of this map
+     */
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "{", "}");
+        forEach((k, v) -> sj.add(k + "=" + (v == this ? "(this Map)" : v)));
+        return sj.toString();
+    }
+
+    /**
+     * Spliterator over the keys in a range of table slots, organized as
+     * the spliterator of {@link IntHashSet}.
+     */
+    static final class KeySpliterator implements Spliterator.OfLong {
+        private final LongObjectHashMap<?> map;
+        private long[] tab;         // bound at first use
+        private int index;          // current slot
+        private int fence;          // one past last slot, or -1 until bound
+        private int est;            // size estimate
+        private int expectedModCount;
+        private boolean zero;       // whether zero is still to be reported
+
+        KeySpliterator(LongObjectHashMap<?> map, int origin, int fence,
+                       int est, int expectedModCount) {
+            this.map = map;
+            this.index = origin;
+            this.fence = fence;
+            this.est = est;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() {
+            int hi;
+            if ((hi = fence) < 0) {
+                LongObjectHashMap<?> m = map;
+                tab = m.keys;
+                est = m.size;
+                zero = m.containsZero;
+                expectedModCount = m.modCount;
+                hi = fence = tab.length;
+            }
+            return hi;
+        }
+
+        public KeySpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            if (lo >= mid)
+                return null;
+            KeySpliterator prefix =
+                new KeySpliterator(map, lo, index = mid, est >>>= 1,
+                                   expectedModCount);
+            prefix.tab = tab;
+            prefix.zero = zero;
+            zero = false;
+            return prefix;
+        }
+
+        public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            if (zero) {
+                zero = false;
+                action.accept(0L);
+            } else {
+                long[] a = tab;
+                while (index < hi && a[index] == 0L)
+                    ++index;
+                if (index >= hi)
+                    return false;
+                action.accept(a[index++]);
+            }
+            if (map.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            return true;
+        }
+
+        public void forEachRemaining(LongConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            long[] a = tab;
+            if (zero) {
+                zero = false;
+                action.accept(0L);
+            }
+            for (int i = index; i < hi; i++) {
+                long k = a[i];
+                if (k != 0L)
+                    action.accept(k);
+            }
+            index = hi;
+            if (map.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        public long estimateSize() {
+            getFence();
+            return est;
+        }
+
+        public int characteristics() {
+            return (fence < 0 || est == map.size ? Spliterator.SIZED : 0) |
+                Spliterator.DISTINCT;
+        }
+    }
+}
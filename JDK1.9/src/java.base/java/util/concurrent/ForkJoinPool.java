@@ -49,6 +49,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.LockSupport;
 
 /**
@@ -90,6 +92,22 @@ import java.util.concurrent.locks.LockSupport;
  * overridden using a constructor with parameters corresponding to
  * those documented in class {@link ThreadPoolExecutor}.
  *
+ * <p>A pool may also be constructed with a number of <em>priority
+ * lanes</em> (see {@link #ForkJoinPool(int, int)}).  Tasks submitted
+ * to a lane using {@link #submit(ForkJoinTask, int)}, or through the
+ * {@link Executor} returned by {@link #laneExecutor}, are taken by
+ * workers ahead of ordinary submissions and of forked tasks, higher
+ * lanes first, so that short latency-sensitive tasks (for example
+ * {@link CompletableFuture} stages) need not wait behind bulk
+ * fork/join computations in the same pool.  Priority is not
+ * preemptive: workers check the lanes between top-level tasks and
+ * after every few local subtasks.  Lanes are served strictly in
+ * order, so a lane that is kept continuously busy may starve the
+ * lanes below it.  The queue length and queueing delays of each lane
+ * may be monitored using {@link #getLaneQueuedTaskCount}, {@link
+ * #getLaneStartedTaskCount}, {@link #getLaneTotalWaitTime} and {@link
+ * #getLaneMaxWaitTime}.
+ *
  * <p>In addition to execution and lifecycle control methods, this
  * class provides status check methods (for example
  * {@link #getStealCount}) that are intended to aid in developing,
@@ -149,6 +167,8 @@ import java.util.concurrent.locks.LockSupport;
  * <li>{@code java.util.concurrent.ForkJoinPool.common.maximumSpares}
  * - the maximum number of allowed extra threads to maintain target
  * parallelism (default 256).
+ * <li>{@code java.util.concurrent.ForkJoinPool.common.priorityLanes}
+ * - the number of priority lanes, a non-negative integer (default 0).
  * </ul>
  * If no thread factory is supplied via a system property, then the
  * common pool uses a factory that uses the system class loader as the
@@ -573,6 +593,30 @@ public class ForkJoinPool extends AbstractExecutorService {
      * in ForkJoinWorkerThread) may be JVM-dependent and must access
      * particular Thread class fields to achieve this effect.
      *
+     * Priority Lanes
+     * ==============
+     *
+     * Pools constructed with priority lanes hold one extra queue per
+     * lane.  Lane submissions are expected to be few relative to
+     * forks, have no owner, and carry a submission timestamp for
+     * statistics, so each lane is just a ConcurrentLinkedQueue of
+     * timestamped entries rather than a WorkQueue.  Workers poll the
+     * lanes, highest first, at the top of each runWorker scan, and
+     * bound local processing after a steal by LANE_POLL_LIMIT rather
+     * than POLL_LIMIT so that they come back to the lanes often.
+     * Local tasks left behind are resumed (in runLaneTask) before
+     * scanning other queues, to preserve locality.  Joins never run
+     * lane tasks: like awaitJoin's helping, a join only runs tasks
+     * related to the one it waits for, since an unrelated task run on
+     * top of the joiner's stack could itself wait for the joiner (or
+     * re-enter its locks).  Lane tasks are instead picked up by
+     * workers returning to runWorker, which LANE_POLL_LIMIT makes
+     * frequent, and by compensating workers.  Lane tasks do
+     * not take part in external helping (tryExternalUnpush etc.),
+     * but are included in quiescence and termination checks.  Pools
+     * without lanes have a null lanes field, costing one extra read
+     * per scan.
+     *
      * Style notes
      * ===========
      *
@@ -710,6 +754,19 @@ public class ForkJoinPool extends AbstractExecutorService {
      */
     static final int POLL_LIMIT = 1 << 10;
 
+    /**
+     * The maximum number of local polls between checks of the
+     * priority lanes, in pools that have them.  Smaller values
+     * shorten the wait of lane tasks behind bulk computations at the
+     * expense of more frequent checks.
+     */
+    static final int LANE_POLL_LIMIT = 1 << 4;
+
+    /**
+     * The maximum number of priority lanes.
+     */
+    static final int MAX_LANES = 1 << 6;
+
     /**
      * Queues supporting work-stealing as well as external task
      * submission. See above for descriptions and algorithms.
@@ -1164,6 +1221,80 @@ public class ForkJoinPool extends AbstractExecutorService {
         }
     }
 
+    /**
+     * A priority lane: tasks submitted for workers to take ahead of
+     * ordinary submissions and local or stolen tasks, along with
+     * counts and queueing delays of the tasks taken so far.
+     */
+    static final class Lane {
+        final ConcurrentLinkedQueue<Entry> queue =
+            new ConcurrentLinkedQueue<>();
+        final LongAdder submitted = new LongAdder();
+        final LongAdder removed = new LongAdder();   // taken or drained
+        final LongAdder started = new LongAdder();   // taken to run
+        final LongAdder totalWait = new LongAdder(); // nanoseconds
+        final AtomicLong maxWait = new AtomicLong(); // nanoseconds
+
+        /** A queued task and the time it was submitted. */
+        static final class Entry {
+            final ForkJoinTask<?> task;
+            final long queuedAt;
+            Entry(ForkJoinTask<?> task, long queuedAt) {
+                this.task = task;
+                this.queuedAt = queuedAt;
+            }
+        }
+
+        final void push(ForkJoinTask<?> task) {
+            submitted.increment();            // before offer, for size
+            queue.offer(new Entry(task, System.nanoTime()));
+        }
+
+        /**
+         * Takes the next task to run, recording its queueing delay.
+         */
+        final ForkJoinTask<?> poll() {
+            Entry e; long w, m;
+            if ((e = queue.poll()) == null)
+                return null;
+            w = System.nanoTime() - e.queuedAt;
+            removed.increment();
+            started.increment();
+            totalWait.add(w);
+            while (w > (m = maxWait.get()) && !maxWait.compareAndSet(m, w))
+                ;
+            return e.task;
+        }
+
+        /**
+         * Removes the next task without running it.
+         */
+        final ForkJoinTask<?> drain() {
+            Entry e;
+            if ((e = queue.poll()) == null)
+                return null;
+            removed.increment();
+            return e.task;
+        }
+
+        final boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        final long queueSize() {
+            long n = submitted.sum() - removed.sum();
+            return (n >= 0L) ? n : 0L; // ignore transient negative
+        }
+
+        /**
+         * Removes and cancels all queued tasks.
+         */
+        final void cancelAll() {
+            for (ForkJoinTask<?> t; (t = drain()) != null; )
+                ForkJoinTask.cancelIgnoringExceptions(t);
+        }
+    }
+
     // static fields (initialized in static initializer below)
 
     /**
@@ -1296,6 +1427,7 @@ public class ForkJoinPool extends AbstractExecutorService {
     final ForkJoinWorkerThreadFactory factory;
     final UncaughtExceptionHandler ueh;  // per-worker UEH
     final Predicate<? super ForkJoinPool> saturate;
+    final Lane[] lanes;                  // priority lanes, lowest first
 
     @jdk.internal.vm.annotation.Contended("fjpctl") // segregate
     volatile long ctl;                   // main pool control
@@ -1584,7 +1716,10 @@ public class ForkJoinPool extends AbstractExecutorService {
         if (r == 0)                                     // initial nonzero seed
             r = 1;
         int lastSignalId = 0;                           // avoid unneeded signals
+        int pollLimit = (lanes == null) ? POLL_LIMIT : LANE_POLL_LIMIT;
         while ((ws = workQueues) != null) {
+            if (lanes != null && runLaneTask(w))        // lanes come first
+                continue;
             boolean nonempty = false;                   // scan
             for (int n = ws.length, j = n, m = n - 1; j > 0; --j) {
                 WorkQueue q; int i, b, al; ForkJoinTask<?>[] a;
@@ -1602,9 +1737,9 @@ public class ForkJoinPool extends AbstractExecutorService {
                         w.source = lastSignalId = qid;
                         t.doExec();
                         if ((w.id & FIFO) != 0)         // run remaining locals
-                            w.localPollAndExec(POLL_LIMIT);
+                            w.localPollAndExec(pollLimit);
                         else
-                            w.localPopAndExec(POLL_LIMIT);
+                            w.localPopAndExec(pollLimit);
                         ForkJoinWorkerThread thread = w.owner;
                         ++w.nsteals;
                         w.source = 0;                   // now idle
@@ -1672,6 +1807,63 @@ public class ForkJoinPool extends AbstractExecutorService {
         }
     }
 
+    /**
+     * Runs a task from the highest nonempty priority lane, if any,
+     * else resumes the worker's own tasks left behind when it last
+     * returned to check the lanes.
+     *
+     * @param w caller
+     * @return true if tasks may have been run
+     */
+    private boolean runLaneTask(WorkQueue w) {
+        ForkJoinTask<?> t = pollLanes();
+        if (t == null && w.base - w.top >= 0)
+            return false;
+        if (t != null)
+            t.doExec();
+        if ((w.id & FIFO) != 0)
+            w.localPollAndExec(LANE_POLL_LIMIT);
+        else
+            w.localPopAndExec(LANE_POLL_LIMIT);
+        ForkJoinWorkerThread thread = w.owner;
+        if (thread != null)
+            thread.afterTopLevelExec();
+        return true;
+    }
+
+    /**
+     * Takes a task from the highest nonempty priority lane.
+     *
+     * @return a task, or null if none or the pool has no lanes
+     */
+    private ForkJoinTask<?> pollLanes() {
+        Lane[] ls; Lane l; ForkJoinTask<?> t;
+        if ((ls = lanes) != null) {
+            for (int i = ls.length - 1; i >= 0; --i) {
+                if ((l = ls[i]) != null && (t = l.poll()) != null) {
+                    if (!l.isEmpty())
+                        signalWork();         // propagate
+                    return t;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if any priority lane holds tasks.
+     */
+    private boolean hasQueuedLaneTasks() {
+        Lane[] ls; Lane l;
+        if ((ls = lanes) != null) {
+            for (int i = 0; i < ls.length; ++i) {
+                if ((l = ls[i]) != null && !l.isEmpty())
+                    return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Helps and/or blocks until the given task is done or timeout.
      * First tries locally helping, then scans other queues for a task
@@ -1809,7 +2001,9 @@ public class ForkJoinPool extends AbstractExecutorService {
      * @param submissionsOnly if true, only scan submission queues
      */
     private ForkJoinTask<?> pollScan(boolean submissionsOnly) {
-        WorkQueue[] ws; int n;
+        WorkQueue[] ws; int n; ForkJoinTask<?> lt;
+        if ((mode & STOP) == 0 && (lt = pollLanes()) != null)
+            return lt;
         rescan: while ((mode & STOP) == 0 && (ws = workQueues) != null &&
                       (n = ws.length) > 0) {
             int m = n - 1;
@@ -1959,6 +2153,35 @@ public class ForkJoinPool extends AbstractExecutorService {
         return task;
     }
 
+    /**
+     * Pushes a submission to the given priority lane.
+     */
+    private <T> ForkJoinTask<T> lanePush(ForkJoinTask<T> task, int lane) {
+        if (task == null)
+            throw new NullPointerException();
+        Lane l = laneFor(lane);
+        if ((mode & SHUTDOWN) != 0)
+            throw new RejectedExecutionException();
+        l.push(task);
+        if ((mode & STOP) != 0)               // raced with termination
+            l.cancelAll();
+        else
+            signalWork();
+        return task;
+    }
+
+    /**
+     * Returns the given priority lane.
+     *
+     * @throws IllegalArgumentException if there is no such lane
+     */
+    private Lane laneFor(int lane) {
+        Lane[] ls = lanes;
+        if (ls == null || lane < 1 || lane > ls.length)
+            throw new IllegalArgumentException("no priority lane " + lane);
+        return ls[lane - 1];
+    }
+
     /**
      * Returns common pool queue for an external thread.
      */
@@ -2109,6 +2332,8 @@ public class ForkJoinPool extends AbstractExecutorService {
                             }
                         }
                     }
+                    if (!running && hasQueuedLaneTasks())
+                        running = true;
                     if (((md = mode) & STOP) != 0)
                         break;                 // already triggered
                     else if (running)
@@ -2123,8 +2348,14 @@ public class ForkJoinPool extends AbstractExecutorService {
 
         while (((md = mode) & TERMINATED) == 0) { // help terminate others
             for (long oldSum = 0L;;) {            // repeat until stable
-                WorkQueue[] ws; WorkQueue w;
+                WorkQueue[] ws; WorkQueue w; Lane[] ls;
                 long checkSum = ctl;
+                if ((ls = lanes) != null) {
+                    for (int i = 0; i < ls.length; ++i) {
+                        if (ls[i] != null)
+                            ls[i].cancelAll();
+                    }
+                }
                 if ((ws = workQueues) != null) {
                     for (int i = 0; i < ws.length; ++i) {
                         if ((w = ws[i]) != null) {
@@ -2200,6 +2431,35 @@ public class ForkJoinPool extends AbstractExecutorService {
              0, MAX_CAP, 1, null, DEFAULT_KEEPALIVE, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Creates a {@code ForkJoinPool} with the indicated parallelism
+     * level and number of priority lanes, using defaults for all
+     * other parameters (see {@link #ForkJoinPool(int,
+     * ForkJoinWorkerThreadFactory, UncaughtExceptionHandler, boolean,
+     * int, int, int, Predicate, long, TimeUnit)}).  Lanes are
+     * numbered from {@code 1} to {@code priorityLanes}; tasks
+     * submitted to a lane (see {@link #submit(ForkJoinTask, int)}
+     * and {@link #laneExecutor}) are taken by workers ahead of
+     * ordinary submissions and of forked tasks, higher lanes first.
+     *
+     * @param parallelism the parallelism level
+     * @param priorityLanes the number of priority lanes
+     * @throws IllegalArgumentException if parallelism less than or
+     *         equal to zero, or greater than implementation limit, or
+     *         if priorityLanes is negative or greater than
+     *         implementation limit
+     * @throws SecurityException if a security manager exists and
+     *         the caller is not permitted to modify threads
+     *         because it does not hold {@link
+     *         java.lang.RuntimePermission}{@code ("modifyThread")}
+     * @since 10
+     */
+    public ForkJoinPool(int parallelism, int priorityLanes) {
+        this(parallelism, defaultForkJoinWorkerThreadFactory, null, false,
+             0, MAX_CAP, 1, null, DEFAULT_KEEPALIVE, TimeUnit.MILLISECONDS,
+             priorityLanes);
+    }
+
     /**
      * Creates a {@code ForkJoinPool} with the given parameters (using
      * defaults for others -- see {@link #ForkJoinPool(int,
@@ -2323,9 +2583,26 @@ public class ForkJoinPool extends AbstractExecutorService {
                         Predicate<? super ForkJoinPool> saturate,
                         long keepAliveTime,
                         TimeUnit unit) {
+        this(parallelism, factory, handler, asyncMode, corePoolSize,
+             maximumPoolSize, minimumRunnable, saturate, keepAliveTime, unit,
+             0);
+    }
+
+    private ForkJoinPool(int parallelism,
+                         ForkJoinWorkerThreadFactory factory,
+                         UncaughtExceptionHandler handler,
+                         boolean asyncMode,
+                         int corePoolSize,
+                         int maximumPoolSize,
+                         int minimumRunnable,
+                         Predicate<? super ForkJoinPool> saturate,
+                         long keepAliveTime,
+                         TimeUnit unit,
+                         int priorityLanes) {
         // check, encode, pack parameters
         if (parallelism <= 0 || parallelism > MAX_CAP ||
-            maximumPoolSize < parallelism || keepAliveTime <= 0L)
+            maximumPoolSize < parallelism || keepAliveTime <= 0L ||
+            priorityLanes < 0 || priorityLanes > MAX_LANES)
             throw new IllegalArgumentException();
         if (factory == null)
             throw new NullPointerException();
@@ -2347,6 +2624,7 @@ public class ForkJoinPool extends AbstractExecutorService {
         this.factory = factory;
         this.ueh = handler;
         this.saturate = saturate;
+        this.lanes = newLanes(priorityLanes);
         this.keepAlive = ms;
         this.bounds = b;
         this.mode = m;
@@ -2354,6 +2632,18 @@ public class ForkJoinPool extends AbstractExecutorService {
         checkPermission();
     }
 
+    /**
+     * Returns an array of n new priority lanes, or null if n is zero.
+     */
+    private static Lane[] newLanes(int n) {
+        if (n <= 0)
+            return null;
+        Lane[] ls = new Lane[n];
+        for (int i = 0; i < n; ++i)
+            ls[i] = new Lane();
+        return ls;
+    }
+
     private Object newInstanceFromSystemProperty(String property)
         throws ReflectiveOperationException {
         String className = System.getProperty(property);
@@ -2368,7 +2658,7 @@ public class ForkJoinPool extends AbstractExecutorService {
      * overridden by system properties
      */
     private ForkJoinPool(byte forCommonPoolOnly) {
-        int parallelism = -1;
+        int parallelism = -1, priorityLanes = 0;
         ForkJoinWorkerThreadFactory fac = null;
         UncaughtExceptionHandler handler = null;
         try {  // ignore exceptions in accessing/parsing properties
@@ -2376,6 +2666,10 @@ public class ForkJoinPool extends AbstractExecutorService {
                 ("java.util.concurrent.ForkJoinPool.common.parallelism");
             if (pp != null)
                 parallelism = Integer.parseInt(pp);
+            String lp = System.getProperty
+                ("java.util.concurrent.ForkJoinPool.common.priorityLanes");
+            if (lp != null)
+                priorityLanes = Integer.parseInt(lp);
             fac = (ForkJoinWorkerThreadFactory) newInstanceFromSystemProperty(
                 "java.util.concurrent.ForkJoinPool.common.threadFactory");
             handler = (UncaughtExceptionHandler) newInstanceFromSystemProperty(
@@ -2394,6 +2688,8 @@ public class ForkJoinPool extends AbstractExecutorService {
             parallelism = 1;
         if (parallelism > MAX_CAP)
             parallelism = MAX_CAP;
+        if (priorityLanes < 0 || priorityLanes > MAX_LANES)
+            priorityLanes = 0;
 
         long c = ((((long)(-parallelism) << TC_SHIFT) & TC_MASK) |
                   (((long)(-parallelism) << RC_SHIFT) & RC_MASK));
@@ -2407,6 +2703,7 @@ public class ForkJoinPool extends AbstractExecutorService {
         this.factory = fac;
         this.ueh = handler;
         this.saturate = null;
+        this.lanes = newLanes(priorityLanes);
         this.keepAlive = DEFAULT_KEEPALIVE;
         this.bounds = b;
         this.mode = parallelism;
@@ -2535,6 +2832,70 @@ public class ForkJoinPool extends AbstractExecutorService {
         return externalSubmit(job);
     }
 
+    /**
+     * Submits a ForkJoinTask for execution in the given priority
+     * lane.  Workers take tasks from higher lanes first, and from
+     * any lane ahead of ordinary submissions and of tasks forked
+     * within the pool.  Lane {@code 0} denotes ordinary submission,
+     * as by {@link #submit(ForkJoinTask)}.
+     *
+     * @param task the task to submit
+     * @param lane the lane, from {@code 0} to {@link #getPriorityLanes}
+     * @param <T> the type of the task's result
+     * @return the task
+     * @throws NullPointerException if the task is null
+     * @throws IllegalArgumentException if there is no such lane
+     * @throws RejectedExecutionException if the task cannot be
+     *         scheduled for execution
+     * @since 10
+     */
+    public <T> ForkJoinTask<T> submit(ForkJoinTask<T> task, int lane) {
+        return (lane == 0) ? externalSubmit(task) : lanePush(task, lane);
+    }
+
+    /**
+     * Returns an {@link Executor} that submits tasks to this pool in
+     * the given priority lane, as by {@link #submit(ForkJoinTask,
+     * int)}.  This may be supplied to the asynchronous methods of
+     * {@link CompletableFuture}, for example to keep latency-sensitive
+     * stages ahead of bulk computations running in the same pool.
+     *
+     * @param lane the lane, from {@code 0} to {@link #getPriorityLanes}
+     * @return an executor for the given lane
+     * @throws IllegalArgumentException if there is no such lane
+     * @since 10
+     */
+    public Executor laneExecutor(int lane) {
+        if (lane != 0)
+            laneFor(lane);                    // check now
+        return new LaneExecutor(this, lane);
+    }
+
+    /**
+     * Executor submitting to a given priority lane.
+     */
+    static final class LaneExecutor implements Executor {
+        final ForkJoinPool pool;
+        final int lane;
+        LaneExecutor(ForkJoinPool pool, int lane) {
+            this.pool = pool;
+            this.lane = lane;
+        }
+        public void execute(Runnable task) {
+            if (task == null)
+                throw new NullPointerException();
+            ForkJoinTask<?> job;
+            if (task instanceof ForkJoinTask<?>) // avoid re-wrap
+                job = (ForkJoinTask<?>) task;
+            else
+                job = new ForkJoinTask.RunnableExecuteAction(task);
+            pool.submit(job, lane);
+        }
+        public String toString() {
+            return pool + "[lane = " + lane + "]";
+        }
+    }
+
     /**
      * @throws NullPointerException       {@inheritDoc}
      * @throws RejectedExecutionException {@inheritDoc}
@@ -2622,6 +2983,75 @@ public class ForkJoinPool extends AbstractExecutorService {
         return (mode & FIFO) != 0;
     }
 
+    /**
+     * Returns the number of priority lanes of this pool.
+     *
+     * @return the number of priority lanes, zero if none
+     * @since 10
+     */
+    public int getPriorityLanes() {
+        Lane[] ls = lanes;
+        return (ls == null) ? 0 : ls.length;
+    }
+
+    /**
+     * Returns an estimate of the number of tasks submitted to the
+     * given priority lane that have not yet been taken for execution.
+     *
+     * @param lane the lane, from {@code 1} to {@link #getPriorityLanes}
+     * @return the number of queued tasks in the lane
+     * @throws IllegalArgumentException if there is no such lane
+     * @since 10
+     */
+    public long getLaneQueuedTaskCount(int lane) {
+        return laneFor(lane).queueSize();
+    }
+
+    /**
+     * Returns an estimate of the number of tasks taken for execution
+     * from the given priority lane since the pool was created.
+     *
+     * @param lane the lane, from {@code 1} to {@link #getPriorityLanes}
+     * @return the number of tasks started from the lane
+     * @throws IllegalArgumentException if there is no such lane
+     * @since 10
+     */
+    public long getLaneStartedTaskCount(int lane) {
+        return laneFor(lane).started.sum();
+    }
+
+    /**
+     * Returns an estimate of the total time that tasks taken from the
+     * given priority lane spent queued before being taken for
+     * execution.  Dividing by {@link #getLaneStartedTaskCount} gives
+     * the mean queueing delay of the lane.
+     *
+     * @param lane the lane, from {@code 1} to {@link #getPriorityLanes}
+     * @param unit the time unit of the result
+     * @return the total queueing delay of the lane's tasks
+     * @throws IllegalArgumentException if there is no such lane
+     * @since 10
+     */
+    public long getLaneTotalWaitTime(int lane, TimeUnit unit) {
+        return unit.convert(laneFor(lane).totalWait.sum(),
+                            TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the longest time that a task taken from the given
+     * priority lane spent queued before being taken for execution.
+     *
+     * @param lane the lane, from {@code 1} to {@link #getPriorityLanes}
+     * @param unit the time unit of the result
+     * @return the maximum queueing delay of the lane's tasks
+     * @throws IllegalArgumentException if there is no such lane
+     * @since 10
+     */
+    public long getLaneMaxWaitTime(int lane, TimeUnit unit) {
+        return unit.convert(laneFor(lane).maxWait.get(),
+                            TimeUnit.NANOSECONDS);
+    }
+
     /**
      * Returns an estimate of the number of worker threads that are
      * not blocked waiting to join tasks or for other managed
@@ -2673,7 +3103,7 @@ public class ForkJoinPool extends AbstractExecutorService {
             int rc = pc + (int)(c >> RC_SHIFT);
             if ((md & (STOP | TERMINATED)) != 0)
                 return true;
-            else if (rc > 0)
+            else if (rc > 0 || hasQueuedLaneTasks())
                 return false;
             else {
                 WorkQueue[] ws; WorkQueue v;
@@ -2746,13 +3176,19 @@ public class ForkJoinPool extends AbstractExecutorService {
      */
     public int getQueuedSubmissionCount() {
         int count = 0;
-        WorkQueue[] ws; WorkQueue w;
+        WorkQueue[] ws; WorkQueue w; Lane[] ls;
         if ((ws = workQueues) != null) {
             for (int i = 0; i < ws.length; i += 2) {
                 if ((w = ws[i]) != null)
                     count += w.queueSize();
             }
         }
+        if ((ls = lanes) != null) {
+            for (int i = 0; i < ls.length; ++i) {
+                if (ls[i] != null)
+                    count += (int)ls[i].queueSize();
+            }
+        }
         return count;
     }
 
@@ -2770,7 +3206,7 @@ public class ForkJoinPool extends AbstractExecutorService {
                     return true;
             }
         }
-        return false;
+        return hasQueuedLaneTasks();
     }
 
     /**
@@ -2803,7 +3239,17 @@ public class ForkJoinPool extends AbstractExecutorService {
      */
     protected int drainTasksTo(Collection<? super ForkJoinTask<?>> c) {
         int count = 0;
-        WorkQueue[] ws; WorkQueue w; ForkJoinTask<?> t;
+        WorkQueue[] ws; WorkQueue w; ForkJoinTask<?> t; Lane[] ls;
+        if ((ls = lanes) != null) {
+            for (int i = 0; i < ls.length; ++i) {
+                if (ls[i] != null) {
+                    while ((t = ls[i].drain()) != null) {
+                        c.add(t);
+                        ++count;
+                    }
+                }
+            }
+        }
         if ((ws = workQueues) != null) {
             for (int i = 0; i < ws.length; ++i) {
                 if ((w = ws[i]) != null) {
@@ -2828,7 +3274,13 @@ public class ForkJoinPool extends AbstractExecutorService {
         // Use a single pass through workQueues to collect counts
         long qt = 0L, qs = 0L; int rc = 0;
         long st = stealCount;
-        WorkQueue[] ws; WorkQueue w;
+        WorkQueue[] ws; WorkQueue w; Lane[] ls;
+        if ((ls = lanes) != null) {
+            for (int i = 0; i < ls.length; ++i) {
+                if (ls[i] != null)
+                    qs += ls[i].queueSize();
+            }
+        }
         if ((ws = workQueues) != null) {
             for (int i = 0; i < ws.length; ++i) {
                 if ((w = ws[i]) != null) {
@@ -377,12 +377,17 @@ public abstract class ForkJoinTask<V> implements Future<V>, Serializable {
      */
     private int doJoin() {
         int s; Thread t; ForkJoinWorkerThread wt; ForkJoinPool.WorkQueue w;
-        return (s = status) < 0 ? s :
-            ((t = Thread.currentThread()) instanceof ForkJoinWorkerThread) ?
-            (w = (wt = (ForkJoinWorkerThread)t).workQueue).
-            tryUnpush(this) && (s = doExec()) < 0 ? s :
-            wt.pool.awaitJoin(w, this, 0L) :
-            externalAwaitDone();
+        ForkJoinPool p;
+        if ((s = status) < 0)
+            return s;
+        else if ((t = Thread.currentThread()) instanceof ForkJoinWorkerThread) {
+            p = (wt = (ForkJoinWorkerThread)t).pool;
+            w = wt.workQueue;
+            return w.tryUnpush(this) && (s = doExec()) < 0 ? s :
+                p.awaitJoin(w, this, 0L);
+        }
+        else
+            return externalAwaitDone();
     }
 
     /**
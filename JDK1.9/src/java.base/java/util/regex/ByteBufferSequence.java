@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.regex;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A character sequence over the remaining bytes of a byte buffer, so that
+ * a matcher can search the buffer without it being decoded into a string.
+ *
+ * <p> With ISO-8859-1, US-ASCII, and UTF-8 if every byte is an ASCII
+ * character, each character is read from the buffer when it is needed,
+ * and its index is the offset of its byte from the position of the buffer.
+ * Otherwise the bytes are decoded into a character array which is kept,
+ * and reused when the sequence is reset to another buffer. Malformed and
+ * unmappable input is replaced with U+FFFD.
+ */
+final class ByteBufferSequence implements CharSequence {
+    private ByteBuffer buf;
+    private int base;           // the position of buf
+    private int length;
+    private boolean ascii;      // bytes over 0x7f are malformed
+    private boolean decoded;    // the characters are in chars
+
+    /* storage for decoding, reused from one reset to the next */
+    private CharsetDecoder decoder;
+    private byte[] bytes;
+    private ByteBuffer src;
+    private char[] chars;
+    private CharBuffer dst;
+
+    ByteBufferSequence(ByteBuffer buf, Charset cs) {
+        reset(buf, cs);
+    }
+
+    /**
+     * Makes this sequence the remaining bytes of buf, in charset cs.
+     */
+    void reset(ByteBuffer buf, Charset cs) {
+        int base = buf.position();
+        int len = buf.remaining();
+        if (cs.equals(StandardCharsets.ISO_8859_1)) {
+            ascii = false;
+        } else if (cs.equals(StandardCharsets.US_ASCII)) {
+            ascii = true;
+        } else if (cs.equals(StandardCharsets.UTF_8) &&
+                   isAscii(buf, base, len)) {
+            ascii = false;
+        } else {
+            decode(buf, base, len, cs);
+            this.buf = null;
+            return;
+        }
+        this.buf = buf;
+        this.base = base;
+        this.length = len;
+        this.decoded = false;
+    }
+
+    private static boolean isAscii(ByteBuffer buf, int base, int len) {
+        if (buf.hasArray()) {
+            byte[] a = buf.array();
+            int off = buf.arrayOffset() + base;
+            for (int i = off; i < off + len; i++) {
+                if (a[i] < 0)
+                    return false;
+            }
+        } else {
+            for (int i = base; i < base + len; i++) {
+                if (buf.get(i) < 0)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private void decode(ByteBuffer buf, int base, int len, Charset cs) {
+        if (bytes == null || bytes.length < len) {
+            bytes = new byte[len];
+            src = ByteBuffer.wrap(bytes);
+        }
+        if (buf.hasArray()) {
+            System.arraycopy(buf.array(), buf.arrayOffset() + base,
+                             bytes, 0, len);
+        } else {
+            for (int i = 0; i < len; i++)
+                bytes[i] = buf.get(base + i);
+        }
+        if (decoder == null || !decoder.charset().equals(cs)) {
+            decoder = cs.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        int n = (int)(len * (double)decoder.maxCharsPerByte()) + 1;
+        if (chars == null || chars.length < n) {
+            chars = new char[n];
+            dst = CharBuffer.wrap(chars);
+        }
+        src.clear();
+        src.limit(len);
+        dst.clear();
+        decoder.reset();
+        CoderResult cr = decoder.decode(src, dst, true);
+        if (!cr.isUnderflow() || !(cr = decoder.flush(dst)).isUnderflow()) {
+            // cannot happen, as errors are replaced and dst is large enough
+            throw new IllegalStateException(cr.toString());
+        }
+        this.length = dst.position();
+        this.decoded = true;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("index " + index +
+                                                ", length " + length);
+        if (decoded)
+            return chars[index];
+        int b = buf.get(base + index) & 0xff;
+        return (ascii && b > 0x7f) ? '\uFFFD' : (char)b;
+    }
+
+    /**
+     * Returns the given characters of this sequence as a string.
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || start > end || end > length)
+            throw new IndexOutOfBoundsException("start " + start + ", end " +
+                                                end + ", length " + length);
+        if (decoded)
+            return new String(chars, start, end - start);
+        char[] a = new char[end - start];
+        for (int i = start; i < end; i++)
+            a[i - start] = charAt(i);
+        return new String(a);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length).toString();
+    }
+}
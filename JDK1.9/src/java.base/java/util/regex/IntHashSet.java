@@ -72,7 +72,8 @@ class IntHashSet {
     }
 
     public void clear() {
-        Arrays.fill(this.entries, -1);
+        // the entries past pos have never been used
+        Arrays.fill(this.entries, 0, pos, -1);
         Arrays.fill(this.hashes, -1);
         pos = 0;
     }
@@ -0,0 +1,874 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.regex;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern.CharPredicate;
+import java.util.regex.Pattern.Node;
+
+/**
+ * A lazily built DFA for patterns compiled with the {@link Pattern#DFA}
+ * flag.
+ *
+ * <p> The node tree of the pattern is translated into a Thompson NFA of
+ * CHAR, SPLIT, ASSERT and MATCH instructions, in which the first branch
+ * of a SPLIT has the higher priority. Patterns using back references,
+ * lookaround, possessive or independent quantifiers, word boundaries,
+ * {@code \G}, {@code \R}, grapheme clusters or canonical equivalence
+ * are not translated, and are matched by the node tree only. Neither are
+ * quantifiers applied to an expression that can match the empty string,
+ * as the nodes stop repeating it after an empty match.
+ *
+ * <p> The DFA states are the ordered sets of NFA threads a Pike VM would
+ * run, built the first time they are reached and cached, so every match
+ * operation runs in time linear in the length of the input. A find runs
+ * the NFA prefixed with a lazy {@code .*?} to find where the leftmost
+ * match ends, with the threads of lower priority than a matching one cut
+ * off, which gives the same match as the backtracking nodes. It then runs
+ * the reversed NFA backwards from that end to find the leftmost position
+ * the match can start at. Zero-width assertions are handled by giving
+ * every transition the set of assertions that hold at the position it
+ * leads to.
+ *
+ * <p> The NFAs of several patterns can also be joined into one DFA, which
+ * {@link PatternSet} uses to find which of them match somewhere in an
+ * input in a single scan.
+ *
+ * <p> The DFA only steps over BMP characters. An operation that reaches
+ * a surrogate returns {@link #GIVE_UP}, and the caller falls back to the
+ * node tree, which handles supplementary characters.
+ *
+ * <p> Instances are shared by all the matchers of a pattern and are safe
+ * for use by multiple concurrent threads. Transitions are read without
+ * locking and computed under the lock of their engine.
+ */
+final class LazyDFA {
+
+    /* results of the match operations */
+    static final int FOUND = 1;
+    static final int NOT_FOUND = 0;
+    static final int GIVE_UP = -1;
+
+    /* instruction opcodes */
+    private static final int CHAR = 0;
+    private static final int SPLIT = 1;
+    private static final int ASSERT = 2;
+    private static final int MATCH = 3;
+
+    /* zero-width assertions, as the bits of the context of a position */
+    private static final int BEGIN = 0x01;          // \A, ^
+    private static final int END = 0x02;            // \z
+    private static final int CARET = 0x04;          // multiline ^
+    private static final int UNIX_CARET = 0x08;     // multiline ^, (?d)
+    private static final int DOLLAR = 0x10;         // \Z, $
+    private static final int DOLLAR_ML = 0x20;      // multiline $
+    private static final int UNIX_DOLLAR = 0x40;    // $, (?d)
+    private static final int UNIX_DOLLAR_ML = 0x80; // multiline $, (?d)
+
+    private static final int DOLLARS =
+        DOLLAR | DOLLAR_ML | UNIX_DOLLAR | UNIX_DOLLAR_ML;
+
+    /* the limits past which a pattern is left to the node tree, and the
+       state cache of an engine is flushed */
+    private static final int MAX_INSTS = 10000;
+    private static final int MAX_STATES = 4096;
+
+    private static final CharPredicate ANY = ch -> true;
+
+    private final int[] op;
+    private final int[] out;
+    private final int[] out1;
+    private final int[] arg;
+    private final CharPredicate[] pred;
+    private final int start;        // anchored start
+    private final int ustart;       // start of the lazy .*? prefix
+    private final int matchPc;
+    private final int assertions;   // the assertions used
+    private final int[][] rchar;    // CHAR instructions leading to each pc
+    private final int[][] reps;     // SPLIT/ASSERT instructions leading
+                                    // to each pc
+
+    private final Engine first = new Engine(false, true);
+    private final Engine all = new Engine(false, false);
+    private final Engine reverse = new Engine(true, false);
+
+    private LazyDFA(Builder b, int start, int ustart, int matchPc) {
+        int n = b.n;
+        this.op = Arrays.copyOf(b.op, n);
+        this.out = Arrays.copyOf(b.out, n);
+        this.out1 = Arrays.copyOf(b.out1, n);
+        this.arg = Arrays.copyOf(b.arg, n);
+        this.pred = Arrays.copyOf(b.pred, n);
+        this.start = start;
+        this.ustart = ustart;
+        this.matchPc = matchPc;
+        this.assertions = b.assertions;
+
+        int[] nchar = new int[n];
+        int[] neps = new int[n];
+        for (int pc = 0; pc < n; pc++) {
+            switch (op[pc]) {
+            case CHAR:
+                nchar[out[pc]]++;
+                break;
+            case SPLIT:
+                neps[out[pc]]++;
+                neps[out1[pc]]++;
+                break;
+            case ASSERT:
+                neps[out[pc]]++;
+                break;
+            }
+        }
+        this.rchar = new int[n][];
+        this.reps = new int[n][];
+        for (int pc = 0; pc < n; pc++) {
+            rchar[pc] = new int[nchar[pc]];
+            reps[pc] = new int[neps[pc]];
+            nchar[pc] = neps[pc] = 0;
+        }
+        for (int pc = 0; pc < n; pc++) {
+            switch (op[pc]) {
+            case CHAR:
+                rchar[out[pc]][nchar[out[pc]]++] = pc;
+                break;
+            case SPLIT:
+                reps[out[pc]][neps[out[pc]]++] = pc;
+                reps[out1[pc]][neps[out1[pc]]++] = pc;
+                break;
+            case ASSERT:
+                reps[out[pc]][neps[out[pc]]++] = pc;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns the DFA for the node tree of a pattern, or null if the tree
+     * uses constructs the DFA does not support.
+     */
+    static LazyDFA compile(Node matchRoot) {
+        return compile(new Node[] { matchRoot }, new int[] { 0 });
+    }
+
+    /**
+     * Returns the DFA matching any of the node trees of several patterns,
+     * telling them apart by the given ids, or null if one of the trees
+     * uses constructs the DFA does not support. Only {@link #findAll}
+     * can be used on the result if there is more than one tree.
+     */
+    static LazyDFA compile(Node[] roots, int[] ids) {
+        Builder b = new Builder();
+        try {
+            int matchPc = -1;
+            int start = -1;
+            for (int i = roots.length - 1; i >= 0; i--) {
+                matchPc = b.inst(MATCH, -1, -1, ids[i], null);
+                int pc = b.emit(roots[i], matchPc);
+                start = start < 0 ? pc : b.split(pc, start);
+            }
+            int ustart = b.split(start, -1);
+            int any = b.ch(ANY, ustart);
+            b.out1[ustart] = any;
+            return new LazyDFA(b, start, ustart, matchPc);
+        } catch (Unsupported x) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the number of NFA instructions of this DFA.
+     */
+    int size() {
+        return op.length;
+    }
+
+    /**
+     * Scans all of seq and sets the ids of the patterns matching somewhere
+     * in it in matched, as a {@link Matcher#find} with the default region
+     * would. Returns false if the DFA gave up.
+     */
+    boolean findAll(CharSequence seq, BitSet matched) {
+        int to = seq.length();
+        State s = all.start(ustart, context(seq, 0, 0, to));
+        State last = null;
+        int i = 0;
+        for (;;) {
+            if (s.accepts != null && s != last) {
+                for (int id : s.accepts) {
+                    matched.set(id);
+                }
+                last = s;
+            }
+            if (i >= to) {
+                return true;
+            }
+            char c = seq.charAt(i++);
+            if (Character.isSurrogate(c)) {
+                return false;
+            }
+            s = all.next(s, c, context(seq, i, 0, to));
+        }
+    }
+
+    /**
+     * Finds the leftmost match at or after {@code from} within the region
+     * of the matcher, setting its bounds and hitEnd and requireEnd.
+     */
+    int find(Matcher m, int from) {
+        CharSequence seq = m.text;
+        int to = m.to;
+        State s = first.start(ustart, context(m, seq, from));
+        int end = s.match ? from : -1;
+        int i = from;
+        boolean hitEnd = false;
+        while (s.insts.length != 0) {
+            if (i >= to) {
+                hitEnd = true;
+                break;
+            }
+            char c = seq.charAt(i++);
+            if (Character.isSurrogate(c)) {
+                return GIVE_UP;
+            }
+            s = first.next(s, c, context(m, seq, i));
+            if (s.match) {
+                end = i;
+            }
+        }
+        if (end < 0) {
+            m.hitEnd = true;
+            return NOT_FOUND;
+        }
+
+        // the leftmost start of a match ending there
+        s = reverse.start(matchPc, context(m, seq, end));
+        int begin = s.match ? end : -1;
+        for (i = end; i > from && s.insts.length != 0; ) {
+            char c = seq.charAt(--i);
+            s = reverse.next(s, c, context(m, seq, i));
+            if (s.match) {
+                begin = i;
+            }
+        }
+        if (begin < 0) {
+            return GIVE_UP;     // cannot happen
+        }
+        found(m, begin, end, hitEnd);
+        return FOUND;
+    }
+
+    /**
+     * Matches at {@code from}, up to the end of the region of the matcher
+     * if {@code anchor} is {@link Matcher#ENDANCHOR}, setting its bounds
+     * and hitEnd and requireEnd.
+     */
+    int match(Matcher m, int from, int anchor) {
+        Engine e = anchor == Matcher.ENDANCHOR ? all : first;
+        CharSequence seq = m.text;
+        int to = m.to;
+        State s = e.start(start, context(m, seq, from));
+        int end = s.match ? from : -1;
+        int i = from;
+        boolean hitEnd = false;
+        while (s.insts.length != 0) {
+            if (i >= to) {
+                hitEnd = true;
+                break;
+            }
+            char c = seq.charAt(i++);
+            if (Character.isSurrogate(c)) {
+                return GIVE_UP;
+            }
+            s = e.next(s, c, context(m, seq, i));
+            if (s.match) {
+                end = i;
+            }
+        }
+        if (end < 0 || (anchor == Matcher.ENDANCHOR && end != to)) {
+            m.hitEnd = hitEnd;
+            return NOT_FOUND;
+        }
+        found(m, from, end, hitEnd);
+        return FOUND;
+    }
+
+    private void found(Matcher m, int begin, int end, boolean hitEnd) {
+        m.first = begin;
+        m.last = end;
+        m.groups[0] = begin;
+        m.groups[1] = end;
+        // the assertions do not record whether they looked at the end,
+        // so assume they did whenever the match ends next to it
+        if ((assertions & (END | DOLLARS)) != 0 && end >= m.to - 2) {
+            hitEnd = true;
+            m.requireEnd = (assertions & DOLLARS) != 0;
+        }
+        m.hitEnd = hitEnd;
+    }
+
+    /**
+     * Returns the assertions used by the pattern that hold at index i,
+     * as the nodes implementing them would evaluate them.
+     */
+    private int context(Matcher m, CharSequence seq, int i) {
+        if (assertions == 0) {
+            return 0;
+        }
+        if (m.anchoringBounds) {
+            return context(seq, i, m.from, m.to);
+        }
+        return context(seq, i, 0, m.getTextLength());
+    }
+
+    private int context(CharSequence seq, int i, int startIndex,
+                        int endIndex) {
+        int mask = assertions;
+        if (mask == 0) {
+            return 0;
+        }
+        int ctx = 0;
+        if (i == startIndex) {
+            ctx |= BEGIN;
+        }
+        if (i == endIndex) {
+            ctx |= END | DOLLARS;
+        } else if ((mask & DOLLARS) != 0) {
+            char ch = seq.charAt(i);
+            if (ch == '\n') {
+                // no match between \r\n
+                if (i == 0 || seq.charAt(i - 1) != '\r') {
+                    ctx |= DOLLAR_ML;
+                    if (i == endIndex - 1) {
+                        ctx |= DOLLAR;
+                    }
+                }
+                ctx |= UNIX_DOLLAR_ML;
+                if (i == endIndex - 1) {
+                    ctx |= UNIX_DOLLAR;
+                }
+            } else if (ch == '\r' || ch == '\u0085' || (ch|1) == '\u2029') {
+                ctx |= DOLLAR_ML;
+                if (i == endIndex - 1 ||
+                    (i == endIndex - 2 && ch == '\r' &&
+                     seq.charAt(i + 1) == '\n')) {
+                    ctx |= DOLLAR;
+                }
+            }
+        }
+        // Perl does not match ^ at end of input even after newline
+        if ((mask & (CARET | UNIX_CARET)) != 0 && i != endIndex) {
+            if (i <= startIndex) {
+                ctx |= CARET | UNIX_CARET;
+            } else {
+                char ch = seq.charAt(i - 1);
+                if ((ch == '\n' || ch == '\r' || (ch|1) == '\u2029' ||
+                     ch == '\u0085') &&
+                    // should treat \r\n as one newline
+                    !(ch == '\r' && seq.charAt(i) == '\n')) {
+                    ctx |= CARET;
+                }
+                if (ch == '\n') {
+                    ctx |= UNIX_CARET;
+                }
+            }
+        }
+        return ctx & mask;
+    }
+
+    /**
+     * A DFA state: the threads of the NFA, and whether they include a
+     * match. For the forward engines the threads are the CHAR
+     * instructions, in priority order for the leftmost-first one and
+     * sorted for the other, and the ids of the patterns matched are kept.
+     * For the reverse engine they are the sorted instructions some CHAR
+     * instruction leads to.
+     */
+    private static final class State {
+        final int[] insts;
+        final boolean match;
+        final int[] accepts;    // sorted ids, null if there is no match
+        final int hash;
+
+        /* transitions on ASCII characters in the empty context */
+        final State[] next = new State[128];
+        /* other transitions, keyed by context << 16 | character */
+        volatile ConcurrentHashMap<Integer, State> others;
+
+        State(int[] insts, int[] accepts) {
+            this.insts = insts;
+            this.match = accepts != null;
+            this.accepts = accepts;
+            this.hash = Arrays.hashCode(insts) * 31 + Arrays.hashCode(accepts);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof State)) {
+                return false;
+            }
+            State s = (State)o;
+            return hash == s.hash && Arrays.equals(insts, s.insts) &&
+                   Arrays.equals(accepts, s.accepts);
+        }
+    }
+
+    /**
+     * The cache of the states of one kind of search.
+     */
+    private final class Engine {
+        private final boolean reverse;
+        private final boolean leftmostFirst;
+        private final ConcurrentHashMap<Integer, State> starts =
+            new ConcurrentHashMap<>();
+
+        /* guarded by this */
+        private final HashMap<State, State> states = new HashMap<>();
+        private int[] stack;
+        private int[] list;
+        private int[] ids;
+        private int[] mark;
+        private int gen;
+
+        Engine(boolean reverse, boolean leftmostFirst) {
+            this.reverse = reverse;
+            this.leftmostFirst = leftmostFirst;
+        }
+
+        State start(int pc, int ctx) {
+            State s = starts.get(pc << 8 | ctx);
+            if (s == null) {
+                synchronized (this) {
+                    s = closure(new int[] { pc }, 1, ctx);
+                    starts.put(pc << 8 | ctx, s);
+                }
+            }
+            return s;
+        }
+
+        State next(State s, char c, int ctx) {
+            State n;
+            if (ctx == 0 && c < 128) {
+                n = s.next[c];
+            } else {
+                ConcurrentHashMap<Integer, State> others = s.others;
+                n = others == null ? null : others.get(ctx << 16 | c);
+            }
+            return n != null ? n : transition(s, c, ctx);
+        }
+
+        private synchronized State transition(State s, char c, int ctx) {
+            int[] kernel = new int[op.length];
+            int k = 0;
+            if (reverse) {
+                for (int q : s.insts) {
+                    for (int p : rchar[q]) {
+                        if (pred[p].is(c)) {
+                            kernel[k++] = p;
+                        }
+                    }
+                }
+            } else {
+                for (int pc : s.insts) {
+                    if (pred[pc].is(c)) {
+                        kernel[k++] = out[pc];
+                    }
+                }
+            }
+            State n = closure(kernel, k, ctx);
+            if (ctx == 0 && c < 128) {
+                s.next[c] = n;
+            } else {
+                if (s.others == null) {
+                    s.others = new ConcurrentHashMap<>();
+                }
+                s.others.put(ctx << 16 | c, n);
+            }
+            return n;
+        }
+
+        /*
+         * Follows the empty transitions from the kernel threads, in
+         * priority order, and returns the interned resulting state.
+         */
+        private State closure(int[] kernel, int k, int ctx) {
+            int n = op.length;
+            if (mark == null) {
+                stack = new int[2 * n + 1];
+                list = new int[n];
+                ids = new int[n];
+                mark = new int[n];
+            }
+            if (++gen == 0) {
+                Arrays.fill(mark, 0);
+                gen = 1;
+            }
+            int cnt = 0;
+            int nids = 0;
+        KERNEL:
+            for (int i = 0; i < k; i++) {
+                int sp = 0;
+                stack[sp++] = kernel[i];
+                while (sp > 0) {
+                    int pc = stack[--sp];
+                    if (mark[pc] == gen) {
+                        continue;
+                    }
+                    mark[pc] = gen;
+                    if (reverse) {
+                        if (pc == start) {
+                            ids[nids++] = 0;
+                        }
+                        if (rchar[pc].length != 0) {
+                            list[cnt++] = pc;
+                        }
+                        for (int p : reps[pc]) {
+                            if (op[p] != ASSERT || (ctx & arg[p]) != 0) {
+                                stack[sp++] = p;
+                            }
+                        }
+                        continue;
+                    }
+                    switch (op[pc]) {
+                    case CHAR:
+                        list[cnt++] = pc;
+                        break;
+                    case MATCH:
+                        ids[nids++] = arg[pc];
+                        if (leftmostFirst) {
+                            // the remaining threads have a lower priority
+                            break KERNEL;
+                        }
+                        break;
+                    case SPLIT:
+                        stack[sp++] = out1[pc];
+                        stack[sp++] = out[pc];
+                        break;
+                    case ASSERT:
+                        if ((ctx & arg[pc]) != 0) {
+                            stack[sp++] = out[pc];
+                        }
+                        break;
+                    }
+                }
+            }
+            int[] insts = Arrays.copyOf(list, cnt);
+            if (!leftmostFirst) {
+                Arrays.sort(insts);
+            }
+            int[] accepts = null;
+            if (nids != 0) {
+                accepts = Arrays.copyOf(ids, nids);
+                Arrays.sort(accepts);
+            }
+            State s = new State(insts, accepts);
+            State t = states.get(s);
+            if (t != null) {
+                return t;
+            }
+            if (states.size() >= MAX_STATES) {
+                // start over, states already reached remain usable
+                states.clear();
+                starts.clear();
+            }
+            states.put(s, s);
+            return s;
+        }
+    }
+
+    private static final class Unsupported extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final Unsupported UNSUPPORTED = new Unsupported();
+
+    /**
+     * Translates a node tree into NFA instructions.
+     */
+    private static final class Builder {
+        int[] op = new int[32];
+        int[] out = new int[32];
+        int[] out1 = new int[32];
+        int[] arg = new int[32];
+        CharPredicate[] pred = new CharPredicate[32];
+        int n;
+        int assertions;
+
+        /* where the chains ending at a BranchConn or Loop continue */
+        private final HashMap<Node, Integer> stops = new HashMap<>();
+
+        int inst(int o, int next, int next1, int a, CharPredicate p) {
+            if (n == op.length) {
+                if (n >= MAX_INSTS) {
+                    throw UNSUPPORTED;
+                }
+                int len = Math.min(n * 2, MAX_INSTS);
+                op = Arrays.copyOf(op, len);
+                out = Arrays.copyOf(out, len);
+                out1 = Arrays.copyOf(out1, len);
+                arg = Arrays.copyOf(arg, len);
+                pred = Arrays.copyOf(pred, len);
+            }
+            op[n] = o;
+            out[n] = next;
+            out1[n] = next1;
+            arg[n] = a;
+            pred[n] = p;
+            return n++;
+        }
+
+        int ch(CharPredicate p, int next) {
+            return inst(CHAR, next, -1, 0, p);
+        }
+
+        int split(int next, int next1) {
+            return inst(SPLIT, next, next1, 0, null);
+        }
+
+        int assertion(int kind, int next) {
+            assertions |= kind;
+            return inst(ASSERT, next, -1, kind, null);
+        }
+
+        /**
+         * Emits the instructions for the chain of nodes starting at node,
+         * continuing at cont where the chain ends, and returns the first
+         * instruction.
+         */
+        int emit(Node node, int cont) {
+            Integer stop = stops.get(node);
+            if (stop != null) {
+                return stop;
+            }
+            if (node == Pattern.accept || node instanceof Pattern.LastNode) {
+                return cont;
+            }
+            if (node instanceof Pattern.GroupHead ||
+                node instanceof Pattern.GroupTail) {
+                return emit(node.next, cont);
+            }
+            if (node instanceof Pattern.Branch) {
+                Pattern.Branch b = (Pattern.Branch)node;
+                int conn = emit(b.conn.next, cont);
+                stops.put(b.conn, conn);
+                int pc = alternative(b.atoms[b.size - 1], conn);
+                for (int i = b.size - 2; i >= 0; i--) {
+                    pc = split(alternative(b.atoms[i], conn), pc);
+                }
+                stops.remove(b.conn);
+                return pc;
+            }
+            if (node instanceof Pattern.Prolog) {
+                Pattern.Loop loop = ((Pattern.Prolog)node).loop;
+                return repeat(loop.body, loop, loop.cmin, loop.cmax,
+                              !(loop instanceof Pattern.LazyLoop),
+                              emit(loop.next, cont));
+            }
+            if (node == null || node instanceof Pattern.BranchConn ||
+                node instanceof Pattern.Loop) {
+                throw UNSUPPORTED;
+            }
+
+            int next = emit(node.next, cont);
+            if (node instanceof Pattern.CharProperty) {
+                return ch(((Pattern.CharProperty)node).predicate, next);
+            }
+            if (node instanceof Pattern.SliceNode) {
+                int[] buf = ((Pattern.SliceNode)node).buffer;
+                for (int j = buf.length - 1; j >= 0; j--) {
+                    next = ch(slice(node, buf[j]), next);
+                }
+                return next;
+            }
+            if (node instanceof Pattern.CharPropertyGreedy) {
+                Pattern.CharPropertyGreedy g =
+                    (Pattern.CharPropertyGreedy)node;
+                int loop = split(-1, next);
+                int c = ch(g.predicate, loop);
+                out[loop] = c;
+                return g.cmin == 0 ? loop : ch(g.predicate, loop);
+            }
+            if (node instanceof Pattern.Ques) {
+                Pattern.Ques q = (Pattern.Ques)node;
+                if (q.type == Pattern.Qtype.GREEDY) {
+                    return split(emit(q.atom, next), next);
+                } else if (q.type == Pattern.Qtype.LAZY) {
+                    return split(next, emit(q.atom, next));
+                }
+                throw UNSUPPORTED;
+            }
+            if (node instanceof Pattern.Curly) {
+                Pattern.Curly c = (Pattern.Curly)node;
+                if (c.type == Pattern.Qtype.GREEDY ||
+                    c.type == Pattern.Qtype.LAZY) {
+                    return repeat(c.atom, null, c.cmin, c.cmax,
+                                  c.type == Pattern.Qtype.GREEDY, next);
+                }
+                throw UNSUPPORTED;
+            }
+            if (node instanceof Pattern.GroupCurly) {
+                Pattern.GroupCurly c = (Pattern.GroupCurly)node;
+                if (c.type == Pattern.Qtype.GREEDY ||
+                    c.type == Pattern.Qtype.LAZY) {
+                    return repeat(c.atom, null, c.cmin, c.cmax,
+                                  c.type == Pattern.Qtype.GREEDY, next);
+                }
+                throw UNSUPPORTED;
+            }
+            if (node instanceof Pattern.LineEnding) {
+                // \R never backs off from \r\n to a lone \r, which a
+                // split between the two would let the NFA do
+                throw UNSUPPORTED;
+            }
+            if (node instanceof Pattern.Begin) {
+                return assertion(BEGIN, next);
+            }
+            if (node instanceof Pattern.End) {
+                return assertion(END, next);
+            }
+            if (node instanceof Pattern.Caret) {
+                return assertion(CARET, next);
+            }
+            if (node instanceof Pattern.UnixCaret) {
+                return assertion(UNIX_CARET, next);
+            }
+            if (node instanceof Pattern.Dollar) {
+                return assertion(((Pattern.Dollar)node).multiline ?
+                                 DOLLAR_ML : DOLLAR, next);
+            }
+            if (node instanceof Pattern.UnixDollar) {
+                return assertion(((Pattern.UnixDollar)node).multiline ?
+                                 UNIX_DOLLAR_ML : UNIX_DOLLAR, next);
+            }
+            throw UNSUPPORTED;
+        }
+
+        private int alternative(Node atom, int conn) {
+            // a null atom goes to the connection directly; the others end
+            // at it, and cont is never reached
+            return atom == null ? conn : emit(atom, -1);
+        }
+
+        /**
+         * Emits min copies of body followed by max - min optional ones,
+         * or by a loop if max is unbounded.
+         */
+        private int repeat(Node body, Pattern.Loop loop, int min, int max,
+                           boolean greedy, int next) {
+            if (max == 0) {
+                return next;
+            }
+            int pc;
+            if (max == Pattern.MAX_REPS) {
+                pc = split(-1, -1);
+                int b = copy(body, loop, pc);
+                out[pc] = greedy ? b : next;
+                out1[pc] = greedy ? next : b;
+            } else {
+                pc = next;
+                for (int i = min; i < max; i++) {
+                    int b = copy(body, loop, pc);
+                    pc = greedy ? split(b, next) : split(next, b);
+                }
+            }
+            for (int i = 0; i < min; i++) {
+                pc = copy(body, loop, pc);
+            }
+            return pc;
+        }
+
+        /*
+         * The body of a Curly or GroupCurly ends at accept, and that of a
+         * Loop ends at the Loop itself. The nodes leave a loop as soon as
+         * an iteration matches the empty string, which the priorities of
+         * the NFA cannot express, so a body that can is not supported.
+         */
+        private int copy(Node body, Pattern.Loop loop, int cont) {
+            int pc;
+            if (loop == null) {
+                pc = emit(body, cont);
+            } else {
+                stops.put(loop, cont);
+                pc = emit(body, cont);
+                stops.remove(loop);
+            }
+            if (nullable(pc, cont)) {
+                throw UNSUPPORTED;
+            }
+            return pc;
+        }
+
+        /*
+         * Returns true if cont can be reached from pc without matching a
+         * character, assuming every assertion holds.
+         */
+        private boolean nullable(int pc, int cont) {
+            int[] stack = new int[2 * n + 1];
+            boolean[] seen = new boolean[n];
+            int sp = 0;
+            stack[sp++] = pc;
+            while (sp > 0) {
+                pc = stack[--sp];
+                if (pc == cont) {
+                    return true;
+                }
+                if (seen[pc] || op[pc] == CHAR || op[pc] == MATCH) {
+                    continue;
+                }
+                seen[pc] = true;
+                stack[sp++] = out[pc];
+                if (op[pc] == SPLIT) {
+                    stack[sp++] = out1[pc];
+                }
+            }
+            return false;
+        }
+
+        private static CharPredicate slice(Node node, int c) {
+            if (node instanceof Pattern.SliceIS) {
+                Pattern.SliceIS s = (Pattern.SliceIS)node;
+                return ch -> ch == c || s.toLower(ch) == c;
+            } else if (node instanceof Pattern.SliceI) {
+                return ch -> ch == c || ASCII.toLower(ch) == c;
+            } else if (node instanceof Pattern.SliceU) {
+                return ch -> ch == c ||
+                    Character.toLowerCase(Character.toUpperCase(ch)) == c;
+            }
+            return ch -> ch == c;
+        }
+    }
+}
@@ -25,6 +25,8 @@
 
 package java.util.regex;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -397,6 +399,9 @@ public final class Matcher implements MatchResult {
      * default region, which is its entire character sequence. The anchoring
      * and transparency of this matcher's region boundaries are unaffected.
      *
+     * <p> Resetting a matcher does not allocate any memory, so a matcher
+     * can be reused for many inputs at no more cost than the matching.
+     *
      * @return  This matcher
      */
     public Matcher reset() {
@@ -437,6 +442,34 @@ public final class Matcher implements MatchResult {
         return reset();
     }
 
+    /**
+     * Resets this matcher with the remaining bytes of the given buffer, in
+     * the given charset, as new input.
+     *
+     * <p> The bytes are matched as described for {@link
+     * Pattern#matcher(ByteBuffer, Charset)}. If the previous input of this
+     * matcher was also a buffer, the storage used to match it is reused;
+     * no memory is allocated unless the bytes have to be decoded and do not
+     * fit in the character array of the previous input.
+     *
+     * @param  input
+     *         The new input buffer
+     *
+     * @param  cs
+     *         The charset of the bytes
+     *
+     * @return  This matcher
+     * @since 10
+     */
+    public Matcher reset(ByteBuffer input, Charset cs) {
+        if (text instanceof ByteBufferSequence) {
+            ((ByteBufferSequence)text).reset(input, cs);
+        } else {
+            text = new ByteBufferSequence(input, cs);
+        }
+        return reset();
+    }
+
     /**
      * Returns the start index of the previous match.
      *
@@ -1713,9 +1746,14 @@ public final class Matcher implements MatchResult {
      * the end of the previous match.
      */
     boolean search(int from) {
+        from        = from < 0 ? 0 : from;
+        if (parentPattern.dfa != null) {
+            int r = searchDFA(from, NOANCHOR, true);
+            if (r != LazyDFA.GIVE_UP)
+                return r == LazyDFA.FOUND;
+        }
         this.hitEnd = false;
         this.requireEnd = false;
-        from        = from < 0 ? 0 : from;
         this.first  = from;
         this.oldLast = oldLast < 0 ? from : oldLast;
         for (int i = 0; i < groups.length; i++)
@@ -1740,9 +1778,14 @@ public final class Matcher implements MatchResult {
      * state of the match as it proceeds in this matcher.
      */
     boolean match(int from, int anchor) {
+        from        = from < 0 ? 0 : from;
+        if (parentPattern.dfa != null) {
+            int r = searchDFA(from, anchor, false);
+            if (r != LazyDFA.GIVE_UP)
+                return r == LazyDFA.FOUND;
+        }
         this.hitEnd = false;
         this.requireEnd = false;
-        from        = from < 0 ? 0 : from;
         this.first  = from;
         this.oldLast = oldLast < 0 ? from : oldLast;
         for (int i = 0; i < groups.length; i++)
@@ -1760,6 +1803,49 @@ public final class Matcher implements MatchResult {
         return result;
     }
 
+    /**
+     * Initiates a search, if find is true, or else an anchored match with
+     * the DFA of the pattern. If the pattern has capturing groups,
+     * they are filled by matching the object tree from the start of the
+     * match found. Returns LazyDFA.GIVE_UP if the DFA could not tell
+     * whether there is a match, and search or match must use the object
+     * tree.
+     */
+    private int searchDFA(int from, int anchor, boolean find) {
+        this.hitEnd = false;
+        this.requireEnd = false;
+        this.first  = from;
+        this.oldLast = oldLast < 0 ? from : oldLast;
+        for (int i = 0; i < groups.length; i++)
+            groups[i] = -1;
+        for (int i = 0; i < localsPos.length; i++) {
+            if (localsPos[i] != null)
+                localsPos[i].clear();
+        }
+        acceptMode = anchor;
+        LazyDFA dfa = parentPattern.dfa;
+        int r = find ? dfa.find(this, from) : dfa.match(this, from, anchor);
+        if (r == LazyDFA.FOUND && groupCount() > 0) {
+            int start = first;
+            int end = last;
+            boolean hitEnd = this.hitEnd;
+            boolean requireEnd = this.requireEnd;
+            if (!parentPattern.matchRoot.match(this, start, text) ||
+                last != end)
+                return LazyDFA.GIVE_UP;
+            this.first = start;
+            this.hitEnd = hitEnd;
+            this.requireEnd = requireEnd;
+        }
+        if (r == LazyDFA.GIVE_UP)
+            return r;
+        if (r == LazyDFA.NOT_FOUND)
+            this.first = -1;
+        this.oldLast = this.last;
+        this.modCount++;
+        return r;
+    }
+
     /**
      * Returns the end index of the text.
      *
@@ -25,6 +25,8 @@
 
 package java.util.regex;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.text.Normalizer;
 import java.text.Normalizer.Form;
 import java.util.Locale;
@@ -941,12 +943,51 @@ public final class Pattern
      */
     public static final int UNICODE_CHARACTER_CLASS = 0x100;
 
+    /**
+     * Enables matching with a deterministic finite automaton.
+     *
+     * <p> When this flag is specified the pattern is also translated, if
+     * it only uses constructs a finite automaton can match, into an
+     * automaton whose states are built lazily as the input is scanned, so
+     * that the time to match is linear in the length of the input and does
+     * not depend on the backtracking the pattern would otherwise need. The
+     * constructs that cannot be matched this way are back references,
+     * lookahead and lookbehind, possessive quantifiers, independent
+     * groups, boundary matchers other than {@code ^}, {@code $},
+     * {@code \A}, {@code \Z} and {@code \z}, the linebreak matcher
+     * {@code \R}, the constructs enabled by {@link #CANON_EQ}, and
+     * quantifiers applied to an expression that can match the empty
+     * string. A pattern using any of them, and input that contains
+     * supplementary characters, are matched as if this flag was not
+     * specified.
+     *
+     * <p> The matches found, that is their start and end indices, are the
+     * same as without this flag. When the pattern has capturing groups,
+     * they are found by matching the pattern again from the start of the
+     * match, so the values of a capturing group inside a repetition may
+     * differ: without this flag such a group can keep a stale value,
+     * captured while attempting a match at an earlier starting index or in
+     * an iteration that is not part of the match, whereas with this flag
+     * it only holds a value captured by the match found. The values of
+     * {@link Matcher#hitEnd hitEnd} and {@link Matcher#requireEnd
+     * requireEnd} may be {@code true} in some cases where they would
+     * otherwise be {@code false}.
+     *
+     * <p> There is no embedded flag character for enabling matching with a
+     * deterministic finite automaton.
+     *
+     * <p> Specifying this flag increases the time taken to compile the
+     * pattern and the memory it uses. </p>
+     * @since 10
+     */
+    public static final int DFA = 0x200;
+
     /**
      * Contains all possible flags for compile(regex, flags).
      */
     private static final int ALL_FLAGS = CASE_INSENSITIVE | MULTILINE |
             DOTALL | UNICODE_CASE | CANON_EQ | UNIX_LINES | LITERAL |
-            UNICODE_CHARACTER_CLASS | COMMENTS;
+            UNICODE_CHARACTER_CLASS | COMMENTS | DFA;
 
     /* Pattern has only two serialized components: The pattern string
      * and the flags, which are all that is needed to recompile the pattern
@@ -994,6 +1035,12 @@ public final class Pattern
      */
     transient Node matchRoot;
 
+    /**
+     * The automaton matching matchRoot, if the DFA flag is set and the
+     * pattern can be matched by one, otherwise null.
+     */
+    transient LazyDFA dfa;
+
     /**
      * Temporary storage used by parsing pattern slice.
      */
@@ -1093,8 +1140,8 @@ public final class Pattern
      *         Match flags, a bit mask that may include
      *         {@link #CASE_INSENSITIVE}, {@link #MULTILINE}, {@link #DOTALL},
      *         {@link #UNICODE_CASE}, {@link #CANON_EQ}, {@link #UNIX_LINES},
-     *         {@link #LITERAL}, {@link #UNICODE_CHARACTER_CLASS}
-     *         and {@link #COMMENTS}
+     *         {@link #LITERAL}, {@link #UNICODE_CHARACTER_CLASS},
+     *         {@link #COMMENTS} and {@link #DFA}
      *
      * @return the given regular expression compiled into a pattern with the given flags
      * @throws  IllegalArgumentException
@@ -1148,6 +1195,38 @@ public final class Pattern
         return m;
     }
 
+    /**
+     * Creates a matcher that will match the remaining bytes of the given
+     * buffer, in the given charset, against this pattern.
+     *
+     * <p> The bytes are not decoded into a string. If the charset is
+     * ISO-8859-1 or US-ASCII, or UTF-8 and every remaining byte is an ASCII
+     * character, the matcher reads each character from the buffer when it
+     * needs it, and the indices it reports are the offsets of the bytes
+     * from the position of the buffer. Otherwise the bytes are decoded into
+     * a character array held by the matcher, and the indices are those of
+     * the decoded characters. In both cases malformed or unmappable input
+     * is matched as the replacement character U+FFFD. The position and
+     * limit of the buffer are not changed, but its content should not be
+     * changed while it is being matched. A {@link java.nio.CharBuffer} is
+     * a character sequence, and is matched in place by
+     * {@link #matcher(CharSequence)}.
+     *
+     * @param  input
+     *         The buffer to be matched
+     *
+     * @param  cs
+     *         The charset of the bytes
+     *
+     * @return  A new matcher for this pattern
+     *
+     * @see Matcher#reset(ByteBuffer, Charset)
+     * @since 10
+     */
+    public Matcher matcher(ByteBuffer input, Charset cs) {
+        return matcher(new ByteBufferSequence(input, cs));
+    }
+
     /**
      * Returns this pattern's match flags.
      *
@@ -1806,6 +1885,10 @@ loop:   for(int x=0, offset=0; x<nCodePoints; x++, offset+=len) {
             }
         }
 
+        if (has(DFA) && !has(CANON_EQ)) {
+            dfa = LazyDFA.compile(matchRoot);
+        }
+
         // Release temporary storage
         temp = null;
         buffer = null;
@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern.Node;
+
+/**
+ * A set of regular expressions compiled together, so that an input can be
+ * searched for all of them at once.
+ *
+ * <p> The {@link #matches matches} method of a pattern set returns the
+ * indices of the patterns that match somewhere in an input, that is, the
+ * indices {@code i} for which {@code set.pattern(i).matcher(input).find()}
+ * would return {@code true}. A typical invocation sequence is thus
+ *
+ * <blockquote><pre>
+ * PatternSet set = PatternSet.compile("ERROR", "WARN(ING)?", "\\d+ms");
+ * int[] found = set.matches(line);</pre></blockquote>
+ *
+ * <p> The patterns that can be matched by a finite automaton, as described
+ * for the {@link Pattern#DFA} flag, are joined into automata whose states
+ * are built lazily, so that a single scan of the input finds all of them
+ * that match, and the time it takes does not grow with the number of
+ * patterns once the states it needs are built. The other patterns are
+ * searched for one by one, except that a pattern which starts with a
+ * literal string is only searched for if that string occurs in the input.
+ * The strings of all these patterns are looked for in a single scan with
+ * the Aho-Corasick algorithm.
+ *
+ * <p> Instances of this class are immutable and are safe for use by
+ * multiple concurrent threads.
+ *
+ * @see Pattern
+ * @since 10
+ */
+public final class PatternSet {
+
+    /*
+     * The maximum number of NFA instructions of the patterns joined into
+     * one automaton. Smaller automata have fewer states to build.
+     */
+    private static final int MAX_DFA_SIZE = 4096;
+
+    private final Pattern[] patterns;
+
+    /* the automata, and the indices of the patterns joined into each */
+    private final LazyDFA[] dfas;
+    private final int[][] dfaIds;
+
+    /* the patterns searched for one by one, if their literal occurs */
+    private final Literals literals;
+    /* the patterns always searched for one by one */
+    private final int[] others;
+
+    private PatternSet(Pattern[] patterns) {
+        this.patterns = patterns;
+        List<LazyDFA> dfas = new ArrayList<>();
+        List<int[]> dfaIds = new ArrayList<>();
+        List<String> words = new ArrayList<>();
+        int[] wordIds = new int[patterns.length];
+        int[] others = new int[patterns.length];
+        int nothers = 0;
+
+        int[] chunk = new int[patterns.length];
+        int nchunk = 0;
+        int size = 0;
+        for (int i = 0; i < patterns.length; i++) {
+            // the input may match a canonical equivalent of a literal
+            boolean canonEq = (patterns[i].flags() & Pattern.CANON_EQ) != 0;
+            Node root = patterns[i].matchRoot;
+            LazyDFA dfa = canonEq ? null : LazyDFA.compile(root);
+            if (dfa != null) {
+                if (nchunk > 0 && size + dfa.size() > MAX_DFA_SIZE) {
+                    join(Arrays.copyOf(chunk, nchunk), dfas, dfaIds);
+                    nchunk = size = 0;
+                }
+                chunk[nchunk++] = i;
+                size += dfa.size();
+                continue;
+            }
+            String word = canonEq ? null : literal(root);
+            if (word != null) {
+                wordIds[words.size()] = i;
+                words.add(word);
+            } else {
+                others[nothers++] = i;
+            }
+        }
+        if (nchunk > 0) {
+            join(Arrays.copyOf(chunk, nchunk), dfas, dfaIds);
+        }
+        this.dfas = dfas.toArray(new LazyDFA[0]);
+        this.dfaIds = dfaIds.toArray(new int[0][]);
+        this.literals = words.isEmpty() ? null :
+            new Literals(words, Arrays.copyOf(wordIds, words.size()));
+        this.others = Arrays.copyOf(others, nothers);
+    }
+
+    /*
+     * Adds the automaton joining the given patterns, or the automata
+     * joining each half of them if that one turns out to be too large.
+     */
+    private void join(int[] ids, List<LazyDFA> dfas, List<int[]> dfaIds) {
+        Node[] roots = new Node[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            roots[i] = patterns[ids[i]].matchRoot;
+        }
+        LazyDFA dfa = LazyDFA.compile(roots, ids);
+        if (dfa != null) {
+            dfas.add(dfa);
+            dfaIds.add(ids);
+        } else {
+            int half = ids.length >>> 1;
+            join(Arrays.copyOfRange(ids, 0, half), dfas, dfaIds);
+            join(Arrays.copyOfRange(ids, half, ids.length), dfas, dfaIds);
+        }
+    }
+
+    /*
+     * Returns the literal string a match of the node tree starts with, or
+     * null if there is none.
+     */
+    private static String literal(Node node) {
+        while (node instanceof Pattern.Begin ||
+               node instanceof Pattern.Caret ||
+               node instanceof Pattern.UnixCaret ||
+               node instanceof Pattern.GroupHead) {
+            node = node.next;
+        }
+        if (node instanceof Pattern.Slice) {    // or SliceS
+            int[] buf = ((Pattern.Slice)node).buffer;
+            return new String(buf, 0, buf.length);
+        }
+        return null;
+    }
+
+    /**
+     * Compiles the given regular expressions into a pattern set.
+     *
+     * @param  regexes
+     *         The expressions to be compiled
+     *
+     * @return the given regular expressions compiled into a pattern set
+     *
+     * @throws  PatternSyntaxException
+     *          If the syntax of one of the expressions is invalid
+     */
+    public static PatternSet compile(String... regexes) {
+        return compile(Arrays.asList(regexes), 0);
+    }
+
+    /**
+     * Compiles the given regular expressions into a pattern set, with
+     * the given flags. The index of each pattern in the set is the
+     * position of its expression in the iteration order of the
+     * collection.
+     *
+     * @param  regexes
+     *         The expressions to be compiled
+     *
+     * @param  flags
+     *         Match flags, a bit mask of the flags accepted by
+     *         {@link Pattern#compile(String, int)}, applied to every
+     *         expression
+     *
+     * @return the given regular expressions compiled into a pattern set
+     *
+     * @throws  IllegalArgumentException
+     *          If bit values other than those corresponding to the defined
+     *          match flags are set in {@code flags}
+     *
+     * @throws  PatternSyntaxException
+     *          If the syntax of one of the expressions is invalid
+     */
+    public static PatternSet compile(Collection<String> regexes, int flags) {
+        Pattern[] patterns = new Pattern[regexes.size()];
+        int i = 0;
+        for (String regex : regexes) {
+            patterns[i++] = Pattern.compile(regex, flags);
+        }
+        return new PatternSet(patterns);
+    }
+
+    /**
+     * Returns the number of patterns in this set.
+     *
+     * @return the number of patterns in this set
+     */
+    public int size() {
+        return patterns.length;
+    }
+
+    /**
+     * Returns the pattern of this set with the given index.
+     *
+     * @param  index
+     *         The index of the pattern
+     *
+     * @return the pattern with the given index
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the index is negative or not less than {@link #size}
+     */
+    public Pattern pattern(int index) {
+        return patterns[index];
+    }
+
+    /**
+     * Returns the indices of the patterns of this set that match some
+     * subsequence of the given input, in ascending order.
+     *
+     * @param  input
+     *         The character sequence to be searched
+     *
+     * @return the indices of the patterns found in the input
+     */
+    public int[] matches(CharSequence input) {
+        BitSet matched = new BitSet(patterns.length);
+        for (int i = 0; i < dfas.length; i++) {
+            if (!dfas[i].findAll(input, matched)) {
+                // the automaton gave up on a supplementary character
+                for (int id : dfaIds[i]) {
+                    find(id, input, matched);
+                }
+            }
+        }
+        if (literals != null) {
+            BitSet found = new BitSet(patterns.length);
+            literals.findAll(input, found);
+            for (int id = found.nextSetBit(0); id >= 0;
+                 id = found.nextSetBit(id + 1)) {
+                find(id, input, matched);
+            }
+        }
+        for (int id : others) {
+            find(id, input, matched);
+        }
+        return matched.stream().toArray();
+    }
+
+    private void find(int id, CharSequence input, BitSet matched) {
+        if (!matched.get(id) && patterns[id].matcher(input).find()) {
+            matched.set(id);
+        }
+    }
+
+    /**
+     * Returns the source of the patterns of this set.
+     *
+     * @return the regular expressions of this set, in the order of
+     *         their indices
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < patterns.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(patterns[i].pattern());
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * An Aho-Corasick automaton finding which of a set of strings occur
+     * in an input. Each state is a prefix of some of the strings; its
+     * transitions are kept sorted by character, and its outputs are the
+     * ids of the strings that are suffixes of it.
+     */
+    private static final class Literals {
+        private char[][] labels = new char[16][];
+        private int[][] targets = new int[16][];
+        private int[][] outputs = new int[16][];
+        private int[] fail;
+        private int n = 1;
+
+        Literals(List<String> words, int[] ids) {
+            labels[0] = new char[0];
+            targets[0] = new int[0];
+            for (int i = 0; i < words.size(); i++) {
+                String w = words.get(i);
+                int s = 0;
+                for (int j = 0; j < w.length(); j++) {
+                    int t = next(s, w.charAt(j));
+                    s = t >= 0 ? t : add(s, w.charAt(j));
+                }
+                outputs[s] = union(outputs[s], new int[] { ids[i] });
+            }
+
+            // breadth first, so the failure state of a state is known
+            // before its transitions are visited
+            fail = new int[n];
+            int[] queue = new int[n];
+            int head = 0, tail = 0;
+            for (int t : targets[0]) {
+                queue[tail++] = t;
+            }
+            while (head < tail) {
+                int s = queue[head++];
+                for (int k = 0; k < labels[s].length; k++) {
+                    char c = labels[s][k];
+                    int t = targets[s][k];
+                    int f = fail[s];
+                    int u;
+                    while ((u = next(f, c)) < 0 && f != 0) {
+                        f = fail[f];
+                    }
+                    fail[t] = u >= 0 ? u : 0;
+                    outputs[t] = union(outputs[t], outputs[fail[t]]);
+                    queue[tail++] = t;
+                }
+            }
+        }
+
+        private int add(int s, char c) {
+            if (n == labels.length) {
+                labels = Arrays.copyOf(labels, n * 2);
+                targets = Arrays.copyOf(targets, n * 2);
+                outputs = Arrays.copyOf(outputs, n * 2);
+            }
+            int t = n++;
+            labels[t] = new char[0];
+            targets[t] = new int[0];
+            char[] l = labels[s];
+            int[] g = targets[s];
+            int k = -(Arrays.binarySearch(l, c) + 1);
+            char[] nl = new char[l.length + 1];
+            int[] ng = new int[g.length + 1];
+            System.arraycopy(l, 0, nl, 0, k);
+            System.arraycopy(g, 0, ng, 0, k);
+            nl[k] = c;
+            ng[k] = t;
+            System.arraycopy(l, k, nl, k + 1, l.length - k);
+            System.arraycopy(g, k, ng, k + 1, g.length - k);
+            labels[s] = nl;
+            targets[s] = ng;
+            return t;
+        }
+
+        private int next(int s, char c) {
+            int k = Arrays.binarySearch(labels[s], c);
+            return k >= 0 ? targets[s][k] : -1;
+        }
+
+        private static int[] union(int[] a, int[] b) {
+            if (a == null) {
+                return b;
+            } else if (b == null) {
+                return a;
+            }
+            int[] u = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, u, a.length, b.length);
+            return u;
+        }
+
+        /**
+         * Sets the ids of the strings occurring in seq in found.
+         */
+        void findAll(CharSequence seq, BitSet found) {
+            int s = 0;
+            for (int i = 0; i < seq.length(); i++) {
+                char c = seq.charAt(i);
+                int t;
+                while ((t = next(s, c)) < 0 && s != 0) {
+                    s = fail[s];
+                }
+                s = t >= 0 ? t : 0;
+                if (outputs[s] != null) {
+                    for (int id : outputs[s]) {
+                        found.set(id);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -26,6 +26,8 @@ package java.util.stream;
 
 import java.util.Objects;
 import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
@@ -74,6 +76,22 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
     private static final String MSG_STREAM_LINKED = "stream has already been operated upon or closed";
     private static final String MSG_CONSUMED = "source already consumed or closed";
 
+    /**
+     * The number of elements pushed at a time by
+     * {@link #forEachInBatches(Spliterator, Sink)}.  Large enough to amortize
+     * the per-batch calls down the sink chain, small enough that a batch stays
+     * in the L1 cache as it is mapped and filtered in place by each stage.
+     */
+    static final int BATCH_SIZE = 256;
+
+    /**
+     * The number of intermediate stages from which elements are pushed in
+     * batches.  Shorter sink chains are usually inlined whole into the
+     * source's traversal loop, where pushing one element at a time is cheaper
+     * than staging elements through a buffer.
+     */
+    static final int BATCH_MIN_DEPTH = 3;
+
     /**
      * Backlink to the head of the pipeline chain (self if this is the source
      * stage).
@@ -148,6 +166,12 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
      */
     private boolean parallel;
 
+    /**
+     * Options of parallel evaluation, or null for the defaults; only valid
+     * for the source stage.
+     */
+    private ParallelOptions parallelOptions;
+
     /**
      * Constructor for the head of a stream pipeline.
      *
@@ -230,10 +254,30 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
         linkedOrConsumed = true;
 
         return isParallel()
-               ? terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags()))
+               ? evaluateInPool(() -> terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags())))
                : terminalOp.evaluateSequential(this, sourceSpliterator(terminalOp.getOpFlags()));
     }
 
+    /**
+     * Performs a parallel evaluation in the pool given by the parallel
+     * options of this pipeline, if any, so that the tasks it forks are
+     * executed by that pool.  Without a pool, or when already running in
+     * it, the evaluation is performed by the calling thread, and its tasks
+     * are forked to the pool of that thread or to the common pool.
+     *
+     * @param <R> the type of result
+     * @param evaluation the evaluation
+     * @return the result
+     */
+    private <R> R evaluateInPool(Supplier<R> evaluation) {
+        ParallelOptions options = sourceStage.parallelOptions;
+        ForkJoinPool pool;
+        if (options == null || (pool = options.pool()) == null ||
+            ForkJoinTask.getPool() == pool)
+            return evaluation.get();
+        return pool.invoke(ForkJoinTask.adapt(evaluation::get));
+    }
+
     /**
      * Collect the elements output from the pipeline stage.
      *
@@ -254,7 +298,10 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
             // upstream slice and upstream operations will not be included
             // in this slice
             depth = 0;
-            return opEvaluateParallel(previousStage, previousStage.sourceSpliterator(0), generator);
+            return evaluateInPool(() -> opEvaluateParallel(previousStage, previousStage.sourceSpliterator(0), generator));
+        }
+        else if (isParallel()) {
+            return evaluateInPool(() -> evaluate(sourceSpliterator(0), true, generator));
         }
         else {
             return evaluate(sourceSpliterator(0), true, generator);
@@ -312,6 +359,14 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
         return (S) this;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public final S parallel(ParallelOptions options) {
+        sourceStage.parallelOptions = Objects.requireNonNull(options);
+        sourceStage.parallel = true;
+        return (S) this;
+    }
+
     @Override
     public void close() {
         linkedOrConsumed = true;
@@ -476,12 +531,23 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     final <P_IN> void copyInto(Sink<P_IN> wrappedSink, Spliterator<P_IN> spliterator) {
         Objects.requireNonNull(wrappedSink);
 
         if (!StreamOpFlag.SHORT_CIRCUIT.isKnown(getStreamAndOpFlags())) {
             wrappedSink.begin(spliterator.getExactSizeIfKnown());
-            spliterator.forEachRemaining(wrappedSink);
+            if (depth < BATCH_MIN_DEPTH) {
+                spliterator.forEachRemaining(wrappedSink);
+            }
+            else {
+                @SuppressWarnings({"rawtypes","unchecked"})
+                AbstractPipeline p = AbstractPipeline.this;
+                while (p.depth > 0) {
+                    p = p.previousStage;
+                }
+                p.forEachInBatches(spliterator, wrappedSink);
+            }
             wrappedSink.end();
         }
         else {
@@ -509,6 +575,11 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
         return combinedFlags;
     }
 
+    @Override
+    final ParallelOptions getParallelOptions() {
+        return sourceStage.parallelOptions;
+    }
+
     final boolean isOrdered() {
         return StreamOpFlag.ORDERED.isKnown(combinedFlags);
     }
@@ -610,6 +681,17 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
      */
     abstract boolean forEachWithCancel(Spliterator<E_OUT> spliterator, Sink<E_OUT> sink);
 
+    /**
+     * Traverse all the elements of a spliterator compatible with this stream
+     * shape, pushing those elements into a sink.  Where the stream shape and
+     * the sink support it, elements are pushed in batches through the
+     * sink's {@code acceptBatch} method rather than one at a time.
+     *
+     * @param spliterator the spliterator to pull elements from
+     * @param sink the sink to push elements to
+     */
+    abstract void forEachInBatches(Spliterator<E_OUT> spliterator, Sink<E_OUT> sink);
+
     /**
      * Make a node builder compatible with this stream shape.
      *
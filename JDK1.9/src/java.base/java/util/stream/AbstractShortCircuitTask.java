@@ -105,6 +105,9 @@ abstract class AbstractShortCircuitTask<P_IN, P_OUT, R,
         boolean forkRight = false;
         @SuppressWarnings("unchecked") K task = (K) this;
         AtomicReference<R> sr = sharedResult;
+        ParallelOptions.Statistics stats = statistics(helper);
+        if (stats != null)
+            stats.started(forkedBy);
         R result;
         while ((result = sr.get()) == null) {
             if (task.taskCanceled()) {
@@ -112,6 +115,8 @@ abstract class AbstractShortCircuitTask<P_IN, P_OUT, R,
                 break;
             }
             if (sizeEstimate <= sizeThreshold || (ls = rs.trySplit()) == null) {
+                if (stats != null)
+                    stats.leaf();
                 result = task.doLeaf();
                 break;
             }
@@ -130,6 +135,10 @@ abstract class AbstractShortCircuitTask<P_IN, P_OUT, R,
                 task = rightChild;
                 taskToFork = leftChild;
             }
+            if (stats != null) {
+                stats.split();
+                taskToFork.forkedBy = Thread.currentThread();
+            }
             taskToFork.fork();
             sizeEstimate = rs.estimateSize();
         }
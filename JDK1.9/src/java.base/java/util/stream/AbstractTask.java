@@ -125,6 +125,12 @@ abstract class AbstractTask<P_IN, P_OUT, R,
     /** The result of this node, if completed */
     private R localResult;
 
+    /**
+     * The thread that forked this task, only recorded if the pipeline keeps
+     * {@link ParallelOptions.Statistics statistics}
+     */
+    Thread forkedBy;
+
     /**
      * Constructor for root nodes.
      *
@@ -185,6 +191,26 @@ abstract class AbstractTask<P_IN, P_OUT, R,
         return est > 0L ? est : 1L;
     }
 
+    /**
+     * Returns a suggested target leaf size based on the initial size estimate
+     * and the parallel options of the given pipeline.
+     *
+     * @return suggested target leaf size
+     */
+    static long suggestTargetSize(PipelineHelper<?> helper, long sizeEstimate) {
+        ParallelOptions options = helper.getParallelOptions();
+        return (options == null) ? suggestTargetSize(sizeEstimate)
+                                 : options.targetSize(sizeEstimate);
+    }
+
+    /**
+     * Returns the statistics kept for the given pipeline, or null if none.
+     */
+    static ParallelOptions.Statistics statistics(PipelineHelper<?> helper) {
+        ParallelOptions options = helper.getParallelOptions();
+        return (options == null) ? null : options.statistics();
+    }
+
     /**
      * Returns the targetSize, initializing it via the supplied
      * size estimate if not already initialized.
@@ -192,7 +218,7 @@ abstract class AbstractTask<P_IN, P_OUT, R,
     protected final long getTargetSize(long sizeEstimate) {
         long s;
         return ((s = targetSize) != 0 ? s :
-                (targetSize = suggestTargetSize(sizeEstimate)));
+                (targetSize = suggestTargetSize(helper, sizeEstimate)));
     }
 
     /**
@@ -294,6 +320,9 @@ abstract class AbstractTask<P_IN, P_OUT, R,
         long sizeThreshold = getTargetSize(sizeEstimate);
         boolean forkRight = false;
         @SuppressWarnings("unchecked") K task = (K) this;
+        ParallelOptions.Statistics stats = statistics(helper);
+        if (stats != null)
+            stats.started(forkedBy);
         while (sizeEstimate > sizeThreshold && (ls = rs.trySplit()) != null) {
             K leftChild, rightChild, taskToFork;
             task.leftChild  = leftChild = task.makeChild(ls);
@@ -310,9 +339,15 @@ abstract class AbstractTask<P_IN, P_OUT, R,
                 task = rightChild;
                 taskToFork = leftChild;
             }
+            if (stats != null) {
+                stats.split();
+                taskToFork.forkedBy = Thread.currentThread();
+            }
             taskToFork.fork();
             sizeEstimate = rs.estimateSize();
         }
+        if (stats != null)
+            stats.leaf();
         task.setLocalResult(task.doLeaf());
         task.tryComplete();
     }
@@ -29,8 +29,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Objects;
 import java.util.Spliterator;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.IntConsumer;
 import java.util.function.Predicate;
 
@@ -124,6 +126,35 @@ public interface BaseStream<T, S extends BaseStream<T, S>>
      */
     S parallel();
 
+    /**
+     * Returns an equivalent stream that is parallel, and whose parallel
+     * evaluation follows the given options: it may run in a given
+     * {@link ForkJoinPool}, split its source into leaf tasks of a given size
+     * or for a given parallelism, and record statistics of its splitting.
+     * May return itself, either
+     * because the stream was already parallel with these options, or
+     * because the underlying stream state was modified.  The options apply
+     * to the terminal operation; the elements of the {@link #iterator()}
+     * and {@link #spliterator()} of the stream are not necessarily computed
+     * in the given pool.
+     *
+     * <p>This is an <a href="package-summary.html#StreamOps">intermediate
+     * operation</a>.
+     *
+     * @implSpec
+     * The default implementation ignores the options and returns
+     * {@link #parallel()}.
+     *
+     * @param options the options of parallel evaluation
+     * @return a parallel stream
+     * @throws NullPointerException if {@code options} is null
+     * @since 10
+     */
+    default S parallel(ParallelOptions options) {
+        Objects.requireNonNull(options);
+        return parallel();
+    }
+
     /**
      * Returns an equivalent stream that is
      * <a href="package-summary.html#Ordering">unordered</a>.  May return
@@ -0,0 +1,562 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.IntIntHashMap;
+import java.util.LongLongHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Concurrent accumulation of the parallel {@code groupingBy} operations of
+ * {@link IntStream} and {@link LongStream} into primitive hash tables.
+ *
+ * <p>Rather than filling a map per leaf task and merging the maps as the
+ * tasks complete, all tasks accumulate into one set of tables, partitioned
+ * by the high bits of the hash of the key so that threads rarely contend
+ * for the same table.  Each table is an open-addressing table with linear
+ * probing:
+ * <ul>
+ * <li>For {@code int} keys a slot packs the key and the value into one
+ * {@code long}, so that a key is inserted, or its value reduced, with a
+ * single compare-and-set of the slot.  Accumulation is lock-free.
+ * <li>For {@code long} keys the keys and values are in parallel arrays.
+ * A thread inserts a key, or reduces its value, by setting the key of the
+ * slot to {@code BUSY}, writing the value and then restoring the key, so
+ * that a slot, though never a table, is held for the duration of one
+ * reduction.
+ * </ul>
+ * The keys zero (a free slot), and, for {@code long} keys, {@code BUSY} and
+ * {@code MOVED}, are accumulated in separate {@link Cell}s.
+ *
+ * <p>When a table is three quarters full, the thread that finds it so
+ * publishes a table of twice its length and moves every slot of the old
+ * table to it, replacing the slot with a {@code MOVED} marker.  Other
+ * threads meanwhile use the new table, and retry there when they meet a
+ * moved slot.  A key may thus be inserted into the new table before its
+ * old value is moved, in which case the two values are reduced; hence the
+ * reducer must be associative and commutative.
+ *
+ * @since 10
+ */
+final class ConcurrentGrouping {
+
+    private ConcurrentGrouping() { }
+
+    /** Length of the first table of each partition */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Largest table length */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /** Partitions per thread of the pool evaluating the pipeline */
+    private static final int PARTITIONS_PER_THREAD = 8;
+
+    /** Results of accumulating into a table */
+    private static final int DONE = 0, FULL = 1, MOVED = 2;
+
+    private static final VarHandle LONGS =
+        MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Returns the number of bits of the hash selecting a partition, for a
+     * pipeline evaluated by the given number of threads; at least three.
+     */
+    static int partitionBits(int parallelism) {
+        int n = Math.max(1, parallelism) * PARTITIONS_PER_THREAD;
+        return 32 - Integer.numberOfLeadingZeros(n - 1);
+    }
+
+    /**
+     * Returns the number of threads that evaluate the given pipeline.
+     */
+    static int parallelism(PipelineHelper<?> helper) {
+        ParallelOptions options = helper.getParallelOptions();
+        ForkJoinPool pool = (options == null) ? null : options.pool();
+        return (pool == null) ? ForkJoinPool.getCommonPoolParallelism()
+                              : pool.getParallelism();
+    }
+
+    /**
+     * Returns a scrambled hash of the given key, as for the elements of
+     * {@code IntHashSet}.
+     */
+    static int hash(int key) {
+        int h = key * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns a scrambled hash of the given key, as for the keys of
+     * {@code LongObjectHashMap}.
+     */
+    static int hash(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Returns the length of the table replacing a full table of the given
+     * length.
+     */
+    static int grow(int capacity) {
+        if (capacity == MAXIMUM_CAPACITY)
+            throw new IllegalStateException("Map full");
+        return capacity << 1;
+    }
+
+    /**
+     * The value of a key kept outside of the tables.
+     */
+    static final class Cell {
+        private static final int ABSENT = 0, INITIALIZING = 1, PRESENT = 2;
+
+        private volatile int state;
+        private volatile long value;
+
+        void accumulate(long x, LongBinaryOperator reducer) {
+            for (;;) {
+                int s = state;
+                if (s == PRESENT) {
+                    long v = value;
+                    if (VALUE.compareAndSet(this, v, reducer.applyAsLong(v, x)))
+                        return;
+                }
+                else if (s == ABSENT && STATE.compareAndSet(this, ABSENT, INITIALIZING)) {
+                    value = x;
+                    state = PRESENT;
+                    return;
+                }
+                else {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+
+        boolean isPresent() {
+            return state == PRESENT;
+        }
+
+        long value() {
+            return value;
+        }
+
+        private static final VarHandle STATE;
+        private static final VarHandle VALUE;
+        static {
+            try {
+                MethodHandles.Lookup l = MethodHandles.lookup();
+                STATE = l.findVarHandle(Cell.class, "state", int.class);
+                VALUE = l.findVarHandle(Cell.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new Error(e);
+            }
+        }
+    }
+
+    /**
+     * State common to the tables of both key types.
+     */
+    abstract static class Table {
+        private final int threshold;
+        private volatile int count;
+        private volatile int resizing;
+
+        Table(int capacity) {
+            this.threshold = capacity - (capacity >>> 2);
+        }
+
+        final boolean isFull() {
+            return count >= threshold;
+        }
+
+        final void added() {
+            COUNT.getAndAdd(this, 1);
+        }
+
+        final int count() {
+            return count;
+        }
+
+        /**
+         * Returns true if the caller is the one thread to resize this table.
+         */
+        final boolean startResize() {
+            return RESIZING.compareAndSet(this, 0, 1);
+        }
+
+        /**
+         * Gives up the resize claimed by the caller when the new table
+         * cannot be created, so that the waiting threads try again.
+         */
+        final void abortResize() {
+            RESIZING.setRelease(this, 0);
+        }
+
+        final boolean isResizing() {
+            return resizing != 0;
+        }
+
+        private static final VarHandle COUNT;
+        private static final VarHandle RESIZING;
+        static {
+            try {
+                MethodHandles.Lookup l = MethodHandles.lookup();
+                COUNT = l.findVarHandle(Table.class, "count", int.class);
+                RESIZING = l.findVarHandle(Table.class, "resizing", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new Error(e);
+            }
+        }
+    }
+
+    /**
+     * Accumulation of {@code int} values by {@code int} key.
+     */
+    static final class OfInt {
+        private final IntBinaryOperator reducer;
+        private final LongBinaryOperator zeroReducer;
+        private final IntTable[] tables;
+        private final int shift;
+        private final Cell zero = new Cell();
+
+        OfInt(IntBinaryOperator reducer, int parallelism) {
+            int bits = partitionBits(parallelism);
+            this.reducer = reducer;
+            this.zeroReducer = (a, b) -> reducer.applyAsInt((int) a, (int) b);
+            this.tables = new IntTable[1 << bits];
+            this.shift = 32 - bits;
+            for (int i = 0; i < tables.length; i++)
+                tables[i] = new IntTable(INITIAL_CAPACITY);
+        }
+
+        /**
+         * Reduces the given value into the value of the given key.
+         */
+        void accept(int key, int value) {
+            if (key == 0) {
+                zero.accumulate(value, zeroReducer);
+                return;
+            }
+            int h = hash(key);
+            int p = h >>> shift;
+            for (;;) {
+                IntTable t = (IntTable) TABLES.getAcquire(tables, p);
+                int r = t.accumulate(key, value, h, reducer);
+                if (r == DONE)
+                    return;
+                if (r == FULL)
+                    resize(p, t);
+            }
+        }
+
+        /**
+         * Replaces the full table t of partition p, or waits for the thread
+         * replacing it to publish the new table or to give up.
+         */
+        private void resize(int p, IntTable t) {
+            if (!t.startResize()) {
+                while (TABLES.getAcquire(tables, p) == t && t.isResizing())
+                    Thread.onSpinWait();
+                return;
+            }
+            IntTable nt;
+            try {
+                nt = new IntTable(grow(t.slots.length));
+            } catch (Throwable ex) {   // map full, or out of memory
+                t.abortResize();
+                throw ex;
+            }
+            TABLES.setRelease(tables, p, nt);
+            long[] tab = t.slots;
+            for (int i = 0; i < tab.length; i++) {
+                long s = (long) LONGS.getAcquire(tab, i);
+                for (long w; (w = (long) LONGS.compareAndExchange(tab, i, s, IntTable.MOVED_SLOT)) != s; )
+                    s = w;
+                if (s != 0L)
+                    accept((int) (s >>> 32), (int) s);
+            }
+        }
+
+        /**
+         * Returns the accumulated values, once all accumulation has
+         * completed.
+         */
+        IntIntHashMap toMap() {
+            long size = 0;
+            for (IntTable t : tables)
+                size += t.count();
+            IntIntHashMap m = new IntIntHashMap((int) Math.min(size, MAXIMUM_CAPACITY));
+            if (zero.isPresent())
+                m.put(0, (int) zero.value());
+            for (IntTable t : tables) {
+                for (long s : t.slots) {
+                    if (s != 0L)
+                        m.put((int) (s >>> 32), (int) s);
+                }
+            }
+            return m;
+        }
+
+        private static final VarHandle TABLES =
+            MethodHandles.arrayElementVarHandle(IntTable[].class);
+    }
+
+    /**
+     * A table of {@link OfInt}, whose slots hold the key in the high and
+     * the value in the low 32 bits; a zero slot is free.
+     */
+    static final class IntTable extends Table {
+        /** A slot that has been moved to a newer table */
+        static final long MOVED_SLOT = 1L;
+
+        final long[] slots;
+
+        IntTable(int capacity) {
+            super(capacity);
+            this.slots = new long[capacity];
+        }
+
+        private static long slot(int key, int value) {
+            return ((long) key << 32) | (value & 0xffffffffL);
+        }
+
+        /**
+         * Inserts the given key with the given value, or reduces its value
+         * if present.
+         *
+         * @return DONE, or FULL if the table is full, or MOVED if the key
+         *         may have been moved to a newer table
+         */
+        int accumulate(int key, int value, int h, IntBinaryOperator reducer) {
+            long[] tab = slots;
+            int mask = tab.length - 1;
+            for (int i = h & mask, n = 0; n <= mask; i = (i + 1) & mask, n++) {
+                for (long s = (long) LONGS.getAcquire(tab, i), w;; s = w) {
+                    if (s == 0L) {
+                        if (isFull())
+                            return FULL;
+                        if ((w = (long) LONGS.compareAndExchange(tab, i, 0L, slot(key, value))) == 0L) {
+                            added();
+                            return DONE;
+                        }
+                    }
+                    else if (s == MOVED_SLOT) {
+                        return MOVED;
+                    }
+                    else if ((int) (s >>> 32) != key) {
+                        break;
+                    }
+                    else {
+                        long r = slot(key, reducer.applyAsInt((int) s, value));
+                        if ((w = (long) LONGS.compareAndExchange(tab, i, s, r)) == s)
+                            return DONE;
+                    }
+                }
+            }
+            return FULL;
+        }
+    }
+
+    /**
+     * Accumulation of {@code long} values by {@code long} key.
+     */
+    static final class OfLong {
+        private final LongBinaryOperator reducer;
+        private final LongTable[] tables;
+        private final int shift;
+        private final Cell zero = new Cell();
+        private final Cell busy = new Cell();
+        private final Cell moved = new Cell();
+
+        OfLong(LongBinaryOperator reducer, int parallelism) {
+            int bits = partitionBits(parallelism);
+            this.reducer = reducer;
+            this.tables = new LongTable[1 << bits];
+            this.shift = 32 - bits;
+            for (int i = 0; i < tables.length; i++)
+                tables[i] = new LongTable(INITIAL_CAPACITY);
+        }
+
+        /**
+         * Reduces the given value into the value of the given key.
+         */
+        void accept(long key, long value) {
+            if (key == 0L) {
+                zero.accumulate(value, reducer);
+                return;
+            }
+            if (key == LongTable.BUSY) {
+                busy.accumulate(value, reducer);
+                return;
+            }
+            if (key == LongTable.MOVED_KEY) {
+                moved.accumulate(value, reducer);
+                return;
+            }
+            int h = hash(key);
+            int p = h >>> shift;
+            for (;;) {
+                LongTable t = (LongTable) TABLES.getAcquire(tables, p);
+                int r = t.accumulate(key, value, h, reducer);
+                if (r == DONE)
+                    return;
+                if (r == FULL)
+                    resize(p, t);
+            }
+        }
+
+        /**
+         * Replaces the full table t of partition p, or waits for the thread
+         * replacing it to publish the new table or to give up.
+         */
+        private void resize(int p, LongTable t) {
+            if (!t.startResize()) {
+                while (TABLES.getAcquire(tables, p) == t && t.isResizing())
+                    Thread.onSpinWait();
+                return;
+            }
+            LongTable nt;
+            try {
+                nt = new LongTable(grow(t.keys.length));
+            } catch (Throwable ex) {   // map full, or out of memory
+                t.abortResize();
+                throw ex;
+            }
+            TABLES.setRelease(tables, p, nt);
+            long[] ks = t.keys;
+            for (int i = 0; i < ks.length; i++) {
+                long k = LongTable.keyAt(ks, i);
+                for (long w; (w = (long) LONGS.compareAndExchange(ks, i, k, LongTable.MOVED_KEY)) != k; )
+                    k = (w == LongTable.BUSY) ? LongTable.keyAt(ks, i) : w;
+                if (k != 0L)
+                    accept(k, t.values[i]);
+            }
+        }
+
+        /**
+         * Returns the accumulated values, once all accumulation has
+         * completed.
+         */
+        LongLongHashMap toMap() {
+            long size = 0;
+            for (LongTable t : tables)
+                size += t.count();
+            LongLongHashMap m = new LongLongHashMap((int) Math.min(size, MAXIMUM_CAPACITY));
+            if (zero.isPresent())
+                m.put(0L, zero.value());
+            if (busy.isPresent())
+                m.put(LongTable.BUSY, busy.value());
+            if (moved.isPresent())
+                m.put(LongTable.MOVED_KEY, moved.value());
+            for (LongTable t : tables) {
+                long[] ks = t.keys, vs = t.values;
+                for (int i = 0; i < ks.length; i++) {
+                    if (ks[i] != 0L)
+                        m.put(ks[i], vs[i]);
+                }
+            }
+            return m;
+        }
+
+        private static final VarHandle TABLES =
+            MethodHandles.arrayElementVarHandle(LongTable[].class);
+    }
+
+    /**
+     * A table of {@link OfLong}, with parallel arrays of keys and values; a
+     * zero key is a free slot.
+     */
+    static final class LongTable extends Table {
+        /** The key of a slot being written */
+        static final long BUSY = Long.MIN_VALUE;
+
+        /** The key of a slot that has been moved to a newer table */
+        static final long MOVED_KEY = Long.MIN_VALUE + 1;
+
+        final long[] keys;
+        final long[] values;
+
+        LongTable(int capacity) {
+            super(capacity);
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+        }
+
+        /**
+         * Returns the key of slot i, waiting while the slot is busy.
+         */
+        static long keyAt(long[] ks, int i) {
+            long k;
+            while ((k = (long) LONGS.getAcquire(ks, i)) == BUSY)
+                Thread.onSpinWait();
+            return k;
+        }
+
+        /**
+         * Inserts the given key with the given value, or reduces its value
+         * if present.
+         *
+         * @return DONE, or FULL if the table is full, or MOVED if the key
+         *         may have been moved to a newer table
+         */
+        int accumulate(long key, long value, int h, LongBinaryOperator reducer) {
+            long[] ks = keys;
+            int mask = ks.length - 1;
+            for (int i = h & mask, n = 0; n <= mask; i = (i + 1) & mask, n++) {
+                for (long k = keyAt(ks, i);; k = keyAt(ks, i)) {
+                    if (k == 0L) {
+                        if (isFull())
+                            return FULL;
+                        if (LONGS.compareAndSet(ks, i, 0L, BUSY)) {
+                            values[i] = value;
+                            LONGS.setRelease(ks, i, key);
+                            added();
+                            return DONE;
+                        }
+                    }
+                    else if (k == MOVED_KEY) {
+                        return MOVED;
+                    }
+                    else if (k != key) {
+                        break;
+                    }
+                    else if (LONGS.compareAndSet(ks, i, key, BUSY)) {
+                        try {
+                            values[i] = reducer.applyAsLong(values[i], value);
+                        } finally {
+                            LONGS.setRelease(ks, i, key);
+                        }
+                        return DONE;
+                    }
+                }
+            }
+            return FULL;
+        }
+    }
+}
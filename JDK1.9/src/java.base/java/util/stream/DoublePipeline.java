@@ -162,6 +162,19 @@ abstract class DoublePipeline<E_IN>
         return cancelled;
     }
 
+    @Override
+    final void forEachInBatches(Spliterator<Double> spliterator, Sink<Double> sink) {
+        Spliterator.OfDouble spl = adapt(spliterator);
+        if (sink instanceof Sink.OfDouble) {
+            Batcher batcher = new Batcher((Sink.OfDouble) sink, spl.getExactSizeIfKnown());
+            spl.forEachRemaining(batcher);
+            batcher.flush();
+        }
+        else {
+            spl.forEachRemaining(adapt(sink));
+        }
+    }
+
     @Override
     final  Node.Builder<Double> makeNodeBuilder(long exactSizeIfKnown, IntFunction<Double[]> generator) {
         return Nodes.doubleBuilder(exactSizeIfKnown);
@@ -212,6 +225,13 @@ abstract class DoublePipeline<E_IN>
                     public void accept(double t) {
                         downstream.accept(mapper.applyAsDouble(t));
                     }
+
+                    @Override
+                    public void acceptBatch(double[] buf, int off, int len) {
+                        for (int i = off, end = off + len; i < end; i++)
+                            buf[i] = mapper.applyAsDouble(buf[i]);
+                        Sink.OfDouble.acceptBatch(downstream, buf, off, len);
+                    }
                 };
             }
         };
@@ -313,6 +333,19 @@ abstract class DoublePipeline<E_IN>
                         if (predicate.test(t))
                             downstream.accept(t);
                     }
+
+                    @Override
+                    public void acceptBatch(double[] buf, int off, int len) {
+                        // Compact the accepted elements to the front of the batch
+                        int n = off;
+                        for (int i = off, end = off + len; i < end; i++) {
+                            double t = buf[i];
+                            if (predicate.test(t))
+                                buf[n++] = t;
+                        }
+                        if (n > off)
+                            Sink.OfDouble.acceptBatch(downstream, buf, off, n - off);
+                    }
                 };
             }
         };
@@ -653,4 +686,39 @@ abstract class DoublePipeline<E_IN>
                                                         Spliterator<P_IN> spliterator,
                                                         IntFunction<Double[]> generator);
     }
+
+    /**
+     * {@code DoubleConsumer} that gathers the elements pulled from a
+     * spliterator into a buffer and pushes them to a sink a batch at a time.
+     */
+    private static final class Batcher implements DoubleConsumer {
+        private final Sink.OfDouble sink;
+        private final double[] buf;
+        private int count;
+
+        Batcher(Sink.OfDouble sink, long exactSizeIfKnown) {
+            this.sink = sink;
+            // A small known-size source needs no more than its own size
+            this.buf = new double[exactSizeIfKnown >= 0 && exactSizeIfKnown < BATCH_SIZE
+                                ? Math.max(1, (int) exactSizeIfKnown)
+                                : BATCH_SIZE];
+        }
+
+        @Override
+        public void accept(double t) {
+            buf[count++] = t;
+            if (count == buf.length) {
+                count = 0;
+                sink.acceptBatch(buf, 0, buf.length);
+            }
+        }
+
+        void flush() {
+            if (count > 0) {
+                int n = count;
+                count = 0;
+                sink.acceptBatch(buf, 0, n);
+            }
+        }
+    }
 }
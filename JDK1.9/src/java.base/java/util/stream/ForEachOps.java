@@ -204,6 +204,12 @@ final class ForEachOps {
             public void accept(int t) {
                 consumer.accept(t);
             }
+
+            @Override
+            public void acceptBatch(int[] buf, int off, int len) {
+                for (int i = off, end = off + len; i < end; i++)
+                    consumer.accept(buf[i]);
+            }
         }
 
         /** Implementation class for {@code LongStream} */
@@ -225,6 +231,12 @@ final class ForEachOps {
             public void accept(long t) {
                 consumer.accept(t);
             }
+
+            @Override
+            public void acceptBatch(long[] buf, int off, int len) {
+                for (int i = off, end = off + len; i < end; i++)
+                    consumer.accept(buf[i]);
+            }
         }
 
         /** Implementation class for {@code DoubleStream} */
@@ -246,6 +258,12 @@ final class ForEachOps {
             public void accept(double t) {
                 consumer.accept(t);
             }
+
+            @Override
+            public void acceptBatch(double[] buf, int off, int len) {
+                for (int i = off, end = off + len; i < end; i++)
+                    consumer.accept(buf[i]);
+            }
         }
     }
 
@@ -256,6 +274,7 @@ final class ForEachOps {
         private final Sink<S> sink;
         private final PipelineHelper<T> helper;
         private long targetSize;
+        private Thread forkedBy; // only recorded with statistics
 
         ForEachTask(PipelineHelper<T> helper,
                     Spliterator<S> spliterator,
@@ -280,14 +299,19 @@ final class ForEachOps {
             Spliterator<S> rightSplit = spliterator, leftSplit;
             long sizeEstimate = rightSplit.estimateSize(), sizeThreshold;
             if ((sizeThreshold = targetSize) == 0L)
-                targetSize = sizeThreshold = AbstractTask.suggestTargetSize(sizeEstimate);
+                targetSize = sizeThreshold = AbstractTask.suggestTargetSize(helper, sizeEstimate);
             boolean isShortCircuit = StreamOpFlag.SHORT_CIRCUIT.isKnown(helper.getStreamAndOpFlags());
+            ParallelOptions.Statistics stats = AbstractTask.statistics(helper);
+            if (stats != null)
+                stats.started(forkedBy);
             boolean forkRight = false;
             Sink<S> taskSink = sink;
             ForEachTask<S, T> task = this;
             while (!isShortCircuit || !taskSink.cancellationRequested()) {
                 if (sizeEstimate <= sizeThreshold ||
                     (leftSplit = rightSplit.trySplit()) == null) {
+                    if (stats != null)
+                        stats.leaf();
                     task.helper.copyInto(taskSink, rightSplit);
                     break;
                 }
@@ -304,6 +328,10 @@ final class ForEachOps {
                     forkRight = true;
                     taskToFork = leftTask;
                 }
+                if (stats != null) {
+                    stats.split();
+                    taskToFork.forkedBy = Thread.currentThread();
+                }
                 taskToFork.fork();
                 sizeEstimate = rightSplit.estimateSize();
             }
@@ -376,7 +404,7 @@ final class ForEachOps {
             super(null);
             this.helper = helper;
             this.spliterator = spliterator;
-            this.targetSize = AbstractTask.suggestTargetSize(spliterator.estimateSize());
+            this.targetSize = AbstractTask.suggestTargetSize(helper, spliterator.estimateSize());
             // Size map to avoid concurrent re-sizes
             this.completionMap = new ConcurrentHashMap<>(Math.max(16, AbstractTask.LEAF_TARGET << 1));
             this.action = action;
@@ -24,6 +24,7 @@
  */
 package java.util.stream;
 
+import java.util.IntIntHashMap;
 import java.util.IntSummaryStatistics;
 import java.util.Objects;
 import java.util.OptionalDouble;
@@ -164,6 +165,19 @@ abstract class IntPipeline<E_IN>
         return cancelled;
     }
 
+    @Override
+    final void forEachInBatches(Spliterator<Integer> spliterator, Sink<Integer> sink) {
+        Spliterator.OfInt spl = adapt(spliterator);
+        if (sink instanceof Sink.OfInt) {
+            Batcher batcher = new Batcher((Sink.OfInt) sink, spl.getExactSizeIfKnown());
+            spl.forEachRemaining(batcher);
+            batcher.flush();
+        }
+        else {
+            spl.forEachRemaining(adapt(sink));
+        }
+    }
+
     @Override
     final Node.Builder<Integer> makeNodeBuilder(long exactSizeIfKnown,
                                                 IntFunction<Integer[]> generator) {
@@ -245,6 +259,13 @@ abstract class IntPipeline<E_IN>
                     public void accept(int t) {
                         downstream.accept(mapper.applyAsInt(t));
                     }
+
+                    @Override
+                    public void acceptBatch(int[] buf, int off, int len) {
+                        for (int i = off, end = off + len; i < end; i++)
+                            buf[i] = mapper.applyAsInt(buf[i]);
+                        Sink.OfInt.acceptBatch(downstream, buf, off, len);
+                    }
                 };
             }
         };
@@ -346,6 +367,19 @@ abstract class IntPipeline<E_IN>
                         if (predicate.test(t))
                             downstream.accept(t);
                     }
+
+                    @Override
+                    public void acceptBatch(int[] buf, int off, int len) {
+                        // Compact the accepted elements to the front of the batch
+                        int n = off;
+                        for (int i = off, end = off + len; i < end; i++) {
+                            int t = buf[i];
+                            if (predicate.test(t))
+                                buf[n++] = t;
+                        }
+                        if (n > off)
+                            Sink.OfInt.acceptBatch(downstream, buf, off, n - off);
+                    }
                 };
             }
         };
@@ -486,6 +520,24 @@ abstract class IntPipeline<E_IN>
         return evaluate(ReduceOps.makeInt(supplier, accumulator, operator));
     }
 
+    @Override
+    public final IntIntHashMap groupingBy(IntUnaryOperator classifier,
+                                          IntUnaryOperator mapper,
+                                          IntBinaryOperator reducer) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        Objects.requireNonNull(reducer);
+        if (!isParallel()) {
+            IntIntHashMap map = new IntIntHashMap();
+            forEach(e -> map.merge(classifier.applyAsInt(e), mapper.applyAsInt(e), reducer));
+            return map;
+        }
+        ConcurrentGrouping.OfInt grouping =
+            new ConcurrentGrouping.OfInt(reducer, ConcurrentGrouping.parallelism(this));
+        forEach(e -> grouping.accept(classifier.applyAsInt(e), mapper.applyAsInt(e)));
+        return grouping.toMap();
+    }
+
     @Override
     public final boolean anyMatch(IntPredicate predicate) {
         return evaluate(MatchOps.makeInt(predicate, MatchOps.MatchKind.ANY));
@@ -644,4 +696,39 @@ abstract class IntPipeline<E_IN>
                                                          Spliterator<P_IN> spliterator,
                                                          IntFunction<Integer[]> generator);
     }
+
+    /**
+     * {@code IntConsumer} that gathers the elements pulled from a
+     * spliterator into a buffer and pushes them to a sink a batch at a time.
+     */
+    private static final class Batcher implements IntConsumer {
+        private final Sink.OfInt sink;
+        private final int[] buf;
+        private int count;
+
+        Batcher(Sink.OfInt sink, long exactSizeIfKnown) {
+            this.sink = sink;
+            // A small known-size source needs no more than its own size
+            this.buf = new int[exactSizeIfKnown >= 0 && exactSizeIfKnown < BATCH_SIZE
+                                ? Math.max(1, (int) exactSizeIfKnown)
+                                : BATCH_SIZE];
+        }
+
+        @Override
+        public void accept(int t) {
+            buf[count++] = t;
+            if (count == buf.length) {
+                count = 0;
+                sink.acceptBatch(buf, 0, buf.length);
+            }
+        }
+
+        void flush() {
+            if (count > 0) {
+                int n = count;
+                count = 0;
+                sink.acceptBatch(buf, 0, n);
+            }
+        }
+    }
 }
@@ -24,6 +24,7 @@
  */
 package java.util.stream;
 
+import java.util.LongLongHashMap;
 import java.util.LongSummaryStatistics;
 import java.util.Objects;
 import java.util.OptionalDouble;
@@ -162,6 +163,19 @@ abstract class LongPipeline<E_IN>
         return cancelled;
     }
 
+    @Override
+    final void forEachInBatches(Spliterator<Long> spliterator, Sink<Long> sink) {
+        Spliterator.OfLong spl = adapt(spliterator);
+        if (sink instanceof Sink.OfLong) {
+            Batcher batcher = new Batcher((Sink.OfLong) sink, spl.getExactSizeIfKnown());
+            spl.forEachRemaining(batcher);
+            batcher.flush();
+        }
+        else {
+            spl.forEachRemaining(adapt(sink));
+        }
+    }
+
     @Override
     final Node.Builder<Long> makeNodeBuilder(long exactSizeIfKnown, IntFunction<Long[]> generator) {
         return Nodes.longBuilder(exactSizeIfKnown);
@@ -227,6 +241,13 @@ abstract class LongPipeline<E_IN>
                     public void accept(long t) {
                         downstream.accept(mapper.applyAsLong(t));
                     }
+
+                    @Override
+                    public void acceptBatch(long[] buf, int off, int len) {
+                        for (int i = off, end = off + len; i < end; i++)
+                            buf[i] = mapper.applyAsLong(buf[i]);
+                        Sink.OfLong.acceptBatch(downstream, buf, off, len);
+                    }
                 };
             }
         };
@@ -328,6 +349,19 @@ abstract class LongPipeline<E_IN>
                         if (predicate.test(t))
                             downstream.accept(t);
                     }
+
+                    @Override
+                    public void acceptBatch(long[] buf, int off, int len) {
+                        // Compact the accepted elements to the front of the batch
+                        int n = off;
+                        for (int i = off, end = off + len; i < end; i++) {
+                            long t = buf[i];
+                            if (predicate.test(t))
+                                buf[n++] = t;
+                        }
+                        if (n > off)
+                            Sink.OfLong.acceptBatch(downstream, buf, off, n - off);
+                    }
                 };
             }
         };
@@ -469,6 +503,24 @@ abstract class LongPipeline<E_IN>
         return evaluate(ReduceOps.makeLong(supplier, accumulator, operator));
     }
 
+    @Override
+    public final LongLongHashMap groupingBy(LongUnaryOperator classifier,
+                                            LongUnaryOperator mapper,
+                                            LongBinaryOperator reducer) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        Objects.requireNonNull(reducer);
+        if (!isParallel()) {
+            LongLongHashMap map = new LongLongHashMap();
+            forEach(e -> map.merge(classifier.applyAsLong(e), mapper.applyAsLong(e), reducer));
+            return map;
+        }
+        ConcurrentGrouping.OfLong grouping =
+            new ConcurrentGrouping.OfLong(reducer, ConcurrentGrouping.parallelism(this));
+        forEach(e -> grouping.accept(classifier.applyAsLong(e), mapper.applyAsLong(e)));
+        return grouping.toMap();
+    }
+
     @Override
     public final boolean anyMatch(LongPredicate predicate) {
         return evaluate(MatchOps.makeLong(predicate, MatchOps.MatchKind.ANY));
@@ -625,4 +677,39 @@ abstract class LongPipeline<E_IN>
                                                       Spliterator<P_IN> spliterator,
                                                       IntFunction<Long[]> generator);
     }
+
+    /**
+     * {@code LongConsumer} that gathers the elements pulled from a
+     * spliterator into a buffer and pushes them to a sink a batch at a time.
+     */
+    private static final class Batcher implements LongConsumer {
+        private final Sink.OfLong sink;
+        private final long[] buf;
+        private int count;
+
+        Batcher(Sink.OfLong sink, long exactSizeIfKnown) {
+            this.sink = sink;
+            // A small known-size source needs no more than its own size
+            this.buf = new long[exactSizeIfKnown >= 0 && exactSizeIfKnown < BATCH_SIZE
+                                ? Math.max(1, (int) exactSizeIfKnown)
+                                : BATCH_SIZE];
+        }
+
+        @Override
+        public void accept(long t) {
+            buf[count++] = t;
+            if (count == buf.length) {
+                count = 0;
+                sink.acceptBatch(buf, 0, buf.length);
+            }
+        }
+
+        void flush() {
+            if (count > 0) {
+                int n = count;
+                count = 0;
+                sink.acceptBatch(buf, 0, n);
+            }
+        }
+    }
 }
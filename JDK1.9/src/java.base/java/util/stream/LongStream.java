@@ -25,6 +25,7 @@
 package java.util.stream;
 
 import java.util.Arrays;
+import java.util.LongLongHashMap;
 import java.util.LongSummaryStatistics;
 import java.util.Objects;
 import java.util.OptionalDouble;
@@ -588,6 +589,74 @@ public interface LongStream extends BaseStream<Long, LongStream> {
                   ObjLongConsumer<R> accumulator,
                   BiConsumer<R, R> combiner);
 
+    /**
+     * Groups the elements of this stream by the keys computed by the given
+     * classifier, and reduces the values computed by the given mapper for
+     * the elements of each key with the given reducer.  The first value of
+     * a key is its initial value.  This produces a result equivalent to:
+     * <pre>{@code
+     *     LongLongHashMap result = new LongLongHashMap();
+     *     for (long element : this stream)
+     *         result.merge(classifier.applyAsLong(element),
+     *                      mapper.applyAsLong(element), reducer);
+     *     return result;
+     * }</pre>
+     *
+     * <p>For example, to find the latest timestamp of each day:
+     * <pre>{@code
+     *     LongLongHashMap latest = timestamps.parallel()
+     *         .groupingBy(t -> t / MILLIS_PER_DAY, t -> t, Math::max);
+     * }</pre>
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">terminal
+     * operation</a>.
+     *
+     * @apiNote
+     * Unlike a {@link Collectors#groupingBy(Function, Collector) groupingBy}
+     * collection of a boxed stream, this operation allocates no key, value
+     * or map entry per element.  The parallel implementation of this
+     * interface accumulates into one set of concurrent tables, partitioned
+     * by key, instead of into a map per task that must then be merged; as
+     * values are reduced in no particular order, the reducer must also be
+     * commutative.
+     *
+     * @implSpec
+     * The default implementation is equivalent to:
+     * <pre>{@code
+     *     return collect(LongLongHashMap::new,
+     *                    (m, e) -> m.merge(classifier.applyAsLong(e),
+     *                                      mapper.applyAsLong(e), reducer),
+     *                    (m1, m2) -> m2.forEach((k, v) -> m1.merge(k, v, reducer)));
+     * }</pre>
+     *
+     * @param classifier a <a href="package-summary.html#NonInterference">non-interfering</a>,
+     *                   <a href="package-summary.html#Statelessness">stateless</a>
+     *                   function computing the key of an element
+     * @param mapper a <a href="package-summary.html#NonInterference">non-interfering</a>,
+     *               <a href="package-summary.html#Statelessness">stateless</a>
+     *               function computing the value of an element
+     * @param reducer an <a href="package-summary.html#Associativity">associative</a>,
+     *                commutative,
+     *                <a href="package-summary.html#NonInterference">non-interfering</a>,
+     *                <a href="package-summary.html#Statelessness">stateless</a>
+     *                function for combining two values of the same key
+     * @return a map from the keys to the reduced values of their elements
+     * @throws NullPointerException if any argument is null
+     * @throws IllegalStateException if the map is full
+     * @since 10
+     */
+    default LongLongHashMap groupingBy(LongUnaryOperator classifier,
+                                       LongUnaryOperator mapper,
+                                       LongBinaryOperator reducer) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        Objects.requireNonNull(reducer);
+        return collect(LongLongHashMap::new,
+                       (m, e) -> m.merge(classifier.applyAsLong(e),
+                                         mapper.applyAsLong(e), reducer),
+                       (m1, m2) -> m2.forEach((k, v) -> m1.merge(k, v, reducer)));
+    }
+
     /**
      * Returns the sum of elements in this stream.  This is a special case
      * of a <a href="package-summary.html#Reduction">reduction</a>
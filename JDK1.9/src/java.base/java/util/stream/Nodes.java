@@ -1520,6 +1520,17 @@ final class Nodes {
             }
         }
 
+        @Override
+        public void acceptBatch(int[] buf, int off, int len) {
+            if (len <= array.length - curSize) {
+                System.arraycopy(buf, off, array, curSize, len);
+                curSize += len;
+            } else {
+                throw new IllegalStateException(String.format("Accept exceeded fixed size of %d",
+                                                              array.length));
+            }
+        }
+
         @Override
         public void end() {
             if (curSize < array.length) {
@@ -1574,6 +1585,17 @@ final class Nodes {
             }
         }
 
+        @Override
+        public void acceptBatch(long[] buf, int off, int len) {
+            if (len <= array.length - curSize) {
+                System.arraycopy(buf, off, array, curSize, len);
+                curSize += len;
+            } else {
+                throw new IllegalStateException(String.format("Accept exceeded fixed size of %d",
+                                                              array.length));
+            }
+        }
+
         @Override
         public void end() {
             if (curSize < array.length) {
@@ -1628,6 +1650,17 @@ final class Nodes {
             }
         }
 
+        @Override
+        public void acceptBatch(double[] buf, int off, int len) {
+            if (len <= array.length - curSize) {
+                System.arraycopy(buf, off, array, curSize, len);
+                curSize += len;
+            } else {
+                throw new IllegalStateException(String.format("Accept exceeded fixed size of %d",
+                                                              array.length));
+            }
+        }
+
         @Override
         public void end() {
             if (curSize < array.length) {
@@ -1845,7 +1878,7 @@ final class Nodes {
             assert spliterator.hasCharacteristics(Spliterator.SUBSIZED);
             this.spliterator = spliterator;
             this.helper = helper;
-            this.targetSize = AbstractTask.suggestTargetSize(spliterator.estimateSize());
+            this.targetSize = AbstractTask.suggestTargetSize(helper, spliterator.estimateSize());
             this.offset = 0;
             this.length = arrayLength;
         }
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Settings for the parallel evaluation of a stream pipeline, applied with
+ * {@link BaseStream#parallel(ParallelOptions)}.  By default, the terminal
+ * operation of a parallel stream splits its source into about four times
+ * as many leaf tasks as the {@linkplain ForkJoinPool#commonPool() common
+ * pool} has threads, and runs them in the common pool.  These settings
+ * bind a pipeline to another pool, size its leaf tasks for a different
+ * parallelism or to a fixed number of elements, and collect statistics of
+ * its splitting.
+ *
+ * <p>For example, to run a large sort in a pool of its own, with statistics:
+ * <pre>{@code
+ *     ForkJoinPool pool = new ForkJoinPool(4);
+ *     ParallelOptions.Statistics stats = new ParallelOptions.Statistics();
+ *     List<Item> sorted = items.stream()
+ *         .parallel(ParallelOptions.create().withPool(pool).withStatistics(stats))
+ *         .sorted()
+ *         .collect(Collectors.toList());
+ * }</pre>
+ *
+ * <p>Instances of this class are immutable and may be shared between
+ * pipelines.
+ *
+ * @since 10
+ */
+public final class ParallelOptions {
+
+    private static final ParallelOptions DEFAULTS =
+        new ParallelOptions(null, 0, 0L, null);
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final long leafSize;
+    private final Statistics statistics;
+
+    private ParallelOptions(ForkJoinPool pool, int parallelism, long leafSize,
+                            Statistics statistics) {
+        this.pool = pool;
+        this.parallelism = parallelism;
+        this.leafSize = leafSize;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns the default options: evaluation in the common pool, with leaf
+     * tasks sized for the parallelism of the common pool and without
+     * statistics.
+     *
+     * @return the default options
+     */
+    public static ParallelOptions create() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns a copy of these options that evaluates pipelines in the given
+     * pool.  Tasks forked by the terminal operation are executed by the
+     * threads of that pool, and the thread invoking the terminal operation
+     * waits for its result.  Unless a parallelism or leaf size is set, the
+     * leaf tasks are sized for the parallelism of the pool.
+     *
+     * @param pool the pool
+     * @return options with the given pool
+     * @throws NullPointerException if {@code pool} is null
+     */
+    public ParallelOptions withPool(ForkJoinPool pool) {
+        return new ParallelOptions(Objects.requireNonNull(pool), parallelism,
+                                   leafSize, statistics);
+    }
+
+    /**
+     * Returns a copy of these options that sizes leaf tasks for the given
+     * parallelism, rather than for the parallelism of the pool.  A smaller
+     * parallelism makes fewer, larger tasks, and so limits the share of a
+     * pool a pipeline can take when other work is waiting.  The number of
+     * threads of the pool remains the upper bound of parallel execution.
+     *
+     * @param parallelism the parallelism
+     * @return options with the given parallelism
+     * @throws IllegalArgumentException if {@code parallelism} is not
+     *         positive
+     */
+    public ParallelOptions withParallelism(int parallelism) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException();
+        return new ParallelOptions(pool, parallelism, leafSize, statistics);
+    }
+
+    /**
+     * Returns a copy of these options that splits the source until the
+     * estimated size of each leaf task is at most the given number of
+     * elements.  This takes precedence over the parallelism.
+     *
+     * @param leafSize the target number of elements of a leaf task
+     * @return options with the given leaf size
+     * @throws IllegalArgumentException if {@code leafSize} is not positive
+     */
+    public ParallelOptions withLeafSize(long leafSize) {
+        if (leafSize <= 0L)
+            throw new IllegalArgumentException();
+        return new ParallelOptions(pool, parallelism, leafSize, statistics);
+    }
+
+    /**
+     * Returns a copy of these options that records the splitting of
+     * pipelines in the given statistics.
+     *
+     * @param statistics the statistics to add to
+     * @return options with the given statistics
+     * @throws NullPointerException if {@code statistics} is null
+     */
+    public ParallelOptions withStatistics(Statistics statistics) {
+        return new ParallelOptions(pool, parallelism, leafSize,
+                                   Objects.requireNonNull(statistics));
+    }
+
+    /**
+     * Returns the pool to evaluate pipelines in, or null for the pool of the
+     * calling thread or the common pool.
+     */
+    ForkJoinPool pool() {
+        return pool;
+    }
+
+    /**
+     * Returns the statistics to record into, or null.
+     */
+    Statistics statistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns the target leaf size for a source of the given estimated
+     * size, like {@link AbstractTask#suggestTargetSize(long)}.
+     */
+    long targetSize(long sizeEstimate) {
+        if (leafSize != 0L)
+            return leafSize;
+        int p = (parallelism != 0) ? parallelism :
+                (pool != null) ? pool.getParallelism() :
+                ForkJoinPool.getCommonPoolParallelism();
+        long est = sizeEstimate / ((long) p << 2);
+        return est > 0L ? est : 1L;
+    }
+
+    /**
+     * Returns a string identifying these options and their settings.
+     *
+     * @return a string identifying these options
+     */
+    @Override
+    public String toString() {
+        return super.toString() +
+            "[pool = " + pool +
+            ", parallelism = " + parallelism +
+            ", leafSize = " + leafSize +
+            ", statistics = " + statistics + "]";
+    }
+
+    /**
+     * Counts of the tasks of the parallel evaluations of the pipelines
+     * given options with these statistics.  The counts cover the tasks that
+     * split the source of a pipeline, which perform the terminal operation
+     * and any stateful intermediate operation that is evaluated as a
+     * separate pass; parallel sorting is not included.  The counts are
+     * updated concurrently and are not a consistent snapshot while an
+     * evaluation is in progress.
+     *
+     * @since 10
+     */
+    public static final class Statistics {
+        private final LongAdder splits = new LongAdder();
+        private final LongAdder leaves = new LongAdder();
+        private final LongAdder steals = new LongAdder();
+
+        /**
+         * Creates statistics with all counts zero.
+         */
+        public Statistics() {
+        }
+
+        /**
+         * Returns the number of times a task split its part of the source
+         * and forked a task for one of the halves.
+         *
+         * @return the number of splits
+         */
+        public long getSplitCount() {
+            return splits.sum();
+        }
+
+        /**
+         * Returns the number of leaf tasks, which traverse their part of
+         * the source without splitting it further.
+         *
+         * @return the number of leaf tasks
+         */
+        public long getLeafCount() {
+            return leaves.sum();
+        }
+
+        /**
+         * Returns the number of forked tasks that were executed by a thread
+         * other than the one that forked them.
+         *
+         * @return the number of stolen tasks
+         */
+        public long getStealCount() {
+            return steals.sum();
+        }
+
+        /**
+         * Resets all counts to zero.
+         */
+        public void reset() {
+            splits.reset();
+            leaves.reset();
+            steals.reset();
+        }
+
+        void split() {
+            splits.increment();
+        }
+
+        void leaf() {
+            leaves.increment();
+        }
+
+        /**
+         * Records the start of a task forked by the given thread, or of the
+         * root task if null.
+         */
+        void started(Thread forkedBy) {
+            if (forkedBy != null && forkedBy != Thread.currentThread())
+                steals.increment();
+        }
+
+        /**
+         * Returns a string identifying these statistics and their counts.
+         *
+         * @return a string identifying these statistics
+         */
+        @Override
+        public String toString() {
+            return super.toString() +
+                "[splits = " + getSplitCount() +
+                ", leaves = " + getLeafCount() +
+                ", steals = " + getStealCount() + "]";
+        }
+    }
+}
@@ -71,6 +71,15 @@ abstract class PipelineHelper<P_OUT> {
      */
     abstract int getStreamAndOpFlags();
 
+    /**
+     * Gets the options of parallel evaluation of the pipeline, if any.
+     *
+     * @return the options of parallel evaluation, or {@code null} for the
+     *         defaults
+     * @see BaseStream#parallel(ParallelOptions)
+     */
+    abstract ParallelOptions getParallelOptions();
+
     /**
      * Returns the exact output size of the portion of the output resulting from
      * applying the pipeline stages described by this {@code PipelineHelper} to
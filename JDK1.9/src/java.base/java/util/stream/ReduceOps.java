@@ -297,6 +297,14 @@ final class ReduceOps {
                 state = operator.applyAsInt(state, t);
             }
 
+            @Override
+            public void acceptBatch(int[] buf, int off, int len) {
+                int s = state;
+                for (int i = off, end = off + len; i < end; i++)
+                    s = operator.applyAsInt(s, buf[i]);
+                state = s;
+            }
+
             @Override
             public Integer get() {
                 return state;
@@ -346,6 +354,24 @@ final class ReduceOps {
                 }
             }
 
+            @Override
+            public void acceptBatch(int[] buf, int off, int len) {
+                if (len == 0)
+                    return;
+                int i = off, end = off + len;
+                int s;
+                if (empty) {
+                    empty = false;
+                    s = buf[i++];
+                }
+                else {
+                    s = state;
+                }
+                for (; i < end; i++)
+                    s = operator.applyAsInt(s, buf[i]);
+                state = s;
+            }
+
             @Override
             public OptionalInt get() {
                 return empty ? OptionalInt.empty() : OptionalInt.of(state);
@@ -395,6 +421,13 @@ final class ReduceOps {
                 accumulator.accept(state, t);
             }
 
+            @Override
+            public void acceptBatch(int[] buf, int off, int len) {
+                R s = state;
+                for (int i = off, end = off + len; i < end; i++)
+                    accumulator.accept(s, buf[i]);
+            }
+
             @Override
             public void combine(ReducingSink other) {
                 state = combiner.apply(state, other.state);
@@ -471,6 +504,14 @@ final class ReduceOps {
                 state = operator.applyAsLong(state, t);
             }
 
+            @Override
+            public void acceptBatch(long[] buf, int off, int len) {
+                long s = state;
+                for (int i = off, end = off + len; i < end; i++)
+                    s = operator.applyAsLong(s, buf[i]);
+                state = s;
+            }
+
             @Override
             public Long get() {
                 return state;
@@ -520,6 +561,24 @@ final class ReduceOps {
                 }
             }
 
+            @Override
+            public void acceptBatch(long[] buf, int off, int len) {
+                if (len == 0)
+                    return;
+                int i = off, end = off + len;
+                long s;
+                if (empty) {
+                    empty = false;
+                    s = buf[i++];
+                }
+                else {
+                    s = state;
+                }
+                for (; i < end; i++)
+                    s = operator.applyAsLong(s, buf[i]);
+                state = s;
+            }
+
             @Override
             public OptionalLong get() {
                 return empty ? OptionalLong.empty() : OptionalLong.of(state);
@@ -569,6 +628,13 @@ final class ReduceOps {
                 accumulator.accept(state, t);
             }
 
+            @Override
+            public void acceptBatch(long[] buf, int off, int len) {
+                R s = state;
+                for (int i = off, end = off + len; i < end; i++)
+                    accumulator.accept(s, buf[i]);
+            }
+
             @Override
             public void combine(ReducingSink other) {
                 state = combiner.apply(state, other.state);
@@ -645,6 +711,14 @@ final class ReduceOps {
                 state = operator.applyAsDouble(state, t);
             }
 
+            @Override
+            public void acceptBatch(double[] buf, int off, int len) {
+                double s = state;
+                for (int i = off, end = off + len; i < end; i++)
+                    s = operator.applyAsDouble(s, buf[i]);
+                state = s;
+            }
+
             @Override
             public Double get() {
                 return state;
@@ -694,6 +768,24 @@ final class ReduceOps {
                 }
             }
 
+            @Override
+            public void acceptBatch(double[] buf, int off, int len) {
+                if (len == 0)
+                    return;
+                int i = off, end = off + len;
+                double s;
+                if (empty) {
+                    empty = false;
+                    s = buf[i++];
+                }
+                else {
+                    s = state;
+                }
+                for (; i < end; i++)
+                    s = operator.applyAsDouble(s, buf[i]);
+                state = s;
+            }
+
             @Override
             public OptionalDouble get() {
                 return empty ? OptionalDouble.empty() : OptionalDouble.of(state);
@@ -743,6 +835,13 @@ final class ReduceOps {
                 accumulator.accept(state, t);
             }
 
+            @Override
+            public void acceptBatch(double[] buf, int off, int len) {
+                R s = state;
+                for (int i = off, end = off + len; i < end; i++)
+                    accumulator.accept(s, buf[i]);
+            }
+
             @Override
             public void combine(ReducingSink other) {
                 state = combiner.apply(state, other.state);
@@ -829,6 +928,11 @@ final class ReduceOps {
             public void accept(int t) {
                 count++;
             }
+
+            @Override
+            public void acceptBatch(int[] buf, int off, int len) {
+                count += len;
+            }
         }
 
         static final class OfLong extends CountingSink<Long> implements Sink.OfLong {
@@ -836,6 +940,11 @@ final class ReduceOps {
             public void accept(long t) {
                 count++;
             }
+
+            @Override
+            public void acceptBatch(long[] buf, int off, int len) {
+                count += len;
+            }
         }
 
         static final class OfDouble extends CountingSink<Double> implements Sink.OfDouble {
@@ -843,6 +952,11 @@ final class ReduceOps {
             public void accept(double t) {
                 count++;
             }
+
+            @Override
+            public void acceptBatch(double[] buf, int off, int len) {
+                count += len;
+            }
         }
     }
 
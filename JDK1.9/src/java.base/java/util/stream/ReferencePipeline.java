@@ -128,6 +128,11 @@ abstract class ReferencePipeline<P_IN, P_OUT>
         return cancelled;
     }
 
+    @Override
+    final void forEachInBatches(Spliterator<P_OUT> spliterator, Sink<P_OUT> sink) {
+        spliterator.forEachRemaining(sink);
+    }
+
     @Override
     final Node.Builder<P_OUT> makeNodeBuilder(long exactSizeIfKnown, IntFunction<P_OUT[]> generator) {
         return Nodes.builder(exactSizeIfKnown, generator);
@@ -396,6 +401,17 @@ abstract class ReferencePipeline<P_IN, P_OUT>
         return SortedOps.makeRef(this, comparator);
     }
 
+    @Override
+    public final Stream<P_OUT> distinct(SpillOptions<P_OUT> options) {
+        return SpillingOps.makeDistinct(this, Objects.requireNonNull(options));
+    }
+
+    @Override
+    public final Stream<P_OUT> sorted(Comparator<? super P_OUT> comparator,
+                                      SpillOptions<P_OUT> options) {
+        return SpillingOps.makeSorted(this, comparator, Objects.requireNonNull(options));
+    }
+
     @Override
     public final Stream<P_OUT> limit(long maxSize) {
         if (maxSize < 0)
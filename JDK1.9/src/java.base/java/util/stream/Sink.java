@@ -88,6 +88,20 @@ import java.util.function.LongConsumer;
  * {@code Consumer}, and re-abstract the appropriate primitive specialization of
  * {@code accept}.
  *
+ * <p>The primitive specializations also accept elements in batches, through
+ * {@code acceptBatch(int[], int, int)} and friends.  A source that can present
+ * its elements as a run of an array pushes them a batch at a time, and sinks
+ * that override {@code acceptBatch} process the whole run in a tight loop
+ * rather than taking one virtual call per element per stage.  Sinks that do
+ * not override it receive the elements one at a time, as before.  The elements
+ * of a batch are always delivered between {@code begin()} and {@code end()},
+ * in encounter order, and the same sink may receive a mix of single elements
+ * and batches.  A stage that handles a batch applies its behavioral parameter
+ * to the whole batch before passing it on, so the side-effects of the stages
+ * are grouped by batch rather than interleaved per element, as allowed by the
+ * <a href="package-summary.html#SideEffects">side-effects</a> section of the
+ * package documentation.
+ *
  * <p>The chaining subtypes such as {@link ChainedInt} not only implement
  * {@code Sink.OfInt}, but also maintain a {@code downstream} field which
  * represents the downstream {@code Sink}, and implement the methods
@@ -196,6 +210,46 @@ interface Sink<T> extends Consumer<T> {
                 Tripwire.trip(getClass(), "{0} calling Sink.OfInt.accept(Integer)");
             accept(i.intValue());
         }
+
+        /**
+         * Accepts a batch of {@code int} values, the elements
+         * {@code buf[off]} through {@code buf[off + len - 1]} in order.
+         *
+         * <p>The caller gives up that range of {@code buf} for the duration of
+         * the call: the sink may overwrite it, for example to map or compact
+         * the elements in place before passing them on, and the caller must
+         * not rely on its contents afterwards.  The sink must not retain a
+         * reference to {@code buf} once this method returns.
+         *
+         * @implSpec The default implementation calls {@code accept(int)}
+         * for each element of the batch in turn.
+         *
+         * @param buf the array holding the elements
+         * @param off the index of the first element
+         * @param len the number of elements
+         */
+        default void acceptBatch(int[] buf, int off, int len) {
+            for (int i = off, end = off + len; i < end; i++)
+                accept(buf[i]);
+        }
+
+        /**
+         * Passes a batch of {@code int} values to {@code sink}, as a batch
+         * if it is a {@code Sink.OfInt} and one element at a time
+         * otherwise.
+         *
+         * @param sink the sink to push elements to
+         * @param buf the array holding the elements
+         * @param off the index of the first element
+         * @param len the number of elements
+         */
+        static void acceptBatch(Sink<? super Integer> sink, int[] buf, int off, int len) {
+            if (sink instanceof Sink.OfInt)
+                ((Sink.OfInt) sink).acceptBatch(buf, off, len);
+            else
+                for (int i = off, end = off + len; i < end; i++)
+                    sink.accept(buf[i]);
+        }
     }
 
     /**
@@ -213,6 +267,46 @@ interface Sink<T> extends Consumer<T> {
                 Tripwire.trip(getClass(), "{0} calling Sink.OfLong.accept(Long)");
             accept(i.longValue());
         }
+
+        /**
+         * Accepts a batch of {@code long} values, the elements
+         * {@code buf[off]} through {@code buf[off + len - 1]} in order.
+         *
+         * <p>The caller gives up that range of {@code buf} for the duration of
+         * the call: the sink may overwrite it, for example to map or compact
+         * the elements in place before passing them on, and the caller must
+         * not rely on its contents afterwards.  The sink must not retain a
+         * reference to {@code buf} once this method returns.
+         *
+         * @implSpec The default implementation calls {@code accept(long)}
+         * for each element of the batch in turn.
+         *
+         * @param buf the array holding the elements
+         * @param off the index of the first element
+         * @param len the number of elements
+         */
+        default void acceptBatch(long[] buf, int off, int len) {
+            for (int i = off, end = off + len; i < end; i++)
+                accept(buf[i]);
+        }
+
+        /**
+         * Passes a batch of {@code long} values to {@code sink}, as a batch
+         * if it is a {@code Sink.OfLong} and one element at a time
+         * otherwise.
+         *
+         * @param sink the sink to push elements to
+         * @param buf the array holding the elements
+         * @param off the index of the first element
+         * @param len the number of elements
+         */
+        static void acceptBatch(Sink<? super Long> sink, long[] buf, int off, int len) {
+            if (sink instanceof Sink.OfLong)
+                ((Sink.OfLong) sink).acceptBatch(buf, off, len);
+            else
+                for (int i = off, end = off + len; i < end; i++)
+                    sink.accept(buf[i]);
+        }
     }
 
     /**
@@ -230,6 +324,46 @@ interface Sink<T> extends Consumer<T> {
                 Tripwire.trip(getClass(), "{0} calling Sink.OfDouble.accept(Double)");
             accept(i.doubleValue());
         }
+
+        /**
+         * Accepts a batch of {@code double} values, the elements
+         * {@code buf[off]} through {@code buf[off + len - 1]} in order.
+         *
+         * <p>The caller gives up that range of {@code buf} for the duration of
+         * the call: the sink may overwrite it, for example to map or compact
+         * the elements in place before passing them on, and the caller must
+         * not rely on its contents afterwards.  The sink must not retain a
+         * reference to {@code buf} once this method returns.
+         *
+         * @implSpec The default implementation calls {@code accept(double)}
+         * for each element of the batch in turn.
+         *
+         * @param buf the array holding the elements
+         * @param off the index of the first element
+         * @param len the number of elements
+         */
+        default void acceptBatch(double[] buf, int off, int len) {
+            for (int i = off, end = off + len; i < end; i++)
+                accept(buf[i]);
+        }
+
+        /**
+         * Passes a batch of {@code double} values to {@code sink}, as a batch
+         * if it is a {@code Sink.OfDouble} and one element at a time
+         * otherwise.
+         *
+         * @param sink the sink to push elements to
+         * @param buf the array holding the elements
+         * @param off the index of the first element
+         * @param len the number of elements
+         */
+        static void acceptBatch(Sink<? super Double> sink, double[] buf, int off, int len) {
+            if (sink instanceof Sink.OfDouble)
+                ((Sink.OfDouble) sink).acceptBatch(buf, off, len);
+            else
+                for (int i = off, end = off + len; i < end; i++)
+                    sink.accept(buf[i]);
+        }
     }
 
     /**
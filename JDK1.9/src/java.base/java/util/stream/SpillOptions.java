@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Settings for the external-memory evaluation of the
+ * {@link Stream#sorted(Comparator, SpillOptions) sorted} and
+ * {@link Stream#distinct(SpillOptions) distinct} operations.  Such an
+ * operation holds at most about {@linkplain #withMemoryLimit(long) a given
+ * number} of elements in memory.  Beyond that, it writes the elements in
+ * sorted runs to temporary files, encoded with a {@link Codec}, and merges
+ * the runs when the result is consumed.  The temporary files are deleted
+ * once the result has been consumed, or when the stream is
+ * {@linkplain BaseStream#close() closed}.
+ *
+ * <p>For example, to sort more records than fit in the heap:
+ * <pre>{@code
+ *     SpillOptions<String> options = SpillOptions.of(new SpillOptions.Codec<>() {
+ *         public void write(String s, DataOutput out) throws IOException {
+ *             out.writeUTF(s);
+ *         }
+ *         public String read(DataInput in) throws IOException {
+ *             return in.readUTF();
+ *         }
+ *     }).withMemoryLimit(10_000_000);
+ *     try (Stream<String> lines = Files.lines(input);
+ *          PrintWriter out = new PrintWriter(Files.newBufferedWriter(output))) {
+ *         lines.sorted(Comparator.naturalOrder(), options)
+ *              .forEachOrdered(out::println);
+ *     }
+ * }</pre>
+ *
+ * <p>Instances of this class are immutable and may be shared between
+ * pipelines.
+ *
+ * @param <T> the type of the elements
+ * @since 10
+ */
+public final class SpillOptions<T> {
+
+    /**
+     * Encodes elements to temporary files and decodes them back.  A codec
+     * must read back an element equal to the one written, and is never
+     * passed a {@code null} element.  It may be used by several threads at
+     * once, each with its own input or output.
+     *
+     * @param <T> the type of the elements
+     * @since 10
+     */
+    public interface Codec<T> {
+
+        /**
+         * Writes an element.
+         *
+         * @param value the element, not {@code null}
+         * @param out the output to write to
+         * @throws IOException if an I/O error occurs
+         */
+        void write(T value, DataOutput out) throws IOException;
+
+        /**
+         * Reads an element written by {@link #write}.
+         *
+         * @param in the input to read from
+         * @return the element
+         * @throws IOException if an I/O error occurs
+         */
+        T read(DataInput in) throws IOException;
+    }
+
+    private static final long DEFAULT_MEMORY_LIMIT = 1L << 20;
+
+    private final Codec<T> codec;
+    private final long memoryLimit;
+    private final Path directory;
+
+    private SpillOptions(Codec<T> codec, long memoryLimit, Path directory) {
+        this.codec = codec;
+        this.memoryLimit = memoryLimit;
+        this.directory = directory;
+    }
+
+    /**
+     * Returns options that encode elements with the given codec, hold up to
+     * 2<sup>20</sup> elements in memory and write temporary files to the
+     * default temporary-file directory.
+     *
+     * @param <T> the type of the elements
+     * @param codec the codec
+     * @return options with the given codec
+     * @throws NullPointerException if {@code codec} is null
+     */
+    public static <T> SpillOptions<T> of(Codec<T> codec) {
+        return new SpillOptions<>(Objects.requireNonNull(codec),
+                                  DEFAULT_MEMORY_LIMIT, null);
+    }
+
+    /**
+     * Returns a copy of these options that holds up to about the given
+     * number of elements in memory before writing them to temporary files.
+     * Elements are counted rather than their size, so the limit should
+     * allow for the size of the elements.  In parallel pipelines the limit
+     * is shared between the tasks of the operation.
+     *
+     * @param elements the number of elements held in memory
+     * @return options with the given limit
+     * @throws IllegalArgumentException if {@code elements} is not positive
+     */
+    public SpillOptions<T> withMemoryLimit(long elements) {
+        if (elements <= 0L)
+            throw new IllegalArgumentException();
+        return new SpillOptions<>(codec, elements, directory);
+    }
+
+    /**
+     * Returns a copy of these options that writes temporary files to the
+     * given directory.
+     *
+     * @param directory the directory
+     * @return options with the given directory
+     * @throws NullPointerException if {@code directory} is null
+     */
+    public SpillOptions<T> withDirectory(Path directory) {
+        return new SpillOptions<>(codec, memoryLimit,
+                                  Objects.requireNonNull(directory));
+    }
+
+    Codec<T> codec() {
+        return codec;
+    }
+
+    long memoryLimit() {
+        return memoryLimit;
+    }
+
+    /** Returns the directory, or null for the default */
+    Path directory() {
+        return directory;
+    }
+
+    /**
+     * Returns a string describing these options.
+     *
+     * @return a string describing these options
+     */
+    @Override
+    public String toString() {
+        return super.toString() +
+            "[codec = " + codec +
+            ", memoryLimit = " + memoryLimit +
+            ", directory = " + directory + "]";
+    }
+}
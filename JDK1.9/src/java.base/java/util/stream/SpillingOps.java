@@ -0,0 +1,739 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Factory methods for the external-memory sorting and duplicate removal of
+ * reference streams, as configured by {@link SpillOptions}.
+ *
+ * <p>Elements are collected by {@link RunBuilder}s, one for a sequential
+ * pipeline and one per leaf task of a parallel one.  A builder writes a
+ * sorted run to a temporary file whenever it holds its share of the memory
+ * limit; what remains at the end is kept in memory if the limit allows.
+ * The runs, in encounter order, are then merged with a k-way merge.  Each
+ * element carries its position in the encounter order, the index of its run
+ * in the high 32 bits and its index within the run in the low 32 bits,
+ * which breaks ties in the merge and so keeps the results stable.
+ *
+ * <p>Duplicate removal merges the runs by hash code, keeps the first of the
+ * equal elements of each hash code, and, if the stream is ordered, sorts
+ * those back into encounter order by position with a second set of runs.
+ *
+ * @since 10
+ */
+final class SpillingOps {
+
+    private SpillingOps() { }
+
+    /** Maximum number of runs merged at once, and so of open files */
+    private static final int MERGE_WIDTH = 64;
+
+    /** Size of the buffers of the temporary files */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Appends an external-memory "sorted" operation to the provided stream,
+     * and returns the new stream.
+     *
+     * @param <T> the type of both input and output elements
+     * @param upstream a reference stream with element type T
+     * @param comparator the comparator to order elements by
+     * @param options the codec, memory limit and directory
+     * @return the new stream
+     */
+    static <T> Stream<T> makeSorted(AbstractPipeline<?, T, ?> upstream,
+                                    Comparator<? super T> comparator,
+                                    SpillOptions<T> options) {
+        Objects.requireNonNull(comparator);
+        Comparator<Entry<T>> order = (a, b) -> {
+            int c = comparator.compare(a.value, b.value);
+            return (c != 0) ? c : Long.compare(a.position, b.position);
+        };
+        SpillArea<T> area = new SpillArea<>(options);
+        upstream.onClose(area::close);
+        return new SpillingOp<T>(upstream, StreamOpFlag.IS_ORDERED | StreamOpFlag.NOT_SORTED,
+                                 area, order) {
+            @Override
+            Iterator<T> merge(List<Run<T>> runs, boolean ordered) {
+                if (inMemory(runs)) {
+                    // Everything fit in memory, List.sort is stable
+                    ArrayList<T> list = new ArrayList<>();
+                    for (Run<T> r : runs)
+                        for (Entry<T> e : ((MemoryRun<T>) r).entries)
+                            list.add(e.value);
+                    list.sort(comparator);
+                    return list.iterator();
+                }
+                return values(area, area.merge(runs, order));
+            }
+        };
+    }
+
+    /**
+     * Appends an external-memory "distinct" operation to the provided
+     * stream, and returns the new stream.
+     *
+     * @param <T> the type of both input and output elements
+     * @param upstream a reference stream with element type T
+     * @param options the codec, memory limit and directory
+     * @return the new stream
+     */
+    static <T> Stream<T> makeDistinct(AbstractPipeline<?, T, ?> upstream,
+                                      SpillOptions<T> options) {
+        Comparator<Entry<T>> byHash = (a, b) -> {
+            int c = Integer.compare(Objects.hashCode(a.value), Objects.hashCode(b.value));
+            return (c != 0) ? c : Long.compare(a.position, b.position);
+        };
+        Comparator<Entry<T>> byPosition = (a, b) -> Long.compare(a.position, b.position);
+        SpillArea<T> area = new SpillArea<>(options);
+        upstream.onClose(area::close);
+        return new SpillingOp<T>(upstream, StreamOpFlag.IS_DISTINCT | StreamOpFlag.NOT_SIZED,
+                                 area, byHash) {
+            @Override
+            Iterator<T> merge(List<Run<T>> runs, boolean ordered) {
+                if (inMemory(runs)) {
+                    // Everything fit in memory
+                    LinkedHashSet<T> set = new LinkedHashSet<>();
+                    for (Run<T> r : runs)
+                        for (Entry<T> e : ((MemoryRun<T>) r).entries)
+                            set.add(e.value);
+                    return set.iterator();
+                }
+                Iterator<Entry<T>> firsts = new FirstOfEqualIterator<>(area.merge(runs, byHash));
+                if (!ordered)
+                    return values(area, firsts);
+                RunBuilder<T> builder = new RunBuilder<>(area, byPosition, area.memoryLimit);
+                while (firsts.hasNext())
+                    builder.add(firsts.next());
+                return values(area, area.merge(builder.finish(), byPosition));
+            }
+
+            @Override
+            Sink<T> opWrapSink(int flags, Sink<T> sink) {
+                return StreamOpFlag.DISTINCT.isKnown(flags) ? sink : super.opWrapSink(flags, sink);
+            }
+
+            @Override
+            <P_IN> Spliterator<T> opEvaluateParallelLazy(PipelineHelper<T> helper,
+                                                         Spliterator<P_IN> spliterator) {
+                return StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())
+                       ? helper.wrapSpliterator(spliterator)
+                       : super.opEvaluateParallelLazy(helper, spliterator);
+            }
+        };
+    }
+
+    /**
+     * Returns true if all of the given runs are held in memory.
+     */
+    private static <T> boolean inMemory(List<Run<T>> runs) {
+        for (Run<T> r : runs)
+            if (!(r instanceof MemoryRun))
+                return false;
+        return true;
+    }
+
+    /**
+     * Returns an iterator over the elements of the given entries, which
+     * deletes the temporary files when exhausted.
+     */
+    private static <T> Iterator<T> values(SpillArea<T> area, Iterator<Entry<T>> entries) {
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                if (entries.hasNext())
+                    return true;
+                area.close();
+                return false;
+            }
+
+            @Override
+            public T next() {
+                return entries.next().value;
+            }
+        };
+    }
+
+    /**
+     * An element and its position in the encounter order.
+     */
+    static final class Entry<T> {
+        long position;
+        final T value;
+
+        Entry(long position, T value) {
+            this.position = position;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A sequence of entries sorted, once opened, in the order of a merge.
+     */
+    abstract static class Run<T> {
+        final long count;
+
+        Run(long count) {
+            this.count = count;
+        }
+
+        /** Makes the positions of this run relative to the given base */
+        abstract void rebase(long base);
+
+        /** Opens a cursor over the entries of this run in the given order */
+        abstract Cursor<T> open(SpillArea<T> area, Comparator<Entry<T>> order);
+    }
+
+    /**
+     * A run held in memory, in encounter order until opened.
+     */
+    static final class MemoryRun<T> extends Run<T> {
+        final ArrayList<Entry<T>> entries;
+
+        MemoryRun(ArrayList<Entry<T>> entries) {
+            super(entries.size());
+            this.entries = entries;
+        }
+
+        @Override
+        void rebase(long base) {
+            for (Entry<T> e : entries)
+                e.position += base;
+        }
+
+        @Override
+        Cursor<T> open(SpillArea<T> area, Comparator<Entry<T>> order) {
+            entries.sort(order);
+            Iterator<Entry<T>> it = entries.iterator();
+            return new Cursor<T>() {
+                @Override
+                boolean advance() {
+                    if (!it.hasNext())
+                        return false;
+                    head = it.next();
+                    return true;
+                }
+            };
+        }
+    }
+
+    /**
+     * A run written, already sorted, to a temporary file.
+     */
+    static final class FileRun<T> extends Run<T> {
+        final Path file;
+        long base;
+
+        FileRun(Path file, long count) {
+            super(count);
+            this.file = file;
+        }
+
+        @Override
+        void rebase(long base) {
+            this.base += base;
+        }
+
+        @Override
+        Cursor<T> open(SpillArea<T> area, Comparator<Entry<T>> order) {
+            DataInputStream in = area.read(file);
+            SpillOptions.Codec<T> codec = area.codec;
+            return new Cursor<T>() {
+                long remaining = count;
+
+                @Override
+                boolean advance() {
+                    try {
+                        if (remaining == 0) {
+                            area.release(in);
+                            Files.deleteIfExists(file);
+                            return false;
+                        }
+                        remaining--;
+                        long position = base + in.readLong();
+                        head = new Entry<>(position, in.readBoolean() ? codec.read(in) : null);
+                        return true;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * The current entry of an open run.
+     */
+    abstract static class Cursor<T> {
+        Entry<T> head;
+
+        /** Moves to the next entry, returning false at the end of the run */
+        abstract boolean advance();
+    }
+
+    /**
+     * Merges the entries of open runs.
+     */
+    static final class MergeIterator<T> implements Iterator<Entry<T>> {
+        private final PriorityQueue<Cursor<T>> queue;
+
+        MergeIterator(SpillArea<T> area, List<Run<T>> runs, Comparator<Entry<T>> order) {
+            queue = new PriorityQueue<>(Math.max(1, runs.size()),
+                                        (a, b) -> order.compare(a.head, b.head));
+            for (Run<T> r : runs) {
+                Cursor<T> c = r.open(area, order);
+                if (c.advance())
+                    queue.add(c);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public Entry<T> next() {
+            Cursor<T> c = queue.poll();
+            if (c == null)
+                throw new NoSuchElementException();
+            Entry<T> e = c.head;
+            if (c.advance())
+                queue.add(c);
+            return e;
+        }
+    }
+
+    /**
+     * Keeps the first of equal elements, given entries ordered by hash code
+     * and then position.
+     */
+    static final class FirstOfEqualIterator<T> implements Iterator<Entry<T>> {
+        private final Iterator<Entry<T>> entries;
+        private final ArrayList<T> group = new ArrayList<>();
+        private int hash;
+        private Entry<T> next;
+
+        FirstOfEqualIterator(Iterator<Entry<T>> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && entries.hasNext()) {
+                Entry<T> e = entries.next();
+                int h = Objects.hashCode(e.value);
+                if (group.isEmpty() || h != hash) {
+                    group.clear();
+                    hash = h;
+                }
+                if (!group.contains(e.value)) {
+                    group.add(e.value);
+                    next = e;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<T> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            Entry<T> e = next;
+            next = null;
+            return e;
+        }
+    }
+
+    /**
+     * The temporary files and memory limit of an operation.
+     */
+    static final class SpillArea<T> {
+        final SpillOptions.Codec<T> codec;
+        final long memoryLimit;
+        private final Path directory;
+        /** Number of elements of the runs kept in memory */
+        private final AtomicLong retained = new AtomicLong();
+        private final List<Path> files = new ArrayList<>();
+        /** Streams opened by cursors and not yet read to the end */
+        private final List<DataInputStream> inputs = new ArrayList<>();
+        private Path tempDirectory;
+        private boolean closed;
+
+        SpillArea(SpillOptions<T> options) {
+            this.codec = options.codec();
+            this.memoryLimit = Math.min(options.memoryLimit(), Nodes.MAX_ARRAY_SIZE);
+            this.directory = options.directory();
+        }
+
+        /**
+         * Reserves memory for a run of the given number of elements,
+         * returning false if the limit would be exceeded.
+         */
+        boolean retain(long count) {
+            if (retained.addAndGet(count) <= memoryLimit)
+                return true;
+            retained.addAndGet(-count);
+            return false;
+        }
+
+        /**
+         * Writes the given sorted entries to a new temporary file.
+         */
+        FileRun<T> write(Iterator<Entry<T>> entries) {
+            Path file = newFile();
+            long count = 0;
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+                while (entries.hasNext()) {
+                    Entry<T> e = entries.next();
+                    out.writeLong(e.position);
+                    if (e.value == null) {
+                        out.writeBoolean(false);
+                    } else {
+                        out.writeBoolean(true);
+                        codec.write(e.value, out);
+                    }
+                    count++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new FileRun<>(file, count);
+        }
+
+        /**
+         * Merges the given runs, in as many passes as needed to open at most
+         * {@link #MERGE_WIDTH} runs at once.
+         */
+        Iterator<Entry<T>> merge(List<Run<T>> runs, Comparator<Entry<T>> order) {
+            while (runs.size() > MERGE_WIDTH) {
+                List<Run<T>> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += MERGE_WIDTH) {
+                    List<Run<T>> group = runs.subList(i, Math.min(i + MERGE_WIDTH, runs.size()));
+                    merged.add(group.size() == 1
+                               ? group.get(0)
+                               : write(new MergeIterator<>(this, group, order)));
+                }
+                runs = merged;
+            }
+            return new MergeIterator<>(this, runs, order);
+        }
+
+        private synchronized Path newFile() {
+            if (closed)
+                throw new IllegalStateException("stream has already been closed");
+            try {
+                if (tempDirectory == null) {
+                    tempDirectory = (directory == null)
+                                    ? Files.createTempDirectory("stream")
+                                    : Files.createTempDirectory(directory, "stream");
+                }
+                Path file = Files.createTempFile(tempDirectory, "run", null);
+                files.add(file);
+                return file;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Opens the given run file for reading. The stream is closed by
+         * {@link #release}, or by {@link #close} if the run is abandoned.
+         */
+        synchronized DataInputStream read(Path file) {
+            if (closed)
+                throw new IllegalStateException("stream has already been closed");
+            try {
+                DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+                inputs.add(in);
+                return in;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Closes a stream returned by {@link #read}.
+         */
+        synchronized void release(DataInputStream in) throws IOException {
+            inputs.remove(in);
+            in.close();
+        }
+
+        /**
+         * Closes the streams still open and deletes the temporary files.
+         */
+        synchronized void close() {
+            if (closed)
+                return;
+            closed = true;
+            try {
+                for (DataInputStream in : inputs)
+                    in.close();
+                inputs.clear();
+                for (Path file : files)
+                    Files.deleteIfExists(file);
+                if (tempDirectory != null)
+                    Files.deleteIfExists(tempDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Collects elements into runs, writing a run to a temporary file each
+     * time a given number of elements has been collected.
+     */
+    static final class RunBuilder<T> implements Sink<T> {
+        private final SpillArea<T> area;
+        private final Comparator<Entry<T>> order;
+        private final long spillSize;
+        private final List<Run<T>> runs = new ArrayList<>();
+        private ArrayList<Entry<T>> entries = new ArrayList<>();
+
+        RunBuilder(SpillArea<T> area, Comparator<Entry<T>> order, long spillSize) {
+            this.area = area;
+            this.order = order;
+            this.spillSize = spillSize;
+        }
+
+        /** Adds an element at the next position of the current run */
+        @Override
+        public void accept(T t) {
+            add(new Entry<>(entries.size(), t));
+        }
+
+        /** Adds an entry, whose position is kept as it is */
+        void add(Entry<T> e) {
+            entries.add(e);
+            if (entries.size() >= spillSize)
+                spill();
+        }
+
+        private void spill() {
+            entries.sort(order);
+            runs.add(area.write(entries.iterator()));
+            entries = new ArrayList<>();
+        }
+
+        /**
+         * Returns the runs collected, in encounter order.
+         */
+        List<Run<T>> finish() {
+            if (!entries.isEmpty()) {
+                if (area.retain(entries.size())) {
+                    runs.add(new MemoryRun<>(entries));
+                    entries = new ArrayList<>();
+                }
+                else {
+                    spill();
+                }
+            }
+            return runs;
+        }
+    }
+
+    /**
+     * Collects the output of a parallel pipeline into runs, each leaf task
+     * with its own {@link RunBuilder}.
+     */
+    @SuppressWarnings("serial")
+    private static final class SpillTask<P_IN, T>
+            extends AbstractTask<P_IN, T, List<Run<T>>, SpillTask<P_IN, T>> {
+        private final SpillingOp<T> op;
+
+        SpillTask(SpillingOp<T> op, PipelineHelper<T> helper, Spliterator<P_IN> spliterator) {
+            super(helper, spliterator);
+            this.op = op;
+        }
+
+        SpillTask(SpillTask<P_IN, T> parent, Spliterator<P_IN> spliterator) {
+            super(parent, spliterator);
+            this.op = parent.op;
+        }
+
+        @Override
+        protected SpillTask<P_IN, T> makeChild(Spliterator<P_IN> spliterator) {
+            return new SpillTask<>(this, spliterator);
+        }
+
+        @Override
+        protected List<Run<T>> doLeaf() {
+            // Share the memory limit between the leaves that may run at once
+            ForkJoinPool pool = getPool();
+            int parallelism = (pool == null) ? 1 : pool.getParallelism();
+            long spillSize = Math.max(1L, op.area.memoryLimit / parallelism);
+            return helper.wrapAndCopyInto(new RunBuilder<>(op.area, op.order, spillSize),
+                                          spliterator).finish();
+        }
+
+        @Override
+        public void onCompletion(CountedCompleter<?> caller) {
+            if (!isLeaf()) {
+                List<Run<T>> runs = new ArrayList<>(leftChild.getLocalResult());
+                runs.addAll(rightChild.getLocalResult());
+                setLocalResult(runs);
+            }
+            super.onCompletion(caller);
+        }
+    }
+
+    /**
+     * A stateful operation that collects its input into runs, and pushes or
+     * iterates their merge.
+     */
+    private abstract static class SpillingOp<T> extends ReferencePipeline.StatefulOp<T, T> {
+        final SpillArea<T> area;
+        final Comparator<Entry<T>> order;
+
+        SpillingOp(AbstractPipeline<?, T, ?> upstream, int opFlags,
+                   SpillArea<T> area, Comparator<Entry<T>> order) {
+            super(upstream, StreamShape.REFERENCE, opFlags);
+            this.area = area;
+            this.order = order;
+        }
+
+        /**
+         * Returns the results of the operation given the runs collected, in
+         * encounter order.
+         */
+        abstract Iterator<T> merge(List<Run<T>> runs, boolean ordered);
+
+        /**
+         * Returns the exact number of results, or -1 if this operation does
+         * not preserve the size.
+         */
+        private long exactOutputSize(List<Run<T>> runs) {
+            if (!StreamOpFlag.SIZED.isKnown(getStreamAndOpFlags()))
+                return -1;
+            long count = 0;
+            for (Run<T> r : runs)
+                count += r.count;
+            return count;
+        }
+
+        private Iterator<T> result(List<Run<T>> runs, boolean ordered) {
+            long base = 0;
+            for (Run<T> r : runs) {
+                r.rebase(base);
+                base += 1L << 32;
+            }
+            return merge(runs, ordered);
+        }
+
+        @Override
+        <P_IN> Node<T> opEvaluateParallel(PipelineHelper<T> helper,
+                                          Spliterator<P_IN> spliterator,
+                                          IntFunction<T[]> generator) {
+            Node.Builder<T> nb = Nodes.builder(-1, generator);
+            nb.begin(-1);
+            opEvaluateParallelLazy(helper, spliterator).forEachRemaining(nb);
+            nb.end();
+            return nb.build();
+        }
+
+        @Override
+        <P_IN> Spliterator<T> opEvaluateParallelLazy(PipelineHelper<T> helper,
+                                                     Spliterator<P_IN> spliterator) {
+            List<Run<T>> runs = new SpillTask<>(this, helper, spliterator).invoke();
+            boolean ordered = StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags());
+            long size = exactOutputSize(runs);
+            Iterator<T> it = result(runs, ordered);
+            int characteristics = ordered ? Spliterator.ORDERED : 0;
+            return (size >= 0)
+                   ? Spliterators.spliterator(it, size, characteristics)
+                   : Spliterators.spliteratorUnknownSize(it, characteristics);
+        }
+
+        @Override
+        Sink<T> opWrapSink(int flags, Sink<T> sink) {
+            Objects.requireNonNull(sink);
+            boolean ordered = StreamOpFlag.ORDERED.isKnown(flags);
+            return new Sink.ChainedReference<T, T>(sink) {
+                RunBuilder<T> builder;
+                boolean cancellationWasRequested;
+
+                @Override
+                public void begin(long size) {
+                    builder = new RunBuilder<>(area, order, area.memoryLimit);
+                }
+
+                @Override
+                public void end() {
+                    try {
+                        List<Run<T>> runs = builder.finish();
+                        builder = null;
+                        long size = exactOutputSize(runs);
+                        Iterator<T> it = result(runs, ordered);
+                        downstream.begin(size);
+                        while (it.hasNext() &&
+                               !(cancellationWasRequested && downstream.cancellationRequested()))
+                            downstream.accept(it.next());
+                        downstream.end();
+                    } finally {
+                        area.close();
+                    }
+                }
+
+                @Override
+                public void accept(T t) {
+                    builder.accept(t);
+                }
+
+                @Override
+                public boolean cancellationRequested() {
+                    cancellationWasRequested = true;
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -371,6 +371,40 @@ public interface Stream<T> extends BaseStream<T, Stream<T>> {
      */
     Stream<T> distinct();
 
+    /**
+     * Returns a stream consisting of the distinct elements (according to
+     * {@link Object#equals(Object)}) of this stream, holding only a limited
+     * number of elements in memory.  Beyond the
+     * {@linkplain SpillOptions#withMemoryLimit(long) memory limit} of the
+     * given options, elements are written to temporary files with the codec
+     * of the options.  The result is the same as that of {@link #distinct()}.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @apiNote
+     * Duplicates are found by hash code, so elements must have a
+     * {@link Object#hashCode() hashCode} consistent with {@code equals}, as
+     * for {@link #distinct()}.  Once the memory limit is exceeded, every
+     * element is written to and read back from a temporary file, and for
+     * ordered streams those retained are sorted back into encounter order,
+     * which is much slower than {@link #distinct()}.
+     *
+     * @implSpec
+     * The default implementation checks that {@code options} is not null
+     * and returns {@link #distinct()}, ignoring the options.
+     *
+     * @param options the codec, memory limit and directory of the temporary
+     *                files
+     * @return the new stream
+     * @throws NullPointerException if {@code options} is null
+     * @since 10
+     */
+    default Stream<T> distinct(SpillOptions<T> options) {
+        Objects.requireNonNull(options);
+        return distinct();
+    }
+
     /**
      * Returns a stream consisting of the elements of this stream, sorted
      * according to natural order.  If the elements of this stream are not
@@ -404,6 +438,40 @@ public interface Stream<T> extends BaseStream<T, Stream<T>> {
      */
     Stream<T> sorted(Comparator<? super T> comparator);
 
+    /**
+     * Returns a stream consisting of the elements of this stream, sorted
+     * according to the provided {@code Comparator}, holding only a limited
+     * number of elements in memory.  Beyond the
+     * {@linkplain SpillOptions#withMemoryLimit(long) memory limit} of the
+     * given options, elements are written in sorted runs to temporary files
+     * with the codec of the options, and the runs are merged as the result
+     * is consumed.  The result is the same as that of
+     * {@link #sorted(Comparator)}.
+     *
+     * <p>For ordered streams, the sort is stable.  For unordered streams, no
+     * stability guarantees are made.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @implSpec
+     * The default implementation checks that {@code options} is not null
+     * and returns {@link #sorted(Comparator)}, ignoring the options.
+     *
+     * @param comparator a <a href="package-summary.html#NonInterference">non-interfering</a>,
+     *                   <a href="package-summary.html#Statelessness">stateless</a>
+     *                   {@code Comparator} to be used to compare stream elements
+     * @param options the codec, memory limit and directory of the temporary
+     *                files
+     * @return the new stream
+     * @throws NullPointerException if {@code options} is null
+     * @since 10
+     */
+    default Stream<T> sorted(Comparator<? super T> comparator, SpillOptions<T> options) {
+        Objects.requireNonNull(options);
+        return sorted(comparator);
+    }
+
     /**
      * Returns a stream consisting of the elements of this stream, additionally
      * performing the provided action on each element as elements are consumed
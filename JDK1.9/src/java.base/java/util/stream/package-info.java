@@ -307,6 +307,16 @@
  * in which the mapper function is applied to individual elements, or in what
  * thread any behavioral parameter is executed for a given element.
  *
+ * <p>Nor, even in a sequential pipeline, is any guarantee made that one
+ * element passes through all the stages of the pipeline before the next
+ * element enters it.  An implementation may apply a stage to a group of
+ * elements before handing the group to the next stage; for example, in
+ * {@code IntStream.range(0, 3).map(a).map(b).map(c).forEach(d)} the
+ * function {@code a} may be applied to all three elements before {@code d}
+ * is invoked for the first one.  Likewise, when a behavioral parameter throws
+ * an exception, behavioral parameters of upstream stages may already have
+ * been applied to several of the following elements.
+ *
  * <p>The eliding of side-effects may also be surprising.  With the exception of
  * terminal operations {@link java.util.stream.Stream#forEach forEach} and
  * {@link java.util.stream.Stream#forEachOrdered forEachOrdered}, side-effects
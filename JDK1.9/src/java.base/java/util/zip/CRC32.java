@@ -127,6 +127,66 @@ class CRC32 implements Checksum {
         return (long)crc & 0xffffffffL;
     }
 
+    /*
+     * Returns the CRC-32 of the concatenation of two blocks of data, given
+     * the CRC-32 of each block and the length of the second one. This is
+     * zlib's crc32_combine: the first CRC is advanced over len2 zero bytes
+     * by repeatedly squaring the operator matrix for one zero bit.
+     */
+    static long combine(long crc1, long crc2, long len2) {
+        if (len2 <= 0) {
+            return crc1;
+        }
+        int[] even = new int[32];   // even-power-of-two zeros operator
+        int[] odd = new int[32];    // odd-power-of-two zeros operator
+
+        // put operator for one zero bit in odd
+        odd[0] = 0xedb88320;        // CRC-32 polynomial
+        int row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd); // put operator for two zero bits in even
+        gf2MatrixSquare(odd, even); // put operator for four zero bits in odd
+
+        // apply len2 zeros to crc1 (first square will put the operator for
+        // one zero byte, eight zero bits, in even)
+        int crc = (int)crc1;
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((len2 & 1) != 0) {
+                crc = gf2MatrixTimes(even, crc);
+            }
+            len2 >>>= 1;
+            if (len2 == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((len2 & 1) != 0) {
+                crc = gf2MatrixTimes(odd, crc);
+            }
+            len2 >>>= 1;
+        } while (len2 != 0);
+        return ((long)(crc ^ (int)crc2)) & 0xffffffffL;
+    }
+
+    private static int gf2MatrixTimes(int[] mat, int vec) {
+        int sum = 0;
+        for (int i = 0; vec != 0; i++, vec >>>= 1) {
+            if ((vec & 1) != 0) {
+                sum ^= mat[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(int[] square, int[] mat) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+        }
+    }
+
     @HotSpotIntrinsicCandidate
     private static native int update(int crc, int b);
 
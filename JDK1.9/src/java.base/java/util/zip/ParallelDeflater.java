@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Compresses a sequence of raw deflate streams in fixed size chunks on a
+ * {@link ForkJoinPool}, in the manner of pigz. Each chunk is compressed by
+ * its own {@link Deflater}, primed with the last 32K of the preceding chunk
+ * of the same stream, and every chunk but the last one of a stream ends
+ * with a {@link Deflater#SYNC_FLUSH}, so the compressed chunks concatenate
+ * into a single valid deflate stream. The task compressing a chunk also
+ * computes its CRC-32, and the CRCs are combined as the chunks are output.
+ *
+ * <p> Streams are written with {@link #start}, {@link #write} and
+ * {@link #finish}. The compressed data is handed back in order, on the
+ * thread calling {@link #drain}, through {@link #begin}, {@link #output}
+ * and {@link #end}. At most twice as many chunks as the parallelism of the
+ * pool are in flight at a time; submitting one more first waits for the
+ * oldest one to be output. Instances are not thread safe.
+ *
+ * @param <T> the type of the tag identifying each stream
+ */
+abstract class ParallelDeflater<T> {
+
+    static final int DEFAULT_CHUNK_SIZE = 128 * 1024;
+
+    private static final int DICT_SIZE = 32 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int outSize;
+    private final int maxPending;
+
+    /* idle deflaters, by compression level + 1 */
+    private final ConcurrentLinkedQueue<Deflater>[] deflaters;
+    private volatile boolean ended;
+
+    /* chunks submitted and not yet output, oldest first */
+    private final ArrayDeque<Chunk> pending = new ArrayDeque<>();
+    private final ArrayDeque<byte[]> freeIn = new ArrayDeque<>();
+    private final ArrayDeque<byte[]> freeOut = new ArrayDeque<>();
+
+    /* the stream being written */
+    private T tag;
+    private int level;
+    private boolean first;
+    private Chunk prev;
+    private byte[] buf;
+    private int count;
+
+    /* totals of the stream being output */
+    private long crc;
+    private long size;
+    private long csize;
+
+    @SuppressWarnings("unchecked")
+    ParallelDeflater(ForkJoinPool pool, int chunkSize) {
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunk size <= 0");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        // room for the worst case expansion of incompressible data
+        this.outSize = chunkSize + (chunkSize >>> 3) + 64;
+        this.maxPending = Math.max(2, pool.getParallelism() * 2);
+        this.deflaters = (ConcurrentLinkedQueue<Deflater>[])
+            new ConcurrentLinkedQueue<?>[11];
+        for (int i = 0; i < deflaters.length; i++) {
+            deflaters[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Called before the first compressed chunk of a stream is output.
+     */
+    abstract void begin(T tag) throws IOException;
+
+    /**
+     * Outputs compressed data of the current stream.
+     */
+    abstract void output(byte[] b, int off, int len) throws IOException;
+
+    /**
+     * Called after the last compressed chunk of a stream has been output,
+     * with the uncompressed and compressed sizes and the CRC-32 of the
+     * uncompressed data.
+     */
+    abstract void end(T tag, long size, long csize, long crc)
+        throws IOException;
+
+    /**
+     * Starts a new stream. The previous one must have been finished.
+     */
+    void start(T tag, int level) {
+        this.tag = tag;
+        this.level = level;
+        this.first = true;
+        this.prev = null;
+    }
+
+    /**
+     * Writes uncompressed data of the current stream.
+     */
+    void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == chunkSize) {
+                // only submitted now, so that the last chunk is never empty
+                submit(false);
+            }
+            if (buf == null) {
+                buf = freeIn.isEmpty() ? new byte[chunkSize] : freeIn.poll();
+            }
+            int n = Math.min(len, chunkSize - count);
+            System.arraycopy(b, off, buf, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Finishes the current stream.
+     */
+    void finish() throws IOException {
+        submit(true);
+        tag = null;
+        prev = null;
+    }
+
+    /**
+     * Outputs the chunks at the head of the queue that have been
+     * compressed, or all chunks if {@code all} is true.
+     */
+    void drain(boolean all) throws IOException {
+        Chunk c;
+        while ((c = pending.peek()) != null && (all || c.isDone())) {
+            pending.poll();
+            emit(c);
+        }
+    }
+
+    /**
+     * Releases the idle deflaters.
+     */
+    void end() {
+        ended = true;
+        for (ConcurrentLinkedQueue<Deflater> q : deflaters) {
+            Deflater def;
+            while ((def = q.poll()) != null) {
+                def.end();
+            }
+        }
+    }
+
+    private void submit(boolean last) throws IOException {
+        while (pending.size() >= maxPending) {
+            emit(pending.poll());
+        }
+        byte[] in = buf != null ? buf : EMPTY;
+        byte[] out = freeOut.isEmpty() ? new byte[outSize] : freeOut.poll();
+        Chunk c = new Chunk(tag, level, first, last, in, count, prev, out);
+        pending.add(c);
+        pool.execute(c);
+        first = false;
+        prev = last ? null : c;
+        buf = null;
+        count = 0;
+    }
+
+    private void emit(Chunk c) throws IOException {
+        c.join();
+        if (c.first) {
+            crc = size = csize = 0;
+            begin(c.tag);
+        }
+        output(c.out, 0, c.outLen);
+        crc = CRC32.combine(crc, c.crc, c.len);
+        size += c.len;
+        csize += c.outLen;
+
+        // the input of a chunk is the dictionary of the next one, so it
+        // is recycled once that one is done too
+        if (c.prev != null) {
+            recycle(freeIn, c.prev.in, chunkSize);
+        }
+        if (c.last) {
+            recycle(freeIn, c.in, chunkSize);
+        }
+        recycle(freeOut, c.out, outSize);
+        c.prev = null;
+        c.out = null;
+        if (c.last) {
+            end(c.tag, size, csize, crc);
+        }
+    }
+
+    private void recycle(ArrayDeque<byte[]> free, byte[] b, int length) {
+        if (b.length == length && free.size() <= maxPending) {
+            free.add(b);
+        }
+    }
+
+    private Deflater acquire(int level) {
+        Deflater def = deflaters[level + 1].poll();
+        return def != null ? def : new Deflater(level, true);
+    }
+
+    private void release(Deflater def, int level) {
+        def.reset();
+        deflaters[level + 1].offer(def);
+        if (ended) {
+            end();
+        }
+    }
+
+    /**
+     * A chunk of a stream and, once done, its compressed data.
+     */
+    private final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final T tag;
+        final int level;
+        final boolean first;
+        final boolean last;
+        final byte[] in;
+        final int len;
+        Chunk prev;
+        byte[] out;
+        int outLen;
+        long crc;
+
+        Chunk(T tag, int level, boolean first, boolean last,
+              byte[] in, int len, Chunk prev, byte[] out) {
+            this.tag = tag;
+            this.level = level;
+            this.first = first;
+            this.last = last;
+            this.in = in;
+            this.len = len;
+            this.prev = prev;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            CRC32 crc32 = new CRC32();
+            crc32.update(in, 0, len);
+            crc = crc32.getValue();
+
+            Deflater def = acquire(level);
+            try {
+                if (prev != null) {
+                    int n = Math.min(prev.len, DICT_SIZE);
+                    def.setDictionary(prev.in, prev.len - n, n);
+                }
+                def.setInput(in, 0, len);
+                if (last) {
+                    def.finish();
+                }
+                int flush = last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH;
+                int n = 0;
+                for (;;) {
+                    if (n == out.length) {
+                        out = Arrays.copyOf(out, out.length << 1);
+                    }
+                    n += def.deflate(out, n, out.length - n, flush);
+                    // a sync flush is complete once there is room left
+                    if (last ? def.finished() : n < out.length) {
+                        break;
+                    }
+                }
+                outLen = n;
+            } finally {
+                release(def, level);
+            }
+        }
+    }
+}
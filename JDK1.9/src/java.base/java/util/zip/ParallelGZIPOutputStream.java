@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A stream filter for writing compressed data in the GZIP file format,
+ * which compresses the data in parallel on a {@link ForkJoinPool}.
+ *
+ * <p> The data is split into chunks that are compressed by independent
+ * {@link Deflater}s, each one with the end of the previous chunk as its
+ * dictionary, and the compressed chunks are written to the underlying
+ * stream in order as they become available. The result is a single GZIP
+ * member that can be read by {@link GZIPInputStream}.
+ *
+ * <p> Up to twice as many chunks as the parallelism of the pool are
+ * buffered at a time; writing more waits for the oldest ones to be
+ * compressed. {@link #flush()} writes the data compressed so far without
+ * waiting for the rest, and {@link #finish()} waits for all of it.
+ *
+ * @since 10
+ */
+public class ParallelGZIPOutputStream extends GZIPOutputStream {
+
+    private final ParallelDeflater<Void> deflater;
+    private boolean finished;
+
+    /**
+     * Creates a new output stream that compresses on the
+     * {@linkplain ForkJoinPool#commonPool() common pool} with the
+     * default compression level.
+     *
+     * @param out the output stream
+     * @exception IOException If an I/O error has occurred.
+     */
+    public ParallelGZIPOutputStream(OutputStream out) throws IOException {
+        this(out, Deflater.DEFAULT_COMPRESSION, ForkJoinPool.commonPool(),
+             ParallelDeflater.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new output stream that compresses on the specified pool,
+     * in chunks of the specified size.
+     *
+     * @param out the output stream
+     * @param level the compression level (0-9), or
+     *              {@link Deflater#DEFAULT_COMPRESSION}
+     * @param pool the pool on which the data is compressed
+     * @param chunkSize the number of bytes compressed by each task
+     * @exception IOException If an I/O error has occurred.
+     * @exception IllegalArgumentException if the compression level is
+     *            invalid or {@code chunkSize <= 0}
+     */
+    public ParallelGZIPOutputStream(OutputStream out, int level,
+                                    ForkJoinPool pool, int chunkSize)
+        throws IOException
+    {
+        super(out);
+        def.setLevel(level);
+        this.deflater = new ParallelDeflater<>(pool, chunkSize) {
+            @Override
+            void begin(Void tag) {
+            }
+
+            @Override
+            void output(byte[] b, int off, int len) throws IOException {
+                ParallelGZIPOutputStream.this.out.write(b, off, len);
+            }
+
+            @Override
+            void end(Void tag, long size, long csize, long crc)
+                throws IOException
+            {
+                writeTrailer(crc, size);
+            }
+        };
+        deflater.start(null, level);
+    }
+
+    /**
+     * Writes array of bytes to the compressed output stream. This method
+     * may block until earlier data has been compressed.
+     * @param buf the data to be written
+     * @param off the start offset of the data
+     * @param len the length of the data
+     * @exception IOException If an I/O error has occurred.
+     */
+    @Override
+    public synchronized void write(byte[] buf, int off, int len)
+        throws IOException
+    {
+        if (finished) {
+            throw new IOException("write beyond end of stream");
+        }
+        if ((off | len | (off + len) | (buf.length - (off + len))) < 0) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0) {
+            return;
+        }
+        deflater.write(buf, off, len);
+        deflater.drain(false);
+    }
+
+    /**
+     * Writes the data compressed so far and flushes the underlying stream.
+     * @exception IOException If an I/O error has occurred.
+     */
+    @Override
+    public void flush() throws IOException {
+        deflater.drain(false);
+        out.flush();
+    }
+
+    /**
+     * Waits for all of the data to be compressed and finishes writing
+     * it to the output stream without closing the underlying stream.
+     * @exception IOException if an I/O error has occurred
+     */
+    @Override
+    public void finish() throws IOException {
+        if (!finished) {
+            finished = true;
+            deflater.finish();
+            deflater.drain(true);
+        }
+    }
+
+    /**
+     * Writes remaining compressed data to the output stream and closes the
+     * underlying stream.
+     * @exception IOException if an I/O error has occurred
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /*
+     * Writes GZIP member trailer.
+     */
+    private void writeTrailer(long crc, long size) throws IOException {
+        byte[] trailer = new byte[8];
+        writeInt((int)crc, trailer, 0);     // CRC-32 of uncompr. data
+        writeInt((int)size, trailer, 4);    // Number of uncompr. bytes
+        out.write(trailer);
+    }
+
+    /*
+     * Writes integer in Intel byte order to a byte array, starting at a
+     * given offset.
+     */
+    private static void writeInt(int i, byte[] buf, int offset) {
+        buf[offset] = (byte)i;
+        buf[offset + 1] = (byte)(i >> 8);
+        buf[offset + 2] = (byte)(i >> 16);
+        buf[offset + 3] = (byte)(i >> 24);
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.zip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An output stream filter for writing files in the ZIP file format, which
+ * compresses DEFLATED entries in parallel on a {@link ForkJoinPool}.
+ *
+ * <p> The data of each DEFLATED entry is split into chunks that are
+ * compressed by independent {@link Deflater}s, so that both the entries
+ * of an archive and the chunks of a single large entry are compressed
+ * concurrently while the caller keeps writing. The compressed data is
+ * written to the underlying stream in order, as it becomes available,
+ * with the sizes and CRC-32 of each entry in its data descriptor, just
+ * as {@link ZipOutputStream} writes entries of unknown size. ZIP64
+ * extensions are used as needed. The result is a regular ZIP file that
+ * can be read by {@link ZipInputStream} and {@link ZipFile}; the
+ * compressed data differs slightly from that of {@code ZipOutputStream},
+ * as each chunk is compressed separately, with the end of the previous
+ * chunk as its dictionary.
+ *
+ * <p> STORED entries are written as by {@code ZipOutputStream}, once the
+ * data of all previous entries has been written.
+ *
+ * <p> Up to twice as many chunks as the parallelism of the pool are
+ * buffered at a time; writing more waits for the oldest ones to be
+ * compressed. {@link #flush()} writes the data compressed so far without
+ * waiting for the rest, and {@link #finish()} waits for all of it.
+ *
+ * @since 10
+ */
+public class ParallelZipOutputStream extends ZipOutputStream {
+
+    private final ParallelDeflater<ZipEntry> deflater;
+    private int level = Deflater.DEFAULT_COMPRESSION;
+    private ZipEntry entry;     // the DEFLATED entry being written
+    private boolean stored;     // a STORED entry is being written
+
+    /**
+     * Creates a new parallel ZIP output stream that compresses on the
+     * {@linkplain ForkJoinPool#commonPool() common pool}.
+     *
+     * <p>The UTF-8 {@link java.nio.charset.Charset charset} is used
+     * to encode the entry names and comments.
+     *
+     * @param out the actual output stream
+     */
+    public ParallelZipOutputStream(OutputStream out) {
+        this(out, StandardCharsets.UTF_8, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new parallel ZIP output stream that compresses on the
+     * specified pool.
+     *
+     * @param out the actual output stream
+     * @param charset the {@linkplain java.nio.charset.Charset charset}
+     *                to be used to encode the entry names and comments
+     * @param pool the pool on which entries are compressed
+     */
+    public ParallelZipOutputStream(OutputStream out, Charset charset,
+                                   ForkJoinPool pool) {
+        this(out, charset, pool, ParallelDeflater.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new parallel ZIP output stream that compresses on the
+     * specified pool, in chunks of the specified size.
+     *
+     * @param out the actual output stream
+     * @param charset the {@linkplain java.nio.charset.Charset charset}
+     *                to be used to encode the entry names and comments
+     * @param pool the pool on which entries are compressed
+     * @param chunkSize the number of bytes of entry data compressed
+     *                  by each task
+     * @exception IllegalArgumentException if {@code chunkSize <= 0}
+     */
+    public ParallelZipOutputStream(OutputStream out, Charset charset,
+                                   ForkJoinPool pool, int chunkSize) {
+        super(out, charset);
+        this.deflater = new ParallelDeflater<>(pool, chunkSize) {
+            @Override
+            void begin(ZipEntry e) throws IOException {
+                openEntry(e);
+            }
+
+            @Override
+            void output(byte[] b, int off, int len) throws IOException {
+                writeDeflated(b, off, len);
+            }
+
+            @Override
+            void end(ZipEntry e, long size, long csize, long crc)
+                throws IOException
+            {
+                closeDeflated(size, csize, crc);
+            }
+        };
+    }
+
+    /**
+     * Sets the compression level for subsequent entries which are DEFLATED.
+     * The default setting is DEFAULT_COMPRESSION.
+     * @param level the compression level (0-9)
+     * @exception IllegalArgumentException if the compression level is invalid
+     */
+    @Override
+    public void setLevel(int level) {
+        super.setLevel(level);
+        this.level = level;
+    }
+
+    /**
+     * Begins writing a new ZIP file entry and positions the stream to the
+     * start of the entry data. Closes the current entry if still active.
+     * The default compression method will be used if no compression method
+     * was specified for the entry, and the current time will be used if
+     * the entry has no set modification time.
+     * @param e the ZIP entry to be written
+     * @exception ZipException if a ZIP format error has occurred
+     * @exception IOException if an I/O error has occurred
+     */
+    @Override
+    public void putNextEntry(ZipEntry e) throws IOException {
+        ensureOpen();
+        closeEntry();
+        initEntry(e);
+        if (e.method == STORED) {
+            deflater.drain(true);
+            openEntry(e);
+            stored = true;
+        } else {
+            deflater.start(e, level);
+            entry = e;
+        }
+    }
+
+    /**
+     * Closes the current ZIP entry and positions the stream for writing
+     * the next entry. The data of a DEFLATED entry may still be written
+     * after this method returns.
+     * @exception ZipException if a ZIP format error has occurred
+     * @exception IOException if an I/O error has occurred
+     */
+    @Override
+    public void closeEntry() throws IOException {
+        ensureOpen();
+        if (stored) {
+            stored = false;
+            super.closeEntry();
+        } else if (entry != null) {
+            entry = null;
+            deflater.finish();
+            deflater.drain(false);
+        }
+    }
+
+    /**
+     * Writes an array of bytes to the current ZIP entry data. This method
+     * may block until earlier data has been compressed.
+     * @param b the data to be written
+     * @param off the start offset in the data
+     * @param len the number of bytes that are written
+     * @exception ZipException if a ZIP file error has occurred
+     * @exception IOException if an I/O error has occurred
+     */
+    @Override
+    public synchronized void write(byte[] b, int off, int len)
+        throws IOException
+    {
+        ensureOpen();
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0) {
+            return;
+        }
+        if (stored) {
+            super.write(b, off, len);
+        } else if (entry != null) {
+            deflater.write(b, off, len);
+            deflater.drain(false);
+        } else {
+            throw new ZipException("no current ZIP entry");
+        }
+    }
+
+    /**
+     * Writes the data compressed so far and flushes the underlying stream.
+     * @exception IOException if an I/O error has occurred
+     */
+    @Override
+    public void flush() throws IOException {
+        deflater.drain(false);
+        super.flush();
+    }
+
+    /**
+     * Waits for all entries to be compressed and finishes writing the
+     * contents of the ZIP output stream without closing the underlying
+     * stream.
+     * @exception ZipException if a ZIP file error has occurred
+     * @exception IOException if an I/O exception has occurred
+     */
+    @Override
+    public void finish() throws IOException {
+        ensureOpen();
+        closeEntry();
+        deflater.drain(true);
+        super.finish();
+    }
+
+    /**
+     * Closes the ZIP output stream as well as the stream being filtered.
+     * @exception ZipException if a ZIP file error has occurred
+     * @exception IOException if an I/O error has occurred
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            deflater.end();
+        }
+    }
+}
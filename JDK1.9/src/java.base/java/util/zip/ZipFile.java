@@ -31,6 +31,9 @@ import java.io.IOException;
 import java.io.EOFException;
 import java.io.File;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.attribute.BasicFileAttributes;
@@ -57,6 +60,8 @@ import jdk.internal.misc.SharedSecrets;
 import jdk.internal.misc.JavaIORandomAccessFileAccess;
 import jdk.internal.misc.VM;
 import jdk.internal.perf.PerfCounter;
+import jdk.internal.ref.Cleaner;
+import sun.nio.ch.DirectBuffer;
 
 import static java.util.zip.ZipConstants.*;
 import static java.util.zip.ZipConstants64.*;
@@ -342,8 +347,14 @@ class ZipFile implements ZipConstants, Closeable {
             if (pos == -1) {
                 return null;
             }
-            in = new ZipFileInputStream(zsrc.cen, pos);
-            switch (CENHOW(zsrc.cen, pos)) {
+            byte[] cen = zsrc.cen;
+            int off = pos;
+            if (cen == null) {      // mapped CEN, copy out this header
+                cen = zsrc.copyCEN(pos);
+                off = 0;
+            }
+            in = new ZipFileInputStream(cen, off);
+            switch (CENHOW(cen, off)) {
             case STORED:
                 synchronized (streams) {
                     streams.put(in, null);
@@ -352,7 +363,7 @@ class ZipFile implements ZipConstants, Closeable {
             case DEFLATED:
                 // Inflater likes a bit of slack
                 // MORE: Compute good size for inflater stream:
-                long size = CENLEN(zsrc.cen, pos) + 2;
+                long size = CENLEN(cen, off) + 2;
                 if (size > 65536) {
                     size = 8192;
                 }
@@ -495,8 +506,7 @@ class ZipFile implements ZipConstants, Closeable {
                 if (!hasNext()) {
                     throw new NoSuchElementException();
                 }
-                // each "entry" has 3 ints in table entries
-                return getZipEntry(null, null, zsrc.getEntryPos(i++ * 3));
+                return getZipEntry(null, null, zsrc.getEntryPosAt(i++));
             }
         }
 
@@ -536,34 +546,39 @@ class ZipFile implements ZipConstants, Closeable {
     /* Checks ensureOpen() before invoke this method */
     private ZipEntry getZipEntry(String name, byte[] bname, int pos) {
         byte[] cen = zsrc.cen;
-        int nlen = CENNAM(cen, pos);
-        int elen = CENEXT(cen, pos);
-        int clen = CENCOM(cen, pos);
-        int flag = CENFLG(cen, pos);
+        int off = pos;
+        if (cen == null) {          // mapped CEN, copy out this header
+            cen = zsrc.copyCEN(pos);
+            off = 0;
+        }
+        int nlen = CENNAM(cen, off);
+        int elen = CENEXT(cen, off);
+        int clen = CENCOM(cen, off);
+        int flag = CENFLG(cen, off);
         if (name == null || bname.length != nlen) {
             // to use the entry name stored in cen, if the passed in name is
             // (1) null, invoked from iterator, or
             // (2) not equal to the name stored, a slash is appended during
             // getEntryPos() search.
             if (!zc.isUTF8() && (flag & EFS) != 0) {
-                name = zc.toStringUTF8(cen, pos + CENHDR, nlen);
+                name = zc.toStringUTF8(cen, off + CENHDR, nlen);
             } else {
-                name = zc.toString(cen, pos + CENHDR, nlen);
+                name = zc.toString(cen, off + CENHDR, nlen);
             }
         }
         ZipEntry e = new ZipEntry(name);
         e.flag = flag;
-        e.xdostime = CENTIM(cen, pos);
-        e.crc = CENCRC(cen, pos);
-        e.size = CENLEN(cen, pos);
-        e.csize = CENSIZ(cen, pos);
-        e.method = CENHOW(cen, pos);
+        e.xdostime = CENTIM(cen, off);
+        e.crc = CENCRC(cen, off);
+        e.size = CENLEN(cen, off);
+        e.csize = CENSIZ(cen, off);
+        e.method = CENHOW(cen, off);
         if (elen != 0) {
-            int start = pos + CENHDR + nlen;
+            int start = off + CENHDR + nlen;
             e.setExtra0(Arrays.copyOfRange(cen, start, start + elen), true);
         }
         if (clen != 0) {
-            int start = pos + CENHDR + nlen + elen;
+            int start = off + CENHDR + nlen + elen;
             if (!zc.isUTF8() && (flag & EFS) != 0) {
                 e.comment = zc.toStringUTF8(cen, start, clen);
             } else {
@@ -846,6 +861,10 @@ class ZipFile implements ZipConstants, Closeable {
             byte[] cen = zsrc.cen;
             for (int i = 0; i < names.length; i++) {
                 int pos = zsrc.metanames[i];
+                if (zsrc.cen == null) {     // mapped CEN
+                    cen = zsrc.copyCEN(pos);
+                    pos = 0;
+                }
                 names[i] = new String(cen, pos + CENHDR, CENNAM(cen, pos),
                                       StandardCharsets.UTF_8);
             }
@@ -873,7 +892,8 @@ class ZipFile implements ZipConstants, Closeable {
         private int refs = 1;
 
         private RandomAccessFile zfile;      // zfile of the underlying zip file
-        private byte[] cen;                  // CEN & ENDHDR
+        private byte[] cen;                  // CEN & ENDHDR, null if mapped
+        private ByteBuffer cenbuf;           // CEN & ENDHDR, if mapped
         private long locpos;                 // position of first LOC header (usually 0)
         private byte[] comment;              // zip file comment
                                              // list of meta entries in META-INF dir
@@ -913,6 +933,22 @@ class ZipFile implements ZipConstants, Closeable {
         private int[] table;                 // Hash chain heads: indexes into entries
         private int tablelen;                // number of hash heads
 
+        // If the "jdk.util.zip.mapCEN" system property is true, the CEN & END
+        // are memory-mapped rather than read into the cen array, and the
+        // entries are indexed without copying their headers to the heap.
+        // The entries array then stores 2 "int" {@code hash} and {@code pos}
+        // for each entry, in CEN order, and table is an open-addressing table
+        // of tablelen (a power of two) indexes into entries, instead of the
+        // hash chain heads. The CEN header of an entry is copied out of the
+        // mapping when the entry is looked up.
+        private static final boolean mapCEN =
+            "true".equals(VM.getSavedProperty("jdk.util.zip.mapCEN"));
+
+        // Returns the CEN position of the index-th entry, in CEN order.
+        private int getEntryPosAt(int index) {
+            return cenbuf == null ? getEntryPos(index * 3) : entries[index * 2 + 1];
+        }
+
         private static class Key {
             BasicFileAttributes attrs;
             File file;
@@ -999,6 +1035,7 @@ class ZipFile implements ZipConstants, Closeable {
                 readFullyAt(buf, 0, 4, 0);
                 this.startsWithLoc = (LOCSIG(buf) == LOCSIG);
             } catch (IOException x) {
+                unmapCEN();
                 try {
                     this.zfile.close();
                 } catch (IOException xx) {}
@@ -1007,6 +1044,7 @@ class ZipFile implements ZipConstants, Closeable {
         }
 
         private void close() throws IOException {
+            unmapCEN();
             zfile.close();
             zfile = null;
             cen = null;
@@ -1174,6 +1212,10 @@ class ZipFile implements ZipConstants, Closeable {
                 if (locpos < 0) {
                     zerror("invalid END header (bad central directory offset)");
                 }
+                if (mapCEN) {
+                    initMappedCEN(end, cenpos);
+                    return;
+                }
                 // read in the CEN and END
                 cen = new byte[(int)(end.cenlen + ENDHDR)];
                 if (readFullyAt(cen, 0, cen.length, cenpos) != end.cenlen + ENDHDR) {
@@ -1248,6 +1290,170 @@ class ZipFile implements ZipConstants, Closeable {
             }
         }
 
+        // Maps the CEN and END and indexes the entries, see mapCEN.
+        private void initMappedCEN(End end, long cenpos) throws IOException {
+            ByteBuffer buf = zfile.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                                                    cenpos, end.cenlen + ENDHDR);
+            cenbuf = buf;                // unmapped by close, even if invalid
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            int limit = buf.capacity() - ENDHDR;
+            total = end.centot;
+            entries = new int[total * 2];
+            ArrayList<Integer> metanamesList = null;
+            int i = 0;
+            int pos = 0;
+            while (pos + CENHDR <= limit) {
+                if (i >= total) {
+                    // incorrect ENDTOT field, see initCEN
+                    total = countMappedCENHeaders(buf, limit);
+                    entries = Arrays.copyOf(entries, total * 2);
+                }
+                if ((buf.getInt(pos) & 0xffffffffL) != CENSIG)
+                    zerror("invalid CEN header (bad signature)");
+                int method = Short.toUnsignedInt(buf.getShort(pos + CENHOW));
+                int nlen   = Short.toUnsignedInt(buf.getShort(pos + CENNAM));
+                int elen   = Short.toUnsignedInt(buf.getShort(pos + CENEXT));
+                int clen   = Short.toUnsignedInt(buf.getShort(pos + CENCOM));
+                if ((buf.getShort(pos + CENFLG) & 1) != 0)
+                    zerror("invalid CEN header (encrypted entry)");
+                if (method != STORED && method != DEFLATED)
+                    zerror("invalid CEN header (bad compression method: " + method + ")");
+                if (pos + CENHDR + nlen > limit)
+                    zerror("invalid CEN header (bad header size)");
+                int hash = 1;
+                for (int j = pos + CENHDR, e = j + nlen; j < e; j++) {
+                    hash = hash_append(hash, buf.get(j));
+                }
+                entries[i * 2] = hash;
+                entries[i * 2 + 1] = pos;
+                if (isMappedMetaName(buf, pos + CENHDR, nlen)) {
+                    if (metanamesList == null)
+                        metanamesList = new ArrayList<>(4);
+                    metanamesList.add(pos);
+                }
+                // skip ext and comment
+                pos += (CENHDR + nlen + elen + clen);
+                i++;
+            }
+            if (pos + ENDHDR != buf.capacity()) {
+                zerror("invalid CEN header (bad header size)");
+            }
+            total = i;
+            if (metanamesList != null) {
+                metanames = new int[metanamesList.size()];
+                for (int j = 0, len = metanames.length; j < len; j++) {
+                    metanames[j] = metanamesList.get(j);
+                }
+            }
+            // open addressing, load factor <= 2/3
+            tablelen = Integer.highestOneBit(Math.max(total + total / 2, 1)) << 1;
+            table = new int[tablelen];
+            Arrays.fill(table, ZIP_ENDCHAIN);
+            int mask = tablelen - 1;
+            for (int idx = 0; idx < total; idx++) {
+                int slot = entries[idx * 2] & mask;
+                while (table[slot] != ZIP_ENDCHAIN) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = idx;
+            }
+        }
+
+        // Unmaps the mapped CEN, if any. This is done when the Source is
+        // closed rather than left to the GC, so that the mapping (and, on
+        // Windows, the lock it holds on the file) does not outlive the
+        // last ZipFile using it. No ZipFile can access the Source then.
+        private void unmapCEN() {
+            if (cenbuf != null) {
+                Cleaner cl = ((DirectBuffer)cenbuf).cleaner();
+                if (cl != null) {
+                    cl.clean();
+                }
+                cenbuf = null;
+            }
+        }
+
+        // Returns a copy of the CEN header at the specified position of
+        // the mapped CEN, including its name, extra field and comment.
+        private byte[] copyCEN(int pos) {
+            ByteBuffer buf = cenbuf.duplicate();
+            int len = CENHDR + Short.toUnsignedInt(cenbuf.getShort(pos + CENNAM))
+                             + Short.toUnsignedInt(cenbuf.getShort(pos + CENEXT))
+                             + Short.toUnsignedInt(cenbuf.getShort(pos + CENCOM));
+            byte[] hdr = new byte[len];
+            buf.position(pos);
+            buf.get(hdr);
+            return hdr;
+        }
+
+        private static int countMappedCENHeaders(ByteBuffer buf, int size) {
+            int count = 0;
+            for (int p = 0;
+                 p + CENHDR <= size;
+                 p += CENHDR + Short.toUnsignedInt(buf.getShort(p + CENNAM))
+                             + Short.toUnsignedInt(buf.getShort(p + CENEXT))
+                             + Short.toUnsignedInt(buf.getShort(p + CENCOM)))
+                count++;
+            return count;
+        }
+
+        // isMetaName for a mapped CEN
+        private static boolean isMappedMetaName(ByteBuffer buf, int off, int len) {
+            return len > 9                         // "META-INF/".length()
+                && buf.get(off + len - 1) != '/'   // non-directory
+                && (buf.get(off++) | 0x20) == 'm'
+                && (buf.get(off++) | 0x20) == 'e'
+                && (buf.get(off++) | 0x20) == 't'
+                && (buf.get(off++) | 0x20) == 'a'
+                && (buf.get(off++)       ) == '-'
+                && (buf.get(off++) | 0x20) == 'i'
+                && (buf.get(off++) | 0x20) == 'n'
+                && (buf.get(off++) | 0x20) == 'f'
+                && (buf.get(off)         ) == '/';
+        }
+
+        // getEntryPos for a mapped CEN
+        private int getMappedEntryPos(byte[] name, boolean addSlash) {
+            int hsh = hashN(name, 0, name.length);
+            int mask = tablelen - 1;
+            while (true) {
+                int idx;
+                for (int slot = hsh & mask;
+                     (idx = table[slot]) != ZIP_ENDCHAIN;
+                     slot = (slot + 1) & mask) {
+                    if (entries[idx * 2] == hsh) {
+                        int pos = entries[idx * 2 + 1];
+                        if (mappedNameEquals(pos, name)) {
+                            return pos;
+                        }
+                    }
+                }
+                /* If not addSlash, or slash is already there, we are done */
+                if (!addSlash  || name.length == 0 || name[name.length - 1] == '/') {
+                     return -1;
+                }
+                /* Add slash and try once more */
+                name = Arrays.copyOf(name, name.length + 1);
+                name[name.length - 1] = '/';
+                hsh = hash_append(hsh, (byte)'/');
+                addSlash = false;
+            }
+        }
+
+        private boolean mappedNameEquals(int pos, byte[] name) {
+            ByteBuffer buf = cenbuf;
+            if (name.length != Short.toUnsignedInt(buf.getShort(pos + CENNAM))) {
+                return false;
+            }
+            int nameoff = pos + CENHDR;
+            for (int i = 0; i < name.length; i++) {
+                if (name[i] != buf.get(nameoff++)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         private static void zerror(String msg) throws ZipException {
             throw new ZipException(msg);
         }
@@ -1260,6 +1466,9 @@ class ZipFile implements ZipConstants, Closeable {
             if (total == 0) {
                 return -1;
             }
+            if (cenbuf != null) {
+                return getMappedEntryPos(name, addSlash);
+            }
             int hsh = hashN(name, 0, name.length);
             int idx = table[(hsh & 0x7fffffff) % tablelen];
             /*
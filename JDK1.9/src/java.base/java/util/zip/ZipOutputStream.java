@@ -92,7 +92,7 @@ class ZipOutputStream extends DeflaterOutputStream implements ZipConstants {
     /**
      * Checks to make sure that this stream has not been closed.
      */
-    private void ensureOpen() throws IOException {
+    void ensureOpen() throws IOException {
         if (closed) {
             throw new IOException("Stream closed");
         }
@@ -191,6 +191,15 @@ class ZipOutputStream extends DeflaterOutputStream implements ZipConstants {
         if (current != null) {
             closeEntry();       // close previous entry
         }
+        initEntry(e);
+        openEntry(e);
+    }
+
+    /*
+     * Fills in the defaults of the specified entry and checks that it can
+     * be written to this stream, without writing anything.
+     */
+    void initEntry(ZipEntry e) throws ZipException {
         if (e.xdostime == -1) {
             // by default, do NOT use extended timestamps in extra
             // data, for now.
@@ -233,6 +242,13 @@ class ZipOutputStream extends DeflaterOutputStream implements ZipConstants {
         }
         if (zc.isUTF8())
             e.flag |= EFS;
+    }
+
+    /*
+     * Makes the specified entry, prepared by initEntry, the current entry
+     * and writes its LOC header.
+     */
+    void openEntry(ZipEntry e) throws IOException {
         current = new XEntry(e, written);
         xentries.add(current);
         writeLOC(current);
@@ -254,32 +270,10 @@ class ZipOutputStream extends DeflaterOutputStream implements ZipConstants {
                 while (!def.finished()) {
                     deflate();
                 }
-                if ((e.flag & 8) == 0) {
-                    // verify size, compressed size, and crc-32 settings
-                    if (e.size != def.getBytesRead()) {
-                        throw new ZipException(
-                            "invalid entry size (expected " + e.size +
-                            " but got " + def.getBytesRead() + " bytes)");
-                    }
-                    if (e.csize != def.getBytesWritten()) {
-                        throw new ZipException(
-                            "invalid entry compressed size (expected " +
-                            e.csize + " but got " + def.getBytesWritten() + " bytes)");
-                    }
-                    if (e.crc != crc.getValue()) {
-                        throw new ZipException(
-                            "invalid entry CRC-32 (expected 0x" +
-                            Long.toHexString(e.crc) + " but got 0x" +
-                            Long.toHexString(crc.getValue()) + ")");
-                    }
-                } else {
-                    e.size  = def.getBytesRead();
-                    e.csize = def.getBytesWritten();
-                    e.crc = crc.getValue();
-                    writeEXT(e);
-                }
+                written += def.getBytesWritten();
+                endDeflated(e, def.getBytesRead(), def.getBytesWritten(),
+                            crc.getValue());
                 def.reset();
-                written += e.csize;
                 break;
             case STORED:
                 // we already know that both e.size and e.csize are the same
@@ -303,6 +297,55 @@ class ZipOutputStream extends DeflaterOutputStream implements ZipConstants {
         }
     }
 
+    /*
+     * Writes already compressed data of the current DEFLATED entry.
+     */
+    void writeDeflated(byte[] b, int off, int len) throws IOException {
+        writeBytes(b, off, len);
+    }
+
+    /*
+     * Closes the current DEFLATED entry, whose data has been written with
+     * writeDeflated, given the totals of that data.
+     */
+    void closeDeflated(long size, long csize, long crc) throws IOException {
+        endDeflated(current.entry, size, csize, crc);
+        current = null;
+    }
+
+    /*
+     * Verifies the size, compressed size and crc-32 of a DEFLATED entry
+     * against its LOC header, or writes them in its data descriptor.
+     */
+    private void endDeflated(ZipEntry e, long size, long csize, long crc)
+        throws IOException
+    {
+        if ((e.flag & 8) == 0) {
+            // verify size, compressed size, and crc-32 settings
+            if (e.size != size) {
+                throw new ZipException(
+                    "invalid entry size (expected " + e.size +
+                    " but got " + size + " bytes)");
+            }
+            if (e.csize != csize) {
+                throw new ZipException(
+                    "invalid entry compressed size (expected " +
+                    e.csize + " but got " + csize + " bytes)");
+            }
+            if (e.crc != crc) {
+                throw new ZipException(
+                    "invalid entry CRC-32 (expected 0x" +
+                    Long.toHexString(e.crc) + " but got 0x" +
+                    Long.toHexString(crc) + ")");
+            }
+        } else {
+            e.size  = size;
+            e.csize = csize;
+            e.crc = crc;
+            writeEXT(e);
+        }
+    }
+
     /**
      * Writes an array of bytes to the current ZIP entry data. This method
      * will block until all the bytes are written.
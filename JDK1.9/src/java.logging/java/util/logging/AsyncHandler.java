@@ -0,0 +1,558 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.logging;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import jdk.internal.misc.InnocuousThread;
+
+/**
+ * {@code Handler} that publishes to a target {@code Handler} on a
+ * background thread.
+ * <p>
+ * The {@code AsyncHandler} stores incoming {@code LogRecords} into a bounded,
+ * lock-free ring buffer and returns.  A dedicated daemon thread takes the
+ * records out of the ring in batches, publishes them to the target
+ * {@code Handler} (which formats and writes them) and flushes the target
+ * after each batch.  Logging threads therefore do not wait for formatting,
+ * for I/O, or for the target's lock, for example while a
+ * {@link FileHandler} rotates its files.
+ * <p>
+ * Before a record is queued, its source class and method names are
+ * inferred on the logging thread, so they are the same as with a
+ * synchronous {@code Handler}.
+ * <p>
+ * When the ring is full the {@link OverflowPolicy overflow policy} decides
+ * whether the logging thread waits for space or the record is dropped.
+ * Dropped records are counted, see {@link #getDroppedCount()}; the totals
+ * over all {@code AsyncHandlers}, see {@link #getTotalDroppedCount()}, are
+ * also attributes of the {@link java.lang.management.PlatformLoggingMXBean}.
+ * <p>
+ * <b>Configuration:</b>
+ * By default each {@code AsyncHandler} is initialized using the following
+ * {@code LogManager} configuration properties where {@code <handler-name>}
+ * refers to the fully-qualified class name of the handler.
+ * If properties are not defined
+ * (or have invalid values) then the specified default values are used.
+ * If no default value is defined then a RuntimeException is thrown.
+ * <ul>
+ * <li>   &lt;handler-name&gt;.level
+ *        specifies the level for the {@code Handler}
+ *        (defaults to {@code Level.ALL}). </li>
+ * <li>   &lt;handler-name&gt;.filter
+ *        specifies the name of a {@code Filter} class to use
+ *        (defaults to no {@code Filter}). </li>
+ * <li>   &lt;handler-name&gt;.size
+ *        defines the capacity of the ring buffer, rounded up to a power
+ *        of two (defaults to 1024). </li>
+ * <li>   &lt;handler-name&gt;.batchSize
+ *        defines the maximal number of records published between two
+ *        flushes of the target (defaults to 64). </li>
+ * <li>   &lt;handler-name&gt;.overflowPolicy
+ *        one of {@code BLOCK}, {@code DROP} or {@code DROP_BELOW_LEVEL}
+ *        (defaults to {@code BLOCK}). </li>
+ * <li>   &lt;handler-name&gt;.dropLevel
+ *        the level below which records are dropped with the
+ *        {@code DROP_BELOW_LEVEL} policy
+ *        (defaults to {@code Level.WARNING}). </li>
+ * <li>   &lt;handler-name&gt;.target
+ *        specifies the name of the target {@code Handler } class.
+ *        (no default). </li>
+ * </ul>
+ * <p>
+ * For example, the properties for {@code AsyncHandler} would be:
+ * <ul>
+ * <li>   java.util.logging.AsyncHandler.target=java.util.logging.FileHandler </li>
+ * <li>   java.util.logging.AsyncHandler.overflowPolicy=DROP_BELOW_LEVEL </li>
+ * </ul>
+ *
+ * @since 10
+ */
+
+public class AsyncHandler extends Handler {
+
+    /**
+     * What to do with a record which is published while the ring
+     * buffer of an {@code AsyncHandler} is full.
+     *
+     * @since 10
+     */
+    public enum OverflowPolicy {
+        /**
+         * The logging thread waits until there is space in the ring.
+         */
+        BLOCK,
+        /**
+         * The record is dropped.
+         */
+        DROP,
+        /**
+         * The record is dropped if its level is lower than the
+         * {@linkplain AsyncHandler#getDropLevel() drop level};
+         * otherwise the logging thread waits.
+         */
+        DROP_BELOW_LEVEL
+    }
+
+    private final static int DEFAULT_SIZE = 1024;
+    private final static int DEFAULT_BATCH_SIZE = 64;
+
+    // all open handlers, for the totals
+    private final static Set<AsyncHandler> handlers = ConcurrentHashMap.newKeySet();
+    private final static AtomicLong closedDropped = new AtomicLong();
+    private final static AtomicLong threadNumber = new AtomicLong();
+
+    private final Handler target;
+    private final OverflowPolicy overflowPolicy;
+    private volatile Level dropLevel;
+    private final int batchSize;
+
+    // The ring: the record for sequence number s is stored in slot
+    // s & mask, and sequence[slot] tells whose turn it is: s when the
+    // slot is free for the producer of s, s + 1 when it holds that
+    // record, which the consumer then frees for s + capacity.
+    private final LogRecord[] records;
+    private final AtomicLongArray sequence;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // next to produce
+    private volatile long head;                       // next to consume
+
+    private final LongAdder dropped = new LongAdder();
+    // producers which may still offer a record: the consumer does not
+    // stop, once closed, until there are none left
+    private final AtomicInteger publishers = new AtomicInteger();
+    private final Thread consumer;
+    private volatile boolean consumerWaiting;
+    private volatile boolean closed;
+
+    /**
+     * Create an {@code AsyncHandler} and configure it based on
+     * {@code LogManager} configuration properties.
+     */
+    public AsyncHandler() {
+        // configure with specific defaults for AsyncHandler
+        super(Level.ALL, new SimpleFormatter(), null);
+
+        LogManager manager = LogManager.getLogManager();
+        String cname = getClass().getName();
+        String targetName = manager.getProperty(cname+".target");
+        if (targetName == null) {
+            throw new RuntimeException("The handler " + cname
+                    + " does not specify a target");
+        }
+        try {
+            Class<?> clz = ClassLoader.getSystemClassLoader().loadClass(targetName);
+            @SuppressWarnings("deprecation")
+            Object o = clz.newInstance();
+            target = (Handler) o;
+        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException("AsyncHandler can't load handler target \"" + targetName + "\"" , e);
+        }
+        int size = manager.getIntProperty(cname + ".size", DEFAULT_SIZE);
+        if (size <= 0) {
+            size = DEFAULT_SIZE;
+        }
+        int batch = manager.getIntProperty(cname + ".batchSize", DEFAULT_BATCH_SIZE);
+        batchSize = batch > 0 ? batch : DEFAULT_BATCH_SIZE;
+        OverflowPolicy policy;
+        try {
+            policy = OverflowPolicy.valueOf(manager.getStringProperty(
+                    cname + ".overflowPolicy", OverflowPolicy.BLOCK.name()).trim());
+        } catch (IllegalArgumentException ex) {
+            policy = OverflowPolicy.BLOCK;
+        }
+        overflowPolicy = policy;
+        dropLevel = manager.getLevelProperty(cname + ".dropLevel", Level.WARNING);
+        records = new LogRecord[ringSize(size)];
+        sequence = initSequence(records.length);
+        mask = records.length - 1;
+        consumer = start();
+    }
+
+    /**
+     * Create an {@code AsyncHandler} publishing to the given target.
+     * <p>
+     * The {@code AsyncHandler} is configured based on {@code LogManager}
+     * properties (or their default values) except that the given target
+     * {@code Handler}, ring size and overflow policy are used.
+     *
+     * @param target  the Handler to which to publish output.
+     * @param size    the capacity of the ring buffer, rounded up to a
+     *                power of two (must be greater than zero)
+     * @param overflowPolicy  what to do when the ring buffer is full
+     *
+     * @throws IllegalArgumentException if {@code size is <= 0}
+     */
+    public AsyncHandler(Handler target, int size, OverflowPolicy overflowPolicy) {
+        // configure with specific defaults for AsyncHandler
+        super(Level.ALL, new SimpleFormatter(), null);
+
+        if (target == null || overflowPolicy == null) {
+            throw new NullPointerException();
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException();
+        }
+        LogManager manager = LogManager.getLogManager();
+        String cname = getClass().getName();
+        int batch = manager.getIntProperty(cname + ".batchSize", DEFAULT_BATCH_SIZE);
+        this.batchSize = batch > 0 ? batch : DEFAULT_BATCH_SIZE;
+        this.dropLevel = manager.getLevelProperty(cname + ".dropLevel", Level.WARNING);
+        this.target = target;
+        this.overflowPolicy = overflowPolicy;
+        this.records = new LogRecord[ringSize(size)];
+        this.sequence = initSequence(records.length);
+        this.mask = records.length - 1;
+        this.consumer = start();
+    }
+
+    private static int ringSize(int size) {
+        int n = 1;
+        while (n < size && n < (1 << 30)) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    private static AtomicLongArray initSequence(int n) {
+        AtomicLongArray seq = new AtomicLongArray(n);
+        for (int i = 0; i < n; i++) {
+            seq.set(i, i);
+        }
+        return seq;
+    }
+
+    private Thread start() {
+        Thread t = AccessController.doPrivileged(new PrivilegedAction<Thread>() {
+            @Override
+            public Thread run() {
+                Thread t = InnocuousThread.newSystemThread(
+                        "AsyncHandler-" + threadNumber.incrementAndGet(),
+                        AsyncHandler.this::drain);
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        handlers.add(this);
+        t.start();
+        return t;
+    }
+
+    /**
+     * Queue a {@code LogRecord} for publication to the target
+     * {@code Handler}.
+     * <p>
+     * If there is a {@code Filter}, its {@code isLoggable}
+     * method is called to check if the given log record is loggable.
+     * If not we return.  Otherwise the record is put into the ring
+     * buffer, unless it is full, in which case the overflow policy
+     * decides whether to wait for space or to drop the record.
+     * Records which do not fit are always dropped once the background
+     * thread has been terminated by an {@code Error} thrown by the
+     * target {@code Handler}.
+     * A record published by the target {@code Handler} itself, from
+     * the background thread, is published to the target directly.
+     *
+     * @param  record  description of the log event. A null record is
+     *                 silently ignored and is not published
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+        if (closed) {
+            dropped.increment();
+            return;
+        }
+        if (Thread.currentThread() == consumer) {
+            // the target is logging: waiting for ourselves would deadlock
+            target.publish(record);
+            return;
+        }
+        // infer the caller now, from the logging thread's stack
+        record.getSourceClassName();
+
+        boolean mayBlock = overflowPolicy == OverflowPolicy.BLOCK
+                || (overflowPolicy == OverflowPolicy.DROP_BELOW_LEVEL
+                    && record.getLevel().intValue() >= dropLevel.intValue());
+        publishers.incrementAndGet();
+        try {
+            // re-checked once registered, so that close() either sees this
+            // publisher or the record is rejected
+            if (closed) {
+                dropped.increment();
+                return;
+            }
+            int spins = 0;
+            while (!offer(record)) {
+                // an Error thrown by the target ends the background
+                // thread, and nothing would ever make space again
+                if (!mayBlock || closed || !consumer.isAlive()) {
+                    dropped.increment();
+                    return;
+                }
+                if (++spins < 64) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(this, TimeUnit.MICROSECONDS.toNanos(100));
+                }
+            }
+        } finally {
+            publishers.decrementAndGet();
+        }
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    // multiple producers
+    private boolean offer(LogRecord record) {
+        while (true) {
+            long t = tail.get();
+            int slot = (int)t & mask;
+            long s = sequence.get(slot);
+            if (s == t) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    records[slot] = record;
+                    sequence.set(slot, t + 1);
+                    return true;
+                }
+            } else if (s < t) {
+                return false; // full
+            }
+            // else another producer took the slot, retry
+        }
+    }
+
+    // single consumer
+    private LogRecord poll() {
+        long h = head;
+        int slot = (int)h & mask;
+        if (sequence.get(slot) != h + 1) {
+            return null;
+        }
+        LogRecord r = records[slot];
+        records[slot] = null;
+        sequence.set(slot, h + records.length);
+        head = h + 1;
+        return r;
+    }
+
+    // the background thread
+    private void drain() {
+        while (true) {
+            int n = 0;
+            LogRecord r;
+            while (n < batchSize && (r = poll()) != null) {
+                try {
+                    target.publish(r);
+                } catch (Exception ex) {
+                    reportError(null, ex, ErrorManager.WRITE_FAILURE);
+                }
+                n++;
+            }
+            if (n > 0) {
+                try {
+                    target.flush();
+                } catch (Exception ex) {
+                    reportError(null, ex, ErrorManager.FLUSH_FAILURE);
+                }
+                continue;
+            }
+            if (closed) {
+                // publish what was offered by the publishers which saw
+                // the handler open, then stop
+                if (publishers.get() == 0
+                        && sequence.get((int)head & mask) != head + 1) {
+                    return;
+                }
+                Thread.onSpinWait();
+                continue;
+            }
+            consumerWaiting = true;
+            if (sequence.get((int)head & mask) != head + 1 && !closed) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            }
+            consumerWaiting = false;
+        }
+    }
+
+    /**
+     * Waits until the records queued before this call have been
+     * published to the target {@code Handler}, then flushes it.
+     */
+    @Override
+    public void flush() {
+        if (Thread.currentThread() != consumer) {
+            long t = tail.get();
+            while (head < t && consumer.isAlive()) {
+                LockSupport.unpark(consumer);
+                LockSupport.parkNanos(this, TimeUnit.MICROSECONDS.toNanos(100));
+            }
+        }
+        target.flush();
+    }
+
+    /**
+     * Close the {@code Handler} and free all associated resources.
+     * The records already queued are published, then the background
+     * thread terminates and the target {@code Handler} is closed.
+     * Records published afterwards are dropped.
+     *
+     * @exception  SecurityException  if a security manager exists and if
+     *             the caller does not have {@code LoggingPermission("control")}.
+     */
+    @Override
+    public void close() throws SecurityException {
+        checkPermission();
+        if (!closed) {
+            closed = true;
+            LockSupport.unpark(consumer);
+            if (Thread.currentThread() != consumer) {
+                boolean interrupted = false;
+                while (consumer.isAlive()) {
+                    try {
+                        consumer.join();
+                    } catch (InterruptedException ex) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (handlers.remove(this)) {
+                closedDropped.addAndGet(dropped.sum());
+            }
+        }
+        target.close();
+        setLevel(Level.OFF);
+    }
+
+    /**
+     * Get the target {@code Handler}.
+     *
+     * @return the target {@code Handler}
+     */
+    public Handler getTarget() {
+        return target;
+    }
+
+    /**
+     * Get the overflow policy.
+     *
+     * @return the overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Set the level below which records are dropped when the ring
+     * buffer is full and the overflow policy is
+     * {@link OverflowPolicy#DROP_BELOW_LEVEL DROP_BELOW_LEVEL}.
+     *
+     * @param newLevel the new drop level
+     * @exception  SecurityException  if a security manager exists and if
+     *             the caller does not have {@code LoggingPermission("control")}.
+     */
+    public void setDropLevel(Level newLevel) throws SecurityException {
+        if (newLevel == null) {
+            throw new NullPointerException();
+        }
+        checkPermission();
+        dropLevel = newLevel;
+    }
+
+    /**
+     * Get the drop level.
+     *
+     * @return the level below which records may be dropped
+     */
+    public Level getDropLevel() {
+        return dropLevel;
+    }
+
+    /**
+     * Returns the number of records this {@code Handler} has dropped.
+     *
+     * @return the number of dropped records
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of records waiting in the ring buffer.
+     *
+     * @return the current queue depth
+     */
+    public int getQueueDepth() {
+        long depth = tail.get() - head;
+        return depth < 0 ? 0 : (int)depth;
+    }
+
+    /**
+     * Returns the number of records dropped by all the
+     * {@code AsyncHandlers} of this runtime, open or closed.
+     * This is the {@code AsyncDroppedCount} attribute of the
+     * {@link java.lang.management.PlatformLoggingMXBean}.
+     *
+     * @return the total number of dropped records
+     */
+    public static long getTotalDroppedCount() {
+        long n = closedDropped.get();
+        for (AsyncHandler h : handlers) {
+            n += h.getDroppedCount();
+        }
+        return n;
+    }
+
+    /**
+     * Returns the number of records waiting in the ring buffers of all
+     * the open {@code AsyncHandlers} of this runtime.
+     * This is the {@code AsyncQueueDepth} attribute of the
+     * {@link java.lang.management.PlatformLoggingMXBean}.
+     *
+     * @return the total queue depth
+     */
+    public static long getTotalQueueDepth() {
+        long n = 0;
+        for (AsyncHandler h : handlers) {
+            n += h.getQueueDepth();
+        }
+        return n;
+    }
+}
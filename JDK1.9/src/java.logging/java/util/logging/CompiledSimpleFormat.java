@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.logging;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link SimpleFormatter} format string parsed once into a sequence of
+ * appenders, which write a {@code LogRecord} into a {@code StringBuilder}
+ * without going through {@code String.format}.
+ * <p>
+ * Consecutive literals and date/time conversions which only depend on the
+ * second of the event time are rendered together with {@code String.format}
+ * once per second and per zone, and the rendered text is cached; the
+ * conversions for fractions of a second ({@code %tN}, {@code %tL} and
+ * {@code %tQ}) are appended directly.  The output is therefore the same as
+ * with {@code String.format}.
+ * <p>
+ * Only format specifiers without flags, width or precision, and without
+ * relative index, are supported; {@link #compile} returns {@code null} for
+ * any other format, which must then be formatted with {@code String.format}.
+ */
+final class CompiledSimpleFormat {
+
+    // the arguments of SimpleFormatter.format
+    private static final int DATE = 1;
+    private static final int SOURCE = 2;
+    private static final int LOGGER = 3;
+    private static final int LEVEL = 4;
+    private static final int MESSAGE = 5;
+    private static final int THROWN = 6;
+
+    // the appenders: a literal, an argument, a fraction of second,
+    // or a cached date prefix
+    private static final int LITERAL = 0;
+    private static final int ARGUMENT = 1;
+    private static final int NANOS = 2;
+    private static final int MILLIS = 3;
+    private static final int EPOCH_MILLIS = 4;
+    private static final int PREFIX = 5;
+
+    private final int[] kinds;
+    private final int[] args;      // argument index, or prefix number
+    private final String[] texts;  // literal text, or prefix sub-format
+    private final String[] prefixFormats;
+
+    private volatile Stamp stamp;
+
+    // the prefixes rendered for one second in one zone
+    private static final class Stamp {
+        final long second;
+        final ZoneId zone;
+        final String[] prefixes;
+
+        Stamp(long second, ZoneId zone, String[] prefixes) {
+            this.second = second;
+            this.zone = zone;
+            this.prefixes = prefixes;
+        }
+    }
+
+    private CompiledSimpleFormat(List<Integer> kinds, List<Integer> args,
+                                 List<String> texts, List<String> prefixFormats) {
+        int n = kinds.size();
+        this.kinds = new int[n];
+        this.args = new int[n];
+        this.texts = texts.toArray(new String[n]);
+        for (int i = 0; i < n; i++) {
+            this.kinds[i] = kinds.get(i);
+            this.args[i] = args.get(i);
+        }
+        this.prefixFormats = prefixFormats.toArray(new String[0]);
+    }
+
+    /**
+     * Parses the given format.
+     *
+     * @return the compiled format, or null if the format uses a
+     *         specifier which is not supported
+     */
+    static CompiledSimpleFormat compile(String format) {
+        List<Integer> kinds = new ArrayList<>();
+        List<Integer> args = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        List<String> prefixFormats = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();  // rendered text
+        StringBuilder raw = new StringBuilder();      // as a sub-format
+        boolean hasDate = false;
+        int ordinal = 0;
+        int len = format.length();
+        int i = 0;
+        while (i < len) {
+            char c = format.charAt(i++);
+            if (c != '%') {
+                literal.append(c);
+                raw.append(c);
+                continue;
+            }
+            // %[index$][tT]conversion
+            int start = i;
+            while (i < len && Character.isDigit(format.charAt(i))) {
+                i++;
+            }
+            int index = 0;
+            if (i > start) {
+                if (i >= len || format.charAt(i) != '$') {
+                    return null; // width
+                }
+                try {
+                    index = Integer.parseInt(format.substring(start, i));
+                } catch (NumberFormatException x) {
+                    return null;
+                }
+                i++;
+            }
+            if (i >= len) {
+                return null;
+            }
+            char conv = format.charAt(i++);
+            if (conv == '%' || conv == 'n') {
+                if (index != 0) {
+                    return null;
+                }
+                literal.append(conv == '%' ? "%" : System.lineSeparator());
+                raw.append('%').append(conv);
+                continue;
+            }
+            if (index == 0) {
+                index = ++ordinal;
+            }
+            if (conv == 't' || conv == 'T') {
+                if (i >= len || index != DATE) {
+                    return null;
+                }
+                char dc = format.charAt(i++);
+                int kind = dc == 'N' ? NANOS : dc == 'L' ? MILLIS
+                         : dc == 'Q' ? EPOCH_MILLIS : PREFIX;
+                if (kind == PREFIX) {
+                    raw.append("%1$").append(conv).append(dc);
+                    hasDate = true;
+                    continue;
+                }
+                flush(kinds, args, texts, prefixFormats, literal, raw, hasDate);
+                hasDate = false;
+                kinds.add(kind);
+                args.add(DATE);
+                texts.add(null);
+                continue;
+            }
+            if (conv != 's' || index < SOURCE || index > THROWN) {
+                return null;
+            }
+            flush(kinds, args, texts, prefixFormats, literal, raw, hasDate);
+            hasDate = false;
+            kinds.add(ARGUMENT);
+            args.add(index);
+            texts.add(null);
+        }
+        flush(kinds, args, texts, prefixFormats, literal, raw, hasDate);
+        return new CompiledSimpleFormat(kinds, args, texts, prefixFormats);
+    }
+
+    private static void flush(List<Integer> kinds, List<Integer> args,
+                              List<String> texts, List<String> prefixFormats,
+                              StringBuilder literal, StringBuilder raw,
+                              boolean hasDate) {
+        if (hasDate) {
+            kinds.add(PREFIX);
+            args.add(prefixFormats.size());
+            texts.add(null);
+            prefixFormats.add(raw.toString());
+        } else if (literal.length() > 0) {
+            kinds.add(LITERAL);
+            args.add(0);
+            texts.add(literal.toString());
+        }
+        literal.setLength(0);
+        raw.setLength(0);
+    }
+
+    /**
+     * Appends the given record, formatted, to the given StringBuilder.
+     */
+    void formatTo(Formatter formatter, LogRecord record, StringBuilder sb) {
+        Instant instant = record.getInstant();
+        Stamp st = null;
+        for (int i = 0; i < kinds.length; i++) {
+            switch (kinds[i]) {
+                case LITERAL:
+                    sb.append(texts[i]);
+                    break;
+                case ARGUMENT:
+                    appendArgument(formatter, record, args[i], sb);
+                    break;
+                case NANOS:
+                    appendPadded(sb, instant.getNano(), 9);
+                    break;
+                case MILLIS:
+                    appendPadded(sb, instant.getNano() / 1000_000, 3);
+                    break;
+                case EPOCH_MILLIS:
+                    sb.append(instant.toEpochMilli());
+                    break;
+                case PREFIX:
+                    if (st == null) {
+                        st = stamp(instant.getEpochSecond());
+                    }
+                    sb.append(st.prefixes[args[i]]);
+                    break;
+                default:
+                    throw new InternalError();
+            }
+        }
+    }
+
+    private Stamp stamp(long second) {
+        ZoneId zone = ZoneId.systemDefault();
+        Stamp st = stamp;
+        if (st == null || st.second != second || !st.zone.equals(zone)) {
+            ZonedDateTime zdt = ZonedDateTime.ofInstant(
+                    Instant.ofEpochSecond(second), zone);
+            String[] prefixes = new String[prefixFormats.length];
+            for (int i = 0; i < prefixes.length; i++) {
+                prefixes[i] = String.format(prefixFormats[i], zdt);
+            }
+            st = new Stamp(second, zone, prefixes);
+            // a record of an older second must not evict the current one
+            Stamp cur = stamp;
+            if (cur == null || cur.second <= second) {
+                stamp = st;
+            }
+        }
+        return st;
+    }
+
+    private static void appendArgument(Formatter formatter, LogRecord record,
+                                       int index, StringBuilder sb) {
+        switch (index) {
+            case SOURCE:
+                if (record.getSourceClassName() != null) {
+                    sb.append(record.getSourceClassName());
+                    if (record.getSourceMethodName() != null) {
+                        sb.append(' ').append(record.getSourceMethodName());
+                    }
+                } else {
+                    sb.append(record.getLoggerName());
+                }
+                break;
+            case LOGGER:
+                sb.append(record.getLoggerName());
+                break;
+            case LEVEL:
+                sb.append(record.getLevel().getLocalizedLevelName());
+                break;
+            case MESSAGE:
+                sb.append(formatter.formatMessage(record));
+                break;
+            case THROWN:
+                if (record.getThrown() != null) {
+                    StringWriter sw = new StringWriter();
+                    PrintWriter pw = new PrintWriter(sw);
+                    pw.println();
+                    record.getThrown().printStackTrace(pw);
+                    pw.close();
+                    sb.append(sw.getBuffer());
+                }
+                break;
+            default:
+                throw new InternalError();
+        }
+    }
+
+    private static void appendPadded(StringBuilder sb, int value, int digits) {
+        for (int d = digits - 1, p = 10; d > 0; d--, p *= 10) {
+            if (value < p) {
+                sb.append('0');
+            }
+        }
+        sb.append(value);
+    }
+}
@@ -51,6 +51,16 @@ import jdk.internal.logger.SurrogateLogger;
  * If this property is not defined or the given format string
  * is {@linkplain java.util.IllegalFormatException illegal},
  * the default format is implementation-specific.
+ * <p>
+ * If the {@code java.util.logging.SimpleFormatter.precompiled}
+ * {@linkplain LogManager#getProperty logging property} is {@code true},
+ * the format string is parsed once, when the {@code SimpleFormatter} is
+ * created, and the date and time conversions which do not depend on the
+ * fraction of a second are rendered once per second.  This produces the
+ * same output with much less allocation per log record, for the format
+ * strings which only use the {@code %n}, {@code %%}, {@code %s} and
+ * date/time conversions without flags, width or precision.  Other format
+ * strings are always formatted as if by {@code String.format}.
  *
  * @since 1.4
  * @see java.util.Formatter
@@ -66,6 +76,16 @@ public class SimpleFormatter extends Formatter {
     private final String format =
         SurrogateLogger.getSimpleFormat(SimpleFormatter::getLoggingProperty);
 
+    // the parsed format, if the precompiled mode is enabled and supports it
+    private final CompiledSimpleFormat compiled =
+        LogManager.getLogManager().getBooleanProperty(
+                "java.util.logging.SimpleFormatter.precompiled", false)
+            ? CompiledSimpleFormat.compile(format) : null;
+
+    // reused by format() in the precompiled mode
+    private static final ThreadLocal<StringBuilder> buffers =
+        ThreadLocal.withInitial(StringBuilder::new);
+
     /**
      * Format the given LogRecord.
      * <p>
@@ -154,6 +174,16 @@ public class SimpleFormatter extends Formatter {
      */
     @Override
     public String format(LogRecord record) {
+        if (compiled != null) {
+            StringBuilder sb = buffers.get();
+            sb.setLength(0);
+            compiled.formatTo(this, record, sb);
+            String s = sb.toString();
+            if (sb.capacity() > MAX_BUFFER_CAPACITY) {
+                buffers.remove();
+            }
+            return s;
+        }
         ZonedDateTime zdt = ZonedDateTime.ofInstant(
                 record.getInstant(), ZoneId.systemDefault());
         String source;
@@ -183,4 +213,22 @@ public class SimpleFormatter extends Formatter {
                              message,
                              throwable);
     }
+
+    // don't keep the buffer of an exceptionally long record
+    static final int MAX_BUFFER_CAPACITY = 8192;
+
+    /**
+     * Appends the formatted record to the given StringBuilder, without
+     * creating an intermediate string.
+     *
+     * @return false if the precompiled mode is not used, in which case
+     *         nothing was appended and {@link #format} must be called
+     */
+    boolean formatTo(LogRecord record, StringBuilder sb) {
+        if (compiled == null) {
+            return false;
+        }
+        compiled.formatTo(this, record, sb);
+        return true;
+    }
 }
@@ -79,6 +79,8 @@ public class StreamHandler extends Handler {
     private OutputStream output;
     private boolean doneHeader;
     private volatile Writer writer;
+    private StringBuilder formatBuffer;
+    private char[] formatChars;
 
     /**
      * Create a {@code StreamHandler}, with no current output stream.
@@ -194,9 +196,15 @@ public class StreamHandler extends Handler {
         if (!isLoggable(record)) {
             return;
         }
-        String msg;
+        Formatter formatter = getFormatter();
+        String msg = null;
         try {
-            msg = getFormatter().format(record);
+            // a precompiled SimpleFormatter formats into our buffer,
+            // unless it is a subclass which may override format()
+            if (formatter.getClass() != SimpleFormatter.class
+                    || !formatRecord((SimpleFormatter)formatter, record)) {
+                msg = formatter.format(record);
+            }
         } catch (Exception ex) {
             // We don't want to throw an exception here, but we
             // report the exception to any registered ErrorManager.
@@ -206,10 +214,14 @@ public class StreamHandler extends Handler {
 
         try {
             if (!doneHeader) {
-                writer.write(getFormatter().getHead(this));
+                writer.write(formatter.getHead(this));
                 doneHeader = true;
             }
-            writer.write(msg);
+            if (msg != null) {
+                writer.write(msg);
+            } else {
+                writeFormatted();
+            }
         } catch (Exception ex) {
             // We don't want to throw an exception here, but we
             // report the exception to any registered ErrorManager.
@@ -218,6 +230,35 @@ public class StreamHandler extends Handler {
     }
 
 
+    // Formats into formatBuffer, which is only used under the handler lock.
+    private boolean formatRecord(SimpleFormatter formatter, LogRecord record) {
+        StringBuilder sb = formatBuffer;
+        if (sb == null) {
+            sb = formatBuffer = new StringBuilder();
+        }
+        sb.setLength(0);
+        return formatter.formatTo(record, sb);
+    }
+
+    // Writes formatBuffer, through a reused char array.
+    private void writeFormatted() throws IOException {
+        StringBuilder sb = formatBuffer;
+        int len = sb.length();
+        char[] chars = formatChars;
+        if (chars == null || chars.length < len) {
+            chars = new char[Math.max(len, 256)];
+        }
+        sb.getChars(0, len, chars, 0);
+        writer.write(chars, 0, len);
+        if (sb.capacity() > SimpleFormatter.MAX_BUFFER_CAPACITY) {
+            // don't keep the buffers of an exceptionally long record
+            formatBuffer = null;
+            formatChars = null;
+        } else {
+            formatChars = chars;
+        }
+    }
+
     /**
      * Check if this {@code Handler} would actually log a given {@code LogRecord}.
      * <p>
@@ -131,4 +131,45 @@ public interface PlatformLoggingMXBean extends PlatformManagedObject {
      *         is returned.
      */
     String getParentLoggerName(String loggerName);
+
+    /**
+     * Returns the total number of log records dropped by the
+     * {@link java.util.logging.AsyncHandler AsyncHandlers}, because their
+     * ring buffer was full or they had been closed.
+     * This method calls
+     * {@link java.util.logging.AsyncHandler#getTotalDroppedCount}.
+     *
+     * @implSpec The default implementation throws
+     * {@code UnsupportedOperationException}.
+     *
+     * @return the number of log records dropped by {@code AsyncHandlers}.
+     *
+     * @throws UnsupportedOperationException if the implementation does
+     * not support this operation.
+     *
+     * @since 10
+     */
+    default long getAsyncDroppedCount() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the total number of log records waiting to be published by
+     * the open {@link java.util.logging.AsyncHandler AsyncHandlers}.
+     * This method calls
+     * {@link java.util.logging.AsyncHandler#getTotalQueueDepth}.
+     *
+     * @implSpec The default implementation throws
+     * {@code UnsupportedOperationException}.
+     *
+     * @return the number of log records queued by {@code AsyncHandlers}.
+     *
+     * @throws UnsupportedOperationException if the implementation does
+     * not support this operation.
+     *
+     * @since 10
+     */
+    default long getAsyncQueueDepth() {
+        throw new UnsupportedOperationException();
+    }
 }
@@ -170,6 +170,7 @@ public class ManagementFactoryHelper {
 
         final static String LOG_MANAGER_CLASS_NAME = "java.util.logging.LogManager";
         final static String LOGGING_MXBEAN_CLASS_NAME = "java.util.logging.LoggingMXBean";
+        final static String ASYNC_HANDLER_CLASS_NAME = "java.util.logging.AsyncHandler";
         final static Class<?> LOG_MANAGER_CLASS = loadLoggingClass(LOG_MANAGER_CLASS_NAME);
 
         static boolean isAvailable() {
@@ -214,6 +215,17 @@ public class ManagementFactoryHelper {
                     throw new InternalError(x);
                 }
             }
+            // The AsyncHandler totals are static methods, invoked with
+            // the implementation object as an ignored receiver.
+            Class<?> asyncClass = loadLoggingClass(ASYNC_HANDLER_CLASS_NAME);
+            try {
+                methodsMap.put("getAsyncDroppedCount",
+                               asyncClass.getMethod("getTotalDroppedCount"));
+                methodsMap.put("getAsyncQueueDepth",
+                               asyncClass.getMethod("getTotalQueueDepth"));
+            } catch (NoSuchMethodException x) {
+                throw new InternalError(x);
+            }
             return Collections.unmodifiableMap(methodsMap);
         }
 
@@ -319,6 +331,16 @@ public class ManagementFactoryHelper {
             return loggingAccess.invoke("getParentLoggerName", loggerName);
         }
 
+        @Override
+        public long getAsyncDroppedCount() {
+            return loggingAccess.invoke("getAsyncDroppedCount");
+        }
+
+        @Override
+        public long getAsyncQueueDepth() {
+            return loggingAccess.invoke("getAsyncQueueDepth");
+        }
+
         private static PlatformLoggingImpl getInstance() {
             return new PlatformLoggingImpl(new LoggingMXBeanAccess());
          }
@@ -29,6 +29,7 @@ import java.io.*;
 import java.nio.*;
 import java.nio.channels.*;
 import java.net.*;
+import java.nio.file.Path;
 import javax.net.ssl.*;
 import java.util.*;
 
@@ -183,6 +184,46 @@ public abstract class HttpExchange {
      */
     public abstract void sendResponseHeaders (int rCode, long responseLength) throws IOException ;
 
+    /**
+     * Sends a region of a file as the response to this exchange. The
+     * response headers are sent with response code {@code 200} and a fixed
+     * content length, the region is written as the response body and the
+     * response body is then closed. This method must be called instead of
+     * {@link #sendResponseHeaders(int,long)} and {@link #getResponseBody()}.
+     * <p>
+     * The region from {@code offset} to {@code offset+length} is the
+     * entity being served. If the request is a GET request with a single
+     * satisfiable byte range in its {@code Range} header, then only that
+     * part of the region is sent with response code {@code 206} (Partial
+     * Content) and a {@code Content-Range} header. If the range cannot be
+     * satisfied, response code {@code 416} is sent with no body. Other
+     * {@code Range} headers are ignored.
+     * <p>
+     * Implementations may transfer the file directly to the underlying
+     * connection, without copying it through the response body stream,
+     * unless a filter has replaced that stream with
+     * {@link #setStreams(InputStream,OutputStream)}.
+     *
+     * @implSpec The default implementation throws
+     *           {@code UnsupportedOperationException}.
+     *
+     * @param file the file to send
+     * @param offset the position in the file of the first byte to send
+     * @param length the number of bytes to send, or {@code -1} to send
+     *        everything from {@code offset} to the end of the file
+     * @throws IllegalArgumentException if {@code offset} is negative or
+     *         greater than the size of the file, or {@code length} is
+     *         less than {@code -1}
+     * @throws IOException if the response headers have already been sent,
+     *         or an I/O error occurs reading the file or writing the response
+     * @throws UnsupportedOperationException if this exchange does not
+     *         support sending files
+     * @since 10
+     */
+    public void sendFile (Path file, long offset, long length) throws IOException {
+        throw new UnsupportedOperationException ();
+    }
+
     /**
      * Returns the address of the remote entity invoking this request
      * @return the InetSocketAddress of the caller
@@ -27,6 +27,10 @@ package sun.net.httpserver;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import javax.net.ssl.*;
 import java.util.*;
 import java.lang.System.Logger;
@@ -270,6 +274,145 @@ class ExchangeImpl {
         server.logReply (rCode, req.requestLine(), null);
     }
 
+    public void sendFile (Path file, long offset, long length)
+    throws IOException
+    {
+        if (offset < 0 || length < -1) {
+            throw new IllegalArgumentException ("invalid file region");
+        }
+        if (sentHeaders) {
+            throw new IOException ("headers already sent");
+        }
+        try (FileChannel fc = FileChannel.open (file, StandardOpenOption.READ)) {
+            long size = fc.size();
+            if (offset > size) {
+                throw new IllegalArgumentException ("offset beyond end of file");
+            }
+            long total = size - offset;
+            if (length != -1 && length < total) {
+                total = length;
+            }
+            int rCode = 200;
+            long start = 0;
+            long count = total;
+            rspHdrs.set ("Accept-Ranges", "bytes");
+            String range = reqHdrs.getFirst ("Range");
+            if (range != null && "GET".equals (method)) {
+                long[] r = parseRange (range, total);
+                if (r != null && r.length == 0) {
+                    rspHdrs.set ("Content-Range", "bytes */" + total);
+                    sendResponseHeaders (416, -1);
+                    return;
+                }
+                if (r != null) {
+                    rCode = 206;
+                    start = r[0];
+                    count = r[1] - r[0] + 1;
+                    rspHdrs.set ("Content-Range",
+                        "bytes " + r[0] + "-" + r[1] + "/" + total);
+                }
+            }
+            if (isHeadRequest()) {
+                rspHdrs.set ("Content-length", Long.toString (count));
+                sendResponseHeaders (rCode, -1);
+                return;
+            }
+            if (count == 0) {
+                sendResponseHeaders (rCode, -1);
+                return;
+            }
+            sendResponseHeaders (rCode, count);
+            if (uos == uos_orig &&
+                    uos_orig.wrapped instanceof FixedLengthOutputStream) {
+                FixedLengthOutputStream os =
+                    (FixedLengthOutputStream)uos_orig.wrapped;
+                os.transferFrom (fc, offset + start, count);
+            } else {
+                /* a filter has replaced the response body stream */
+                copy (fc, offset + start, count, uos);
+            }
+            uos.close();
+        }
+    }
+
+    private static void copy (FileChannel src, long position, long count,
+                              OutputStream os)
+        throws IOException
+    {
+        byte[] b = new byte [(int)Math.min (count, 8 * 1024)];
+        ByteBuffer buf = ByteBuffer.wrap (b);
+        while (count > 0) {
+            buf.clear();
+            if (count < b.length) {
+                buf.limit ((int)count);
+            }
+            int n = src.read (buf, position);
+            if (n <= 0) {
+                throw new IOException ("unexpected end of file");
+            }
+            os.write (b, 0, n);
+            position += n;
+            count -= n;
+        }
+    }
+
+    /**
+     * parses a Range header value of the form "bytes=first-last",
+     * "bytes=first-" or "bytes=-suffix" against an entity of the given
+     * length. Returns {first, last}, an empty array if the range
+     * cannot be satisfied, or null if the header is to be ignored
+     * because it is malformed or specifies more than one range.
+     */
+    static long[] parseRange (String value, long length) {
+        String s = value.trim();
+        if (!s.regionMatches (true, 0, "bytes=", 0, 6)) {
+            return null;
+        }
+        s = s.substring (6).trim();
+        int dash = s.indexOf ('-');
+        if (dash == -1 || s.indexOf (',') != -1) {
+            return null;
+        }
+        String first = s.substring (0, dash).trim();
+        String last = s.substring (dash+1).trim();
+        long f, l;
+        try {
+            if (first.isEmpty()) {
+                if (last.isEmpty() || !Character.isDigit (last.charAt (0))) {
+                    return null;
+                }
+                long suffix = Long.parseLong (last);
+                if (suffix == 0 || length == 0) {
+                    return new long [0];
+                }
+                f = Math.max (0, length - suffix);
+                l = length - 1;
+            } else {
+                if (!Character.isDigit (first.charAt (0))) {
+                    return null;
+                }
+                f = Long.parseLong (first);
+                if (last.isEmpty()) {
+                    l = length - 1;
+                } else if (Character.isDigit (last.charAt (0))) {
+                    l = Long.parseLong (last);
+                    if (l < f) {
+                        return null;
+                    }
+                } else {
+                    return null;
+                }
+                if (f >= length) {
+                    return new long [0];
+                }
+                l = Math.min (l, length - 1);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return new long[] {f, l};
+    }
+
     void write (Headers map, OutputStream os) throws IOException {
         Set<Map.Entry<String,List<String>>> entries = map.entrySet();
         for (Map.Entry<String,List<String>> entry : entries) {
@@ -27,6 +27,9 @@ package sun.net.httpserver;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.concurrent.ArrayBlockingQueue;
 import com.sun.net.httpserver.*;
 import com.sun.net.httpserver.spi.*;
 
@@ -45,6 +48,11 @@ class FixedLengthOutputStream extends FilterOutputStream
     private boolean closed = false;
     ExchangeImpl t;
 
+    /* direct buffers used to copy file regions through SSLStreams */
+    private static final int XFER_BUFSIZE = 32 * 1024;
+    private static final ArrayBlockingQueue<ByteBuffer> xferBuffers =
+        new ArrayBlockingQueue<ByteBuffer> (16);
+
     FixedLengthOutputStream (ExchangeImpl t, OutputStream src, long len) {
         super (src);
         this.t = t;
@@ -79,6 +87,62 @@ class FixedLengthOutputStream extends FilterOutputStream
         remaining -= len;
     }
 
+    /**
+     * writes count bytes of src, starting at position, as part of the
+     * response body. For plain connections the bytes are transferred
+     * from the file to the socket channel without being copied into the
+     * heap; for SSL connections they pass through a pooled direct buffer.
+     */
+    void transferFrom (FileChannel src, long position, long count)
+    throws IOException
+    {
+        if (closed) {
+            throw new IOException ("stream closed");
+        }
+        if (count > remaining) {
+            throw new IOException ("too many bytes to write to stream");
+        }
+        HttpConnection c = t.getConnection();
+        if (c.sslStreams == null) {
+            SocketChannel chan = c.getChannel();
+            while (count > 0) {
+                long n = src.transferTo (position, count, chan);
+                if (n <= 0) {
+                    throw new IOException ("unexpected end of file");
+                }
+                position += n;
+                count -= n;
+                remaining -= n;
+            }
+        } else {
+            SSLStreams.OutputStream os =
+                (SSLStreams.OutputStream)c.sslStreams.getOutputStream();
+            ByteBuffer buf = xferBuffers.poll();
+            if (buf == null) {
+                buf = ByteBuffer.allocateDirect (XFER_BUFSIZE);
+            }
+            try {
+                while (count > 0) {
+                    buf.clear();
+                    if (count < buf.capacity()) {
+                        buf.limit ((int)count);
+                    }
+                    int n = src.read (buf, position);
+                    if (n <= 0) {
+                        throw new IOException ("unexpected end of file");
+                    }
+                    buf.flip();
+                    os.write (buf);
+                    position += n;
+                    count -= n;
+                    remaining -= n;
+                }
+            } finally {
+                xferBuffers.offer (buf);
+            }
+        }
+    }
+
     public void close () throws IOException {
         if (closed) {
             return;
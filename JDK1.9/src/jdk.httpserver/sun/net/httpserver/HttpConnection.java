@@ -54,10 +54,16 @@ class HttpConnection {
 
     SocketChannel chan;
     SelectionKey selectionKey;
+    ServerImpl.Dispatcher dispatcher; /* the selector this connection is pinned to */
     String protocol;
     long time;
     volatile long creationTime; // time this connection was created
     volatile long rspStartedTime; // time we started writing the response
+    /* pending timeout, guarded by the dispatcher's TimeoutWheel */
+    long deadline;
+    int wheelSlot = -1;
+    HttpConnection wheelPrev, wheelNext;
+    State expiredState;
     int remaining;
     boolean closed = false;
     Logger logger;
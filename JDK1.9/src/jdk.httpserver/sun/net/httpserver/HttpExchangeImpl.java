@@ -29,6 +29,7 @@ import java.io.*;
 import java.nio.*;
 import java.nio.channels.*;
 import java.net.*;
+import java.nio.file.Path;
 import javax.net.ssl.*;
 import java.util.*;
 import com.sun.net.httpserver.*;
@@ -85,6 +86,12 @@ class HttpExchangeImpl extends HttpExchange {
         impl.sendResponseHeaders (rCode, contentLen);
     }
 
+    public void sendFile (Path file, long offset, long length)
+    throws IOException
+    {
+        impl.sendFile (file, offset, length);
+    }
+
     public InetSocketAddress getRemoteAddress (){
         return impl.getRemoteAddress();
     }
@@ -640,6 +640,22 @@ class SSLStreams {
             }
         }
 
+        /* encrypts and sends the remaining bytes of src, which
+         * may be a direct buffer, without copying it first
+         */
+        void write(ByteBuffer src) throws IOException {
+            if (closed) {
+                throw new IOException ("output stream is closed");
+            }
+            WrapperResult r = sendData (src);
+            if (r != null && r.result.getStatus() == Status.CLOSED) {
+                closed = true;
+                if (src.hasRemaining()) {
+                    throw new IOException ("output stream is closed");
+                }
+            }
+        }
+
         public void flush() throws IOException {
             /* no-op */
         }
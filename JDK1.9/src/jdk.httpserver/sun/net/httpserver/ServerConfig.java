@@ -47,6 +47,7 @@ class ServerConfig {
     private static final long DEFAULT_TIMER_MILLIS = 1000;
     private static final int  DEFAULT_MAX_REQ_HEADERS = 200;
     private static final long DEFAULT_DRAIN_AMOUNT = 64 * 1024;
+    private static final int  DEFAULT_SELECTOR_COUNT = 1;
 
     private static int clockTick;
     private static long idleInterval;
@@ -59,6 +60,8 @@ class ServerConfig {
     private static long maxReqTime;
     private static long maxRspTime;
     private static long timerMillis;
+    // number of selector threads that connections are spread across
+    private static int selectorCount;
     private static boolean debug;
 
     // the value of the TCP_NODELAY socket-level option
@@ -95,6 +98,14 @@ class ServerConfig {
                     timerMillis = Long.getLong("sun.net.httpserver.timerMillis",
                             DEFAULT_TIMER_MILLIS);
 
+                    selectorCount = Integer.getInteger(
+                            "sun.net.httpserver.selectorCount",
+                            DEFAULT_SELECTOR_COUNT);
+                    if (selectorCount <= 0) {
+                        selectorCount =
+                            Runtime.getRuntime().availableProcessors();
+                    }
+
                     debug = Boolean.getBoolean("sun.net.httpserver.debug");
 
                     noDelay = Boolean.getBoolean("sun.net.httpserver.nodelay");
@@ -181,6 +192,18 @@ class ServerConfig {
         return timerMillis;
     }
 
+    /**
+     * Returns the number of selector threads used to service connections.
+     * A value of 1 (the default) keeps the single dispatcher model, where
+     * the thread that accepts connections also reads requests from them.
+     * Larger values start one acceptor plus this many selector threads,
+     * each of which owns the connections that are handed to it.
+     * Zero or a negative value selects one per available processor.
+     */
+    static int getSelectorCount() {
+        return selectorCount;
+    }
+
     static boolean noDelay() {
         return noDelay;
     }
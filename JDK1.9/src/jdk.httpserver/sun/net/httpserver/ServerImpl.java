@@ -53,16 +53,6 @@ class ServerImpl implements TimeSource {
     private ServerSocketChannel schan;
     private Selector selector;
     private SelectionKey listenerKey;
-    private Set<HttpConnection> idleConnections;
-    private Set<HttpConnection> allConnections;
-    /* following two are used to keep track of the times
-     * when a connection/request is first received
-     * and when we start to send the response
-     */
-    private Set<HttpConnection> reqConnections;
-    private Set<HttpConnection> rspConnections;
-    private List<Event> events;
-    private Object lolock = new Object();
     private volatile boolean finished = false;
     private volatile boolean terminating = false;
     private boolean bound = false;
@@ -79,10 +69,16 @@ class ServerImpl implements TimeSource {
     final static long MAX_REQ_TIME=getTimeMillis(ServerConfig.getMaxReqTime());
     final static long MAX_RSP_TIME=getTimeMillis(ServerConfig.getMaxRspTime());
     final static boolean timer1Enabled = MAX_REQ_TIME != -1 || MAX_RSP_TIME != -1;
+    final static int SELECTOR_COUNT = ServerConfig.getSelectorCount();
+    /* resolution of the timeout wheels, and period of the server timer */
+    final static long WHEEL_TICK =
+        timer1Enabled ? Math.min (CLOCK_TICK, TIMER_MILLIS) : CLOCK_TICK;
+    final static int WHEEL_SLOTS = 512;
 
-    private Timer timer, timer1;
+    private Timer timer;
     private final Logger logger;
     private Thread dispatcherThread;
+    private Thread[] selectorThreads;
 
     ServerImpl (
         HttpServer wrapper, String protocol, InetSocketAddress addr, int backlog
@@ -104,22 +100,27 @@ class ServerImpl implements TimeSource {
         selector = Selector.open ();
         schan.configureBlocking (false);
         listenerKey = schan.register (selector, SelectionKey.OP_ACCEPT);
-        dispatcher = new Dispatcher();
-        idleConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
-        allConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
-        reqConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
-        rspConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
         time = System.currentTimeMillis();
+        dispatcher = new Dispatcher (selector);
+        if (SELECTOR_COUNT > 1) {
+            /* the dispatcher only accepts, connections are
+             * handed out round robin to the selector threads
+             */
+            selectors = new Dispatcher [SELECTOR_COUNT];
+            for (int i=0; i<SELECTOR_COUNT; i++) {
+                selectors[i] = new Dispatcher (Selector.open());
+            }
+        } else {
+            selectors = new Dispatcher[] {dispatcher};
+        }
         timer = new Timer ("server-timer", true);
-        timer.schedule (new ServerTimerTask(), CLOCK_TICK, CLOCK_TICK);
+        timer.schedule (new ServerTimerTask(), WHEEL_TICK, WHEEL_TICK);
         if (timer1Enabled) {
-            timer1 = new Timer ("server-timer1", true);
-            timer1.schedule (new ServerTimerTask1(),TIMER_MILLIS,TIMER_MILLIS);
-            logger.log (Level.DEBUG, "HttpServer timer1 enabled period in ms: ", TIMER_MILLIS);
+            logger.log (Level.DEBUG, "HttpServer timer period in ms: ", WHEEL_TICK);
             logger.log (Level.DEBUG, "MAX_REQ_TIME:  "+MAX_REQ_TIME);
             logger.log (Level.DEBUG, "MAX_RSP_TIME:  "+MAX_RSP_TIME);
         }
-        events = new LinkedList<Event>();
+        logger.log (Level.DEBUG, "HttpServer selector threads: "+SELECTOR_COUNT);
         logger.log (Level.DEBUG, "HttpServer created "+protocol+" "+ addr);
     }
 
@@ -143,8 +144,21 @@ class ServerImpl implements TimeSource {
             executor = new DefaultExecutor();
         }
         dispatcherThread = new Thread(null, dispatcher, "HTTP-Dispatcher", 0, false);
+        if (selectors[0] != dispatcher) {
+            selectorThreads = new Thread [selectors.length];
+            for (int i=0; i<selectors.length; i++) {
+                selectorThreads[i] = new Thread (
+                    null, selectors[i], "HTTP-Dispatcher-"+i, 0, false
+                );
+            }
+        }
         started = true;
         dispatcherThread.start();
+        if (selectorThreads != null) {
+            for (Thread t : selectorThreads) {
+                t.start();
+            }
+        }
     }
 
     public void setExecutor (Executor executor) {
@@ -185,7 +199,7 @@ class ServerImpl implements TimeSource {
         }
         terminating = true;
         try { schan.close(); } catch (IOException e) {}
-        selector.wakeup();
+        wakeupAll();
         long latest = System.currentTimeMillis() + delay * 1000;
         while (System.currentTimeMillis() < latest) {
             delay();
@@ -194,29 +208,52 @@ class ServerImpl implements TimeSource {
             }
         }
         finished = true;
-        selector.wakeup();
-        synchronized (allConnections) {
-            for (HttpConnection c : allConnections) {
-                c.close();
+        wakeupAll();
+        for (Dispatcher d : selectors) {
+            synchronized (d.allConnections) {
+                for (HttpConnection c : d.allConnections) {
+                    c.close();
+                }
             }
+            d.allConnections.clear();
+            d.idleConnections.clear();
         }
-        allConnections.clear();
-        idleConnections.clear();
         timer.cancel();
-        if (timer1Enabled) {
-            timer1.cancel();
-        }
         if (dispatcherThread != null) {
-            try {
-                dispatcherThread.join();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.log (Level.TRACE, "ServerImpl.stop: ", e);
+            join (dispatcherThread);
+        }
+        if (selectorThreads != null) {
+            for (Thread t : selectorThreads) {
+                join (t);
             }
         }
     }
 
+    private void join (Thread t) {
+        try {
+            t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.log (Level.TRACE, "ServerImpl.stop: ", e);
+        }
+    }
+
+    private void wakeupAll () {
+        selector.wakeup();
+        if (selectors[0] != dispatcher) {
+            for (Dispatcher d : selectors) {
+                d.selector.wakeup();
+            }
+        }
+    }
+
+    /* the dispatcher owns the listening channel. selectors holds the
+     * dispatchers that connections are pinned to, which is just
+     * the dispatcher itself when SELECTOR_COUNT is 1
+     */
     Dispatcher dispatcher;
+    private Dispatcher[] selectors;
+    private int nextSelector; /* only used by the dispatcher thread */
 
     public synchronized HttpContextImpl createContext (String path, HttpHandler handler) {
         if (handler == null || path == null) {
@@ -270,16 +307,56 @@ class ServerImpl implements TimeSource {
     }
 
     void addEvent (Event r) {
-        synchronized (lolock) {
-            events.add (r);
-            selector.wakeup();
-        }
+        r.exchange.getConnection().dispatcher.addEvent (r);
     }
 
-    /* main server listener task */
+    /* main server listener task. One instance accepts new connections,
+     * and one or more (possibly the same instance) service the
+     * connections pinned to them. Each keeps its own connection sets
+     * so that threads handling different selectors do not contend
+     */
 
     class Dispatcher implements Runnable {
 
+        final Selector selector;
+        final Set<HttpConnection> idleConnections;
+        final Set<HttpConnection> allConnections;
+        /* holds the idle, request or response deadline of each
+         * connection, depending on the state it is in
+         */
+        final TimeoutWheel timeouts;
+        final int maxIdleConnections;
+        private List<Event> events;
+        private List<SocketChannel> newConnections;
+        private final Object lolock = new Object();
+
+        Dispatcher (Selector selector) {
+            this.selector = selector;
+            idleConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
+            allConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
+            timeouts = new TimeoutWheel (WHEEL_SLOTS, WHEEL_TICK, time);
+            /* the idle limit is shared out between the selectors */
+            maxIdleConnections =
+                (MAX_IDLE_CONNECTIONS + SELECTOR_COUNT - 1) / SELECTOR_COUNT;
+            events = new LinkedList<Event>();
+            newConnections = new LinkedList<SocketChannel>();
+        }
+
+        void addEvent (Event r) {
+            synchronized (lolock) {
+                events.add (r);
+                selector.wakeup();
+            }
+        }
+
+        /* hands a newly accepted channel to this dispatcher */
+        void addConnection (SocketChannel chan) {
+            synchronized (lolock) {
+                newConnections.add (chan);
+                selector.wakeup();
+            }
+        }
+
         private void handleEvent (Event r) {
             ExchangeImpl t = r.exchange;
             HttpConnection c = t.getConnection();
@@ -295,7 +372,7 @@ class ServerImpl implements TimeSource {
                     if (!is.isEOF()) {
                         t.close = true;
                     }
-                    if (t.close || idleConnections.size() >= MAX_IDLE_CONNECTIONS) {
+                    if (t.close || idleConnections.size() >= maxIdleConnections) {
                         c.close();
                         allConnections.remove (c);
                     } else {
@@ -329,6 +406,7 @@ class ServerImpl implements TimeSource {
                 c.selectionKey = key;
                 c.time = getTime() + IDLE_INTERVAL;
                 idleConnections.add (c);
+                timeouts.schedule (c, c.time);
             } catch (IOException e) {
                 dprint(e);
                 logger.log (Level.TRACE, "Dispatcher(8)", e);
@@ -336,15 +414,38 @@ class ServerImpl implements TimeSource {
             }
         }
 
+        /* register a channel accepted by the dispatcher with this selector */
+        void register (SocketChannel chan) {
+            try {
+                SelectionKey newkey =
+                    chan.register (selector, SelectionKey.OP_READ);
+                HttpConnection c = new HttpConnection ();
+                c.selectionKey = newkey;
+                c.dispatcher = this;
+                c.setChannel (chan);
+                newkey.attach (c);
+                requestStarted (c);
+                allConnections.add (c);
+            } catch (IOException e) {
+                logger.log (Level.TRACE, "Dispatcher(9)", e);
+                try { chan.close(); } catch (IOException e1) {}
+            }
+        }
+
         public void run() {
             while (!finished) {
                 try {
                     List<Event> list = null;
+                    List<SocketChannel> chans = null;
                     synchronized (lolock) {
                         if (events.size() > 0) {
                             list = events;
                             events = new LinkedList<Event>();
                         }
+                        if (newConnections.size() > 0) {
+                            chans = newConnections;
+                            newConnections = new LinkedList<SocketChannel>();
+                        }
                     }
 
                     if (list != null) {
@@ -353,6 +454,12 @@ class ServerImpl implements TimeSource {
                         }
                     }
 
+                    if (chans != null) {
+                        for (SocketChannel chan : chans) {
+                            register (chan);
+                        }
+                    }
+
                     for (HttpConnection c : connsToRegister) {
                         reRegister(c);
                     }
@@ -379,14 +486,13 @@ class ServerImpl implements TimeSource {
                                     chan.socket().setTcpNoDelay(true);
                                 }
                                 chan.configureBlocking (false);
-                                SelectionKey newkey =
-                                    chan.register (selector, SelectionKey.OP_READ);
-                                HttpConnection c = new HttpConnection ();
-                                c.selectionKey = newkey;
-                                c.setChannel (chan);
-                                newkey.attach (c);
-                                requestStarted (c);
-                                allConnections.add (c);
+                                Dispatcher d = selectors [nextSelector];
+                                nextSelector = (nextSelector + 1) % selectors.length;
+                                if (d == this) {
+                                    register (chan);
+                                } else {
+                                    d.addConnection (chan);
+                                }
                             }
                         } else {
                             try {
@@ -398,8 +504,8 @@ class ServerImpl implements TimeSource {
                                     key.cancel();
                                     chan.configureBlocking (true);
                                     if (idleConnections.remove(conn)) {
-                                        // was an idle connection so add it
-                                        // to reqConnections set.
+                                        // was an idle connection so start
+                                        // its request timeout.
                                         requestStarted (conn);
                                     }
                                     handle (chan, conn);
@@ -421,6 +527,13 @@ class ServerImpl implements TimeSource {
                     logger.log (Level.TRACE, "Dispatcher (7)", e);
                 }
             }
+            synchronized (lolock) {
+                /* close channels that were accepted but never registered */
+                for (SocketChannel chan : newConnections) {
+                    try { chan.close(); } catch (IOException e) {}
+                }
+                newConnections.clear();
+            }
             try {selector.close(); } catch (Exception e) {}
         }
 
@@ -468,22 +581,14 @@ class ServerImpl implements TimeSource {
     }
 
     private void closeConnection(HttpConnection conn) {
+        Dispatcher d = conn.dispatcher;
         conn.close();
-        allConnections.remove(conn);
-        switch (conn.getState()) {
-        case REQUEST:
-            reqConnections.remove(conn);
-            break;
-        case RESPONSE:
-            rspConnections.remove(conn);
-            break;
-        case IDLE:
-            idleConnections.remove(conn);
-            break;
-        }
-        assert !reqConnections.remove(conn);
-        assert !rspConnections.remove(conn);
-        assert !idleConnections.remove(conn);
+        d.allConnections.remove(conn);
+        d.timeouts.cancel(conn);
+        if (conn.getState() == State.IDLE) {
+            d.idleConnections.remove(conn);
+        }
+        assert !d.idleConnections.remove(conn);
     }
 
         /* per exchange task */
@@ -781,8 +886,18 @@ class ServerImpl implements TimeSource {
 
     void requestStarted (HttpConnection c) {
         c.creationTime = getTime();
-        c.setState (State.REQUEST);
-        reqConnections.add (c);
+        TimeoutWheel timeouts = c.dispatcher.timeouts;
+        /* state and deadline change together, see ServerTimerTask */
+        synchronized (timeouts) {
+            c.setState (State.REQUEST);
+            if (MAX_REQ_TIME != -1) {
+                timeouts.schedule (
+                    c, c.creationTime + TIMER_MILLIS + MAX_REQ_TIME
+                );
+            } else {
+                timeouts.cancel (c);
+            }
+        }
     }
 
     // called after a request has been completely read
@@ -794,78 +909,70 @@ class ServerImpl implements TimeSource {
 
     void requestCompleted (HttpConnection c) {
         assert c.getState() == State.REQUEST;
-        reqConnections.remove (c);
         c.rspStartedTime = getTime();
-        rspConnections.add (c);
-        c.setState (State.RESPONSE);
+        TimeoutWheel timeouts = c.dispatcher.timeouts;
+        synchronized (timeouts) {
+            if (MAX_RSP_TIME != -1) {
+                timeouts.schedule (
+                    c, c.rspStartedTime + TIMER_MILLIS + MAX_RSP_TIME
+                );
+            } else {
+                timeouts.cancel (c);
+            }
+            c.setState (State.RESPONSE);
+        }
     }
 
     // called after response has been sent
     void responseCompleted (HttpConnection c) {
         assert c.getState() == State.RESPONSE;
-        rspConnections.remove (c);
-        c.setState (State.IDLE);
+        TimeoutWheel timeouts = c.dispatcher.timeouts;
+        synchronized (timeouts) {
+            timeouts.cancel (c);
+            c.setState (State.IDLE);
+        }
     }
 
     /**
-     * TimerTask run every CLOCK_TICK ms
+     * TimerTask run every WHEEL_TICK ms. Closes the connections whose
+     * idle, request or response timeout has expired.
+     * The dispatcher changes a connection's state and deadline while
+     * holding the wheel lock, so the timer re-checks each expired
+     * connection and closes it under that same lock; a connection that
+     * has moved on since it expired is left alone.
      */
     class ServerTimerTask extends TimerTask {
         public void run () {
-            LinkedList<HttpConnection> toClose = new LinkedList<HttpConnection>();
+            ArrayList<HttpConnection> expired = new ArrayList<HttpConnection>();
             time = System.currentTimeMillis();
             ticks ++;
-            synchronized (idleConnections) {
-                for (HttpConnection c : idleConnections) {
-                    if (c.time <= time) {
-                        toClose.add (c);
-                    }
-                }
-                for (HttpConnection c : toClose) {
-                    idleConnections.remove (c);
-                    allConnections.remove (c);
-                    c.close();
-                }
-            }
-        }
-    }
-
-    class ServerTimerTask1 extends TimerTask {
-
-        // runs every TIMER_MILLIS
-        public void run () {
-            LinkedList<HttpConnection> toClose = new LinkedList<HttpConnection>();
-            time = System.currentTimeMillis();
-            synchronized (reqConnections) {
-                if (MAX_REQ_TIME != -1) {
-                    for (HttpConnection c : reqConnections) {
-                        if (c.creationTime + TIMER_MILLIS + MAX_REQ_TIME <= time) {
-                            toClose.add (c);
+            for (Dispatcher d : selectors) {
+                d.timeouts.expire (time, expired);
+                for (HttpConnection c : expired) {
+                    synchronized (d.timeouts) {
+                        if (!d.timeouts.isExpired (c, time)) {
+                            /* rescheduled or cancelled since it expired */
+                            continue;
                         }
-                    }
-                    for (HttpConnection c : toClose) {
-                        logger.log (Level.DEBUG, "closing: no request: " + c);
-                        reqConnections.remove (c);
-                        allConnections.remove (c);
-                        c.close();
-                    }
-                }
-            }
-            toClose = new LinkedList<HttpConnection>();
-            synchronized (rspConnections) {
-                if (MAX_RSP_TIME != -1) {
-                    for (HttpConnection c : rspConnections) {
-                        if (c.rspStartedTime + TIMER_MILLIS +MAX_RSP_TIME <= time) {
-                            toClose.add (c);
+                        switch (c.getState()) {
+                        case IDLE:
+                            if (!d.idleConnections.remove (c)) {
+                                /* the dispatcher has just picked it up */
+                                continue;
+                            }
+                            break;
+                        case REQUEST:
+                            logger.log (Level.DEBUG, "closing: no request: " + c);
+                            break;
+                        case RESPONSE:
+                            logger.log (Level.DEBUG, "closing: no response: " + c);
+                            break;
                         }
-                    }
-                    for (HttpConnection c : toClose) {
-                        logger.log (Level.DEBUG, "closing: no response: " + c);
-                        rspConnections.remove (c);
-                        allConnections.remove (c);
+                        d.allConnections.remove (c);
                         c.close();
                     }
                 }
+                expired.clear();
             }
         }
     }
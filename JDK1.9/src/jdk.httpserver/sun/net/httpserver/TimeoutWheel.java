@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package sun.net.httpserver;
+
+import java.util.List;
+
+/**
+ * A hashed timing wheel holding the pending timeout of each connection.
+ * Every connection has at most one deadline at a time (idle, request or
+ * response, depending on its state), so the connection itself is the list
+ * node and scheduling, rescheduling or cancelling it is O(1).
+ * {@link #expire} only visits the slots for the ticks that have elapsed,
+ * so its cost is proportional to the number of expired connections plus
+ * the few whose deadline lies a full revolution or more in the future.
+ */
+class TimeoutWheel {
+
+    private final HttpConnection[] slots;
+    private final int mask;
+    private final long tickMillis;
+    private long currentTick; /* last tick that was expired */
+    private int size;
+
+    /**
+     * @param nslots number of slots, rounded up to a power of two
+     * @param tickMillis the resolution of the wheel
+     * @param now the current time in milliseconds
+     */
+    TimeoutWheel (int nslots, long tickMillis, long now) {
+        int n = 1;
+        while (n < nslots) {
+            n <<= 1;
+        }
+        this.slots = new HttpConnection [n];
+        this.mask = n - 1;
+        this.tickMillis = tickMillis;
+        this.currentTick = now / tickMillis;
+    }
+
+    /**
+     * Sets the deadline of the given connection, replacing any
+     * deadline it already had.
+     */
+    synchronized void schedule (HttpConnection c, long deadline) {
+        if (c.wheelSlot != -1) {
+            unlink (c);
+        }
+        /* round up, so the connection is never seen before its deadline */
+        long tick = (deadline + tickMillis - 1) / tickMillis;
+        if (tick <= currentTick) {
+            tick = currentTick + 1;
+        }
+        int slot = (int)(tick & mask);
+        HttpConnection head = slots[slot];
+        c.deadline = deadline;
+        c.wheelSlot = slot;
+        c.wheelPrev = null;
+        c.wheelNext = head;
+        if (head != null) {
+            head.wheelPrev = c;
+        }
+        slots[slot] = c;
+        size ++;
+    }
+
+    /**
+     * Removes the deadline of the given connection, if it has one.
+     */
+    synchronized void cancel (HttpConnection c) {
+        if (c.wheelSlot != -1) {
+            unlink (c);
+        }
+        c.deadline = Long.MAX_VALUE;
+    }
+
+    /**
+     * Removes every connection whose deadline is not after {@code now}
+     * and adds it to {@code expired}, recording the state it expired in.
+     */
+    synchronized void expire (long now, List<HttpConnection> expired) {
+        long nowTick = now / tickMillis;
+        long ticks = nowTick - currentTick;
+        if (ticks > slots.length) {
+            /* one revolution visits every slot */
+            ticks = slots.length;
+        }
+        for (long t = nowTick - ticks + 1; t <= nowTick; t++) {
+            HttpConnection c = slots[(int)(t & mask)];
+            while (c != null) {
+                HttpConnection next = c.wheelNext;
+                if (c.deadline <= now) {
+                    unlink (c);
+                    c.expiredState = c.getState();
+                    expired.add (c);
+                }
+                c = next;
+            }
+        }
+        if (nowTick > currentTick) {
+            currentTick = nowTick;
+        }
+    }
+
+    /**
+     * Returns true if the given connection, returned by {@link #expire},
+     * has not been rescheduled or cancelled since and is still in the
+     * state it expired in. The caller must hold the lock on this wheel
+     * for as long as it acts on the answer.
+     */
+    boolean isExpired (HttpConnection c, long now) {
+        assert Thread.holdsLock (this);
+        return c.wheelSlot == -1 && c.deadline <= now
+            && c.getState() == c.expiredState;
+    }
+
+    synchronized int size () {
+        return size;
+    }
+
+    private void unlink (HttpConnection c) {
+        HttpConnection prev = c.wheelPrev;
+        HttpConnection next = c.wheelNext;
+        if (prev == null) {
+            slots[c.wheelSlot] = next;
+        } else {
+            prev.wheelNext = next;
+        }
+        if (next != null) {
+            next.wheelPrev = prev;
+        }
+        c.wheelPrev = c.wheelNext = null;
+        c.wheelSlot = -1;
+        size --;
+    }
+}
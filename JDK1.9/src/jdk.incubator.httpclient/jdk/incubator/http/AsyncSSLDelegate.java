@@ -146,12 +146,22 @@ class AsyncSSLDelegate implements ExceptionallyCloseable, AsyncConnection {
 
     @Override
     public void writeAsync(ByteBufferReference[] src) throws IOException {
-        appOutputQ.put(src);
+        try {
+            appOutputQ.put(src);
+        } catch (IOException e) {
+            ByteBufferReference.clear(src);
+            throw e;
+        }
     }
 
     @Override
     public void writeAsyncUnordered(ByteBufferReference[] buffers) throws IOException {
-        appOutputQ.putFirst(buffers);
+        try {
+            appOutputQ.putFirst(buffers);
+        } catch (IOException e) {
+            ByteBufferReference.clear(buffers);
+            throw e;
+        }
     }
 
     @Override
@@ -219,10 +229,12 @@ class AsyncSSLDelegate implements ExceptionallyCloseable, AsyncConnection {
                     doHandshakeNow("Write");
                 }
             }
-            ByteBufferReference.clear(refs);
         } catch (Throwable t) {
             closeExceptionally(t);
             errorHandler.accept(t);
+        } finally {
+            // wrapped (or abandoned), release them to their pool
+            ByteBufferReference.clear(refs);
         }
     }
 
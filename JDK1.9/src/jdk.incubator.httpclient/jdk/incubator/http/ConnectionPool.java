@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2016, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2017, Oracle and/or its affiliates. All rights reserved.
  * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
  *
  *
@@ -26,25 +26,46 @@
 package jdk.incubator.http;
 
 import java.net.InetSocketAddress;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.ListIterator;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.incubator.http.internal.common.Log;
 import jdk.incubator.http.internal.common.Utils;
 
 /**
  * Http 1.1 connection pool.
+ *
+ * Idle connections are kept in a lock-free deque per destination, most
+ * recently returned first, so that the oldest connections are at the tail
+ * where the cleaner looks for them. Expired connections are purged by a
+ * {@link TimeoutEvent} registered with the client's selector manager
+ * thread, which is only armed while the pool holds connections.
  */
-final class ConnectionPool {
+final class ConnectionPool implements HttpClient.ConnectionPoolStatistics {
 
     static final long KEEP_ALIVE = Utils.getIntegerNetProperty(
             "jdk.httpclient.keepalive.timeout", 1200); // seconds
+    static final int MAX_IDLE_PER_HOST = Utils.getIntegerNetProperty(
+            "jdk.httpclient.maxIdleConnectionsPerHost", 0); // 0 == unlimited
 
     // Pools of idle connections
 
-    final HashMap<CacheKey,LinkedList<HttpConnection>> plainPool;
-    final HashMap<CacheKey,LinkedList<HttpConnection>> sslPool;
-    CacheCleaner cleaner;
+    final ConcurrentHashMap<CacheKey,Pool> plainPool;
+    final ConcurrentHashMap<CacheKey,Pool> sslPool;
+
+    private final HttpClientImpl client;
+    private final int maxIdlePerHost;
+    private final long idleTimeout; // millis
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicBoolean cleanerScheduled = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
 
     /**
      * Entries in connection pool are keyed by destination address and/or
@@ -89,22 +110,41 @@ final class ConnectionPool {
 
     static class ExpiryEntry {
         final HttpConnection connection;
-        final long expiry; // absolute time in seconds of expiry time
+        final long expiry; // absolute time in millis of expiry time
         ExpiryEntry(HttpConnection connection, long expiry) {
             this.connection = connection;
             this.expiry = expiry;
         }
     }
 
-    final LinkedList<ExpiryEntry> expiryList;
+    /**
+     * The idle connections to one destination. The size is tracked
+     * separately as ConcurrentLinkedDeque.size() is not constant time.
+     */
+    static final class Pool {
+        final ConcurrentLinkedDeque<ExpiryEntry> entries =
+                new ConcurrentLinkedDeque<>();
+        final AtomicInteger size = new AtomicInteger();
+    }
 
     /**
      * There should be one of these per HttpClient.
+     *
+     * @param maxIdlePerHost the maximum number of idle connections kept per
+     *        destination, or 0 for no limit
+     * @param idleTimeout how long an idle connection is kept, or null
+     *        for the default
      */
-    ConnectionPool() {
-        plainPool = new HashMap<>();
-        sslPool = new HashMap<>();
-        expiryList = new LinkedList<>();
+    ConnectionPool(HttpClientImpl client, int maxIdlePerHost,
+                   Duration idleTimeout) {
+        this.client = client;
+        this.maxIdlePerHost = maxIdlePerHost > 0 ? maxIdlePerHost
+                : MAX_IDLE_PER_HOST > 0 ? MAX_IDLE_PER_HOST
+                : Integer.MAX_VALUE;
+        this.idleTimeout = idleTimeout != null ? idleTimeout.toMillis()
+                : KEEP_ALIVE * 1000;
+        plainPool = new ConcurrentHashMap<>();
+        sslPool = new ConcurrentHashMap<>();
     }
 
     void start() {
@@ -116,12 +156,17 @@ final class ConnectionPool {
         return new CacheKey(destination, proxy);
     }
 
-    synchronized HttpConnection getConnection(boolean secure,
-                                              InetSocketAddress addr,
-                                              InetSocketAddress proxy) {
+    HttpConnection getConnection(boolean secure,
+                                 InetSocketAddress addr,
+                                 InetSocketAddress proxy) {
         CacheKey key = new CacheKey(addr, proxy);
         HttpConnection c = secure ? findConnection(key, sslPool)
                                   : findConnection(key, plainPool);
+        if (c == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
         //System.out.println ("getConnection returning: " + c);
         return c;
     }
@@ -129,147 +174,133 @@ final class ConnectionPool {
     /**
      * Returns the connection to the pool.
      */
-    synchronized void returnToPool(HttpConnection conn) {
-        if (conn instanceof PlainHttpConnection) {
-            putConnection(conn, plainPool);
-        } else {
-            putConnection(conn, sslPool);
+    void returnToPool(HttpConnection conn) {
+        ConcurrentHashMap<CacheKey,Pool> pool =
+                conn instanceof PlainHttpConnection ? plainPool : sslPool;
+        Pool p = pool.computeIfAbsent(conn.cacheKey(), k -> new Pool());
+        if (p.size.incrementAndGet() > maxIdlePerHost) {
+            p.size.decrementAndGet();
+            evictions.increment();
+            conn.close();
+            return;
         }
-        addToExpiryList(conn);
+        long expiry = System.currentTimeMillis() + idleTimeout;
+        p.entries.offerFirst(new ExpiryEntry(conn, expiry));
+        idleCount.incrementAndGet();
+        scheduleCleaner(idleTimeout);
         //System.out.println("Return to pool: " + conn);
     }
 
     private HttpConnection
-    findConnection(CacheKey key,
-                   HashMap<CacheKey,LinkedList<HttpConnection>> pool) {
-        LinkedList<HttpConnection> l = pool.get(key);
-        if (l == null || l.size() == 0) {
+    findConnection(CacheKey key, ConcurrentHashMap<CacheKey,Pool> pool) {
+        Pool p = pool.get(key);
+        if (p == null) {
             return null;
-        } else {
-            HttpConnection c = l.removeFirst();
-            removeFromExpiryList(c);
-            return c;
         }
+        ExpiryEntry e;
+        while ((e = p.entries.pollFirst()) != null) {
+            p.size.decrementAndGet();
+            idleCount.decrementAndGet();
+            HttpConnection c = e.connection;
+            if (c.isOpen()) {
+                return c;
+            }
+            // closed by the server while idle
+            evictions.increment();
+            c.close();
+        }
+        return null;
     }
 
-    /* called from cache cleaner only  */
-    private void
-    removeFromPool(HttpConnection c,
-                   HashMap<CacheKey,LinkedList<HttpConnection>> pool) {
-        //System.out.println("cacheCleaner removing: " + c);
-        LinkedList<HttpConnection> l = pool.get(c.cacheKey());
-        assert l != null;
-        boolean wasPresent = l.remove(c);
-        assert wasPresent;
-    }
-
-    private void
-    putConnection(HttpConnection c,
-                  HashMap<CacheKey,LinkedList<HttpConnection>> pool) {
-        CacheKey key = c.cacheKey();
-        LinkedList<HttpConnection> l = pool.get(key);
-        if (l == null) {
-            l = new LinkedList<>();
-            pool.put(key, l);
+    /**
+     * Arms the cleaner timer, unless it is already armed.
+     */
+    private void scheduleCleaner(long millis) {
+        if (cleanerScheduled.compareAndSet(false, true)) {
+            client.registerTimer(new CacheCleaner(Duration.ofMillis(millis)));
         }
-        l.add(c);
     }
 
-    // only runs while entries exist in cache
-
-    final class CacheCleaner extends Thread {
+    // only registered while entries exist in cache
 
-        volatile boolean stopping;
+    final class CacheCleaner extends TimeoutEvent {
 
-        CacheCleaner() {
-            super(null, null, "HTTP-Cache-cleaner", 0, false);
-            setDaemon(true);
-        }
-
-        synchronized boolean stopping() {
-            return stopping;
-        }
-
-        synchronized void stopCleaner() {
-            stopping = true;
+        CacheCleaner(Duration duration) {
+            super(duration);
         }
 
         @Override
-        public void run() {
-            while (!stopping()) {
-                try {
-                    Thread.sleep(3000);
-                } catch (InterruptedException e) {}
-                cleanCache();
+        public void handle() {
+            cleanerScheduled.set(false);
+            long next = cleanCache();
+            if (next != Long.MAX_VALUE) {
+                long delay = next - System.currentTimeMillis();
+                scheduleCleaner(delay < 1 ? 1 : delay);
             }
         }
-    }
 
-    synchronized void removeFromExpiryList(HttpConnection c) {
-        if (c == null) {
-            return;
-        }
-        ListIterator<ExpiryEntry> li = expiryList.listIterator();
-        while (li.hasNext()) {
-            ExpiryEntry e = li.next();
-            if (e.connection.equals(c)) {
-                li.remove();
-                return;
-            }
-        }
-        if (expiryList.isEmpty()) {
-            cleaner.stopCleaner();
-            cleaner = null;
+        @Override
+        public String toString() {
+            return "CacheCleaner: " + super.toString();
         }
     }
 
-    private void cleanCache() {
-        long now = System.currentTimeMillis() / 1000;
-        LinkedList<HttpConnection> closelist = new LinkedList<>();
+    /**
+     * Closes the expired connections and returns the earliest expiry
+     * time of those that remain, or Long.MAX_VALUE if there are none.
+     */
+    private long cleanCache() {
+        long now = System.currentTimeMillis();
+        long next = Long.MAX_VALUE;
+        next = Math.min(next, cleanCache(plainPool, now));
+        next = Math.min(next, cleanCache(sslPool, now));
+        return next;
+    }
 
-        synchronized (this) {
-            ListIterator<ExpiryEntry> li = expiryList.listIterator();
+    private long cleanCache(ConcurrentHashMap<CacheKey,Pool> pool, long now) {
+        long next = Long.MAX_VALUE;
+        for (Pool p : pool.values()) {
+            Iterator<ExpiryEntry> li = p.entries.descendingIterator();
             while (li.hasNext()) {
                 ExpiryEntry entry = li.next();
-                if (entry.expiry <= now) {
-                    li.remove();
-                    HttpConnection c = entry.connection;
-                    closelist.add(c);
-                    if (c instanceof PlainHttpConnection) {
-                        removeFromPool(c, plainPool);
-                    } else {
-                        removeFromPool(c, sslPool);
-                    }
+                if (entry.expiry > now) {
+                    // entries are newest first, so the rest are younger
+                    next = Math.min(next, entry.expiry);
+                    break;
+                }
+                // lost the race if a caller has just taken it
+                if (p.entries.removeLastOccurrence(entry)) {
+                    p.size.decrementAndGet();
+                    idleCount.decrementAndGet();
+                    evictions.increment();
+                    Log.logTrace("ConnectionPool: closing idle {0}",
+                                 entry.connection);
+                    entry.connection.close();
                 }
             }
         }
-        for (HttpConnection c : closelist) {
-            //System.out.println ("KAC: closing " + c);
-            c.close();
-        }
+        return next;
     }
 
-    private synchronized void addToExpiryList(HttpConnection conn) {
-        long now = System.currentTimeMillis() / 1000;
-        long then = now + KEEP_ALIVE;
+    // HttpClient.ConnectionPoolStatistics
 
-        if (expiryList.isEmpty()) {
-            cleaner = new CacheCleaner();
-            cleaner.start();
-        }
+    @Override
+    public long hits() {
+        return hits.sum();
+    }
 
-        ListIterator<ExpiryEntry> li = expiryList.listIterator();
-        while (li.hasNext()) {
-            ExpiryEntry entry = li.next();
+    @Override
+    public long misses() {
+        return misses.sum();
+    }
 
-            if (then > entry.expiry) {
-                li.previous();
-                // insert here
-                li.add(new ExpiryEntry(conn, then));
-                return;
-            }
-        }
-        // first element of list
-        expiryList.add(new ExpiryEntry(conn, then));
+    @Override
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public int idleConnections() {
+        return idleCount.get();
     }
 }
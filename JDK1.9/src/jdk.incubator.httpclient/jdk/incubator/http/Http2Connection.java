@@ -91,8 +91,8 @@ class Http2Connection  {
      *    in case of SSL connection.
      *
      * 1. Outgoing frames encoded to ByteBuffers.
-     *    Outgoing ByteBuffers are created with requited size and frequently small (except DataFrames, etc)
-     *    At this place no pools at all. All outgoing buffers should be collected by GC.
+     *    Outgoing ByteBuffers are frequently small (except DataFrames, etc)
+     *    and are taken from the encoder's pool; they are released once written.
      *
      * 2. Incoming ByteBuffers (decoded to frames).
      *    Here, total elimination of BB pool is not a good idea.
@@ -100,8 +100,9 @@ class Http2Connection  {
      * So here we allocate buffer of reasonable size. The following life of the BB:
      * - If all frames decoded from the BB are other than DataFrame and HeaderFrame (and HeaderFrame subclasses)
      *     BB is returned to pool,
-     * - If we decoded DataFrame from the BB. In that case DataFrame refers to subbuffer obtained by slice() method.
-     *     Such BB is never returned to pool and will be GCed.
+     * - If we decoded DataFrame from the BB. In that case DataFrame refers to subbuffer obtained by
+     *     ByteBufferReference.slice(). Such BB is returned to pool when the last of its slices has been
+     *     consumed by the Stream (the payload is handed to the BodyProcessor without copying).
      * - If we decoded HeadersFrame from the BB. Then header decoding is performed inside processFrame method and
      *     the buffer could be release to pool.
      *
@@ -178,7 +179,7 @@ class Http2Connection  {
     private volatile SettingsFrame serverSettings;
     private final String key; // for HttpClientImpl.connections map
     private final FramesDecoder framesDecoder;
-    private final FramesEncoder framesEncoder = new FramesEncoder();
+    private final FramesEncoder framesEncoder = new FramesEncoder(new ByteBufferPool());
 
     /**
      * Send Window controller for both connection and stream windows.
@@ -480,6 +481,9 @@ class Http2Connection  {
                 if (!(frame instanceof ResetFrame)) {
                     resetStream(streamid, ResetFrame.PROTOCOL_ERROR);
                 }
+                if (frame instanceof DataFrame) {
+                    ByteBufferReference.clear(((DataFrame) frame).getData());
+                }
                 return;
             }
             if (frame instanceof PushPromiseFrame) {
@@ -31,6 +31,7 @@ import java.net.CookieManager;
 import java.net.InetSocketAddress;
 import java.net.ProxySelector;
 import java.net.URI;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -200,6 +201,34 @@ public abstract class HttpClient {
          */
         public abstract Builder authenticator(Authenticator a);
 
+        /**
+         * Sets the maximum number of idle HTTP/1.1 connections that the
+         * client keeps open for reuse to any one destination. Connections
+         * released when this many are already idle are closed. If not set,
+         * the number is unlimited unless the
+         * {@code jdk.httpclient.maxIdleConnectionsPerHost} networking
+         * property specifies otherwise.
+         *
+         * @param max the maximum number of idle connections per destination
+         * @return this builder
+         * @throws IllegalArgumentException if {@code max} is less than one
+         * @since 10
+         */
+        public abstract Builder maxIdleConnectionsPerHost(int max);
+
+        /**
+         * Sets how long an idle HTTP/1.1 connection is kept open for reuse
+         * before the client closes it. If not set, the value of the
+         * {@code jdk.httpclient.keepalive.timeout} networking property,
+         * in seconds, is used.
+         *
+         * @param timeout the idle timeout
+         * @return this builder
+         * @throws IllegalArgumentException if the timeout is zero or negative
+         * @since 10
+         */
+        public abstract Builder connectionIdleTimeout(Duration timeout);
+
         /**
          * Returns a {@link HttpClient} built from the current state of this
          * builder.
@@ -283,6 +312,56 @@ public abstract class HttpClient {
      */
     public abstract Executor executor();
 
+    /**
+     * Returns the statistics of this client's HTTP/1.1 connection pool.
+     * The returned object is live: its counters reflect the state of the
+     * pool at the time each method is called.
+     *
+     * @return this client's connection pool statistics
+     * @since 10
+     */
+    public abstract ConnectionPoolStatistics connectionPoolStatistics();
+
+    /**
+     * Counters describing how the HTTP/1.1 connections of a client are reused.
+     * {@Incubating}
+     *
+     * @since 10
+     */
+    public interface ConnectionPoolStatistics {
+
+        /**
+         * Returns the number of requests that reused an idle connection.
+         *
+         * @return the number of pool hits
+         */
+        long hits();
+
+        /**
+         * Returns the number of requests that found no idle connection to
+         * their destination and had to open a new one.
+         *
+         * @return the number of pool misses
+         */
+        long misses();
+
+        /**
+         * Returns the number of idle connections that were closed by the
+         * pool, because they timed out, were found closed, or exceeded the
+         * per destination limit.
+         *
+         * @return the number of evicted connections
+         */
+        long evictions();
+
+        /**
+         * Returns the number of connections currently idle in the pool.
+         *
+         * @return the number of idle connections
+         */
+        int idleConnections();
+    }
+
     /**
      * The HTTP protocol version.
      * {@Incubating}
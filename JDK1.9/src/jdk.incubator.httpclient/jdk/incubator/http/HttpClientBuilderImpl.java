@@ -28,6 +28,7 @@ package jdk.incubator.http;
 import java.net.Authenticator;
 import java.net.CookieManager;
 import java.net.ProxySelector;
+import java.time.Duration;
 import java.util.concurrent.Executor;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
@@ -46,6 +47,8 @@ class HttpClientBuilderImpl extends HttpClient.Builder {
     SSLContext sslContext;
     SSLParameters sslParams;
     int priority = -1;
+    int maxIdleConnectionsPerHost;
+    Duration connectionIdleTimeout;
 
     @Override
     public HttpClientBuilderImpl cookieManager(CookieManager cookieManager) {
@@ -120,6 +123,25 @@ class HttpClientBuilderImpl extends HttpClient.Builder {
         return this;
     }
 
+    @Override
+    public HttpClientBuilderImpl maxIdleConnectionsPerHost(int max) {
+        if (max < 1) {
+            throw new IllegalArgumentException("max must be at least 1");
+        }
+        this.maxIdleConnectionsPerHost = max;
+        return this;
+    }
+
+    @Override
+    public HttpClientBuilderImpl connectionIdleTimeout(Duration timeout) {
+        requireNonNull(timeout);
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        this.connectionIdleTimeout = timeout;
+        return this;
+    }
+
     @Override
     public HttpClient build() {
         return HttpClientImpl.create(this);
@@ -135,9 +135,11 @@ class HttpClientImpl extends HttpClient {
         } else {
             sslParams = builder.sslParams;
         }
-        connections = new ConnectionPool();
-        connections.start();
         timeouts = new TreeSet<>();
+        connections = new ConnectionPool(this,
+                                         builder.maxIdleConnectionsPerHost,
+                                         builder.connectionIdleTimeout);
+        connections.start();
         try {
             selmgr = new SelectorManager(this);
         } catch (IOException e) {
@@ -539,6 +541,11 @@ class HttpClientImpl extends HttpClient {
         return connections;
     }
 
+    @Override
+    public ConnectionPoolStatistics connectionPoolStatistics() {
+        return connections;
+    }
+
     @Override
     public Redirect followRedirects() {
         return followRedirects;
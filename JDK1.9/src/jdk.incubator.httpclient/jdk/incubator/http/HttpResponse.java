@@ -415,6 +415,10 @@ public abstract class HttpResponse<T> {
      * read then it completes after the body has been read. If {@code T} is a streaming
      * type such as {@link java.io.InputStream} then it completes before the
      * body has been read, because the calling code uses it to consume the data.
+     * <p>
+     * The buffers passed to {@link #onNext(Object) onNext} may be reused by the
+     * implementation once that method returns. A processor which needs the
+     * data afterwards must copy it.
      *
      * @param <T> the response body type
      */
@@ -429,6 +433,19 @@ public abstract class HttpResponse<T> {
          */
         public CompletionStage<T> getBody();
 
+        /**
+         * {@inheritDoc}
+         * <p>
+         * The buffer may be returned to a pool and reused by the
+         * implementation as soon as this method returns, so it must not be
+         * read, written or retained afterwards. A processor which needs the
+         * data later must copy it before returning.
+         *
+         * @param item {@inheritDoc}
+         */
+        @Override
+        public void onNext(ByteBuffer item);
+
         /**
          * Returns a body processor which stores the response body as a {@code
          * String} converted using the given {@code Charset}.
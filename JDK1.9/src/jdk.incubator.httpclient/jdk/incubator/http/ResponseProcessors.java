@@ -187,11 +187,12 @@ class ResponseProcessors {
 
         @Override
         public void onNext(ByteBuffer item) {
-            // incoming buffers are allocated by http client internally,
-            // and won't be used anywhere except this place.
-            // So it's free simply to store them for further processing.
+            // incoming buffers may be reused by the http client once
+            // this method returns, so their content has to be copied.
             if(item.hasRemaining()) {
-                received.add(item);
+                ByteBuffer copy = ByteBuffer.allocate(item.remaining());
+                copy.put(item).flip();
+                received.add(copy);
             }
         }
 
@@ -133,11 +133,13 @@ class SSLConnection extends HttpConnection {
     @Override
     void writeAsync(ByteBufferReference[] buffers) throws IOException {
         write(ByteBufferReference.toBuffers(buffers), 0, buffers.length);
+        ByteBufferReference.clear(buffers);
     }
 
     @Override
     void writeAsyncUnordered(ByteBufferReference[] buffers) throws IOException {
         write(ByteBufferReference.toBuffers(buffers), 0, buffers.length);
+        ByteBufferReference.clear(buffers);
     }
 
     @Override
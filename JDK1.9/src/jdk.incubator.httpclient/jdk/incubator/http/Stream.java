@@ -201,11 +201,17 @@ class Stream<T> extends ExchangeImpl<T> {
         // including the Pad Length and Padding fields if present
         int len = df.payloadLength();
         ByteBufferReference[] buffers = df.getData();
-        for (ByteBufferReference b : buffers) {
-            ByteBuffer buf = b.get();
-            if (buf.hasRemaining()) {
-                publisher.acceptData(Optional.of(buf));
+        try {
+            for (ByteBufferReference b : buffers) {
+                ByteBuffer buf = b.get();
+                if (buf.hasRemaining()) {
+                    publisher.acceptData(Optional.of(buf));
+                }
             }
+        } finally {
+            // the buffers are slices of the connection's read buffers,
+            // which are reused once all their slices have been cleared
+            ByteBufferReference.clear(buffers);
         }
         connection.windowUpdater.update(len);
         if (df.getFlag(DataFrame.END_STREAM)) {
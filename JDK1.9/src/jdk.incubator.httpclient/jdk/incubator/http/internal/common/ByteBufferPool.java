@@ -24,37 +24,203 @@
  */
 package jdk.incubator.http.internal.common;
 
+import java.lang.ref.Cleaner;
 import java.nio.ByteBuffer;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The class provides reuse of ByteBuffers.
- * It is supposed that all requested buffers have the same size for a long period of time.
- * That is why there is no any logic splitting buffers into different buckets (by size). It's unnecessary.
  *
- * At the same moment it is allowed to change requested buffers size (all smaller buffers will be discarded).
- * It may be needed for example, if after rehandshaking netPacketBufferSize was changed.
+ * Buffers are kept in power-of-two size classes, so a pool may be shared
+ * between users requesting different sizes; a request is served from the
+ * smallest class that fits it and the returned buffer may be larger than
+ * requested. If the requested size changes (for example after rehandshaking
+ * netPacketBufferSize was changed) the buffers of the old size stay available
+ * for requests they still fit.
+ *
+ * The total capacity of the pooled (not handed out) buffers is bounded:
+ * a released buffer which would exceed the bound is simply dropped.
+ * Requests larger than the biggest size class are not pooled at all.
+ *
+ * Optionally a pool may keep a small per-thread cache for each of the
+ * smaller size classes, which avoids the shared queues when a buffer is
+ * released by the thread that acquired it, and may hand out direct buffers.
+ *
+ * Properties:
+ *   jdk.httpclient.bufferpool.capacity      - bound in bytes (default 4MB)
+ *   jdk.httpclient.bufferpool.direct        - direct buffers (default false)
+ *   jdk.httpclient.bufferpool.threadCache   - per-thread caches (default false)
+ *   jdk.httpclient.bufferpool.leakDetection - report references which were
+ *                                             garbage collected without being
+ *                                             cleared (default false)
  */
 public class ByteBufferPool {
 
-    private final java.util.Queue<ByteBuffer> pool = new ConcurrentLinkedQueue<>();
+    static final int DEFAULT_CAPACITY =
+            Utils.getIntegerNetProperty("jdk.httpclient.bufferpool.capacity",
+                                        4 * 1024 * 1024);
+    static final boolean DEFAULT_DIRECT =
+            getBooleanProperty("jdk.httpclient.bufferpool.direct");
+    static final boolean DEFAULT_THREAD_CACHE =
+            getBooleanProperty("jdk.httpclient.bufferpool.threadCache");
+    static final boolean LEAK_DETECTION =
+            getBooleanProperty("jdk.httpclient.bufferpool.leakDetection");
+
+    private static final int MIN_SHIFT = 4;   // 16 bytes
+    private static final int MAX_SHIFT = 24;  // 16 MB, the largest HTTP/2 frame
+    private static final int NCLASSES = MAX_SHIFT - MIN_SHIFT + 1;
+
+    // per-thread caches only hold the classes up to 64K, a few of each
+    private static final int MAX_CACHED_SHIFT = 16;
+    private static final int THREAD_CACHE_SIZE = 2;
+    private static final int THREAD_CACHE_CLASSES = MAX_CACHED_SHIFT - MIN_SHIFT + 1;
+
+    private static Cleaner cleaner;
+
+    private final ConcurrentLinkedQueue<ByteBuffer>[] classes;
+    private final long capacity;
+    private final boolean direct;
+    private final ThreadLocal<ByteBuffer[][]> threadCache;
+    private final AtomicLong pooledBytes = new AtomicLong();
+
+    private final LongAdder allocated = new LongAdder();
+    private final LongAdder reused = new LongAdder();
 
     public ByteBufferPool() {
+        this(DEFAULT_CAPACITY, DEFAULT_DIRECT, DEFAULT_THREAD_CACHE);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param capacity maximal total capacity, in bytes, of the pooled buffers
+     * @param direct whether direct buffers are allocated
+     * @param threadCache whether a per-thread cache is used
+     */
+    public ByteBufferPool(long capacity, boolean direct, boolean threadCache) {
+        this.capacity = capacity;
+        this.direct = direct;
+        @SuppressWarnings("unchecked")
+        ConcurrentLinkedQueue<ByteBuffer>[] classes =
+                (ConcurrentLinkedQueue<ByteBuffer>[]) new ConcurrentLinkedQueue<?>[NCLASSES];
+        this.classes = classes;
+        for (int i = 0; i < NCLASSES; i++) {
+            classes[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.threadCache = threadCache
+                ? ThreadLocal.withInitial(() ->
+                        new ByteBuffer[THREAD_CACHE_CLASSES][THREAD_CACHE_SIZE])
+                : null;
     }
 
     public ByteBufferReference get(int size) {
-        ByteBuffer buffer;
-        while ((buffer = pool.poll()) != null) {
-            if (buffer.capacity() >= size) {
-                return ByteBufferReference.of(buffer, this);
+        int index = sizeClass(size);
+        if (index < 0) {
+            // too big to be pooled
+            allocated.increment();
+            return ByteBufferReference.of(allocate(size));
+        }
+        ByteBuffer buffer = null;
+        if (threadCache != null && index < THREAD_CACHE_CLASSES) {
+            ByteBuffer[] cache = threadCache.get()[index];
+            for (int i = 0; i < cache.length; i++) {
+                if (cache[i] != null) {
+                    buffer = cache[i];
+                    cache[i] = null;
+                    break;
+                }
             }
         }
-        return ByteBufferReference.of(ByteBuffer.allocate(size), this);
+        if (buffer == null) {
+            buffer = classes[index].poll();
+            if (buffer != null) {
+                pooledBytes.addAndGet(-buffer.capacity());
+            }
+        }
+        if (buffer == null) {
+            allocated.increment();
+            buffer = allocate(1 << (index + MIN_SHIFT));
+        } else {
+            reused.increment();
+        }
+        ByteBufferReference ref = ByteBufferReference.of(buffer, this);
+        if (LEAK_DETECTION) {
+            ref.trackLeaks(cleaner());
+        }
+        return ref;
     }
 
     public void release(ByteBuffer buffer) {
         buffer.clear();
-        pool.offer(buffer);
+        int cap = buffer.capacity();
+        if (buffer.isDirect() != direct || Integer.bitCount(cap) != 1) {
+            return; // not one of ours
+        }
+        int index = sizeClass(cap);
+        if (index < 0) {
+            return;
+        }
+        if (threadCache != null && index < THREAD_CACHE_CLASSES) {
+            ByteBuffer[] cache = threadCache.get()[index];
+            for (int i = 0; i < cache.length; i++) {
+                if (cache[i] == null) {
+                    cache[i] = buffer;
+                    return;
+                }
+            }
+        }
+        if (pooledBytes.addAndGet(cap) > capacity) {
+            pooledBytes.addAndGet(-cap);
+            return; // dropped
+        }
+        classes[index].offer(buffer);
+    }
+
+    /**
+     * Returns the number of buffers allocated by this pool.
+     */
+    public long allocatedCount() {
+        return allocated.sum();
+    }
+
+    /**
+     * Returns the number of requests served with a pooled buffer.
+     */
+    public long reusedCount() {
+        return reused.sum();
+    }
+
+    /**
+     * Returns the total capacity of the buffers in the shared queues.
+     */
+    public long pooledBytes() {
+        return pooledBytes.get();
+    }
+
+    private ByteBuffer allocate(int size) {
+        return direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+
+    // index of the smallest class holding size bytes, or -1 if too big
+    private static int sizeClass(int size) {
+        if (size <= (1 << MIN_SHIFT)) {
+            return 0;
+        }
+        int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+        return shift > MAX_SHIFT ? -1 : shift - MIN_SHIFT;
     }
 
+    private static synchronized Cleaner cleaner() {
+        if (cleaner == null) {
+            cleaner = Cleaner.create();
+        }
+        return cleaner;
+    }
+
+    private static boolean getBooleanProperty(String name) {
+        String s = Utils.getNetProperty(name);
+        return s != null && (s.isEmpty() || Boolean.parseBoolean(s));
+    }
 }
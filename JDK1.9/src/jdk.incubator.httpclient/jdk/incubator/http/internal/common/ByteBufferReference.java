@@ -24,17 +24,50 @@
  */
 package jdk.incubator.http.internal.common;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.Cleaner;
 import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * A reference to a ByteBuffer, possibly borrowed from a {@link ByteBufferPool}.
+ *
+ * A reference is cleared exactly once, after which its buffer must not be
+ * used. A pooled buffer may be split into several references with
+ * {@link #slice(int)}: the slices share the buffer with the reference they
+ * were taken from, and the buffer returns to its pool only when all of them
+ * (and the original reference) have been cleared. This lets DATA frame
+ * payloads be handed to the body processors without copying them out of
+ * the read buffers.
+ */
 public class ByteBufferReference  implements Supplier<ByteBuffer> {
 
     private ByteBuffer buffer;
     private final ByteBufferPool pool;
 
+    // the reference owning the pooled buffer: this, or the one sliced from
+    private final ByteBufferReference root;
+
+    // the fields below are only used in the root reference
+    private final ByteBuffer pooled;
+    private volatile int refCount = 1;
+    private LeakCheck leakCheck;
+    private Cleaner.Cleanable cleanable;
+
+    private static final VarHandle REFCOUNT;
+    static {
+        try {
+            REFCOUNT = MethodHandles.lookup()
+                    .findVarHandle(ByteBufferReference.class, "refCount", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new InternalError(e);
+        }
+    }
+
     public static ByteBufferReference of(ByteBuffer buffer) {
         return of(buffer, null);
     }
@@ -70,6 +103,15 @@ public class ByteBufferReference  implements Supplier<ByteBuffer> {
     private ByteBufferReference(ByteBuffer buffer, ByteBufferPool pool) {
         this.buffer = buffer;
         this.pool = pool;
+        this.root = this;
+        this.pooled = buffer;
+    }
+
+    private ByteBufferReference(ByteBuffer slice, ByteBufferReference root) {
+        this.buffer = slice;
+        this.pool = null;
+        this.root = root;
+        this.pooled = null;
     }
 
     @Override
@@ -79,12 +121,70 @@ public class ByteBufferReference  implements Supplier<ByteBuffer> {
         return buf;
     }
 
+    /**
+     * Returns a reference to the next {@code amount} bytes of this
+     * reference's buffer, and advances the buffer's position past them.
+     * The returned reference must be cleared independently of this one.
+     */
+    public ByteBufferReference slice(int amount) {
+        ByteBuffer slice = Utils.slice(get(), amount);
+        if (root.pool == null) {
+            return of(slice);
+        }
+        root.retain();
+        return new ByteBufferReference(slice, root);
+    }
+
     public void clear() {
         ByteBuffer buf = this.buffer;
         assert buf!=null : "double ByteBuffer clearance";
         this.buffer = null;
-        if (pool != null) {
-            pool.release(buf);
+        if (root.pool != null) {
+            root.release();
+        }
+    }
+
+    private void retain() {
+        int prev = (int) REFCOUNT.getAndAdd(this, 1);
+        assert prev > 0 : "retaining a released ByteBuffer";
+    }
+
+    private void release() {
+        int prev = (int) REFCOUNT.getAndAdd(this, -1);
+        assert prev > 0 : "releasing a released ByteBuffer";
+        if (prev == 1) {
+            if (cleanable != null) {
+                leakCheck.released = true;
+                cleanable.clean();
+            }
+            pool.release(pooled);
+        }
+    }
+
+    // called by the pool, before the reference is published
+    void trackLeaks(Cleaner cleaner) {
+        leakCheck = new LeakCheck(pooled.capacity());
+        cleanable = cleaner.register(this, leakCheck);
+    }
+
+    // must not refer to the reference it watches
+    private static final class LeakCheck implements Runnable {
+        final int capacity;
+        final Throwable allocation;
+        volatile boolean released;
+
+        LeakCheck(int capacity) {
+            this.capacity = capacity;
+            this.allocation = new Throwable("ByteBufferReference acquired here");
+        }
+
+        @Override
+        public void run() {
+            if (!released) {
+                Log.logError("Pooled ByteBuffer of {0} bytes was never released",
+                             capacity);
+                Log.logError(allocation);
+            }
         }
     }
 }
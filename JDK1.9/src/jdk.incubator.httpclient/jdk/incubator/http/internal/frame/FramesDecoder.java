@@ -61,8 +61,6 @@ public class FramesDecoder {
     private final java.util.Queue<ByteBufferReference> tailBuffers = new ArrayDeque<>();
     private int tailSize = 0;
 
-    private boolean slicedToDataFrame = false;
-
     private final List<ByteBufferReference> prepareToRelease = new ArrayList<>();
 
     // if true  - Frame Header was parsed (9 bytes consumed) and subsequent fields have meaning
@@ -166,10 +164,9 @@ public class FramesDecoder {
     // move next buffer from tailBuffers to currentBuffer if required
     private void nextBuffer() {
         if (!currentBuffer.get().hasRemaining()) {
-            if (!slicedToDataFrame) {
-                prepareToRelease.add(currentBuffer);
-            }
-            slicedToDataFrame = false;
+            // DATA frames hold their own references to the slices
+            // they were given, so the buffer can always be released here
+            prepareToRelease.add(currentBuffer);
             currentBuffer = tailBuffers.poll();
             if (currentBuffer != null) {
                 tailSize -= currentBuffer.get().remaining();
@@ -232,18 +229,17 @@ public class FramesDecoder {
             ByteBuffer buf = currentBuffer.get();
             int remaining = buf.remaining();
             int extract = Math.min(remaining, bytecount);
-            ByteBuffer extractedBuf;
             if (isDataFrame) {
-                extractedBuf = Utils.slice(buf, extract);
-                slicedToDataFrame = true;
+                // shares the pooled read buffer, which goes back to the
+                // pool once the frame's payload has been consumed
+                res.add(currentBuffer.slice(extract));
             } else {
                 // Header frames here
                 // HPACK decoding should performed under lock and immediately after frame decoding.
                 // in that case it is safe to release original buffer,
                 // because of sliced buffer has a very short life
-                extractedBuf = Utils.slice(buf, extract);
+                res.add(ByteBufferReference.of(Utils.slice(buf, extract)));
             }
-            res.add(ByteBufferReference.of(extractedBuf));
             bytecount -= extract;
             nextBuffer();
         }
@@ -25,6 +25,7 @@
 
 package jdk.incubator.http.internal.frame;
 
+import jdk.incubator.http.internal.common.ByteBufferPool;
 import jdk.incubator.http.internal.common.ByteBufferReference;
 import jdk.incubator.http.internal.common.Utils;
 
@@ -42,7 +43,22 @@ import java.util.List;
 public class FramesEncoder {
 
 
+    private final ByteBufferPool pool;
+
     public FramesEncoder() {
+        this(null);
+    }
+
+    /**
+     * Creates a Frames Encoder which takes the buffers for the frame
+     * headers and control frames from the given pool. The buffers are
+     * returned to the pool when their references are cleared, after
+     * they have been written.
+     *
+     * @param pool the pool, or null to allocate every buffer
+     */
+    public FramesEncoder(ByteBufferPool pool) {
+        this.pool = pool;
     }
 
     public ByteBufferReference[] encodeFrames(List<HeaderFrame> frames) {
@@ -55,7 +71,9 @@ public class FramesEncoder {
 
     public ByteBufferReference encodeConnectionPreface(byte[] preface, SettingsFrame frame) {
         final int length = frame.length();
-        ByteBufferReference ref = getBuffer(Http2Frame.FRAME_HEADER_SIZE + length + preface.length);
+        // sent once, by a write which does not release it: not pooled
+        ByteBufferReference ref = ByteBufferReference.of(
+                ByteBuffer.allocate(Http2Frame.FRAME_HEADER_SIZE + length + preface.length));
         ByteBuffer buf = ref.get();
         buf.put(preface);
         putSettingsFrame(buf, frame, length);
@@ -288,6 +306,10 @@ public class FramesEncoder {
     }
 
     private ByteBufferReference getBuffer(int capacity) {
+        if (pool != null) {
+            // may be larger than requested, all encoders flip the buffer
+            return pool.get(capacity);
+        }
         return ByteBufferReference.of(ByteBuffer.allocate(capacity));
     }
 
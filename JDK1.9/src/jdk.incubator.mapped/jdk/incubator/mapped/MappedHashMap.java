@@ -0,0 +1,612 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package jdk.incubator.mapped;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * A hash map from byte sequences to byte sequences, stored in a file that is
+ * mapped into memory.  The entries live outside of the Java heap and survive
+ * the process: {@link #open open} maps an existing file without reading it,
+ * and the operating system pages the table and the entries in as lookups
+ * touch them.
+ * {@Incubating}
+ *
+ * <p> The map is created with a fixed capacity, a maximum number of
+ * entries and a number of bytes for their keys and values, and the file is
+ * sized accordingly.  It is divided into segments, each with its own open
+ * addressing table and data area, and each mapped with
+ * {@link FileChannel#map FileChannel.map}.  The bytes of an entry are
+ * written once and never modified: replacing the value of a key appends a
+ * new entry, and removing a key leaves a marker in the table, so neither
+ * returns space to the map.  A map that is rewritten heavily should be
+ * rebuilt into a new file from time to time.
+ *
+ * <p> Lookups do not lock.  A writer completes a new entry before it
+ * publishes it by a release store into the table, and readers load table
+ * slots with acquire semantics, so a reader sees either the previous or
+ * the new entry, and always a complete one.  Writers lock the segment of
+ * the key only, so writers of different segments proceed in parallel.
+ * Iteration is weakly consistent.  A map file must not be modified by more
+ * than one process at a time; other processes may have it open for
+ * reading.
+ *
+ * <p> Modifications reach the file through the shared mapping as they are
+ * made.  They are only guaranteed to be durable on the storage device once
+ * {@link #force} has returned.
+ *
+ * <h3> File format </h3>
+ *
+ * <p> The file starts with a 4096 byte header holding the magic number,
+ * the format version, the number and the size of the segments and the
+ * number of table slots of each segment, followed by the segments, each a
+ * multiple of 4096 bytes long.  A segment holds the number of live
+ * entries, the number of used slots and the end of its data area,
+ * followed by its table and its data area.  A
+ * table slot is a long holding the upper half of the hash of the key and
+ * the position of the entry in the segment; an entry is the length of its
+ * key, the length of its value and the bytes of both.  All numbers are big
+ * endian.  Keys are hashed by a 64-bit function of their bytes that is
+ * part of the format.
+ *
+ * @since 10
+ */
+public final class MappedHashMap implements Closeable {
+
+    // File header
+    private static final long MAGIC = 0x4d61707065644d70L; // "MappedMp"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4096;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 8;
+    private static final int H_SEGMENTS = 12;
+    private static final int H_SEGMENT_SIZE = 16;
+    private static final int H_SLOTS = 20;
+
+    // Segment header
+    private static final int S_COUNT = 0;      // live entries
+    private static final int S_USED = 4;       // used slots, including removed
+    private static final int S_TOP = 8;        // end of the data area in use
+    private static final int S_TABLE = 64;     // start of the table
+
+    /** The offset in a slot of a removed entry. */
+    private static final int REMOVED = -1;
+
+    /** The size of the header of an entry. */
+    private static final int ENTRY_HEADER = 8;
+
+    private static final int MIN_SEGMENTS = 16;
+    private static final int MAX_SEGMENT_SIZE = 1 << 30;
+
+    /** Table slots and numbers in a segment. */
+    private static final VarHandle SLOT =
+        MethodHandles.byteBufferViewVarHandle(long[].class,
+                                              ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT =
+        MethodHandles.byteBufferViewVarHandle(int[].class,
+                                              ByteOrder.BIG_ENDIAN);
+
+    /** Keys, compared and hashed eight bytes at a time. */
+    private static final VarHandle BUFFER_LONGS =
+        MethodHandles.byteBufferViewVarHandle(long[].class,
+                                              ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle ARRAY_LONGS =
+        MethodHandles.byteArrayViewVarHandle(long[].class,
+                                             ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final boolean readOnly;
+    private final Segment[] segments;
+    private final int segmentShift;
+    private volatile boolean closed;
+
+    /**
+     * A segment: a mapped region holding a table and a data area, and the
+     * lock of its writers.
+     */
+    private static final class Segment extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        final MappedByteBuffer buf;
+        final int slotMask;
+        final int threshold;
+
+        Segment(MappedByteBuffer buf, int slots) {
+            this.buf = buf;
+            this.slotMask = slots - 1;
+            this.threshold = slots - (slots >>> 2);
+        }
+    }
+
+    private MappedHashMap(FileChannel channel, boolean readOnly,
+                          int nsegments, int segmentSize, int slots)
+        throws IOException
+    {
+        this.channel = channel;
+        this.readOnly = readOnly;
+        FileChannel.MapMode mode = readOnly ?
+            FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+        segments = new Segment[nsegments];
+        for (int i = 0; i < nsegments; i++) {
+            long pos = HEADER_SIZE + (long) i * segmentSize;
+            segments[i] = new Segment(channel.map(mode, pos, segmentSize),
+                                      slots);
+        }
+        segmentShift = Integer.numberOfTrailingZeros(nsegments);
+    }
+
+    /**
+     * Creates a new map file, or replaces an existing one, able to hold
+     * the given number of entries with the given total size of keys and
+     * values.  The space is distributed over the segments by the hash of
+     * the keys, so a map may fill up slightly before either limit is
+     * reached.
+     *
+     * @param  path the file
+     * @param  maxEntries the maximum number of entries
+     * @param  dataSize the total number of bytes of all keys and values
+     * @return a new empty map, open for reading and writing
+     * @throws IllegalArgumentException if {@code maxEntries} or
+     *         {@code dataSize} is negative, or if the map would be too large
+     * @throws IOException if an I/O error occurs
+     */
+    public static MappedHashMap create(Path path, long maxEntries,
+                                       long dataSize)
+        throws IOException
+    {
+        if (maxEntries < 0 || dataSize < 0)
+            throw new IllegalArgumentException("negative capacity");
+        long totalSlots = Math.max(1L, maxEntries + (maxEntries >>> 1));
+        long totalData = dataSize + maxEntries * ENTRY_HEADER;
+        int nsegments = MIN_SEGMENTS;
+        int slots;
+        long segmentSize;
+        for (;; nsegments <<= 1) {
+            if (nsegments > 1 << 16)
+                throw new IllegalArgumentException("map too large");
+            long s = (totalSlots + nsegments - 1) / nsegments;
+            if (s > MAX_SEGMENT_SIZE >>> 4)
+                continue;
+            slots = Integer.highestOneBit((int) Math.max(2L, s - 1)) << 1;
+            // room for uneven distribution of keys over the segments
+            long data = (totalData + nsegments - 1) / nsegments;
+            data += (data >>> 3) + (1 << 16);
+            // whole pages, so that the table of every segment is aligned
+            segmentSize = (S_TABLE + ((long) slots << 3) + data +
+                           HEADER_SIZE - 1) & -HEADER_SIZE;
+            if (segmentSize <= MAX_SEGMENT_SIZE)
+                break;
+        }
+
+        FileChannel ch = FileChannel.open(path,
+                                          StandardOpenOption.CREATE,
+                                          StandardOpenOption.TRUNCATE_EXISTING,
+                                          StandardOpenOption.READ,
+                                          StandardOpenOption.WRITE);
+        try {
+            long size = HEADER_SIZE + nsegments * segmentSize;
+            ch.write(ByteBuffer.allocate(1), size - 1);
+            MappedHashMap map = new MappedHashMap(ch, false, nsegments,
+                                                  (int) segmentSize, slots);
+            for (Segment seg : map.segments) {
+                INT.set(seg.buf, S_TOP, S_TABLE + (slots << 3));
+            }
+            map.force();
+            // the magic number goes last, to mark the file complete
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(H_VERSION, VERSION)
+                  .putInt(H_SEGMENTS, nsegments)
+                  .putInt(H_SEGMENT_SIZE, (int) segmentSize)
+                  .putInt(H_SLOTS, slots);
+            ch.write(header, 0);
+            ch.write(ByteBuffer.allocate(8).putLong(0, MAGIC), H_MAGIC);
+            ch.force(true);
+            return map;
+        } catch (Throwable t) {
+            ch.close();
+            throw t;
+        }
+    }
+
+    /**
+     * Opens an existing map file.  Only the header is read; the segments
+     * are mapped and paged in on demand.
+     *
+     * @param  path the file
+     * @param  readOnly whether the map is opened for reading only
+     * @return the map
+     * @throws IOException if an I/O error occurs, or if the file is not a
+     *         map file of a supported version
+     */
+    public static MappedHashMap open(Path path, boolean readOnly)
+        throws IOException
+    {
+        FileChannel ch = readOnly ?
+            FileChannel.open(path, StandardOpenOption.READ) :
+            FileChannel.open(path, StandardOpenOption.READ,
+                             StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(24);
+            while (header.hasRemaining()) {
+                if (ch.read(header, header.position()) < 0)
+                    throw new IOException("not a map file: " + path);
+            }
+            if (header.getLong(H_MAGIC) != MAGIC)
+                throw new IOException("not a map file: " + path);
+            int version = header.getInt(H_VERSION);
+            if (version != VERSION)
+                throw new IOException("unsupported map file version " +
+                                      version + ": " + path);
+            int nsegments = header.getInt(H_SEGMENTS);
+            int segmentSize = header.getInt(H_SEGMENT_SIZE);
+            int slots = header.getInt(H_SLOTS);
+            if (Integer.bitCount(nsegments) != 1 ||
+                Integer.bitCount(slots) != 1 ||
+                segmentSize % HEADER_SIZE != 0 ||
+                segmentSize < S_TABLE + ((long) slots << 3) ||
+                ch.size() < HEADER_SIZE + (long) nsegments * segmentSize)
+                throw new IOException("corrupt map file: " + path);
+            return new MappedHashMap(ch, readOnly, nsegments, segmentSize,
+                                     slots);
+        } catch (Throwable t) {
+            ch.close();
+            throw t;
+        }
+    }
+
+    /**
+     * Returns the hash of the given key.  This function is part of the
+     * file format.
+     */
+    static long hash(byte[] key) {
+        int n = key.length, i = 0;
+        long h = n * 0x9e3779b97f4a7c15L;
+        for (; i <= n - 8; i += 8) {
+            h = (h ^ (long) ARRAY_LONGS.get(key, i)) * 0xff51afd7ed558ccdL;
+            h ^= h >>> 29;
+        }
+        long tail = 0;
+        for (int shift = 0; i < n; i++, shift += 8) {
+            tail |= (key[i] & 0xffL) << shift;
+        }
+        h = (h ^ tail) * 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private Segment segmentFor(long h) {
+        return segments[(int) h & (segments.length - 1)];
+    }
+
+    private int firstSlot(Segment seg, long h) {
+        return (int) (h >>> segmentShift) & seg.slotMask;
+    }
+
+    private static int slotPosition(int i) {
+        return S_TABLE + (i << 3);
+    }
+
+    /**
+     * Returns true if the entry at the given position has the given key.
+     */
+    private static boolean keyEquals(ByteBuffer buf, int pos, byte[] key) {
+        int n = key.length;
+        if ((int) INT.get(buf, pos) != n)
+            return false;
+        pos += ENTRY_HEADER;
+        int i = 0;
+        for (; i <= n - 8; i += 8) {
+            if ((long) BUFFER_LONGS.get(buf, pos + i) !=
+                (long) ARRAY_LONGS.get(key, i))
+                return false;
+        }
+        for (; i < n; i++) {
+            if (buf.get(pos + i) != key[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the position of the entry of the given key, or -1.  Does not
+     * lock.
+     */
+    private int find(Segment seg, byte[] key, long h) {
+        ByteBuffer buf = seg.buf;
+        int mask = seg.slotMask, tag = (int) (h >>> 32);
+        for (int i = firstSlot(seg, h), n = 0; n <= mask;
+             i = (i + 1) & mask, n++) {
+            long slot = (long) SLOT.getAcquire(buf, slotPosition(i));
+            if (slot == 0L)
+                break;
+            int pos = (int) slot;
+            if (pos != REMOVED && (int) (slot >>> 32) == tag &&
+                keyEquals(buf, pos, key))
+                return pos;
+        }
+        return -1;
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("map closed");
+    }
+
+    private void ensureWritable() {
+        ensureOpen();
+        if (readOnly)
+            throw new UnsupportedOperationException("map opened read-only");
+    }
+
+    /**
+     * Returns {@code true} if this map contains an entry for the given key.
+     *
+     * @param  key the key
+     * @return {@code true} if this map contains an entry for the key
+     * @throws IllegalStateException if the map has been closed
+     */
+    public boolean containsKey(byte[] key) {
+        ensureOpen();
+        long h = hash(key);
+        return find(segmentFor(h), key, h) >= 0;
+    }
+
+    /**
+     * Returns a copy of the value of the given key, or {@code null} if this
+     * map contains no entry for the key.
+     *
+     * @param  key the key
+     * @return the value of the key, or {@code null}
+     * @throws IllegalStateException if the map has been closed
+     */
+    public byte[] get(byte[] key) {
+        ensureOpen();
+        long h = hash(key);
+        Segment seg = segmentFor(h);
+        int pos = find(seg, key, h);
+        if (pos < 0)
+            return null;
+        ByteBuffer buf = seg.buf.duplicate();
+        byte[] value = new byte[(int) INT.get(buf, pos + 4)];
+        buf.position(pos + ENTRY_HEADER + (int) INT.get(buf, pos));
+        buf.get(value);
+        return value;
+    }
+
+    /**
+     * Returns a read-only buffer over the value of the given key in the
+     * mapped file, or {@code null} if this map contains no entry for the
+     * key.  The buffer is not affected by later modifications of the map.
+     *
+     * @param  key the key
+     * @return a read-only buffer over the value of the key, or {@code null}
+     * @throws IllegalStateException if the map has been closed
+     */
+    public ByteBuffer getBuffer(byte[] key) {
+        ensureOpen();
+        long h = hash(key);
+        Segment seg = segmentFor(h);
+        int pos = find(seg, key, h);
+        return (pos < 0) ? null : slice(seg.buf,
+            pos + ENTRY_HEADER + (int) INT.get(seg.buf, pos),
+            (int) INT.get(seg.buf, pos + 4));
+    }
+
+    private static ByteBuffer slice(ByteBuffer buf, int pos, int len) {
+        ByteBuffer b = buf.duplicate();
+        b.position(pos);
+        b.limit(pos + len);
+        return b.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Associates the given value with the given key, replacing the value
+     * the key had, if any.  The arrays are copied into the mapped file.
+     *
+     * @param  key the key
+     * @param  value the value
+     * @throws IllegalStateException if the map has been closed, or if the
+     *         segment of the key has no room for the entry
+     * @throws UnsupportedOperationException if the map was opened read-only
+     */
+    public void put(byte[] key, byte[] value) {
+        ensureWritable();
+        Objects.requireNonNull(value);
+        long h = hash(key);
+        Segment seg = segmentFor(h);
+        ByteBuffer buf = seg.buf;
+        int mask = seg.slotMask, tag = (int) (h >>> 32);
+        seg.lock();
+        try {
+            int i = firstSlot(seg, h);
+            boolean replace = false;
+            for (int n = 0; n <= mask; i = (i + 1) & mask, n++) {
+                long slot = (long) SLOT.get(buf, slotPosition(i));
+                if (slot == 0L)
+                    break;
+                int pos = (int) slot;
+                if (pos != REMOVED && (int) (slot >>> 32) == tag &&
+                    keyEquals(buf, pos, key)) {
+                    replace = true;
+                    break;
+                }
+            }
+            int used = (int) INT.get(buf, S_USED);
+            if (!replace && used >= seg.threshold)
+                throw new IllegalStateException("map segment full");
+            int pos = append(seg, key, value);
+            SLOT.setRelease(buf, slotPosition(i),
+                            ((long) tag << 32) | (pos & 0xffffffffL));
+            if (!replace) {
+                INT.set(buf, S_USED, used + 1);
+                INT.setRelease(buf, S_COUNT, (int) INT.get(buf, S_COUNT) + 1);
+            }
+        } finally {
+            seg.unlock();
+        }
+    }
+
+    /**
+     * Writes a new entry into the data area of the given locked segment
+     * and returns its position.
+     */
+    private static int append(Segment seg, byte[] key, byte[] value) {
+        ByteBuffer buf = seg.buf;
+        int top = (int) INT.get(buf, S_TOP);
+        long end = (long) top + ENTRY_HEADER + key.length + value.length;
+        if (end > buf.capacity())
+            throw new IllegalStateException("map segment full");
+        INT.set(buf, top, key.length);
+        INT.set(buf, top + 4, value.length);
+        ByteBuffer b = buf.duplicate();
+        b.position(top + ENTRY_HEADER);
+        b.put(key).put(value);
+        INT.set(buf, S_TOP, (int) end);
+        return top;
+    }
+
+    /**
+     * Removes the entry of the given key, if any.
+     *
+     * @param  key the key
+     * @return {@code true} if this map contained an entry for the key
+     * @throws IllegalStateException if the map has been closed
+     * @throws UnsupportedOperationException if the map was opened read-only
+     */
+    public boolean remove(byte[] key) {
+        ensureWritable();
+        long h = hash(key);
+        Segment seg = segmentFor(h);
+        ByteBuffer buf = seg.buf;
+        int mask = seg.slotMask, tag = (int) (h >>> 32);
+        seg.lock();
+        try {
+            for (int i = firstSlot(seg, h), n = 0; n <= mask;
+                 i = (i + 1) & mask, n++) {
+                long slot = (long) SLOT.get(buf, slotPosition(i));
+                if (slot == 0L)
+                    break;
+                int pos = (int) slot;
+                if (pos != REMOVED && (int) (slot >>> 32) == tag &&
+                    keyEquals(buf, pos, key)) {
+                    // keep the slot used, so that probing goes past it
+                    SLOT.setRelease(buf, slotPosition(i),
+                                    ((long) tag << 32) | 0xffffffffL);
+                    INT.setRelease(buf, S_COUNT,
+                                   (int) INT.get(buf, S_COUNT) - 1);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            seg.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries in this map.
+     *
+     * @return the number of entries in this map
+     * @throws IllegalStateException if the map has been closed
+     */
+    public long size() {
+        ensureOpen();
+        long n = 0;
+        for (Segment seg : segments) {
+            n += (int) INT.getAcquire(seg.buf, S_COUNT);
+        }
+        return n;
+    }
+
+    /**
+     * Performs the given action for each entry of this map, with read-only
+     * buffers over the key and the value in the mapped file.  The iteration
+     * is weakly consistent: entries added or removed while it is in
+     * progress may or may not be seen.
+     *
+     * @param  action the action to be performed for each entry
+     * @throws IllegalStateException if the map has been closed
+     */
+    public void forEach(BiConsumer<? super ByteBuffer, ? super ByteBuffer> action) {
+        Objects.requireNonNull(action);
+        ensureOpen();
+        for (Segment seg : segments) {
+            ByteBuffer buf = seg.buf;
+            for (int i = 0; i <= seg.slotMask; i++) {
+                long slot = (long) SLOT.getAcquire(buf, slotPosition(i));
+                int pos = (int) slot;
+                if (slot != 0L && pos != REMOVED) {
+                    int klen = (int) INT.get(buf, pos);
+                    int vlen = (int) INT.get(buf, pos + 4);
+                    action.accept(slice(buf, pos + ENTRY_HEADER, klen),
+                                  slice(buf, pos + ENTRY_HEADER + klen, vlen));
+                }
+            }
+        }
+    }
+
+    /**
+     * Forces the modifications of this map to be written to the storage
+     * device containing the file.
+     *
+     * @throws IllegalStateException if the map has been closed
+     */
+    public void force() {
+        ensureOpen();
+        if (!readOnly) {
+            for (Segment seg : segments) {
+                seg.buf.force();
+            }
+        }
+    }
+
+    /**
+     * Closes this map and its file.  Modifications are not forced to the
+     * storage device.  The mapped memory is released once the map and all
+     * buffers returned by it are no longer reachable.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/**
+ * <h2>Memory-mapped persistent maps</h2>
+ * {@Incubating}
+ *
+ * <p> Provides {@link jdk.incubator.mapped.MappedHashMap}, a hash map from
+ * byte sequences to byte sequences whose table and data live in a file
+ * mapped into memory.  Opening an existing map only maps the file; its
+ * pages are read on demand as lookups touch them, and the entries do not
+ * occupy the Java heap.
+ *
+ * <p> Unless otherwise stated, {@code null} parameter values will cause
+ * methods of all classes in this package to throw
+ * {@code NullPointerException}.
+ *
+ * @since 10
+ */
+package jdk.incubator.mapped;
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+/**
+ * Defines an off-heap hash map persisted in a memory-mapped file.
+ * {@Incubating}
+ *
+ * @moduleGraph
+ * @since 10
+ */
+module jdk.incubator.mapped {
+    exports jdk.incubator.mapped;
+}
@@ -44,6 +44,8 @@ import java.security.PrivilegedAction;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
@@ -75,6 +77,8 @@ class ZipFileSystem extends FileSystem {
     // configurable by env map
     private final boolean useTempFile;   // use a temp file for newOS, default
                                          // is to use BAOS for better performance
+    private final boolean useMappedFile; // map small zip files, default is to
+                                         // read them with positional reads
     private boolean readOnly = false;    // readonly file system
     private static final boolean isWindows = AccessController.doPrivileged(
             (PrivilegedAction<Boolean>) () -> System.getProperty("os.name")
@@ -91,6 +95,8 @@ class ZipFileSystem extends FileSystem {
                               (String)env.get("encoding") : "UTF-8";
         this.noExtt = "false".equals(env.get("zipinfo-time"));
         this.useTempFile  = TRUE.equals(env.get("useTempFile"));
+        Object mapped = env.get("useMappedFile");
+        this.useMappedFile = TRUE.equals(mapped) || "true".equals(mapped);
         this.provider = provider;
         this.zfpath = zfpath;
         if (Files.notExists(zfpath)) {
@@ -111,6 +117,7 @@ class ZipFileSystem extends FileSystem {
         this.rootdir = new ZipPath(this, new byte[]{'/'});
         this.ch = Files.newByteChannel(zfpath, READ);
         try {
+            this.mapped = mapFile();
             this.cen = initCEN();
         } catch (IOException x) {
             try {
@@ -273,14 +280,13 @@ class ZipFileSystem extends FileSystem {
             endWrite();
         }
 
-        synchronized (inflaters) {
-            for (Inflater inf : inflaters)
-                inf.end();
-        }
-        synchronized (deflaters) {
-            for (Deflater def : deflaters)
-                def.end();
-        }
+        mapped = null;
+        Inflater inf;
+        while ((inf = inflaters.poll()) != null)
+            inf.end();
+        Deflater def;
+        while ((def = deflaters.poll()) != null)
+            def.end();
 
         IOException ioe = null;
         synchronized (tmppaths) {
@@ -919,6 +925,7 @@ class ZipFileSystem extends FileSystem {
 
     private volatile boolean isOpen = true;
     private final SeekableByteChannel ch; // channel to the zipfile
+    private MappedByteBuffer mapped;      // the whole zipfile, if mapped
     final byte[]  cen;     // CEN & ENDHDR
     private END  end;
     private long locpos;   // position of first LOC header (usually 0)
@@ -956,11 +963,53 @@ class ZipFileSystem extends FileSystem {
     private final long readFullyAt(ByteBuffer bb, long pos)
         throws IOException
     {
-        synchronized(ch) {
-            return ch.position(pos).read(bb);
+        return readAt(ch, bb, pos);
+    }
+
+    // Reads from the specified channel at the specified position. Uses the
+    // mapping of the file, or a positional read, when possible so that
+    // concurrent readers do not contend on the position of the channel.
+    private long readAt(SeekableByteChannel zfch, ByteBuffer bb, long pos)
+        throws IOException
+    {
+        MappedByteBuffer mbb = this.mapped;
+        if (mbb != null && zfch == ch) {
+            if (pos >= mbb.capacity())
+                return -1;
+            ByteBuffer src = mbb.duplicate();
+            src.position((int)pos);
+            if (src.remaining() > bb.remaining())
+                src.limit((int)pos + bb.remaining());
+            int n = src.remaining();
+            bb.put(src);
+            return n;
+        }
+        if (zfch instanceof FileChannel) {
+            return ((FileChannel)zfch).read(bb, pos);
+        }
+        synchronized(zfch) {
+            return zfch.position(pos).read(bb);
         }
     }
 
+    // Zip files up to this size are mapped if "useMappedFile" is set.
+    private static final long MAX_MAPPED_SIZE = 64 * 1024 * 1024;
+
+    // Maps the zip file if requested and small enough. On Windows a mapped
+    // file cannot be replaced, so a writable zip file is never mapped there.
+    private MappedByteBuffer mapFile() throws IOException {
+        if (!useMappedFile || !(ch instanceof FileChannel) ||
+            (isWindows && !readOnly)) {
+            return null;
+        }
+        FileChannel fch = (FileChannel)ch;
+        long size = fch.size();
+        if (size == 0 || size > MAX_MAPPED_SIZE) {
+            return null;
+        }
+        return fch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+
     // Searches for end of central directory (END) header. The contents of
     // the END header will be read and placed in endbuf. Returns the file
     // position of the END header, otherwise returns -1 if the END header
@@ -1491,9 +1540,7 @@ class ZipFileSystem extends FileSystem {
             ByteBuffer bb = ByteBuffer.wrap(b);
             bb.position(off);
             bb.limit(off + len);
-            synchronized(zfch) {
-                n = zfch.position(pos).read(bb);
-            }
+            n = readAt(zfch, bb, pos);
             if (n > 0) {
                 pos += n;
                 rem -= n;
@@ -1637,61 +1684,55 @@ class ZipFileSystem extends FileSystem {
 
     // Maxmum number of de/inflater we cache
     private final int MAX_FLATER = 20;
-    // List of available Inflater objects for decompression
-    private final List<Inflater> inflaters = new ArrayList<>();
+    // Available Inflater objects for decompression, and their number
+    private final Queue<Inflater> inflaters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inflaterCount = new AtomicInteger();
 
     // Gets an inflater from the list of available inflaters or allocates
     // a new one.
     private Inflater getInflater() {
-        synchronized (inflaters) {
-            int size = inflaters.size();
-            if (size > 0) {
-                Inflater inf = inflaters.remove(size - 1);
-                return inf;
-            } else {
-                return new Inflater(true);
-            }
+        Inflater inf = inflaters.poll();
+        if (inf != null) {
+            inflaterCount.decrementAndGet();
+            return inf;
         }
+        return new Inflater(true);
     }
 
     // Releases the specified inflater to the list of available inflaters.
     private void releaseInflater(Inflater inf) {
-        synchronized (inflaters) {
-            if (inflaters.size() < MAX_FLATER) {
-                inf.reset();
-                inflaters.add(inf);
-            } else {
-                inf.end();
-            }
+        if (inflaterCount.incrementAndGet() <= MAX_FLATER) {
+            inf.reset();
+            inflaters.offer(inf);
+        } else {
+            inflaterCount.decrementAndGet();
+            inf.end();
         }
     }
 
-    // List of available Deflater objects for compression
-    private final List<Deflater> deflaters = new ArrayList<>();
+    // Available Deflater objects for compression, and their number
+    private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger deflaterCount = new AtomicInteger();
 
     // Gets an deflater from the list of available deflaters or allocates
     // a new one.
     private Deflater getDeflater() {
-        synchronized (deflaters) {
-            int size = deflaters.size();
-            if (size > 0) {
-                Deflater def = deflaters.remove(size - 1);
-                return def;
-            } else {
-                return new Deflater(Deflater.DEFAULT_COMPRESSION, true);
-            }
+        Deflater def = deflaters.poll();
+        if (def != null) {
+            deflaterCount.decrementAndGet();
+            return def;
         }
+        return new Deflater(Deflater.DEFAULT_COMPRESSION, true);
     }
 
-    // Releases the specified inflater to the list of available inflaters.
+    // Releases the specified deflater to the list of available deflaters.
     private void releaseDeflater(Deflater def) {
-        synchronized (deflaters) {
-            if (inflaters.size() < MAX_FLATER) {
-               def.reset();
-               deflaters.add(def);
-            } else {
-               def.end();
-            }
+        if (deflaterCount.incrementAndGet() <= MAX_FLATER) {
+            def.reset();
+            deflaters.offer(def);
+        } else {
+            deflaterCount.decrementAndGet();
+            def.end();
         }
     }
 